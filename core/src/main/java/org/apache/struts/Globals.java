@@ -81,6 +81,27 @@ public class Globals implements Serializable {
     public static final String MODULE_PREFIXES_KEY =
         "org.apache.struts.globals.MODULE_PREFIXES";
 
+    /**
+     * <p>The context attributes key under which the
+     * <code>ModuleRouteTable</code> is stored. It resolves the module of a
+     * request together with its <code>ModuleConfig</code>,
+     * <code>MessageResources</code> and <code>RequestProcessor</code>.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String MODULE_ROUTES_KEY =
+        "org.apache.struts.globals.MODULE_ROUTES";
+
+    /**
+     * <p>The context attributes key under which the
+     * <code>RequestMetrics</code> of the controller servlet are stored, if
+     * metrics are enabled.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String METRICS_KEY =
+        "org.apache.struts.globals.METRICS";
+
     /**
      * The request attribute under which we store the original URI of the
      * request.
@@ -0,0 +1,255 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>The set of <code>Action</code> instances that have been created and
+ * initialized for a module, keyed by the fully qualified Java class name of
+ * the <code>Action</code> class.</p>
+ *
+ * <p>Looking up an existing instance never locks. An instance which does
+ * not exist yet is created exactly once, while holding a lock private to
+ * its class name, so that slow actions do not delay the creation of
+ * others.</p>
+ *
+ * <p>Code written for earlier versions may still use the plain maps in
+ * which the instances used to be kept: <code>RequestProcessor.actions</code>
+ * and the map stored by the chain in application scope under
+ * <code>Constants.ACTIONS_KEY</code>. Such a map can be passed as the
+ * <em>legacy map</em> of {@link #getAction(String, Map, ActionFactory)}
+ * and {@link #preload(ModuleConfig, boolean, Map, ActionFactory)}: a
+ * missing instance is first taken from it, and a new instance is added to
+ * it, both while holding the lock of the map, so that code which
+ * synchronizes on the map keeps working. Instances removed from or
+ * replaced in the legacy map after they have been registered are not seen
+ * by the registry.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class ActionRegistry implements Serializable {
+    private static final long serialVersionUID = -2616364536211624651L;
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(ActionRegistry.class);
+
+    /**
+     * The <code>Action</code> instances, keyed by their class name.
+     */
+    private final ConcurrentHashMap<String, Action> actions =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The locks guarding the creation of new instances, keyed by the class
+     * name of the instance being created.
+     */
+    private final ConcurrentHashMap<String, Object> createLocks =
+        new ConcurrentHashMap<>();
+
+    /**
+     * <p>Return the existing <code>Action</code> instance of the specified
+     * class.</p>
+     *
+     * @param type The fully qualified class name of the Action
+     * @return The existing instance or <code>null</code>
+     */
+    public Action findAction(String type) {
+        return actions.get(type);
+    }
+
+    /**
+     * <p>Return the <code>Action</code> instance of the specified class,
+     * creating it with the given factory if necessary.</p>
+     *
+     * @param type    The fully qualified class name of the Action
+     * @param factory The factory creating a missing instance
+     * @return The <code>Action</code> instance
+     * @throws Exception if thrown by the factory
+     */
+    public Action getAction(String type, ActionFactory factory)
+        throws Exception {
+        return getAction(type, null, factory);
+    }
+
+    /**
+     * <p>Return the <code>Action</code> instance of the specified class,
+     * taking it from the legacy map or creating it with the given factory
+     * if necessary.</p>
+     *
+     * @param type    The fully qualified class name of the Action
+     * @param legacy  The legacy map kept in step with this registry, or
+     *                <code>null</code>
+     * @param factory The factory creating a missing instance
+     * @return The <code>Action</code> instance
+     * @throws Exception if thrown by the factory
+     */
+    public Action getAction(String type, Map<String, Action> legacy,
+        ActionFactory factory)
+        throws Exception {
+        Action action = actions.get(type);
+
+        if (action == null) {
+            Object lock = createLocks.computeIfAbsent(type,
+                k -> new Object[0]);
+
+            synchronized (lock) {
+                action = actions.get(type);
+
+                if (action == null) {
+                    action = createAction(type, legacy, factory);
+                    actions.put(type, action);
+
+                    // Later callers find the instance without the lock
+                    createLocks.remove(type, lock);
+                }
+            }
+        }
+
+        return action;
+    }
+
+    /**
+     * <p>Create the <code>Action</code> instances of all actions of the
+     * specified module in advance. Failures are logged and left to the
+     * lazy creation of the first request.</p>
+     *
+     * @param moduleConfig   The module whose actions should be created
+     * @param singletonsOnly <code>true</code> to skip actions which are not
+     *                       declared as singletons
+     * @param factory        The factory creating the instances
+     */
+    public void preload(ModuleConfig moduleConfig, boolean singletonsOnly,
+        ActionFactory factory) {
+        preload(moduleConfig, singletonsOnly, null, factory);
+    }
+
+    /**
+     * <p>Create the <code>Action</code> instances of all actions of the
+     * specified module in advance, keeping the legacy map in step. Failures
+     * are logged and left to the lazy creation of the first request.</p>
+     *
+     * @param moduleConfig   The module whose actions should be created
+     * @param singletonsOnly <code>true</code> to skip actions which are not
+     *                       declared as singletons
+     * @param legacy         The legacy map kept in step with this registry,
+     *                       or <code>null</code>
+     * @param factory        The factory creating the instances
+     */
+    public void preload(ModuleConfig moduleConfig, boolean singletonsOnly,
+        Map<String, Action> legacy, ActionFactory factory) {
+        for (ActionConfig actionConfig : moduleConfig.findActionConfigs()) {
+            String type = actionConfig.getType();
+
+            if ((type == null) || (singletonsOnly && !actionConfig.isSingleton())) {
+                continue;
+            }
+
+            try {
+                getAction(type, legacy, factory);
+            } catch (Exception e) {
+                LOG.warn("Unable to preload action of type {} for path {}",
+                    type, actionConfig.getPath(), e);
+            }
+        }
+    }
+
+    /**
+     * <p>Return all <code>Action</code> instances created so far.</p>
+     *
+     * @return An unmodifiable view of the instances
+     */
+    public Collection<Action> getActions() {
+        return Collections.unmodifiableCollection(actions.values());
+    }
+
+    /**
+     * <p>Return the number of <code>Action</code> instances.</p>
+     *
+     * @return The number of instances
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * <p>Remove all <code>Action</code> instances.</p>
+     */
+    public void clear() {
+        actions.clear();
+    }
+
+    /**
+     * <p>Take a missing instance from the legacy map, or create it and add
+     * it to the legacy map.</p>
+     */
+    private static Action createAction(String type,
+        Map<String, Action> legacy, ActionFactory factory)
+        throws Exception {
+        if (legacy == null) {
+            return factory.createAction(type);
+        }
+
+        Action action;
+
+        synchronized (legacy) {
+            action = legacy.get(type);
+        }
+
+        if (action == null) {
+            action = factory.createAction(type);
+
+            synchronized (legacy) {
+                legacy.put(type, action);
+            }
+        }
+
+        return action;
+    }
+
+    /**
+     * <p>Creates a new <code>Action</code> instance.</p>
+     */
+    @FunctionalInterface
+    public interface ActionFactory {
+
+        /**
+         * <p>Create and initialize a new <code>Action</code> instance.</p>
+         *
+         * @param type The fully qualified class name of the Action
+         * @return The new instance
+         * @throws Exception if the instance cannot be created
+         */
+        Action createAction(String type) throws Exception;
+    }
+}
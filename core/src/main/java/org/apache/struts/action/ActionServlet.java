@@ -20,6 +20,7 @@
  */
 package org.apache.struts.action;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
@@ -28,8 +29,15 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
@@ -62,6 +70,7 @@ import org.apache.struts.chain.ComposableRequestProcessor;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.BaseConfig;
 import org.apache.struts.config.ConfigRuleSet;
+import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.config.FormBeanConfig;
 import org.apache.struts.config.FormPropertyConfig;
@@ -70,9 +79,14 @@ import org.apache.struts.config.MessageResourcesConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.config.ModuleConfigFactory;
 import org.apache.struts.config.ModuleConfigPostProcessor;
+import org.apache.struts.config.ModuleConfigSnapshot;
 import org.apache.struts.config.PlugInConfig;
+import org.apache.struts.metrics.JmxMetricsExporter;
+import org.apache.struts.metrics.MetricsExporter;
+import org.apache.struts.metrics.RequestMetrics;
 import org.apache.struts.util.MessageResources;
 import org.apache.struts.util.MessageResourcesFactory;
+import org.apache.struts.util.ModuleRouteTable;
 import org.apache.struts.util.ModuleUtils;
 import org.apache.struts.util.RequestUtils;
 import org.slf4j.Logger;
@@ -192,6 +206,39 @@ import org.xml.sax.SAXException;
  * <li><strong>validating</strong> - Should we use a validating XML parser to
  * process the configuration file (strongly recommended)? [true]</li>
  *
+ * <li><strong>parallelInit</strong> - Should the modules be initialized in
+ * parallel? If set to true, the configuration files of the modules are
+ * parsed and resolved concurrently, and the <code>RequestProcessor</code>s
+ * of the modules are created concurrently. The modules are still published
+ * and their plug-ins initialized in a deterministic order, and modules with
+ * a <code>ModuleConfigPostProcessor</code> plug-in are resolved one after
+ * another. The setting is ignored if a subclass overrides
+ * <code>initModuleConfig</code> or <code>initConfigDigester</code>, which
+ * the parallel initialization does not call. (Since Struts 1.5.0)
+ * [false]</li>
+ *
+ * <li><strong>configSnapshot</strong> - Directory in which a binary snapshot
+ * of the parsed configuration of each module is kept. A module whose
+ * configuration files, rule sets, validation setting and config bean
+ * classes have not changed since its snapshot was taken is loaded from the
+ * snapshot instead of being parsed again. Reading a snapshot only resolves
+ * configuration classes. The directory must not be writable by untrusted
+ * parties. Snapshots are disabled unless a directory is given. (Since
+ * Struts 1.5.0)</li>
+ *
+ * <li><strong>metrics</strong> - Should the latency, throughput, errors
+ * and requests in progress be measured per action, per
+ * <code>RequestProcessor</code> phase and per command of a compiled
+ * processing chain? (Since Struts 1.5.0) [false]</li>
+ *
+ * <li><strong>metricsSampleRate</strong> - Measure one out of this many
+ * requests, chosen at random. (Since Struts 1.5.0) [1]</li>
+ *
+ * <li><strong>metricsExporters</strong> - Comma-separated list of fully
+ * qualified class names of the <code>MetricsExporter</code>s publishing the
+ * metrics. (Since Struts 1.5.0)
+ * [org.apache.struts.metrics.JmxMetricsExporter]</li>
+ *
  * <li><strong>chainConfig</strong> - Comma-separated list of either
  * context-relative or classloader path(s) to load commons-chain catalog
  * definitions from.  If none specified, the default Struts catalog that is
@@ -264,6 +311,22 @@ public class ActionServlet extends HttpServlet {
      */
     protected MessageResources internal = null;
 
+    /**
+     * <p>The precompiled routes of all modules, available once all modules
+     * have been initialized.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected transient ModuleRouteTable moduleRoutes = null;
+
+    /**
+     * <p>The request metrics, or <code>null</code> if metrics are
+     * disabled.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected transient RequestMetrics metrics = null;
+
     /**
      * <p>The Java base name of our internal resources.</p>
      *
@@ -304,6 +367,28 @@ public class ActionServlet extends HttpServlet {
      */
     protected String servletName = null;
 
+    /**
+     * <p>The flag to initialize the modules in parallel.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected boolean parallelInit = false;
+
+    /**
+     * <p>The directory holding the snapshots of the parsed module
+     * configurations, or <code>null</code> if snapshots are disabled.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected File configSnapshotDir = null;
+
+    /**
+     * <p>The locks guarding the creation of the request processors, keyed by
+     * module prefix.</p>
+     */
+    private final ConcurrentHashMap<String, Object> processorLocks =
+        new ConcurrentHashMap<>();
+
     // ---------------------------------------------------- HttpServlet Methods
 
     /**
@@ -315,10 +400,15 @@ public class ActionServlet extends HttpServlet {
 
         destroyModules();
         destroyInternal();
+        getServletContext().removeAttribute(Globals.MODULE_ROUTES_KEY);
+        moduleRoutes = null;
+        processorLocks.clear();
+        destroyMetrics();
         getServletContext().removeAttribute(Globals.ACTION_SERVLET_KEY);
 
         CatalogFactory.clear();
         PropertyUtils.clearDescriptors();
+        FormPopulator.clearCache();
 
         // Release our LogFactory and Log instances (if any)
         ClassLoader classLoader =
@@ -361,25 +451,23 @@ public class ActionServlet extends HttpServlet {
         // unexpected exceptions and errors to provide better feedback
         // to the developer
         try {
+            StartupTimer timer = new StartupTimer();
+            long start = System.nanoTime();
+
             initInternal();
             initOther();
             initServlet();
             initChain();
+            initMetrics();
 
             getServletContext().setAttribute(Globals.ACTION_SERVLET_KEY, this);
             initModuleConfigFactory();
+            start = timer.record(StartupTimer.SERVLET, start);
 
-            // Initialize modules as needed
-            ModuleConfig moduleConfig = initModuleConfig("", config);
+            // Collect the modules, the default module first
+            List<String[]> modules = new ArrayList<>();
 
-            initModuleMessageResources(moduleConfig);
-            initModulePlugIns(moduleConfig);
-            initModuleFormBeans(moduleConfig);
-            initModuleForwards(moduleConfig);
-            initModuleExceptionConfigs(moduleConfig);
-            initModuleActions(moduleConfig);
-            postProcessConfig(moduleConfig);
-            moduleConfig.freeze();
+            modules.add(new String[] {"", config});
 
             Enumeration<String> names = getServletConfig().getInitParameterNames();
 
@@ -392,22 +480,45 @@ public class ActionServlet extends HttpServlet {
 
                 String prefix = name.substring(configPrefixLength);
 
-                moduleConfig =
-                    initModuleConfig(prefix,
-                        getServletConfig().getInitParameter(name));
-                initModuleMessageResources(moduleConfig);
-                initModulePlugIns(moduleConfig);
-                initModuleFormBeans(moduleConfig);
-                initModuleForwards(moduleConfig);
-                initModuleExceptionConfigs(moduleConfig);
-                initModuleActions(moduleConfig);
-                postProcessConfig(moduleConfig);
-                moduleConfig.freeze();
+                modules.add(new String[] {
+                    prefix, getServletConfig().getInitParameter(name)});
+            }
+
+            if (parallelInit && !isParallelInitSupported()) {
+                log.warn("Ignoring parallelInit, since {} overrides "
+                    + "initModuleConfig or initConfigDigester",
+                    getClass().getName());
+                parallelInit = false;
+            }
+
+            // Initialize modules as needed
+            if (parallelInit && (modules.size() > 1)) {
+                initModulesInParallel(modules, timer);
+            } else {
+                for (String[] module : modules) {
+                    ModuleConfig moduleConfig =
+                        initModuleConfig(module[0], module[1]);
+
+                    start = timer.record(StartupTimer.PARSE, start);
+                    initModuleMessageResources(moduleConfig);
+                    initModulePlugIns(moduleConfig);
+                    start = timer.record(StartupTimer.PLUG_INS, start);
+                    resolveModuleConfig(moduleConfig);
+                    start = timer.record(StartupTimer.RESOLVE, start);
+                }
             }
 
+            start = System.nanoTime();
             this.initModulePrefixes(this.getServletContext());
+            this.initRequestProcessors(this.getServletContext());
+            start = timer.record(StartupTimer.PROCESSORS, start);
+            this.initModuleRoutes(this.getServletContext());
+            timer.record(StartupTimer.ROUTES, start);
 
             this.destroyConfigDigester();
+
+            log.info("Initialized {} module(s) in {} ms ({})", modules.size(),
+                timer.getElapsedMillis(), timer);
         } catch (UnavailableException ex) {
             throw ex;
         } catch (Throwable t) {
@@ -424,6 +535,147 @@ public class ActionServlet extends HttpServlet {
         }
     }
 
+    /**
+     * <p>Initializes the given modules in parallel. The configuration files
+     * of each module are parsed concurrently, each module using its own
+     * <code>Digester</code> created by {@link #createConfigDigester()}. The
+     * modules are then published, and their message resources and plug-ins
+     * initialized, one after another in the given order. Finally the
+     * configurations of all modules are resolved and frozen concurrently.
+     * </p>
+     *
+     * <p>Unlike the sequential initialization, the plug-ins of all modules
+     * are initialized before the configuration of any module is resolved.
+     * Modules with a <code>ModuleConfigPostProcessor</code> plug-in are
+     * resolved one after another in the given order, since post-processors
+     * are not required to be thread-safe; only the other modules are
+     * resolved concurrently.</p>
+     *
+     * @param modules The prefix and configuration paths of each module, the
+     *                default module first
+     * @param timer   The timer recording the duration of each phase
+     * @throws ServletException if initialization cannot be performed
+     */
+    private void initModulesInParallel(List<String[]> modules,
+        StartupTimer timer) throws ServletException {
+        List<ModuleConfig> configs = runModuleTasks(modules, module -> {
+            long start = System.nanoTime();
+            ModuleConfig config = parseModuleConfig(module[0], module[1],
+                createConfigDigester());
+
+            timer.record(StartupTimer.PARSE, start);
+            return config;
+        });
+
+        for (ModuleConfig config : configs) {
+            long start = System.nanoTime();
+
+            publishModuleConfig(config);
+            initModuleMessageResources(config);
+            initModulePlugIns(config);
+            timer.record(StartupTimer.PLUG_INS, start);
+        }
+
+        List<ModuleConfig> concurrent = new ArrayList<>(configs.size());
+
+        for (ModuleConfig config : configs) {
+            if (hasPostProcessors(config)) {
+                long start = System.nanoTime();
+
+                resolveModuleConfig(config);
+                timer.record(StartupTimer.RESOLVE, start);
+            } else {
+                concurrent.add(config);
+            }
+        }
+
+        runModuleTasks(concurrent, config -> {
+            long start = System.nanoTime();
+
+            resolveModuleConfig(config);
+            timer.record(StartupTimer.RESOLVE, start);
+            return config;
+        });
+    }
+
+    /**
+     * <p>Return <code>true</code> if the modules can be initialized in
+     * parallel. The parallel initialization parses the configuration with
+     * {@link #parseModuleConfig} and {@link #createConfigDigester()}, so it
+     * would bypass overrides of {@link #initModuleConfig} and
+     * {@link #initConfigDigester()}.</p>
+     *
+     * @return <code>true</code> if no subclass overrides the
+     *         initialization hooks bypassed by the parallel initialization
+     * @since Struts 1.5.0
+     */
+    protected boolean isParallelInitSupported() {
+        return !overrides("initModuleConfig", String.class, String.class)
+            && !overrides("initConfigDigester");
+    }
+
+    /**
+     * <p>Return <code>true</code> if a subclass of this class declares the
+     * specified method.</p>
+     *
+     * @param name           The name of the method
+     * @param parameterTypes The parameter types of the method
+     * @return <code>true</code> if the method is overridden
+     */
+    private boolean overrides(String name, Class<?>... parameterTypes) {
+        for (Class<?> c = getClass(); c != ActionServlet.class;
+            c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Return <code>true</code> if a plug-in of the specified module is a
+     * <code>ModuleConfigPostProcessor</code>.</p>
+     *
+     * @param moduleConfig The module configuration
+     * @return <code>true</code> if the module has post-processors
+     */
+    private boolean hasPostProcessors(ModuleConfig moduleConfig) {
+        PlugIn[] plugIns = getModulePlugIns(moduleConfig);
+
+        if (plugIns != null) {
+            for (PlugIn plugIn : plugIns) {
+                if (plugIn instanceof ModuleConfigPostProcessor) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * <p>Resolves the inheritance of the form beans, forwards, exception
+     * configs and actions of the specified module, applies the plug-in
+     * post-processors and freezes the configuration.</p>
+     *
+     * @param moduleConfig The module configuration
+     * @throws ServletException if the configuration is invalid
+     * @since Struts 1.5.0
+     */
+    protected void resolveModuleConfig(ModuleConfig moduleConfig)
+        throws ServletException {
+        initModuleFormBeans(moduleConfig);
+        initModuleForwards(moduleConfig);
+        initModuleExceptionConfigs(moduleConfig);
+        initModuleActions(moduleConfig);
+        postProcessConfig(moduleConfig);
+        moduleConfig.freeze();
+    }
+
     /**
      * <p>Saves a String[] of module prefixes in the ServletContext under
      * Globals.MODULE_PREFIXES_KEY.  <strong>NOTE</strong> - the "" prefix for
@@ -456,6 +708,156 @@ public class ActionServlet extends HttpServlet {
         context.setAttribute(Globals.MODULE_PREFIXES_KEY, prefixes);
     }
 
+    /**
+     * <p>Creates and initializes the {@link RequestProcessor} of each module,
+     * so that no request has to wait for its creation. If
+     * <code>parallelInit</code> is set, the processors of different modules
+     * are created concurrently. The module prefixes must have been saved
+     * before.</p>
+     *
+     * @param context The servlet context.
+     * @throws ServletException if a processor cannot be initialized
+     * @since Struts 1.5.0
+     */
+    protected void initRequestProcessors(ServletContext context)
+        throws ServletException {
+        List<ModuleConfig> configs = new ArrayList<>();
+
+        configs.add((ModuleConfig) context.getAttribute(Globals.MODULE_KEY));
+
+        String[] prefixes =
+            (String[]) context.getAttribute(Globals.MODULE_PREFIXES_KEY);
+
+        if (prefixes != null) {
+            for (String prefix : prefixes) {
+                configs.add((ModuleConfig) context.getAttribute(
+                    Globals.MODULE_KEY + prefix));
+            }
+        }
+
+        runModuleTasks(configs, this::getRequestProcessor);
+    }
+
+    /**
+     * <p>Runs a task for each of the given items, either one after another
+     * or, if <code>parallelInit</code> is set, concurrently on a dedicated
+     * <code>ForkJoinPool</code>. The tasks inherit the context class loader
+     * of the calling thread. Returns once all tasks have completed; the
+     * first failure in the order of the items is rethrown.</p>
+     *
+     * @param items The items to process
+     * @param task  The task to run for each item
+     * @param <T>   The type of the items
+     * @param <R>   The type of the results
+     * @return The results of the tasks, in the order of the items
+     * @throws ServletException if a task fails
+     * @since Struts 1.5.0
+     */
+    protected <T, R> List<R> runModuleTasks(List<T> items,
+        ModuleTask<T, R> task) throws ServletException {
+        List<R> results = new ArrayList<>(items.size());
+
+        if (!parallelInit || (items.size() < 2)) {
+            for (T item : items) {
+                try {
+                    results.add(task.run(item));
+                } catch (ServletException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw unavailable(e);
+                }
+            }
+
+            return results;
+        }
+
+        final ClassLoader classLoader =
+            Thread.currentThread().getContextClassLoader();
+        final Object[] outcomes = new Object[items.size()];
+        final Throwable[] failures = new Throwable[items.size()];
+        ForkJoinPool pool = new ForkJoinPool(Math.min(items.size(),
+            Runtime.getRuntime().availableProcessors()));
+
+        try {
+            List<ForkJoinTask<?>> futures = new ArrayList<>(items.size());
+
+            for (int i = 0; i < items.size(); i++) {
+                final int index = i;
+                final T item = items.get(i);
+
+                futures.add(pool.submit(() -> {
+                    Thread thread = Thread.currentThread();
+                    ClassLoader previous = thread.getContextClassLoader();
+
+                    thread.setContextClassLoader(classLoader);
+                    try {
+                        outcomes[index] = task.run(item);
+                    } catch (Throwable t) {
+                        failures[index] = t;
+                    } finally {
+                        thread.setContextClassLoader(previous);
+                    }
+                }));
+            }
+
+            for (ForkJoinTask<?> future : futures) {
+                future.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < outcomes.length; i++) {
+            Throwable failure = failures[i];
+
+            if (failure instanceof ServletException) {
+                throw (ServletException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw unavailable(failure);
+            }
+
+            @SuppressWarnings("unchecked")
+            R result = (R) outcomes[i];
+            results.add(result);
+        }
+
+        return results;
+    }
+
+    /**
+     * <p>Wraps a failure of a module task.</p>
+     *
+     * @param cause The failure
+     * @return The exception marking this servlet as unavailable
+     */
+    private UnavailableException unavailable(Throwable cause) {
+        UnavailableException e = new UnavailableException(cause.toString());
+        e.initCause(cause);
+        return e;
+    }
+
+    /**
+     * <p>Builds the {@link ModuleRouteTable} of all initialized modules and
+     * saves it in the ServletContext under Globals.MODULE_ROUTES_KEY. The
+     * module prefixes must have been saved before.</p>
+     *
+     * @param context The servlet context.
+     * @since Struts 1.5.0
+     */
+    protected void initModuleRoutes(ServletContext context) {
+        String[] prefixes =
+            (String[]) context.getAttribute(Globals.MODULE_PREFIXES_KEY);
+
+        moduleRoutes = new ModuleRouteTable(context,
+            prefixes == null ? new String[0] : prefixes);
+
+        context.setAttribute(Globals.MODULE_ROUTES_KEY, moduleRoutes);
+    }
+
     /**
      * <p>Process an HTTP "GET" request.</p>
      *
@@ -504,6 +906,16 @@ public class ActionServlet extends HttpServlet {
         }
     }
 
+    /**
+     * <p>Return the request metrics of this servlet.</p>
+     *
+     * @return the metrics, or <code>null</code> if metrics are disabled
+     * @since Struts 1.5.0
+     */
+    public RequestMetrics getRequestMetrics() {
+        return metrics;
+    }
+
     /**
      * <p>Return the <code>MessageResources</code> instance containing our
      * internal message strings.</p>
@@ -616,8 +1028,40 @@ public class ActionServlet extends HttpServlet {
      *                          and will not be available.
      * @since Struts 1.1
      */
-    protected synchronized RequestProcessor getRequestProcessor(
+    protected RequestProcessor getRequestProcessor(
         ModuleConfig config) throws ServletException {
+        ModuleRouteTable routes = moduleRoutes;
+
+        if (routes != null) {
+            ModuleRouteTable.Route route = routes.getRoute(config.getPrefix());
+
+            if ((route != null) && (route.getModuleConfig() == config)
+                && (route.getRequestProcessor() != null)) {
+                return route.getRequestProcessor();
+            }
+        }
+
+        Object lock =
+            processorLocks.computeIfAbsent(config.getPrefix(),
+                k -> new Object[0]);
+
+        synchronized (lock) {
+            return createRequestProcessor(config);
+        }
+    }
+
+    /**
+     * <p>Look up and return the {@link RequestProcessor} responsible for the
+     * specified module, creating a new one if necessary. The caller holds
+     * the creation lock of the module.</p>
+     *
+     * @param config The module configuration
+     * @return The {@link RequestProcessor} responsible for the specified
+     *         module
+     * @throws ServletException If we cannot instantiate a RequestProcessor
+     */
+    private RequestProcessor createRequestProcessor(ModuleConfig config)
+        throws ServletException {
         RequestProcessor processor = this.getProcessorForModule(config);
 
         if (processor == null) {
@@ -649,6 +1093,14 @@ public class ActionServlet extends HttpServlet {
             getServletContext().setAttribute(key, processor);
         }
 
+        if (moduleRoutes != null) {
+            ModuleRouteTable.Route route =
+                moduleRoutes.getRoute(config.getPrefix());
+            if ((route != null) && (route.getModuleConfig() == config)) {
+                route.setRequestProcessor(processor);
+            }
+        }
+
         return (processor);
     }
 
@@ -697,25 +1149,125 @@ public class ActionServlet extends HttpServlet {
             prefix, paths);
 
         // Parse the configuration for this module
-        ModuleConfigFactory factoryObject = ModuleConfigFactory.createFactory();
-        ModuleConfig config = factoryObject.createModuleConfig(prefix);
+        ModuleConfig config =
+            parseModuleConfig(prefix, paths, initConfigDigester());
 
-        // Configure the Digester instance we will use
-        Digester digester = initConfigDigester();
+        publishModuleConfig(config);
+
+        return config;
+    }
 
+    /**
+     * <p>Parse the module configuration information for the specified
+     * module, without making it available to the application. If
+     * <code>configSnapshot</code> is set, the configuration is loaded from
+     * its {@link ModuleConfigSnapshot} instead, as long as the configuration
+     * files are unchanged; otherwise the snapshot is refreshed.</p>
+     *
+     * @param prefix   Module prefix for this module
+     * @param paths    Comma-separated list of context-relative resource
+     *                 path(s) for this modules's configuration resource(s)
+     * @param digester The Digester instance to use, which must not be used
+     *                 by another thread at the same time
+     * @return The new module configuration instance.
+     * @throws ServletException if the configuration cannot be parsed
+     * @since Struts 1.5.0
+     */
+    protected ModuleConfig parseModuleConfig(String prefix, String paths,
+        Digester digester) throws ServletException {
         List<URL> urls = splitAndResolvePaths(paths);
 
+        ModuleConfigSnapshot snapshot = null;
+        String checksum = null;
+
+        if (configSnapshotDir != null) {
+            snapshot = new ModuleConfigSnapshot(configSnapshotDir, prefix);
+
+            try {
+                checksum = ModuleConfigSnapshot.checksum(urls,
+                    getSnapshotParameters(prefix));
+            } catch (IOException e) {
+                handleConfigException(paths, e);
+            }
+
+            ModuleConfig config = snapshot.load(checksum);
+
+            if ((config != null) && prefix.equals(config.getPrefix())) {
+                return config;
+            }
+        }
+
+        ModuleConfigFactory factoryObject = ModuleConfigFactory.createFactory();
+        ModuleConfig config = factoryObject.createModuleConfig(prefix);
+
         for (URL url : urls) {
             digester.push(config);
             this.parseModuleConfigFile(digester, url);
         }
 
-        getServletContext().setAttribute(Globals.MODULE_KEY
-            + config.getPrefix(), config);
+        if (snapshot != null) {
+            snapshot.store(checksum, config);
+        }
 
         return config;
     }
 
+    /**
+     * <p>Return the parameters which affect the parsed configuration of the
+     * specified module apart from its configuration files: the
+     * <code>rulesets</code> and <code>validating</code> init-params and the
+     * names and serial versions of the config bean classes. They are part
+     * of the checksum of the {@link ModuleConfigSnapshot} of the
+     * module.</p>
+     *
+     * @param prefix Module prefix for this module
+     * @return the parameters
+     * @since Struts 1.5.0
+     */
+    protected String[] getSnapshotParameters(String prefix) {
+        ModuleConfig config =
+            ModuleConfigFactory.createFactory().createModuleConfig(prefix);
+        List<String> parameters = new ArrayList<>();
+
+        parameters.add("rulesets="
+            + getServletConfig().getInitParameter("rulesets"));
+        parameters.add("validating=" + isValidating());
+        parameters.add(ModuleConfigSnapshot.describeClass(config.getClass()));
+
+        for (String className : new String[] {
+                config.getActionMappingClass(),
+                config.getActionFormBeanClass(),
+                config.getActionForwardClass()}) {
+            try {
+                parameters.add(ModuleConfigSnapshot.describeClass(
+                    RequestUtils.applicationClass(className)));
+            } catch (ClassNotFoundException e) {
+                parameters.add(className);
+            }
+        }
+
+        for (Class<?> type : new Class<?>[] {
+                ControllerConfig.class, ExceptionConfig.class,
+                FormPropertyConfig.class, MessageResourcesConfig.class,
+                PlugInConfig.class}) {
+            parameters.add(ModuleConfigSnapshot.describeClass(type));
+        }
+
+        return parameters.toArray(new String[0]);
+    }
+
+    /**
+     * <p>Make the specified module configuration available to the
+     * application by saving it in the ServletContext.</p>
+     *
+     * @param config The module configuration
+     * @since Struts 1.5.0
+     */
+    protected void publishModuleConfig(ModuleConfig config) {
+        getServletContext().setAttribute(Globals.MODULE_KEY
+            + config.getPrefix(), config);
+    }
+
     /**
      * <p>Parses one module config file.</p>
      *
@@ -1592,34 +2144,52 @@ public class ActionServlet extends HttpServlet {
             return (configDigester);
         }
 
+        configDigester = createConfigDigester();
+
+        // Return the completely configured Digester instance
+        return (configDigester);
+    }
+
+    /**
+     * <p>Create and return a new <code>Digester</code> instance that has
+     * been initialized to process Struts module configuration files. Unlike
+     * {@link #initConfigDigester()}, each call returns a new instance, so
+     * that several modules can be parsed at the same time.</p>
+     *
+     * @return A new configured <code>Digester</code> instance.
+     * @throws ServletException if a Digester cannot be configured
+     * @since Struts 1.5.0
+     */
+    protected Digester createConfigDigester()
+        throws ServletException {
         // Create a new Digester instance with standard capabilities
-        configDigester = new Digester();
-        configDigester.setNamespaceAware(true);
-        configDigester.setValidating(this.isValidating());
-        configDigester.setUseContextClassLoader(true);
-        configDigester.addRuleSet(new ConfigRuleSet());
+        Digester digester = new Digester();
+        digester.setNamespaceAware(true);
+        digester.setValidating(this.isValidating());
+        digester.setUseContextClassLoader(true);
+        digester.addRuleSet(new ConfigRuleSet());
 
         for (int i = 0; i < registrations.length; i += 2) {
             URL url = this.getClass().getResource(registrations[i + 1]);
 
             if (url != null) {
-                configDigester.register(registrations[i], url.toString());
+                digester.register(registrations[i], url.toString());
             }
         }
 
-        this.addRuleSets();
+        this.addRuleSets(digester);
 
-        // Return the completely configured Digester instance
-        return (configDigester);
+        return (digester);
     }
 
     /**
-     * <p>Add any custom RuleSet instances to configDigester that have been
+     * <p>Add any custom RuleSet instances to the Digester that have been
      * specified in the <code>rulesets</code> init parameter.</p>
      *
+     * @param digester The Digester to configure
      * @throws ServletException if an error occurs
      */
-    private void addRuleSets()
+    private void addRuleSets(Digester digester)
         throws ServletException {
         String rulesets = getServletConfig().getInitParameter("rulesets");
 
@@ -1649,7 +2219,7 @@ public class ActionServlet extends HttpServlet {
                 RuleSet instance =
                     (RuleSet) RequestUtils.applicationInstance(ruleset);
 
-                this.configDigester.addRuleSet(instance);
+                digester.addRuleSet(instance);
             } catch (Exception e) {
                 log.error("Exception configuring custom Digester RuleSet", e);
                 throw new ServletException(e);
@@ -1728,6 +2298,83 @@ public class ActionServlet extends HttpServlet {
         }
     }
 
+    /**
+     * <p>Create the request metrics if the <code>metrics</code> init-param
+     * is set, start their exporters and store them in the servlet context
+     * under <code>Globals.METRICS_KEY</code>.</p>
+     *
+     * @throws ServletException if the sample rate is invalid or an exporter
+     *                          cannot be started
+     * @since Struts 1.5.0
+     */
+    protected void initMetrics()
+        throws ServletException {
+        String value = getServletConfig().getInitParameter("metrics");
+
+        if (!("true".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value)
+            || "on".equalsIgnoreCase(value) || "y".equalsIgnoreCase(value)
+            || "1".equalsIgnoreCase(value))) {
+            return;
+        }
+
+        int sampleRate = 1;
+
+        value = getServletConfig().getInitParameter("metricsSampleRate");
+
+        if ((value != null) && (value.trim().length() > 0)) {
+            try {
+                sampleRate = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw unavailable(e);
+            }
+        }
+
+        metrics = new RequestMetrics(getServletContext().getContextPath()
+            + "/" + getServletName(), sampleRate);
+
+        value = getServletConfig().getInitParameter("metricsExporters");
+
+        if (value == null) {
+            value = JmxMetricsExporter.class.getName();
+        }
+
+        for (String className : value.split(",")) {
+            className = className.trim();
+
+            if (className.length() == 0) {
+                continue;
+            }
+
+            try {
+                metrics.addExporter((MetricsExporter)
+                    RequestUtils.applicationInstance(className));
+            } catch (Exception e) {
+                log.error("Unable to start metrics exporter {}", className, e);
+                destroyMetrics();
+                throw unavailable(e);
+            }
+        }
+
+        getServletContext().setAttribute(Globals.METRICS_KEY, metrics);
+
+        log.info("Measuring one out of {} request(s)",
+            metrics.getSampleRate());
+    }
+
+    /**
+     * <p>Stop the exporters of the request metrics, if any.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected void destroyMetrics() {
+        if (metrics != null) {
+            metrics.stop();
+            metrics = null;
+        }
+
+        getServletContext().removeAttribute(Globals.METRICS_KEY);
+    }
+
     /**
      * <p>Initialize other global characteristics of the controller
      * servlet.</p>
@@ -1757,6 +2404,29 @@ public class ActionServlet extends HttpServlet {
             convertNull = true;
         }
 
+        value = getServletConfig().getInitParameter("configSnapshot");
+        configSnapshotDir = null;
+
+        if ((value != null) && (value.trim().length() > 0)) {
+            value = value.trim();
+
+            if ("true".equalsIgnoreCase(value)
+                || "false".equalsIgnoreCase(value)) {
+                log.warn("Ignoring configSnapshot '{}', which must name a "
+                    + "directory", value);
+            } else {
+                configSnapshotDir = new File(value);
+            }
+        }
+
+        value = getServletConfig().getInitParameter("parallelInit");
+
+        if ("true".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value)
+            || "on".equalsIgnoreCase(value) || "y".equalsIgnoreCase(value)
+            || "1".equalsIgnoreCase(value)) {
+            parallelInit = true;
+        }
+
         if (convertNull) {
             ConvertUtils.deregister();
             ConvertUtils.register(new BigDecimalConverter(null),
@@ -1772,6 +2442,9 @@ public class ActionServlet extends HttpServlet {
             ConvertUtils.register(new LongConverter(null), Long.class);
             ConvertUtils.register(new ShortConverter(null), Short.class);
         }
+
+        // Form populators look up the converters when they are built
+        FormPopulator.clearCache();
     }
 
     /**
@@ -1924,6 +2597,20 @@ public class ActionServlet extends HttpServlet {
     protected void process(HttpServletRequest request,
         HttpServletResponse response)
         throws IOException, ServletException {
+        ModuleRouteTable routes = moduleRoutes;
+        if (routes != null) {
+            ModuleRouteTable.Route route = routes.findRoute(request);
+            route.select(request);
+
+            RequestProcessor processor = route.getRequestProcessor();
+            if (processor == null) {
+                processor = getRequestProcessor(route.getModuleConfig());
+            }
+
+            processor.process(request, response);
+            return;
+        }
+
         ModuleUtils.getInstance().selectModule(request, getServletContext());
 
         ModuleConfig config = getModuleConfig(request);
@@ -1999,4 +2686,105 @@ public class ActionServlet extends HttpServlet {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>A task run for each module by {@link #runModuleTasks}.</p>
+     *
+     * @param <T> The type of the items
+     * @param <R> The type of the results
+     * @since Struts 1.5.0
+     */
+    @FunctionalInterface
+    protected interface ModuleTask<T, R> {
+
+        /**
+         * <p>Run the task for the given item.</p>
+         *
+         * @param item The item to process
+         * @return The result of the task
+         * @throws Exception if the task fails
+         */
+        R run(T item) throws Exception;
+    }
+
+    /**
+     * <p>Accumulates the time spent in each phase of the initialization.
+     * The time of phases run concurrently is summed over all modules.</p>
+     */
+    private static final class StartupTimer {
+
+        // The phases, in the order in which they are reported
+
+        static final String SERVLET = "servlet";
+
+        static final String PARSE = "parse";
+
+        static final String PLUG_INS = "resources and plug-ins";
+
+        static final String RESOLVE = "resolve";
+
+        static final String PROCESSORS = "request processors";
+
+        static final String ROUTES = "routes";
+
+        /**
+         * The accumulated nanoseconds of each phase, in the order of the
+         * phases.
+         */
+        private final Map<String, AtomicLong> phases = new LinkedHashMap<>();
+
+        /**
+         * The start of the initialization.
+         */
+        private final long started = System.nanoTime();
+
+        StartupTimer() {
+            for (String phase : new String[] {
+                    SERVLET, PARSE, PLUG_INS, RESOLVE, PROCESSORS, ROUTES}) {
+                phases.put(phase, new AtomicLong());
+            }
+        }
+
+        /**
+         * Add the time elapsed since <code>start</code> to the specified
+         * phase.
+         *
+         * @param phase The phase
+         * @param start The start of the phase, as returned by
+         *              <code>System.nanoTime()</code>
+         * @return The current value of <code>System.nanoTime()</code>
+         */
+        long record(String phase, long start) {
+            long now = System.nanoTime();
+
+            phases.get(phase).addAndGet(now - start);
+            return now;
+        }
+
+        /**
+         * Return the time elapsed since the start of the initialization.
+         *
+         * @return the elapsed milliseconds
+         */
+        long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+
+            for (Map.Entry<String, AtomicLong> entry : phases.entrySet()) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+
+                sb.append(entry.getKey()).append(": ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(
+                        entry.getValue().get()))
+                    .append(" ms");
+            }
+
+            return sb.toString();
+        }
+    }
+}
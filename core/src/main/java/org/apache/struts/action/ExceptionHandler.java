@@ -39,6 +39,10 @@ import org.slf4j.LoggerFactory;
  * configuration file to handle a specific type of exception thrown by an
  * <code>Action.execute</code> method.</p>
  *
+ * <p>Since Struts 1.5.0 a single instance of each handler class handles all
+ * requests of a module, like an <code>Action</code>, so handlers must be
+ * thread-safe.</p>
+ *
  * @since Struts 1.1
  */
 public class ExceptionHandler {
@@ -0,0 +1,566 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.DynaBean;
+import org.apache.commons.beanutils.DynaClass;
+import org.apache.commons.beanutils.DynaProperty;
+import org.apache.commons.beanutils.PropertyUtilsBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Sets the properties of a form bean from request parameters, with the
+ * same results as <code>BeanUtils.populate</code>.</p>
+ *
+ * <p>A populator is built once for each form bean class, and once for each
+ * <code>DynaActionFormClass</code>. It holds the setter and the converters
+ * of each simple property, so setting such a property neither introspects
+ * the bean nor looks up a converter. Nested, indexed and mapped property
+ * names, as well as values which are not strings, are handed to
+ * <code>BeanUtilsBean.setProperty</code>.</p>
+ *
+ * <p>Each property name is checked once against
+ * {@link #CLASS_ACCESS_PATTERN}; matching names are ignored. The decision
+ * for each name is cached, up to {@link #MAX_NAMES} names per
+ * populator.</p>
+ *
+ * <p>The converters are looked up when a populator is built. Call
+ * {@link #clearCache()} after registering different converters.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class FormPopulator {
+
+    /**
+     * <p>Pattern matching 'class' access.</p>
+     */
+    public static final Pattern CLASS_ACCESS_PATTERN = Pattern
+            .compile("(.*\\.|^|.*|\\[('|\"))class(\\.|('|\")]|\\[).*",
+                    Pattern.CASE_INSENSITIVE);
+
+    /**
+     * <p>The maximum number of property names whose handling is cached per
+     * populator.</p>
+     */
+    public static final int MAX_NAMES = 1000;
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(FormPopulator.class);
+
+    /**
+     * The handler of names which are ignored.
+     */
+    private static final Handler IGNORE = (bean, name, value) -> { };
+
+    /**
+     * The handler of names which access the class of the bean.
+     */
+    private static final Handler DENY = (bean, name, value) -> { };
+
+    /**
+     * The number of times the cache has been cleared; populators built
+     * before the last clearing are rebuilt.
+     */
+    private static volatile int generation;
+
+    /**
+     * The populators of JavaBean form classes.
+     */
+    private static final ClassValue<Slot> BEAN_POPULATORS =
+        new ClassValue<Slot>() {
+            protected Slot computeValue(Class<?> type) {
+                return new Slot();
+            }
+        };
+
+    /**
+     * The populators of <code>DynaActionFormClass</code>es.
+     */
+    private static final Map<DynaActionFormClass, Slot> DYNA_POPULATORS =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The cache generation this populator belongs to.
+     */
+    private final int builtGeneration;
+
+    /**
+     * The BeanUtilsBean whose converters and property utilities are used.
+     */
+    private final BeanUtilsBean beanUtils;
+
+    /**
+     * The handler of names not found in {@link #handlers}.
+     */
+    private final Handler defaultHandler;
+
+    /**
+     * The handlers of the simple properties, built in advance.
+     */
+    private final Map<String, Handler> handlers;
+
+    /**
+     * The handlers of all other names seen so far.
+     */
+    private final ConcurrentHashMap<String, Handler> otherHandlers =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Construct a new populator.
+     *
+     * @param beanUtils      The BeanUtilsBean to use
+     * @param handlers       The handlers of the simple properties
+     * @param defaultHandler The handler of other simple names
+     */
+    protected FormPopulator(BeanUtilsBean beanUtils,
+        Map<String, Handler> handlers, Handler defaultHandler) {
+        this.builtGeneration = generation;
+        this.beanUtils = beanUtils;
+        this.handlers = handlers;
+        this.defaultHandler = defaultHandler;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Return the populator for the specified bean.</p>
+     *
+     * @param bean The form bean
+     * @return the populator
+     */
+    public static FormPopulator getInstance(Object bean) {
+        BeanUtilsBean beanUtils = BeanUtilsBean.getInstance();
+        DynaActionFormClass dynaClass = null;
+        Slot slot;
+
+        if (bean instanceof DynaActionForm) {
+            DynaClass type = ((DynaActionForm) bean).getDynaClass();
+
+            if (!(type instanceof DynaActionFormClass)) {
+                return forGenericBean(beanUtils);
+            }
+
+            dynaClass = (DynaActionFormClass) type;
+            slot = DYNA_POPULATORS.computeIfAbsent(dynaClass, k -> new Slot());
+        } else if ((bean instanceof DynaBean) || (bean instanceof Map)) {
+            return forGenericBean(beanUtils);
+        } else {
+            slot = BEAN_POPULATORS.get(bean.getClass());
+        }
+
+        FormPopulator populator = slot.populator;
+
+        if ((populator == null) || (populator.builtGeneration != generation)
+            || (populator.beanUtils != beanUtils)) {
+            populator = (dynaClass != null)
+                ? forDynaClass(dynaClass, beanUtils)
+                : forBeanClass(bean.getClass(), beanUtils);
+            slot.populator = populator;
+        }
+
+        return populator;
+    }
+
+    /**
+     * <p>Discard all populators, so that they are rebuilt with the
+     * currently registered converters.</p>
+     */
+    public static void clearCache() {
+        generation++;
+        DYNA_POPULATORS.clear();
+    }
+
+    /**
+     * <p>Set the properties of the specified bean, like
+     * <code>BeanUtils.populate</code>.</p>
+     *
+     * @param bean       The bean whose properties are set
+     * @param properties The values, keyed by property name
+     * @throws IllegalAccessException    if a setter is not accessible
+     * @throws InvocationTargetException if a setter throws an exception
+     */
+    public void populate(Object bean, Map<String, ?> properties)
+        throws IllegalAccessException, InvocationTargetException {
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            if (entry.getKey() != null) {
+                setProperty(bean, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * <p>Set a property of the specified bean, like
+     * <code>BeanUtils.setProperty</code>, unless the name accesses the
+     * class of the bean.</p>
+     *
+     * @param bean  The bean whose property is set
+     * @param name  The property name
+     * @param value The value, usually a <code>String</code> or
+     *              <code>String[]</code>
+     * @throws IllegalAccessException    if a setter is not accessible
+     * @throws InvocationTargetException if a setter throws an exception
+     */
+    public void setProperty(Object bean, String name, Object value)
+        throws IllegalAccessException, InvocationTargetException {
+        getHandler(name).setProperty(bean, name, value);
+    }
+
+    /**
+     * <p>Return whether the specified property name is accepted, that is,
+     * whether it does not access the class of the bean.</p>
+     *
+     * @param name The property name
+     * @return <code>false</code> if the name matches
+     *         {@link #CLASS_ACCESS_PATTERN}
+     */
+    public boolean isAccepted(String name) {
+        return getHandler(name) != DENY;
+    }
+
+    // ------------------------------------------------------- Protected Methods
+
+    /**
+     * <p>Build the populator of a JavaBean class.</p>
+     *
+     * @param beanClass The bean class
+     * @param beanUtils The BeanUtilsBean to use
+     * @return the populator
+     */
+    protected static FormPopulator forBeanClass(Class<?> beanClass,
+        BeanUtilsBean beanUtils) {
+        PropertyUtilsBean propertyUtils = beanUtils.getPropertyUtils();
+        ConvertUtilsBean convertUtils = beanUtils.getConvertUtils();
+        Handler delegate = delegate(beanUtils);
+        Map<String, Handler> handlers = new HashMap<>();
+
+        for (PropertyDescriptor descriptor
+            : propertyUtils.getPropertyDescriptors(beanClass)) {
+            String name = descriptor.getName();
+
+            if (!isSimple(name) || isClassAccess(name)) {
+                continue;
+            }
+
+            if (descriptor.getWriteMethod() == null) {
+                // BeanUtils skips read-only properties
+                handlers.put(name, IGNORE);
+                continue;
+            }
+
+            Method writeMethod =
+                propertyUtils.getWriteMethod(beanClass, descriptor);
+            Class<?> type = descriptor.getPropertyType();
+            MethodHandle setter = (writeMethod == null) ? null
+                : unreflect(writeMethod);
+
+            if ((type == null) || (setter == null)) {
+                handlers.put(name, delegate);
+                continue;
+            }
+
+            handlers.put(name, new Setter(type, convertUtils, delegate,
+                (bean, value) -> {
+                    try {
+                        setter.invokeExact(bean, value);
+                    } catch (Throwable t) {
+                        // As thrown by Method.invoke
+                        throw new InvocationTargetException(t);
+                    }
+                }));
+        }
+
+        // Names without a property are skipped by BeanUtils, unless they
+        // denote a mapped property
+        Handler defaultHandler =
+            hasMappedMethods(beanClass) ? delegate : IGNORE;
+
+        return new FormPopulator(beanUtils, handlers, defaultHandler);
+    }
+
+    /**
+     * <p>Build the populator of a <code>DynaActionFormClass</code>.</p>
+     *
+     * @param dynaClass The dynamic class of the forms
+     * @param beanUtils The BeanUtilsBean to use
+     * @return the populator
+     */
+    protected static FormPopulator forDynaClass(DynaActionFormClass dynaClass,
+        BeanUtilsBean beanUtils) {
+        ConvertUtilsBean convertUtils = beanUtils.getConvertUtils();
+        Handler delegate = delegate(beanUtils);
+        Map<String, Handler> handlers = new HashMap<>();
+
+        for (DynaProperty property : dynaClass.getDynaProperties()) {
+            String name = property.getName();
+
+            if (!isSimple(name) || isClassAccess(name)) {
+                continue;
+            }
+
+            if (property.isMapped() || (property.getType() == null)) {
+                handlers.put(name, delegate);
+                continue;
+            }
+
+            handlers.put(name, new Setter(property.getType(), convertUtils,
+                delegate, (bean, value) -> ((DynaBean) bean).set(name, value)));
+        }
+
+        // BeanUtils skips names which are no dynamic property
+        return new FormPopulator(beanUtils, handlers, IGNORE);
+    }
+
+    /**
+     * <p>Return a populator which hands all names to
+     * <code>BeanUtilsBean</code>, for beans which are neither a plain
+     * JavaBean nor a <code>DynaActionForm</code>.</p>
+     *
+     * @param beanUtils The BeanUtilsBean to use
+     * @return the populator
+     */
+    protected static FormPopulator forGenericBean(BeanUtilsBean beanUtils) {
+        return new FormPopulator(beanUtils, new HashMap<>(),
+            delegate(beanUtils));
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    /**
+     * Return the handler of the specified name, creating it if necessary.
+     */
+    private Handler getHandler(String name) {
+        Handler handler = handlers.get(name);
+
+        if (handler == null) {
+            handler = otherHandlers.get(name);
+
+            if (handler == null) {
+                handler = createHandler(name);
+
+                if (otherHandlers.size() < MAX_NAMES) {
+                    otherHandlers.put(name, handler);
+                }
+            }
+        }
+
+        return handler;
+    }
+
+    /**
+     * Create the handler of a name not found among the simple properties.
+     */
+    private Handler createHandler(String name) {
+        if (isClassAccess(name)) {
+            return DENY;
+        }
+
+        return isSimple(name) ? defaultHandler : delegate(beanUtils);
+    }
+
+    /**
+     * Return whether the name accesses the class of the bean.
+     */
+    private static boolean isClassAccess(String name) {
+        return CLASS_ACCESS_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * Return whether the name is neither nested, indexed nor mapped.
+     */
+    private static boolean isSimple(String name) {
+        return (name.indexOf('.') < 0) && (name.indexOf('[') < 0)
+            && (name.indexOf('(') < 0);
+    }
+
+    /**
+     * Return a handler calling <code>BeanUtilsBean.setProperty</code>.
+     */
+    private static Handler delegate(BeanUtilsBean beanUtils) {
+        return beanUtils::setProperty;
+    }
+
+    /**
+     * Return whether the class has public methods which may form a mapped
+     * property.
+     */
+    private static boolean hasMappedMethods(Class<?> beanClass) {
+        for (Method method : beanClass.getMethods()) {
+            Class<?>[] parameters = method.getParameterTypes();
+
+            if (Modifier.isStatic(method.getModifiers())
+                || (parameters.length == 0)
+                || (parameters[0] != String.class)) {
+                continue;
+            }
+
+            String name = method.getName();
+
+            if ((name.length() > 3)
+                && ((name.startsWith("set") && (parameters.length == 2))
+                || (name.startsWith("get") && (parameters.length == 1)))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return a method handle of type <code>(Object,Object)void</code> for
+     * the specified setter, or <code>null</code> if none can be created.
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method)
+                .asType(MethodType.methodType(void.class, Object.class,
+                    Object.class));
+        } catch (Exception e) {
+            LOG.debug("Using BeanUtils for {}", method, e);
+            return null;
+        }
+    }
+
+    // ----------------------------------------------------------- Inner Types
+
+    /**
+     * <p>Sets a property from a request parameter.</p>
+     */
+    @FunctionalInterface
+    protected interface Handler {
+
+        /**
+         * <p>Set the property.</p>
+         *
+         * @param bean  The bean whose property is set
+         * @param name  The property name
+         * @param value The value
+         * @throws IllegalAccessException    if a setter is not accessible
+         * @throws InvocationTargetException if a setter throws an
+         *                                   exception
+         */
+        void setProperty(Object bean, String name, Object value)
+            throws IllegalAccessException, InvocationTargetException;
+    }
+
+    /**
+     * Writes a converted value into a bean.
+     */
+    @FunctionalInterface
+    private interface Writer {
+        void write(Object bean, Object value)
+            throws IllegalAccessException, InvocationTargetException;
+    }
+
+    /**
+     * Converts string values with the converters of the property type and
+     * writes them into the bean. Other values are handed to the delegate.
+     */
+    private static final class Setter implements Handler {
+        private final Class<?> type;
+        private final Class<?> componentType;
+        private final Converter converter;
+        private final Handler delegate;
+        private final Writer writer;
+
+        Setter(Class<?> type, ConvertUtilsBean convertUtils, Handler delegate,
+            Writer writer) {
+            this.type = type;
+            this.componentType = type.getComponentType();
+            this.converter = lookup(convertUtils,
+                (componentType == null) ? type : componentType);
+            this.delegate = delegate;
+            this.writer = writer;
+        }
+
+        public void setProperty(Object bean, String name, Object value)
+            throws IllegalAccessException, InvocationTargetException {
+            Object newValue;
+
+            if (componentType == null) {
+                if (value instanceof String) {
+                    newValue = converter.convert(type, value);
+                } else if (value instanceof String[]) {
+                    // An empty array converts like a missing value
+                    String[] values = (String[]) value;
+
+                    newValue = converter.convert(type,
+                        (values.length > 0) ? values[0] : null);
+                } else {
+                    delegate.setProperty(bean, name, value);
+                    return;
+                }
+            } else if (value instanceof String[]) {
+                String[] values = (String[]) value;
+
+                newValue = Array.newInstance(componentType, values.length);
+
+                for (int i = 0; i < values.length; i++) {
+                    Array.set(newValue, i,
+                        converter.convert(componentType, values[i]));
+                }
+            } else {
+                delegate.setProperty(bean, name, value);
+                return;
+            }
+
+            writer.write(bean, newValue);
+        }
+
+        /**
+         * Return the converter of the type, falling back to the converter
+         * of <code>String</code> like <code>ConvertUtilsBean</code>.
+         */
+        private static Converter lookup(ConvertUtilsBean convertUtils,
+            Class<?> type) {
+            Converter converter = convertUtils.lookup(type);
+
+            return (converter != null) ? converter
+                : convertUtils.lookup(String.class);
+        }
+    }
+
+    /**
+     * Holds the current populator of a form class.
+     */
+    private static final class Slot {
+        volatile FormPopulator populator;
+    }
+}
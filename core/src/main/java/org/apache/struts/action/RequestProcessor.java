@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletContext;
@@ -37,6 +38,8 @@ import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.metrics.PhaseTimer;
+import org.apache.struts.metrics.RequestMetrics;
 import org.apache.struts.upload.MultipartRequestWrapper;
 import org.apache.struts.util.MessageResources;
 import org.apache.struts.util.RequestUtils;
@@ -84,10 +87,24 @@ public class RequestProcessor implements Serializable {
     /**
      * <p>The set of <code>Action</code> instances that have been created and
      * initialized, keyed by the fully qualified Java class name of the
-     * <code>Action</code> class.</p>
+     * <code>Action</code> class. Since Struts 1.5.0 the instances are
+     * looked up in the {@link ActionRegistry} of this processor, which keeps
+     * this map in step with it.</p>
      */
     protected HashMap<String, Action> actions = new HashMap<>();
 
+    /**
+     * <p>The registry of the <code>Action</code> instances.</p>
+     */
+    private final ActionRegistry registry = new ActionRegistry();
+
+    /**
+     * <p>The shared <code>ExceptionHandler</code> instances that have been
+     * created, keyed by the fully qualified Java class name of the handler
+     * class. Created on first use.</p>
+     */
+    private transient volatile ConcurrentHashMap<String, ExceptionHandler> exceptionHandlers;
+
     /**
      * <p>The <code>ModuleConfiguration</code> with which we are
      * associated.</p>
@@ -99,12 +116,28 @@ public class RequestProcessor implements Serializable {
      */
     protected ActionServlet servlet = null;
 
+    /**
+     * <p>The request metrics of the servlet, or <code>null</code> if
+     * metrics are disabled.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected transient RequestMetrics metrics = null;
+
     // --------------------------------------------------------- Public Methods
 
     /**
      * <p>Clean up in preparation for a shutdown of this application.</p>
      */
     public void destroy() {
+        ActionRegistry registry = getActionRegistry();
+
+        for (Action action : registry.getActions()) {
+            action.setServlet(null);
+        }
+
+        registry.clear();
+
         synchronized (this.actions) {
             for (Action action : this.actions.values()) {
                 action.setServlet(null);
@@ -113,7 +146,10 @@ public class RequestProcessor implements Serializable {
             this.actions.clear();
         }
 
+        this.exceptionHandlers = null;
+
         this.servlet = null;
+        this.metrics = null;
     }
 
     /**
@@ -125,12 +161,23 @@ public class RequestProcessor implements Serializable {
      */
     public void init(ActionServlet servlet, ModuleConfig moduleConfig)
         throws ServletException {
+        ActionRegistry registry = getActionRegistry();
+        registry.clear();
+
         synchronized (actions) {
             actions.clear();
         }
 
+        exceptionHandlers = null;
+
         this.servlet = servlet;
         this.moduleConfig = moduleConfig;
+        this.metrics = servlet.getRequestMetrics();
+
+        if (moduleConfig.getControllerConfig().getPreloadActions()) {
+            registry.preload(moduleConfig, false, actions,
+                this::createAction);
+        }
     }
 
     /**
@@ -144,11 +191,44 @@ public class RequestProcessor implements Serializable {
      * @throws ServletException if a processing exception occurs
      */
     public void process(HttpServletRequest request, HttpServletResponse response)
+        throws IOException, ServletException {
+        if (metrics == null) {
+            processPhases(request, response, PhaseTimer.NONE);
+            return;
+        }
+
+        PhaseTimer timer = metrics.startRequest();
+        Object exception = request.getAttribute(Globals.EXCEPTION_KEY);
+        boolean failed = true;
+
+        try {
+            processPhases(request, response, timer);
+
+            // An exception handled by an ExceptionHandler fails the request
+            failed = request.getAttribute(Globals.EXCEPTION_KEY) != exception;
+        } finally {
+            timer.stop(failed);
+        }
+    }
+
+    /**
+     * <p>Process a request, timing each phase.</p>
+     *
+     * @param request  The servlet request we are processing
+     * @param response The servlet response we are creating
+     * @param timer    The timer of the request
+     * @throws IOException      if an input/output error occurs
+     * @throws ServletException if a processing exception occurs
+     */
+    private void processPhases(HttpServletRequest request,
+        HttpServletResponse response, PhaseTimer timer)
         throws IOException, ServletException {
         // Wrap multipart requests with a special wrapper
+        timer.phase("processMultipart");
         request = processMultipart(request);
 
         // Identify the path component we will use to select a mapping
+        timer.phase("processPath");
         String path = processPath(request, response);
 
         if (path == null) {
@@ -159,43 +239,57 @@ public class RequestProcessor implements Serializable {
             request.getMethod(), path);
 
         // Select a Locale for the current user if requested
+        timer.phase("processLocale");
         processLocale(request, response);
 
         // Set the content type and no-caching headers if requested
+        timer.phase("processContent");
         processContent(request, response);
+        timer.phase("processNoCache");
         processNoCache(request, response);
 
         // General purpose preprocessing hook
+        timer.phase("processPreprocess");
         if (!processPreprocess(request, response)) {
             return;
         }
 
+        timer.phase("processCachedMessages");
         this.processCachedMessages(request, response);
 
         // Identify the mapping for this request
+        timer.phase("processMapping");
         ActionMapping mapping = processMapping(request, response, path);
 
         if (mapping == null) {
             return;
         }
 
+        timer.action(moduleConfig.getPrefix(), mapping);
+
         // Check for any role required to perform this action
+        timer.phase("processRoles");
         if (!processRoles(request, response, mapping)) {
             return;
         }
 
         // Process any ActionForm bean related to this request
+        timer.phase("processActionForm");
         ActionForm form = processActionForm(request, response, mapping);
 
+        timer.phase("processPopulate");
         processPopulate(request, response, form, mapping);
 
         // Validate any fields of the ActionForm bean, if applicable
+        timer.phase("processValidate");
         try {
             if (!processValidate(request, response, form, mapping)) {
                 return;
             }
         } catch (InvalidCancelException e) {
+            timer.phase("processException");
             ActionForward forward = processException(request, response, e, form, mapping);
+            timer.phase("processForwardConfig");
             processForwardConfig(request, response, forward);
             return;
         } catch (IOException e) {
@@ -205,15 +299,18 @@ public class RequestProcessor implements Serializable {
         }
 
         // Process a forward or include specified by this mapping
+        timer.phase("processForward");
         if (!processForward(request, response, mapping)) {
             return;
         }
 
+        timer.phase("processInclude");
         if (!processInclude(request, response, mapping)) {
             return;
         }
 
         // Create or acquire the Action instance to process this request
+        timer.phase("processActionCreate");
         Action action = processActionCreate(request, response, mapping);
 
         if (action == null) {
@@ -221,10 +318,12 @@ public class RequestProcessor implements Serializable {
         }
 
         // Call the Action instance itself
+        timer.phase("processActionPerform");
         ActionForward forward =
             processActionPerform(request, response, action, form, mapping);
 
         // Process the returned ActionForward instance
+        timer.phase("processForwardConfig");
         processForwardConfig(request, response, forward);
     }
 
@@ -252,43 +351,53 @@ public class RequestProcessor implements Serializable {
         // If there were a mapping property indicating whether
         // an Action were a singleton or not ([true]),
         // could we just instantiate and return a new instance here?
-        Action instance;
+        ActionRegistry registry = getActionRegistry();
+        Action instance = registry.findAction(className);
 
-        synchronized (actions) {
-            // Return any existing Action instance of this class
-            instance = actions.get(className);
+        if (instance != null) {
+            log.trace("  Returning existing Action instance");
 
-            if (instance != null) {
-                log.trace("  Returning existing Action instance");
+            return (instance);
+        }
 
-                return (instance);
-            }
+        try {
+            instance = registry.getAction(className, actions,
+                this::createAction);
 
-            // Create and return a new Action instance
-            log.trace("  Creating new Action instance");
+            // Maybe we should propagate this exception
+            // instead of returning null.
+        } catch (Exception e) {
+            log.atError()
+                .setMessage(() -> getInternal().getMessage("actionCreate",
+                    mapping.getPath(), mapping.toString()))
+                .setCause(e).log();
 
-            try {
-                instance = (Action) RequestUtils.applicationInstance(className);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                getInternal().getMessage("actionCreate", mapping.getPath()));
 
-                // Maybe we should propagate this exception
-                // instead of returning null.
-            } catch (Exception e) {
-                log.atError()
-                    .setMessage(() -> getInternal().getMessage("actionCreate",
-                        mapping.getPath(), mapping.toString()))
-                    .setCause(e).log();
+            return (null);
+        }
 
-                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-                    getInternal().getMessage("actionCreate", mapping.getPath()));
+        return (instance);
+    }
 
-                return (null);
-            }
+    /**
+     * <p>Create and initialize a new <code>Action</code> instance of the
+     * specified class. Invoked at most once per class, when the instance is
+     * not cached yet.</p>
+     *
+     * @param className The fully qualified class name of the Action
+     * @return The new <code>Action</code> instance
+     * @throws Exception if the instance cannot be created
+     * @since Struts 1.5.0
+     */
+    protected Action createAction(String className) throws Exception {
+        log.trace("  Creating new Action instance");
 
-            actions.put(className, instance);
+        Action instance = (Action) RequestUtils.applicationInstance(className);
 
-            if (instance.getServlet() == null) {
-                instance.setServlet(this.servlet);
-            }
+        if (instance.getServlet() == null) {
+            instance.setServlet(this.servlet);
         }
 
         return (instance);
@@ -511,9 +620,7 @@ public class RequestProcessor implements Serializable {
 
         // Use the configured exception handling
         try {
-            ExceptionHandler handler =
-                (ExceptionHandler) RequestUtils.applicationInstance(config
-                    .getHandler());
+            ExceptionHandler handler = getExceptionHandler(config);
 
             return (handler.execute(exception, config, mapping, form, request,
                 response));
@@ -522,6 +629,50 @@ public class RequestProcessor implements Serializable {
         }
     }
 
+    /**
+     * <p>Return an <code>ExceptionHandler</code> instance of the handler
+     * class of the specified configuration. A new instance is created for
+     * each call, unless the controller of the module shares exception
+     * handlers: then the instance is created once per class and shared by
+     * all requests, so it must be thread-safe.</p>
+     *
+     * @param config The exception configuration
+     * @return The <code>ExceptionHandler</code> instance
+     * @throws Exception if the instance cannot be created
+     * @since Struts 1.5.0
+     */
+    protected ExceptionHandler getExceptionHandler(ExceptionConfig config)
+        throws Exception {
+        if ((moduleConfig == null)
+            || !moduleConfig.getControllerConfig().getShareExceptionHandlers()) {
+            return (ExceptionHandler) RequestUtils.applicationInstance(
+                config.getHandler());
+        }
+
+        ConcurrentHashMap<String, ExceptionHandler> handlers =
+            exceptionHandlers;
+
+        if (handlers == null) {
+            handlers = new ConcurrentHashMap<>();
+            exceptionHandlers = handlers;
+        }
+
+        String type = config.getHandler();
+        ExceptionHandler handler = handlers.get(type);
+
+        if (handler == null) {
+            handler = (ExceptionHandler) RequestUtils.applicationInstance(type);
+
+            ExceptionHandler previous = handlers.putIfAbsent(type, handler);
+
+            if (previous != null) {
+                handler = previous;
+            }
+        }
+
+        return handler;
+    }
+
     /**
      * <p>Process a forward requested by this mapping (if any). Return
      * <code>true</code> if standard processing should continue, or
@@ -1076,6 +1227,17 @@ public class RequestProcessor implements Serializable {
 
     // -------------------------------------------------------- Support Methods
 
+    /**
+     * <p>Return the registry of the <code>Action</code> instances of this
+     * processor.</p>
+     *
+     * @return The registry of the <code>Action</code> instances
+     * @since Struts 1.5.0
+     */
+    protected ActionRegistry getActionRegistry() {
+        return registry;
+    }
+
     /**
      * <p>Return the <code>MessageResources</code> instance containing our
      * internal message strings.</p>
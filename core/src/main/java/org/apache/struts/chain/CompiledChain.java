@@ -0,0 +1,389 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.chain.Catalog;
+import org.apache.commons.chain.CatalogFactory;
+import org.apache.commons.chain.Command;
+import org.apache.commons.chain.Context;
+import org.apache.commons.chain.Filter;
+import org.apache.commons.chain.generic.LookupCommand;
+import org.apache.commons.chain.impl.ChainBase;
+import org.apache.struts.metrics.Metric;
+import org.apache.struts.metrics.RequestMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A chain of commands which has been flattened ahead of time.
+ * <p> {@link #compile(Command)} walks a configured command chain once and
+ * replaces each <code>LookupCommand</code> with a fixed command name by the
+ * command it resolves to, so that no catalog lookup happens per request.
+ * Nested chains are inlined into their parent as long as they contain no
+ * <code>Filter</code>, because only then their commands behave exactly as
+ * if they were members of the parent. Everything else is kept as it is.
+ * <p> The resulting chain executes its commands with the semantics of
+ * <code>ChainBase</code>: processing stops at the first command returning
+ * <code>true</code> or throwing an exception, and the <code>Filter</code>s
+ * executed so far are post-processed in reverse order.
+ * <p> Since the lookups are bound at compile time, changes to the catalogs
+ * made afterwards are not seen by a compiled chain.
+ * <p> <code>ChainBase</code> offers no public accessor of its commands, so
+ * they are read through its package-private <code>getCommands()</code>
+ * by reflection. If that method is missing, has another signature or
+ * cannot be made accessible, e.g. because commons-chain is loaded as a
+ * named module, {@link #compile(Command)} returns the configured command
+ * as it is.
+ * <p> {@link #withMetrics(RequestMetrics)} returns a copy of a chain which
+ * records the latency, errors and executions in progress of each command.
+ *
+ * @param <C> Type of the context associated with this command
+ *
+ * @since Struts 1.5.0
+ */
+public class CompiledChain<C extends Context> implements Command<C> {
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(CompiledChain.class);
+
+    /**
+     * The package-private accessor of the commands of a
+     * <code>ChainBase</code>, or <code>null</code> if it is not
+     * accessible.
+     */
+    private static final Method GET_COMMANDS = findGetCommands();
+
+    /**
+     * The commands of this chain.
+     */
+    private final Command<C>[] commands;
+
+    /**
+     * The commands of this chain which are a <code>Filter</code>, with the
+     * same index as in {@link #commands}; all other elements are
+     * <code>null</code>.
+     */
+    private final Filter<C>[] filters;
+
+    /**
+     * The metrics of the commands of this chain, with the same index as in
+     * {@link #commands}, or <code>null</code> if they are not measured.
+     */
+    private final Metric[] metrics;
+
+    /**
+     * Construct a new chain of the specified commands.
+     *
+     * @param commands The commands of this chain
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CompiledChain(List<Command<C>> commands) {
+        this.commands = commands.toArray(new Command[0]);
+        this.filters = new Filter[this.commands.length];
+
+        for (int i = 0; i < this.commands.length; i++) {
+            if (this.commands[i] instanceof Filter) {
+                filters[i] = (Filter<C>) this.commands[i];
+            }
+        }
+
+        this.metrics = null;
+    }
+
+    /**
+     * Construct a new chain sharing the commands of another chain.
+     *
+     * @param chain   The chain whose commands are shared
+     * @param metrics The metrics of the commands
+     */
+    private CompiledChain(CompiledChain<C> chain, Metric[] metrics) {
+        this.commands = chain.commands;
+        this.filters = chain.filters;
+        this.metrics = metrics;
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * Compile the specified command. If it is not a chain, it is returned
+     * unchanged.
+     *
+     * @param <C>     Type of the context associated with the command
+     * @param command The command to compile
+     * @return the compiled command
+     */
+    public static <C extends Context> Command<C> compile(Command<C> command) {
+        Command<C>[] members = getMembers(command);
+
+        if (members == null) {
+            return command;
+        }
+
+        Set<Command<?>> active =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+        active.add(command);
+
+        List<Command<C>> flat = new ArrayList<>();
+        for (Command<C> member : members) {
+            flatten(member, flat, active);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Compiled chain into {} commands", flat.size());
+        }
+
+        return new CompiledChain<>(flat);
+    }
+
+    /**
+     * Return a copy of this chain which records each execution of a command
+     * in the command metric named by the class of the command. A command
+     * which throws an exception is counted as failed.
+     *
+     * @param requestMetrics The metrics to update
+     * @return the measured chain
+     */
+    public CompiledChain<C> withMetrics(RequestMetrics requestMetrics) {
+        Metric[] metrics = new Metric[commands.length];
+
+        for (int i = 0; i < commands.length; i++) {
+            metrics[i] = requestMetrics.getCommandMetric(
+                commands[i].getClass().getName());
+        }
+
+        return new CompiledChain<>(this, metrics);
+    }
+
+    /**
+     * Return the number of commands of this chain.
+     *
+     * @return the number of commands
+     */
+    public int size() {
+        return commands.length;
+    }
+
+    /**
+     * Execute the commands of this chain with the semantics of
+     * <code>ChainBase</code>.
+     *
+     * @param context The context to be processed
+     * @return <code>true</code> if the processing is complete
+     * @throws Exception if thrown by a command and not handled by any
+     *                   <code>Filter</code>
+     */
+    public boolean execute(C context) throws Exception {
+        if (context == null) {
+            throw new IllegalArgumentException();
+        }
+
+        boolean saveResult = false;
+        Exception saveException = null;
+        int n = commands.length;
+        int i;
+
+        for (i = 0; i < n; i++) {
+            Metric metric = (metrics == null) ? null : metrics[i];
+            long start = (metric == null) ? 0L : metric.start();
+            boolean failed = true;
+
+            try {
+                saveResult = commands[i].execute(context);
+                failed = false;
+            } catch (Exception e) {
+                saveException = e;
+            } finally {
+                if (metric != null) {
+                    metric.stop(start, failed);
+                }
+            }
+
+            if (saveResult || (saveException != null)) {
+                break;
+            }
+        }
+
+        if (i >= n) {
+            i--;
+        }
+
+        boolean handled = false;
+        for (int j = i; j >= 0; j--) {
+            if (filters[j] != null) {
+                try {
+                    if (filters[j].postprocess(context, saveException)) {
+                        handled = true;
+                    }
+                } catch (Exception e) {
+                    LOG.trace("Filter-postprocessing", e);
+                }
+            }
+        }
+
+        if ((saveException != null) && !handled) {
+            throw saveException;
+        }
+
+        return saveResult;
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    /**
+     * Append the compiled form of the specified command to the list.
+     *
+     * @param command The command to compile
+     * @param flat    The list of compiled commands
+     * @param active  The chains and lookups currently being compiled, used
+     *                to detect cycles
+     */
+    private static <C extends Context> void flatten(Command<C> command,
+        List<Command<C>> flat, Set<Command<?>> active) {
+        if ((command != null)
+            && (command.getClass() == LookupCommand.class)) {
+            LookupCommand<C> lookup = (LookupCommand<C>) command;
+            Catalog<C> catalog = findCatalog(lookup);
+
+            if ((catalog == null) || !active.add(command)) {
+                flat.add(command);
+                return;
+            }
+
+            Command<C> target = catalog.getCommand(lookup.getName());
+
+            if (target != null) {
+                flatten(target, flat, active);
+            } else if (!lookup.isOptional()) {
+                // Keep failing on each request, as the lookup would do
+                flat.add(command);
+            }
+
+            active.remove(command);
+            return;
+        }
+
+        Command<C>[] members = getMembers(command);
+
+        if ((members == null) || !active.add(command)) {
+            flat.add(command);
+            return;
+        }
+
+        List<Command<C>> nested = new ArrayList<>();
+        for (Command<C> member : members) {
+            flatten(member, nested, active);
+        }
+        active.remove(command);
+
+        for (Command<C> member : nested) {
+            if (member instanceof Filter) {
+                flat.add(new CompiledChain<>(nested));
+                return;
+            }
+        }
+
+        flat.addAll(nested);
+    }
+
+    /**
+     * Return the catalog in which the specified lookup searches, if its
+     * command can be determined ahead of time.
+     *
+     * @param lookup The lookup command
+     * @return the catalog or <code>null</code> if the lookup cannot be bound
+     */
+    private static <C extends Context> Catalog<C> findCatalog(
+        LookupCommand<C> lookup) {
+        if ((lookup.getName() == null) || lookup.isIgnoreExecuteResult()
+            || lookup.isIgnorePostprocessResult()) {
+            return null;
+        }
+
+        CatalogFactory<C> factory = lookup.getCatalogFactory();
+
+        if (factory == null) {
+            factory = CatalogFactory.getInstance();
+        }
+
+        return (lookup.getCatalogName() == null) ? factory.getCatalog()
+            : factory.getCatalog(lookup.getCatalogName());
+    }
+
+    /**
+     * Return the members of the specified command if it is a plain
+     * <code>ChainBase</code>. Subclasses are not inlined, since they may
+     * change the way their members are executed.
+     *
+     * @param command The command
+     * @return the members or <code>null</code> if the command is no plain
+     *         chain or its members are not accessible
+     */
+    @SuppressWarnings("unchecked")
+    private static <C extends Context> Command<C>[] getMembers(
+        Command<C> command) {
+        if ((GET_COMMANDS == null) || (command == null)
+            || (command.getClass() != ChainBase.class)) {
+            return null;
+        }
+
+        try {
+            return (Command<C>[]) GET_COMMANDS.invoke(command);
+        } catch (Exception e) {
+            LOG.debug("Unable to access commands of chain {}", command, e);
+            return null;
+        }
+    }
+
+    /**
+     * Find the package-private accessor of the commands of a
+     * <code>ChainBase</code>.
+     *
+     * @return the accessor or <code>null</code> if it is not accessible
+     */
+    private static Method findGetCommands() {
+        try {
+            Method method = ChainBase.class.getDeclaredMethod("getCommands");
+
+            if (method.getReturnType() != Command[].class) {
+                LOG.info("Chains will not be inlined, unexpected {}", method);
+                return null;
+            }
+
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            // RuntimeException covers SecurityException and
+            // InaccessibleObjectException
+            LOG.info("Chains will not be inlined: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -37,6 +37,8 @@ import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.RequestProcessor;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.chain.contexts.TypedServletActionContext;
+import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.ControllerConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.upload.MultipartRequestWrapper;
@@ -62,6 +64,10 @@ import org.slf4j.LoggerFactory;
  *
  * </ul>
  *
+ * <p>Setting the ControllerConfig property {@link #COMPILE_CHAIN} to
+ * <code>true</code> binds the lookups of the command once at
+ * initialization, instead of resolving them on each request.</p>
+ *
  * @since Struts 1.1
  */
 public class ComposableRequestProcessor extends RequestProcessor {
@@ -84,6 +90,17 @@ public class ComposableRequestProcessor extends RequestProcessor {
      */
     public static final String ACTION_CONTEXT_CLASS = "ACTION_CONTEXT_CLASS";
 
+    /**
+     * Token for the ControllerConfig property which enables the compiled
+     * processing chain. If set to <code>true</code>, the configured command
+     * is flattened once at initialization by {@link CompiledChain}, and each
+     * request gets a {@link TypedServletActionContext} unless another
+     * context class has been configured.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String COMPILE_CHAIN = "COMPILE_CHAIN";
+
     /**
      * The {@code Log} instance for this class.
      */
@@ -118,6 +135,18 @@ public class ComposableRequestProcessor extends RequestProcessor {
      */
     private Constructor<? extends ActionContext> servletActionContextConstructor = null;
 
+    /**
+     * Whether the command has been compiled by {@link CompiledChain}.
+     */
+    private boolean compiled = false;
+
+    /**
+     * The compiled command recording the metrics of each of its commands,
+     * or <code>null</code> if metrics are disabled or the command is not
+     * compiled.
+     */
+    private Command<ActionContext> meteredCommand = null;
+
     // ---------------------------------------------------------- Public Methods
 
     /**
@@ -128,8 +157,10 @@ public class ComposableRequestProcessor extends RequestProcessor {
         catalogFactory = null;
         catalog = null;
         command = null;
+        meteredCommand = null;
         actionContextClass = null;
         servletActionContextConstructor = null;
+        compiled = false;
     }
 
     /**
@@ -169,6 +200,19 @@ public class ComposableRequestProcessor extends RequestProcessor {
                 + "'");
         }
 
+        if (Boolean.parseBoolean(controllerConfig.getProperty(COMPILE_CHAIN))) {
+            command = CompiledChain.compile(command);
+            compiled = true;
+        }
+
+        if (compiled && (metrics != null)
+            && (command instanceof CompiledChain)) {
+            meteredCommand =
+                ((CompiledChain<ActionContext>) command).withMetrics(metrics);
+        } else {
+            meteredCommand = null;
+        }
+
         this.setActionContextClassName(controllerConfig.getProperty(
                 ACTION_CONTEXT_CLASS));
     }
@@ -275,17 +319,32 @@ public class ComposableRequestProcessor extends RequestProcessor {
         // Create and populate a Context for this request
         ActionContext context = contextInstance(request, response);
 
+        // Measure the request if it is sampled
+        boolean sampled = (metrics != null) && metrics.sample();
+        long start = sampled ? System.nanoTime() : 0L;
+        boolean failed = true;
+
         // Create and execute the command.
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Using processing chain for this request");
             }
 
-            command.execute(context);
+            if (sampled && (meteredCommand != null)) {
+                meteredCommand.execute(context);
+            } else {
+                command.execute(context);
+            }
+
+            failed = false;
         } catch (Exception e) {
             // Execute the exception processing chain??
             throw new ServletException(e);
         } finally {
+            if (sampled) {
+                recordAction(context, System.nanoTime() - start, failed);
+            }
+
             // Release the context.
             if (context != null) {
                 context.release();
@@ -293,6 +352,25 @@ public class ComposableRequestProcessor extends RequestProcessor {
         }
     }
 
+    /**
+     * Record a measured request in the metric of its action, if an action
+     * has been selected. A request whose exception has been handled by the
+     * chain is counted as failed.
+     *
+     * @param context The context of the request
+     * @param nanos   The duration of the request in nanoseconds
+     * @param failed  Whether the chain failed
+     */
+    private void recordAction(ActionContext context, long nanos,
+        boolean failed) {
+        ActionConfig actionConfig = context.getActionConfig();
+
+        if (actionConfig != null) {
+            metrics.getActionMetric(moduleConfig.getPrefix(), actionConfig)
+                .record(nanos, failed || (context.getException() != null));
+        }
+    }
+
     /**
      * Provide the initialized {@code ActionContext} instance which will be
      * used by this request. Internally, this simply calls
@@ -320,11 +398,13 @@ public class ComposableRequestProcessor extends RequestProcessor {
     /**
      * Create a new instance of {@code ActionContext} according to
      * configuration. If no alternative was specified at initialization, a new
-     * instance {@code ServletActionContext} is returned. If an alternative was
-     * specified using the {@code ACTION_CONTEXT_CLASS} property, then that
-     * value is treated as a classname, and an instance of that class is
-     * created. If that class implements the same constructor that
-     * {@code ServletActionContext} does, then that constructor will be used:
+     * instance {@code ServletActionContext} is returned, or a
+     * {@code TypedServletActionContext} if the chain has been compiled. If
+     * an alternative was specified using the {@code ACTION_CONTEXT_CLASS}
+     * property, then that value is treated as a classname, and an instance
+     * of that class is created. If that class implements the same
+     * constructor that {@code ServletActionContext} does, then that
+     * constructor will be used:
      * {@code ServletContext, HttpServletRequest, HttpServletResponse};
      * otherwise, it is assumed that the class has a no-arguments constructor.
      * If these constraints do not suit you, simply override this method in a subclass.
@@ -342,6 +422,11 @@ public class ComposableRequestProcessor extends RequestProcessor {
         HttpServletResponse response)
         throws ServletException {
         if (this.actionContextClass == null) {
+            if (compiled) {
+                return new TypedServletActionContext(servletContext, request,
+                    response);
+            }
+
             return new ServletActionContext(servletContext, request, response);
         }
 
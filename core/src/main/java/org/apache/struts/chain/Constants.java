@@ -112,6 +112,16 @@ public final class Constants {
      */
     public static final String ACTIONS_KEY = "actions";
 
+    /**
+     * <p>The base part of the context attribute under which the
+     * <code>ActionRegistry</code> of the Action instances associated with
+     * this module is stored. This value must be suffixed with the module
+     * prefix in order to create a unique key per module.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String ACTION_REGISTRY_KEY = "actionRegistry";
+
     /**
      * <p>The base part of the context attribute under which a Map containing
      * the Dispatcher instances associated with this module are stored. This value
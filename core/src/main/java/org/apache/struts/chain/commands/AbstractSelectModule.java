@@ -24,6 +24,7 @@ import org.apache.struts.Globals;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.util.MessageResources;
+import org.apache.struts.util.ModuleRouteTable;
 
 /**
  * <p>Cache the <code>ModuleConfig</code> and <code>MessageResources</code>
@@ -52,13 +53,24 @@ public abstract class AbstractSelectModule extends ActionCommandBase {
     @Override
     protected boolean execute_(ActionContext actionCtx)
         throws Exception {
-        String prefix = getPrefix(actionCtx);
+        ModuleConfig moduleConfig;
+        MessageResources messageResources;
+        String prefix;
 
-        // Cache the corresponding ModuleConfig and MessageResources instances
-        ModuleConfig moduleConfig =
-            (ModuleConfig) actionCtx.getApplicationScope().get(Globals.MODULE_KEY
-                + prefix);
+        ModuleRouteTable.Route route = getRoute(actionCtx);
+        if (route != null) {
+            prefix = route.getPrefix();
+            moduleConfig = route.getModuleConfig();
+            messageResources = route.getMessageResources();
+        } else {
+            prefix = getPrefix(actionCtx);
+            moduleConfig = (ModuleConfig) actionCtx.getApplicationScope()
+                .get(Globals.MODULE_KEY + prefix);
+            messageResources = (MessageResources) actionCtx
+                .getApplicationScope().get(Globals.MESSAGES_KEY + prefix);
+        }
 
+        // Cache the corresponding ModuleConfig and MessageResources instances
         if (moduleConfig == null) {
             throw new IllegalArgumentException("No module config for prefix '"
                 + prefix + "'");
@@ -66,13 +78,10 @@ public abstract class AbstractSelectModule extends ActionCommandBase {
 
         actionCtx.setModuleConfig(moduleConfig);
 
-        String key = Globals.MESSAGES_KEY + prefix;
-        MessageResources messageResources =
-            (MessageResources) actionCtx.getApplicationScope().get(key);
-
         if (messageResources == null) {
             throw new IllegalArgumentException(
-                "No message resources found in application scope under " + key);
+                "No message resources found in application scope under "
+                + Globals.MESSAGES_KEY + prefix);
         }
 
         actionCtx.setMessageResources(messageResources);
@@ -93,4 +102,34 @@ public abstract class AbstractSelectModule extends ActionCommandBase {
      *                                  this request
      */
     protected abstract String getPrefix(ActionContext context);
+
+    /**
+     * <p>Return the precompiled route of the module to be selected for this
+     * request, if a {@link ModuleRouteTable} is available. The default
+     * implementation looks up the route by the prefix returned from
+     * <code>getPrefix</code>.</p>
+     *
+     * @param context The <code>Context</code> for this request
+     * @return The route of the module or <code>null</code> if no route
+     *         table is available
+     * @since Struts 1.5.0
+     */
+    protected ModuleRouteTable.Route getRoute(ActionContext context) {
+        ModuleRouteTable routes = getModuleRoutes(context);
+
+        return (routes == null) ? null : routes.getRoute(getPrefix(context));
+    }
+
+    /**
+     * <p>Return the {@link ModuleRouteTable} stored in application scope, if
+     * any.</p>
+     *
+     * @param context The <code>Context</code> for this request
+     * @return The route table or <code>null</code>
+     * @since Struts 1.5.0
+     */
+    protected ModuleRouteTable getModuleRoutes(ActionContext context) {
+        return (ModuleRouteTable) context.getApplicationScope()
+            .get(Globals.MODULE_ROUTES_KEY);
+    }
 }
@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionRegistry;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.chain.Constants;
 import org.apache.struts.chain.commands.util.ClassUtils;
@@ -52,7 +53,7 @@ public class CreateAction
     /* :TODO The Action class' dependency on having its "servlet" property set
      * requires this API-dependent subclass of AbstractCreateAction.
      */
-    protected synchronized Action getAction(ActionContext context, String type,
+    protected Action getAction(ActionContext context, String type,
         ActionConfig actionConfig)
         throws Exception {
 
@@ -60,26 +61,15 @@ public class CreateAction
         ActionServlet actionServlet = saContext.getActionServlet();
 
         ModuleConfig moduleConfig = actionConfig.getModuleConfig();
-        String actionsKey = Constants.ACTIONS_KEY + moduleConfig.getPrefix();
-        @SuppressWarnings("unchecked")
-        Map<String, Action> actions = (Map<String, Action>) context.getApplicationScope().get(actionsKey);
-
-        if (actions == null) {
-            actions = new HashMap<>();
-            context.getApplicationScope().put(actionsKey, actions);
-        }
+        ActionRegistry actions = getActionRegistry(context, moduleConfig);
 
         Action action = null;
 
         try {
             if (actionConfig.isSingleton()) {
-                synchronized (actions) {
-                    action = actions.get(type);
-                    if (action == null) {
-                        action = createAction(context, type);
-                        actions.put(type, action);
-                    }
-                }
+                action = actions.getAction(type,
+                    getActions(context, moduleConfig),
+                    actionType -> createAction(context, actionType));
             } else {
                 action = createAction(context, type);
             }
@@ -99,6 +89,87 @@ public class CreateAction
         return (action);
     }
 
+    /**
+     * <p>Return the {@link ActionRegistry} of the specified module, which is
+     * stored in application scope. A missing registry is created once; if
+     * the controller of the module requests it, all singleton actions are
+     * created in advance at this time.</p>
+     *
+     * @param context      The <code>Context</code> for this request
+     * @param moduleConfig The module of the requested Action
+     * @return The registry of the module
+     * @since Struts 1.5.0
+     */
+    protected ActionRegistry getActionRegistry(ActionContext context,
+        ModuleConfig moduleConfig) {
+        Map<String, Object> applicationScope = context.getApplicationScope();
+        String registryKey =
+            Constants.ACTION_REGISTRY_KEY + moduleConfig.getPrefix();
+        Object stored = applicationScope.get(registryKey);
+
+        if (stored instanceof ActionRegistry) {
+            return (ActionRegistry) stored;
+        }
+
+        ActionRegistry actions;
+
+        synchronized (this) {
+            stored = applicationScope.get(registryKey);
+
+            if (stored instanceof ActionRegistry) {
+                actions = (ActionRegistry) stored;
+            } else {
+                actions = new ActionRegistry();
+
+                if (moduleConfig.getControllerConfig().getPreloadActions()) {
+                    ActionServlet actionServlet =
+                        ((ServletActionContext) context).getActionServlet();
+                    actions.preload(moduleConfig, true,
+                        getActions(context, moduleConfig), type -> {
+                            Action action = createAction(context, type);
+                            if (action.getServlet() == null) {
+                                action.setServlet(actionServlet);
+                            }
+                            return action;
+                        });
+                }
+
+                applicationScope.put(registryKey, actions);
+            }
+        }
+
+        return actions;
+    }
+
+    /**
+     * <p>Return the map of the <code>Action</code> instances of the
+     * specified module stored in application scope under
+     * <code>Constants.ACTIONS_KEY</code>, creating it if necessary. The
+     * {@link ActionRegistry} of the module keeps it in step.</p>
+     *
+     * @param context      The <code>Context</code> for this request
+     * @param moduleConfig The module of the requested Action
+     * @return The map of the <code>Action</code> instances
+     */
+    private Map<String, Action> getActions(ActionContext context,
+        ModuleConfig moduleConfig) {
+        Map<String, Object> applicationScope = context.getApplicationScope();
+        String actionsKey = Constants.ACTIONS_KEY + moduleConfig.getPrefix();
+
+        synchronized (this) {
+            @SuppressWarnings("unchecked")
+            Map<String, Action> actions =
+                (Map<String, Action>) applicationScope.get(actionsKey);
+
+            if (actions == null) {
+                actions = new HashMap<>();
+                applicationScope.put(actionsKey, actions);
+            }
+
+            return actions;
+        }
+    }
+
     /**
      * <p>Invoked by <code>getAction</code> when the <code>Action</code>
      * actually has to be created. If the instance is already created and
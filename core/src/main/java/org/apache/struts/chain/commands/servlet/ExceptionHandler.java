@@ -20,6 +20,8 @@
  */
 package org.apache.struts.chain.commands.servlet;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -43,6 +45,12 @@ import org.apache.struts.config.ModuleConfig;
 public class ExceptionHandler extends AbstractExceptionHandler {
     // ------------------------------------------------------ Instance Variables
 
+    /**
+     * <p>The shared handler instances that have been created, keyed by the
+     * fully qualified Java class name of the handler class.</p>
+     */
+    private final ConcurrentHashMap<String, org.apache.struts.action.ExceptionHandler> handlers =
+        new ConcurrentHashMap<>();
 
     // ------------------------------------------------------- Protected Methods
     protected ForwardConfig handle(ActionContext context, Exception exception,
@@ -57,10 +65,50 @@ public class ExceptionHandler extends AbstractExceptionHandler {
 
         // Handle this exception
         org.apache.struts.action.ExceptionHandler handler =
-            (org.apache.struts.action.ExceptionHandler) ClassUtils
-            .getApplicationInstance(exceptionConfig.getHandler());
+            getHandler(exceptionConfig, moduleConfig);
 
         return (handler.execute(exception, exceptionConfig,
             (ActionMapping) actionConfig, actionForm, request, response));
     }
+
+    /**
+     * <p>Return a handler instance of the handler class of the specified
+     * configuration. A new instance is created for each call, unless the
+     * controller of the module shares exception handlers: then the instance
+     * is created once per class and shared by all requests, so it must be
+     * thread-safe.</p>
+     *
+     * @param exceptionConfig The exception configuration
+     * @param moduleConfig    The current module
+     * @return The handler instance
+     * @throws Exception if the instance cannot be created
+     * @since Struts 1.5.0
+     */
+    protected org.apache.struts.action.ExceptionHandler getHandler(
+        ExceptionConfig exceptionConfig, ModuleConfig moduleConfig)
+        throws Exception {
+        String type = exceptionConfig.getHandler();
+
+        if (!moduleConfig.getControllerConfig().getShareExceptionHandlers()) {
+            return (org.apache.struts.action.ExceptionHandler) ClassUtils
+                .getApplicationInstance(type);
+        }
+
+        org.apache.struts.action.ExceptionHandler handler = handlers.get(type);
+
+        if (handler == null) {
+            handler =
+                (org.apache.struts.action.ExceptionHandler) ClassUtils
+                .getApplicationInstance(type);
+
+            org.apache.struts.action.ExceptionHandler previous =
+                handlers.putIfAbsent(type, handler);
+
+            if (previous != null) {
+                handler = previous;
+            }
+        }
+
+        return handler;
+    }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.apache.struts.chain.Constants;
 import org.apache.struts.chain.commands.AbstractSelectModule;
 import org.apache.struts.chain.contexts.ActionContext;
 import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.util.ModuleRouteTable;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -38,20 +39,18 @@ import jakarta.servlet.http.HttpServletRequest;
  */
 public class SelectModule extends AbstractSelectModule {
     // ------------------------------------------------------- Protected Methods
+    @Override
+    protected ModuleRouteTable.Route getRoute(ActionContext context) {
+        ModuleRouteTable routes = getModuleRoutes(context);
+
+        return (routes == null) ? null
+            : routes.findRoute(getUri((ServletActionContext) context));
+    }
+
     protected String getPrefix(ActionContext context) {
         // Identify the URI from which we will match a module prefix
         ServletActionContext sacontext = (ServletActionContext) context;
-        HttpServletRequest request = sacontext.getRequest();
-        String uri =
-            (String) request.getAttribute(Constants.INCLUDE_SERVLET_PATH);
-
-        if (uri == null) {
-            uri = request.getServletPath();
-        }
-
-        if (uri == null) {
-            throw new IllegalArgumentException("No path information in request");
-        }
+        String uri = getUri(sacontext);
 
         // Identify the module prefix for the current module
         String prefix = ""; // Initialize to default prefix
@@ -73,4 +72,28 @@ public class SelectModule extends AbstractSelectModule {
 
         return (prefix);
     }
+
+    /**
+     * <p>Return the URI from which we will match a module prefix.</p>
+     *
+     * @param sacontext The <code>Context</code> for this request
+     * @return The URI of this request
+     * @throws IllegalArgumentException if the request contains no path
+     *                                  information
+     */
+    private String getUri(ServletActionContext sacontext) {
+        HttpServletRequest request = sacontext.getRequest();
+        String uri =
+            (String) request.getAttribute(Constants.INCLUDE_SERVLET_PATH);
+
+        if (uri == null) {
+            uri = request.getServletPath();
+        }
+
+        if (uri == null) {
+            throw new IllegalArgumentException("No path information in request");
+        }
+
+        return uri;
+    }
 }
@@ -0,0 +1,515 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain.contexts;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.chain.web.jakarta.servlet.ServletWebContext;
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionServlet;
+import org.apache.struts.chain.Constants;
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ForwardConfig;
+import org.apache.struts.config.ModuleConfig;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * <p> A <code>ServletActionContext</code> which keeps the well-known
+ * properties of the request processing in fields. </p> <p> The values of
+ * the well-known keys listed in {@link #KEYS} are stored only in fields,
+ * so that neither the typed accessors nor <code>put</code> touch the
+ * wrapped map. The map operations and the collection views of this
+ * context include them, the wrapped context itself does not contain
+ * them. Storing <code>null</code> under a well-known key removes it. </p>
+ *
+ * @since Struts 1.5.0
+ */
+public class TypedServletActionContext extends ServletActionContext {
+
+    /**
+     * The well-known keys whose values are kept in fields.
+     */
+    static final String[] KEYS = {
+        Constants.ACTION_KEY, Constants.ACTION_CONFIG_KEY,
+        Constants.ACTION_FORM_KEY, Constants.ACTION_SERVLET_KEY,
+        Constants.EXCEPTION_KEY, Constants.FORWARD_CONFIG_KEY,
+        Constants.INCLUDE_KEY, Constants.LOCALE_KEY,
+        Constants.MODULE_CONFIG_KEY, Constants.VALID_KEY
+    };
+
+    // The values of the well-known keys
+
+    private Object action;
+
+    private Object actionConfig;
+
+    private Object actionForm;
+
+    private Object actionServlet;
+
+    private Object exception;
+
+    private Object forwardConfig;
+
+    private Object include;
+
+    private Object locale;
+
+    private Object moduleConfig;
+
+    private Object valid;
+
+    /**
+     * Instantiate this composite by wrapping a ServletWebContext.
+     *
+     * @param context The ServletWebContext to wrap
+     */
+    public TypedServletActionContext(ServletWebContext context) {
+        super(context);
+    }
+
+    /**
+     * Instantiate this Context for a given {@code ServletContext},
+     * {@code HttpServletRequest}, and {@code HttpServletResponse}.
+     *
+     * @param context  The instant ServletContext
+     * @param request  The instant HttpServletRequest
+     * @param response The instant HttpServletResponse
+     */
+    public TypedServletActionContext(ServletContext context,
+        HttpServletRequest request, HttpServletResponse response) {
+        this(new ServletWebContext(context, request, response));
+    }
+
+    // -------------------------------
+    // Map interface methods
+    // -------------------------------
+    public Object put(String key, Object value) {
+        if (isKnown(key)) {
+            return assign(key, value);
+        }
+
+        return super.put(key, value);
+    }
+
+    public Object get(Object key) {
+        if (isKnown(key)) {
+            return field((String) key);
+        }
+
+        return super.get(key);
+    }
+
+    public boolean containsKey(Object key) {
+        if (isKnown(key)) {
+            return field((String) key) != null;
+        }
+
+        return super.containsKey(key);
+    }
+
+    public boolean containsValue(Object value) {
+        for (String key : KEYS) {
+            Object field = field(key);
+
+            if ((field != null) && field.equals(value)) {
+                return true;
+            }
+        }
+
+        return super.containsValue(value);
+    }
+
+    public int size() {
+        int size = super.size();
+
+        for (String key : KEYS) {
+            if (field(key) != null) {
+                size++;
+            }
+        }
+
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new EntrySet();
+    }
+
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            public Iterator<String> iterator() {
+                Iterator<Map.Entry<String, Object>> entries =
+                    new EntryIterator();
+
+                return new Iterator<String>() {
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    public String next() {
+                        return entries.next().getKey();
+                    }
+
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            public int size() {
+                return TypedServletActionContext.this.size();
+            }
+
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            public boolean remove(Object key) {
+                boolean contained = containsKey(key);
+                TypedServletActionContext.this.remove(key);
+                return contained;
+            }
+        };
+    }
+
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            public Iterator<Object> iterator() {
+                Iterator<Map.Entry<String, Object>> entries =
+                    new EntryIterator();
+
+                return new Iterator<Object>() {
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    public Object next() {
+                        return entries.next().getValue();
+                    }
+
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            public int size() {
+                return TypedServletActionContext.this.size();
+            }
+        };
+    }
+
+    public void putAll(Map<? extends String, ? extends Object> map) {
+        for (Map.Entry<? extends String, ? extends Object> entry
+            : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public Object remove(Object key) {
+        if (isKnown(key)) {
+            return assign((String) key, null);
+        }
+
+        return super.remove(key);
+    }
+
+    public void clear() {
+        action = null;
+        actionConfig = null;
+        actionForm = null;
+        actionServlet = null;
+        exception = null;
+        forwardConfig = null;
+        include = null;
+        locale = null;
+        moduleConfig = null;
+        valid = null;
+        super.clear();
+    }
+
+    // -------------------------------
+    // Typed properties
+    // -------------------------------
+    public Action getAction() {
+        return (Action) action;
+    }
+
+    public ActionConfig getActionConfig() {
+        return (ActionConfig) actionConfig;
+    }
+
+    public ActionForm getActionForm() {
+        return (ActionForm) actionForm;
+    }
+
+    public ActionServlet getActionServlet() {
+        return (ActionServlet) actionServlet;
+    }
+
+    public Exception getException() {
+        return (Exception) exception;
+    }
+
+    public ForwardConfig getForwardConfig() {
+        return (ForwardConfig) forwardConfig;
+    }
+
+    public String getInclude() {
+        return (String) include;
+    }
+
+    public Locale getLocale() {
+        return (Locale) locale;
+    }
+
+    public ModuleConfig getModuleConfig() {
+        if (moduleConfig != null) {
+            return (ModuleConfig) moduleConfig;
+        }
+
+        return super.getModuleConfig();
+    }
+
+    public Boolean getFormValid() {
+        return (Boolean) valid;
+    }
+
+    /**
+     * Return <code>true</code> if the specified key is a well-known key,
+     * whose value is kept in a field.
+     *
+     * @param key The key
+     * @return <code>true</code> if the key is a well-known key
+     */
+    private static boolean isKnown(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+
+        switch ((String) key) {
+        case Constants.ACTION_KEY:
+        case Constants.ACTION_CONFIG_KEY:
+        case Constants.ACTION_FORM_KEY:
+        case Constants.ACTION_SERVLET_KEY:
+        case Constants.EXCEPTION_KEY:
+        case Constants.FORWARD_CONFIG_KEY:
+        case Constants.INCLUDE_KEY:
+        case Constants.LOCALE_KEY:
+        case Constants.MODULE_CONFIG_KEY:
+        case Constants.VALID_KEY:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Return the value of a well-known key.
+     *
+     * @param key The well-known key
+     * @return the value or <code>null</code>
+     */
+    private Object field(String key) {
+        switch (key) {
+        case Constants.ACTION_KEY:
+            return action;
+        case Constants.ACTION_CONFIG_KEY:
+            return actionConfig;
+        case Constants.ACTION_FORM_KEY:
+            return actionForm;
+        case Constants.ACTION_SERVLET_KEY:
+            return actionServlet;
+        case Constants.EXCEPTION_KEY:
+            return exception;
+        case Constants.FORWARD_CONFIG_KEY:
+            return forwardConfig;
+        case Constants.INCLUDE_KEY:
+            return include;
+        case Constants.LOCALE_KEY:
+            return locale;
+        case Constants.MODULE_CONFIG_KEY:
+            return moduleConfig;
+        case Constants.VALID_KEY:
+            return valid;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Store the value of a well-known key in its field.
+     *
+     * @param key   The well-known key
+     * @param value The new value or <code>null</code>
+     * @return the previous value or <code>null</code>
+     */
+    private Object assign(String key, Object value) {
+        Object previous = field(key);
+
+        switch (key) {
+        case Constants.ACTION_KEY:
+            action = value;
+            break;
+        case Constants.ACTION_CONFIG_KEY:
+            actionConfig = value;
+            break;
+        case Constants.ACTION_FORM_KEY:
+            actionForm = value;
+            break;
+        case Constants.ACTION_SERVLET_KEY:
+            actionServlet = value;
+            break;
+        case Constants.EXCEPTION_KEY:
+            exception = value;
+            break;
+        case Constants.FORWARD_CONFIG_KEY:
+            forwardConfig = value;
+            break;
+        case Constants.INCLUDE_KEY:
+            include = value;
+            break;
+        case Constants.LOCALE_KEY:
+            locale = value;
+            break;
+        case Constants.MODULE_CONFIG_KEY:
+            moduleConfig = value;
+            break;
+        case Constants.VALID_KEY:
+            valid = value;
+            break;
+        default:
+            break;
+        }
+
+        return previous;
+    }
+
+    /**
+     * The entries of this context: those of the wrapped map, followed by
+     * the well-known keys which have a value.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        public int size() {
+            return TypedServletActionContext.this.size();
+        }
+
+        public void clear() {
+            TypedServletActionContext.this.clear();
+        }
+    }
+
+    /**
+     * Iterates the entries of the wrapped map, then the well-known keys
+     * which have a value.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<Map.Entry<String, Object>> base =
+            TypedServletActionContext.super.entrySet().iterator();
+
+        private int next = -1;
+
+        private int current = -1;
+
+        private boolean inBase = true;
+
+        public boolean hasNext() {
+            if (base.hasNext()) {
+                return true;
+            }
+
+            return findNext() < KEYS.length;
+        }
+
+        public Map.Entry<String, Object> next() {
+            if (base.hasNext()) {
+                return base.next();
+            }
+
+            inBase = false;
+            current = findNext();
+            next = -1;
+
+            if (current >= KEYS.length) {
+                throw new NoSuchElementException();
+            }
+
+            String key = KEYS[current];
+
+            return new AbstractMap.SimpleEntry<String, Object>(key,
+                field(key)) {
+                private static final long serialVersionUID = 1L;
+
+                public Object setValue(Object value) {
+                    super.setValue(value);
+                    return put(key, value);
+                }
+            };
+        }
+
+        public void remove() {
+            if (inBase) {
+                base.remove();
+            } else if (current >= 0) {
+                assign(KEYS[current], null);
+                current = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        /**
+         * Return the index of the next well-known key which has a value.
+         */
+        private int findNext() {
+            if (next < 0) {
+                next = current + 1;
+
+                while ((next < KEYS.length) && (field(KEYS[next]) == null)) {
+                    next++;
+                }
+            }
+
+            return next;
+        }
+    }
+}
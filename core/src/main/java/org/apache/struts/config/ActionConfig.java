@@ -23,6 +23,7 @@ package org.apache.struts.config;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.struts.util.RequestUtils;
@@ -43,11 +44,33 @@ public class ActionConfig extends BaseConfig {
     /**
      * The {@code Log} instance for this class.
      */
-    private transient final Logger log =
+    private static final Logger LOG =
         LoggerFactory.getLogger(ActionConfig.class);
 
+    /**
+     * <p>The maximum number of exception classes whose configuration is
+     * cached by {@link #findException(Class)}.</p>
+     *
+     * @since Struts 1.5.0
+     */
+    public static final int MAX_EXCEPTION_TYPES = 1000;
+
+    /**
+     * <p>Marks an exception class without configuration in the cache of
+     * {@link #findException(Class)}.</p>
+     */
+    private static final ExceptionConfig NO_EXCEPTION_CONFIG =
+        new ExceptionConfig();
+
     // ----------------------------------------------------- Instance Variables
 
+    /**
+     * <p>The results of {@link #findException(Class)} keyed by exception
+     * class, once this action and its module are frozen. The cache is
+     * cleared when it holds {@link #MAX_EXCEPTION_TYPES} entries.</p>
+     */
+    private transient volatile ConcurrentHashMap<Class<?>, ExceptionConfig> exceptionCache;
+
     /**
      * <p> The set of exception handling configurations for this action, if
      * any, keyed by the <code>type</code> property. </p>
@@ -158,6 +181,14 @@ public class ActionConfig extends BaseConfig {
      */
     protected String path = null;
 
+    /**
+     * <p> Path of the wildcard mapping this configuration was created from,
+     * or <code>null</code> if it is not the result of a wildcard match. </p>
+     *
+     * @since Struts 1.5.0
+     */
+    protected String wildcardPath = null;
+
     /**
      * <p> Prefix used to match request parameter names to form bean property
      * names, if any. </p>
@@ -584,6 +615,34 @@ public class ActionConfig extends BaseConfig {
         this.path = path;
     }
 
+    /**
+     * <p> Return the path of the wildcard mapping this configuration was
+     * created from, or <code>null</code> if it is not the result of a
+     * wildcard match.
+     *
+     * @return the path of the wildcard mapping
+     * @since Struts 1.5.0
+     */
+    public String getWildcardPath() {
+        return (this.wildcardPath);
+    }
+
+    /**
+     * <p> Set the path of the wildcard mapping this configuration was
+     * created from.
+     *
+     * @param wildcardPath the path of the wildcard mapping
+     * @since Struts 1.5.0
+     * @throws IllegalStateException if the configuration is frozen
+     */
+    public void setWildcardPath(String wildcardPath) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.wildcardPath = wildcardPath;
+    }
+
     /**
      * <p> Retruns prefix used to match request parameter names to form bean
      * property names, if any.
@@ -1129,10 +1188,54 @@ public class ActionConfig extends BaseConfig {
      * <p>Introduced in <code>ActionMapping</code> in Struts 1.1, but pushed
      * up to <code>ActionConfig</code> in Struts 1.2.0.</p>
      *
+     * <p>Once this action and its module are frozen, the result is cached
+     * per exception class.</p>
+     *
      * @param type Exception class for which to find a handler
      * @since Struts 1.2.0
      */
     public ExceptionConfig findException(Class<?> type) {
+        ConcurrentHashMap<Class<?>, ExceptionConfig> cache = exceptionCache;
+
+        if (cache == null) {
+            ModuleConfig moduleConfig = getModuleConfig();
+
+            // The configurations may still change
+            if (!configured || (moduleConfig == null)
+                || !moduleConfig.getConfigured()) {
+                return searchException(type);
+            }
+
+            cache = new ConcurrentHashMap<>();
+            exceptionCache = cache;
+        }
+
+        ExceptionConfig config = cache.get(type);
+
+        if (config == null) {
+            config = searchException(type);
+
+            if (cache.size() >= MAX_EXCEPTION_TYPES) {
+                cache.clear();
+            }
+
+            cache.putIfAbsent(type,
+                (config == null) ? NO_EXCEPTION_CONFIG : config);
+        } else if (config == NO_EXCEPTION_CONFIG) {
+            config = null;
+        }
+
+        return config;
+    }
+
+    /**
+     * <p>Search the local and then the global configurations for the
+     * specified exception class and its superclasses.</p>
+     *
+     * @param type Exception class for which to find a handler
+     * @return the configuration or <code>null</code> if there is none
+     */
+    private ExceptionConfig searchException(Class<?> type) {
         // Check through the entire superclass hierarchy as needed
         ExceptionConfig config;
 
@@ -1140,7 +1243,7 @@ public class ActionConfig extends BaseConfig {
             // Check for a locally defined handler
             String name = type.getName();
 
-            log.debug("findException: look locally for {}", name);
+            LOG.debug("findException: look locally for {}", name);
             config = findExceptionConfig(name);
 
             if (config != null) {
@@ -1148,7 +1251,7 @@ public class ActionConfig extends BaseConfig {
             }
 
             // Check for a globally defined handler
-            log.debug("findException: look globally for {}", name);
+            LOG.debug("findException: look globally for {}", name);
             config = getModuleConfig().findExceptionConfig(name);
 
             if (config != null) {
@@ -22,9 +22,12 @@ package org.apache.struts.config;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.struts.action.ActionForward;
@@ -39,6 +42,12 @@ import org.slf4j.LoggerFactory;
  * config file. The last match wins, so more specific patterns should be
  * defined after less specific patterns.
  *
+ * <p> The patterns are indexed by their literal prefix (the characters
+ * before the first wildcard) in a trie, so only patterns whose prefix
+ * matches the requested path are evaluated. Resolved paths are kept in a
+ * bounded cache together with their frozen ActionConfig, so subsequent
+ * requests for the same path neither match nor clone again. </p>
+ *
  * @since Struts 1.2
  */
 public class ActionConfigMatcher implements Serializable {
@@ -47,7 +56,7 @@ public class ActionConfigMatcher implements Serializable {
     /**
      * The {@code Log} instance for this class.
      */
-    private transient final Logger log =
+    private static final Logger LOG =
         LoggerFactory.getLogger(ActionConfigMatcher.class);
 
     /**
@@ -55,11 +64,42 @@ public class ActionConfigMatcher implements Serializable {
      */
     private static final WildcardHelper wildcard = new WildcardHelper();
 
+    /**
+     * <p> The default maximum number of resolved paths to cache. </p>
+     *
+     * @since Struts 1.5.0
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /**
+     * <p> Marker for cached paths which did not match any pattern. </p>
+     */
+    private static final ActionConfig NO_MATCH = new ActionConfig();
+
     /**
      * <p> The compiled paths and their associated ActionConfig's </p>
      */
     private ArrayList<Mapping> compiledPaths;
 
+    /**
+     * <p> The root of the trie indexing the compiled paths by their literal
+     * prefix. </p>
+     */
+    private final PrefixNode prefixes = new PrefixNode();
+
+    /**
+     * <p> The resolved paths and their frozen ActionConfig's, or
+     * {@link #NO_MATCH} if no pattern matched. Not serialized, so that the
+     * {@link #NO_MATCH} marker is never compared with a deserialized copy;
+     * created lazily. </p>
+     */
+    private transient volatile ConcurrentHashMap<String, ActionConfig> resolved;
+
+    /**
+     * <p> The maximum number of resolved paths to cache. </p>
+     */
+    private final int cacheSize;
+
     /**
      * <p> Finds and precompiles the wildcard patterns from the ActionConfig
      * "path" attributes. ActionConfig's will be evaluated in the order they
@@ -69,6 +109,23 @@ public class ActionConfigMatcher implements Serializable {
      * @param configs An array of ActionConfig's to process
      */
     public ActionConfigMatcher(ActionConfig[] configs) {
+        this(configs, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * <p> Finds and precompiles the wildcard patterns from the ActionConfig
+     * "path" attributes. ActionConfig's will be evaluated in the order they
+     * exist in the Struts config file. Only paths that actually contain a
+     * wildcard will be compiled. </p>
+     *
+     * @param configs   An array of ActionConfig's to process
+     * @param cacheSize The maximum number of resolved paths to cache; a
+     *                  value less than or equal to zero disables the cache
+     *
+     * @since Struts 1.5.0
+     */
+    public ActionConfigMatcher(ActionConfig[] configs, int cacheSize) {
+        this.cacheSize = cacheSize;
         compiledPaths = new ArrayList<>();
 
         int[] pattern;
@@ -82,9 +139,10 @@ public class ActionConfigMatcher implements Serializable {
                     path = path.substring(1);
                 }
 
-                log.debug("Compiling action config path '{}'", path);
+                LOG.debug("Compiling action config path '{}'", path);
 
                 pattern = wildcard.compilePattern(path);
+                prefixes.add(pattern, compiledPaths.size());
                 compiledPaths.add(new Mapping(pattern, configs[x]));
             }
         }
@@ -97,38 +155,88 @@ public class ActionConfigMatcher implements Serializable {
      * @return The action config if matched, else null
      */
     public ActionConfig match(String path) {
-        ActionConfig config = null;
+        if (compiledPaths.isEmpty()) {
+            return null;
+        }
 
-        if (compiledPaths.size() > 0) {
-            log.debug("Attempting to match '{}' to a wildcard pattern",
-                path);
+        ConcurrentHashMap<String, ActionConfig> resolved = this.resolved;
+        if (resolved == null) {
+            resolved = new ConcurrentHashMap<>();
+            this.resolved = resolved;
+        }
 
-            if ((path.length() > 0) && (path.charAt(0) == '/')) {
-                path = path.substring(1);
+        ActionConfig config = resolved.get(path);
+        if (config == null) {
+            config = resolve(path);
+            if (cacheSize > 0) {
+                resolved.put(path, config);
+                if (resolved.size() > cacheSize) {
+                    evict(resolved);
+                }
             }
+        }
+
+        return config == NO_MATCH ? null : config;
+    }
+
+    /**
+     * <p> Matches the path against the compiled wildcard patterns sharing a
+     * literal prefix with the path. The patterns are evaluated from the
+     * last to the first one, because the last match wins. </p>
+     *
+     * @param path The portion of the request URI for selecting a config.
+     * @return The action config if matched, else {@link #NO_MATCH}
+     */
+    private ActionConfig resolve(String path) {
+        LOG.debug("Attempting to match '{}' to a wildcard pattern", path);
 
-            HashMap<String, String> vars = new HashMap<>();
-
-            for (Mapping m : compiledPaths) {
-                if (wildcard.match(vars, path, m.getPattern())) {
-                    log.debug("Path matches pattern '{}'",
-                        m.getActionConfig().getPath());
-
-                    try {
-                        config =
-                            convertActionConfig(path, m.getActionConfig(), vars);
-                    } catch (IllegalStateException e) {
-                        log.warn("Path matches pattern '{}' but is "
-                            + "incompatible with the matching config due "
-                            + "to recursive substitution: {}",
-                            m.getActionConfig().getPath(), path);
-                        config = null;
-                    }
+        if ((path.length() > 0) && (path.charAt(0) == '/')) {
+            path = path.substring(1);
+        }
+
+        int[] candidates = prefixes.candidates(path);
+        HashMap<String, String> vars = new HashMap<>();
+
+        for (int x = candidates.length - 1; x >= 0; x--) {
+            Mapping m = compiledPaths.get(candidates[x]);
+            vars.clear();
+
+            if (wildcard.match(vars, path, m.getPattern())) {
+                LOG.debug("Path matches pattern '{}'",
+                    m.getActionConfig().getPath());
+
+                ActionConfig config;
+                try {
+                    config =
+                        convertActionConfig(path, m.getActionConfig(), vars);
+                } catch (IllegalStateException e) {
+                    LOG.warn("Path matches pattern '{}' but is "
+                        + "incompatible with the matching config due "
+                        + "to recursive substitution: {}",
+                        m.getActionConfig().getPath(), path);
+                    config = null;
                 }
+
+                return config == null ? NO_MATCH : config;
             }
         }
 
-        return config;
+        return NO_MATCH;
+    }
+
+    /**
+     * <p> Evicts resolved paths until the cache is below three quarters of
+     * its maximum size. </p>
+     *
+     * @param resolved The cache of the resolved paths
+     */
+    private void evict(ConcurrentHashMap<String, ActionConfig> resolved) {
+        int target = cacheSize - (cacheSize >> 2);
+        Iterator<String> paths = resolved.keySet().iterator();
+        while (paths.hasNext() && resolved.size() > target) {
+            paths.next();
+            paths.remove();
+        }
     }
 
     /**
@@ -150,7 +258,7 @@ public class ActionConfigMatcher implements Serializable {
         try {
             config = (ActionConfig) BeanUtils.cloneBean(orig);
         } catch (Exception ex) {
-            log.warn("Unable to clone action config, recommend not using "
+            LOG.warn("Unable to clone action config, recommend not using "
                 + "wildcards", ex);
 
             return null;
@@ -163,6 +271,7 @@ public class ActionConfigMatcher implements Serializable {
         }
 
         config.setPath(path);
+        config.setWildcardPath(orig.getPath());
         config.setType(convertParam(orig.getType(), vars));
         config.setRoles(convertParam(orig.getRoles(), vars));
         config.setParameter(convertParam(orig.getParameter(), vars));
@@ -183,7 +292,7 @@ public class ActionConfigMatcher implements Serializable {
             try {
                 cfg = (ActionForward) BeanUtils.cloneBean(fConfigs[x]);
             } catch (Exception ex) {
-                log.warn("Unable to clone action config, recommend not using "
+                LOG.warn("Unable to clone action config, recommend not using "
                         + "wildcards", ex);
                 return null;
             }
@@ -319,4 +428,79 @@ public class ActionConfigMatcher implements Serializable {
             return this.config;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * <p> A node of the trie indexing the compiled paths by their literal
+     * prefix. </p>
+     */
+    private static class PrefixNode implements Serializable {
+        private static final long serialVersionUID = 4125066735536419218L;
+
+        /**
+         * <p> The child nodes, keyed by the next literal character. </p>
+         */
+        private HashMap<Character, PrefixNode> children;
+
+        /**
+         * <p> The indexes of the compiled paths whose literal prefix ends at
+         * this node, in ascending order. </p>
+         */
+        private int[] mappings = new int[0];
+
+        /**
+         * <p> Indexes a compiled path by its literal prefix. </p>
+         *
+         * @param pattern The compiled pattern
+         * @param index   The index of the compiled path
+         */
+        void add(int[] pattern, int index) {
+            PrefixNode node = this;
+
+            // Skip MATCH_BEGIN and follow the characters until the first
+            // wildcard or the end of the pattern
+            for (int x = 1; x < pattern.length && pattern[x] >= 0; x++) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent((char) pattern[x],
+                    c -> new PrefixNode());
+            }
+
+            node.mappings = Arrays.copyOf(node.mappings,
+                node.mappings.length + 1);
+            node.mappings[node.mappings.length - 1] = index;
+        }
+
+        /**
+         * <p> Returns the indexes of all compiled paths whose literal prefix
+         * is a prefix of the path, in ascending order. </p>
+         *
+         * @param path The path to look up
+         * @return the indexes of the candidate compiled paths
+         */
+        int[] candidates(String path) {
+            int[] result = mappings;
+            PrefixNode node = this;
+
+            for (int x = 0; x < path.length() && node.children != null; x++) {
+                node = node.children.get(path.charAt(x));
+                if (node == null) {
+                    break;
+                }
+
+                if (node.mappings.length > 0) {
+                    int[] merged = Arrays.copyOf(result,
+                        result.length + node.mappings.length);
+                    System.arraycopy(node.mappings, 0, merged, result.length,
+                        node.mappings.length);
+                    result = merged;
+                }
+            }
+
+            if (result != mappings) {
+                Arrays.sort(result);
+            }
+            return result;
+        }
+    }
+}
@@ -167,6 +167,17 @@ public class ControllerConfig extends BaseConfig {
      */
     protected String pagePattern = null;
 
+    /**
+     * Should the <code>Action</code> instances of this module be created
+     * in advance, instead of on their first request? The classic
+     * <code>RequestProcessor</code> creates them when it is initialized, the
+     * <code>ComposableRequestProcessor</code> creates all singleton actions
+     * on the first request of the module.
+     *
+     * @since Struts 1.5.0
+     */
+    protected boolean preloadActions = false;
+
     /**
      * The fully qualified class name of the RequestProcessor implementation
      * class to be used for this module.
@@ -174,6 +185,16 @@ public class ControllerConfig extends BaseConfig {
     protected String processorClass =
         "org.apache.struts.chain.ComposableRequestProcessor";
 
+    /**
+     * Should a single instance of each <code>ExceptionHandler</code> class
+     * be shared by all requests of this module, instead of a new instance
+     * being created for each exception? Shared handlers must be
+     * thread-safe.
+     *
+     * @since Struts 1.5.0
+     */
+    protected boolean shareExceptionHandlers = false;
+
     /**
      * The temporary working directory to use for file uploads.
      */
@@ -347,6 +368,18 @@ public class ControllerConfig extends BaseConfig {
         this.pagePattern = pagePattern;
     }
 
+    public boolean getPreloadActions() {
+        return (this.preloadActions);
+    }
+
+    public void setPreloadActions(boolean preloadActions) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.preloadActions = preloadActions;
+    }
+
     public String getProcessorClass() {
         return (this.processorClass);
     }
@@ -359,6 +392,18 @@ public class ControllerConfig extends BaseConfig {
         this.processorClass = processorClass;
     }
 
+    public boolean getShareExceptionHandlers() {
+        return (this.shareExceptionHandlers);
+    }
+
+    public void setShareExceptionHandlers(boolean shareExceptionHandlers) {
+        if (configured) {
+            throw new IllegalStateException("Configuration is frozen");
+        }
+
+        this.shareExceptionHandlers = shareExceptionHandlers;
+    }
+
     public String getTempDir() {
         return (this.tempDir);
     }
@@ -420,9 +465,15 @@ public class ControllerConfig extends BaseConfig {
             sb.append(this.pagePattern);
         }
 
+        sb.append(",preloadActions=");
+        sb.append(this.preloadActions);
+
         sb.append(",processorClass=");
         sb.append(this.processorClass);
 
+        sb.append(",shareExceptionHandlers=");
+        sb.append(this.shareExceptionHandlers);
+
         if (this.tempDir != null) {
             sb.append(",tempDir=");
             sb.append(this.tempDir);
@@ -52,7 +52,7 @@ public class FormBeanConfig extends BaseConfig {
     /**
      * The {@code Log} instance for this class.
      */
-    private transient final Logger log =
+    private static final Logger LOG =
         LoggerFactory.getLogger(FormBeanConfig.class);
 
     // ----------------------------------------------------- Instance Variables
@@ -404,7 +404,7 @@ public class FormBeanConfig extends BaseConfig {
                 String className = ((DynaBean) form).getDynaClass().getName();
 
                 if (className.equals(this.getName())) {
-                    log.debug("Can reuse existing instance (dynamic)");
+                    LOG.debug("Can reuse existing instance (dynamic)");
 
                     return (true);
                 }
@@ -421,7 +421,7 @@ public class FormBeanConfig extends BaseConfig {
                         if (beanValidatorForm.getInstance() instanceof DynaBean) {
                             String formName = beanValidatorForm.getStrutsConfigFormName();
                             if (getName().equals(formName)) {
-                                log.debug("Can reuse existing instance (BeanValidatorForm)");
+                                LOG.debug("Can reuse existing instance (BeanValidatorForm)");
                                 return true;
                             } else {
                                 return false;
@@ -434,12 +434,12 @@ public class FormBeanConfig extends BaseConfig {
                         ClassUtils.getApplicationClass(this.getType());
 
                     if (configClass.isAssignableFrom(formClass)) {
-                        log.debug("Can reuse existing instance (non-dynamic)");
+                        LOG.debug("Can reuse existing instance (non-dynamic)");
 
                         return (true);
                     }
                 } catch (Exception e) {
-                    log.debug("Error testing existing instance for reusability; just create a new instance",
+                    LOG.debug("Error testing existing instance for reusability; just create a new instance",
                         e);
                 }
             }
@@ -41,7 +41,7 @@ public class FormPropertyConfig extends BaseConfig {
     /**
      * The {@code Log} instance for this class.
      */
-    private transient final Logger log =
+    private static final Logger LOG =
         LoggerFactory.getLogger(FormPropertyConfig.class);
 
     // ----------------------------------------------------- Instance Variables
@@ -261,7 +261,7 @@ public class FormPropertyConfig extends BaseConfig {
             try {
                 baseClass = classLoader.loadClass(baseType);
             } catch (ClassNotFoundException ex) {
-                log.error("Class '{}' not found for property '{}'",
+                LOG.error("Class '{}' not found for property '{}'",
                     baseType, name);
                 baseClass = null;
             }
@@ -337,7 +337,7 @@ public class FormPropertyConfig extends BaseConfig {
                                 Array.set(initialValue, i,
                                     clazz.getComponentType().getDeclaredConstructor().newInstance());
                             } catch (Throwable t) {
-                                log.error("Unable to create instance of {} for property={}, "
+                                LOG.error("Unable to create instance of {} for property={}, "
                                     + "type={}, initial={}, size={}.",
                                     clazz.getName(), name, type, initial, size);
 
@@ -0,0 +1,388 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A binary snapshot of a parsed module configuration, stored in a file.
+ * </p>
+ *
+ * <p>The snapshot holds the <code>ModuleConfig</code> exactly as it results
+ * from parsing the configuration files, before any plug-in has been
+ * initialized and before the configuration is resolved and frozen. It is
+ * stored together with a checksum of the configuration files it has been
+ * parsed from. Loading a snapshot whose checksum matches skips the XML
+ * parsing and validation; a snapshot which does not match, or cannot be
+ * read, is ignored.</p>
+ *
+ * <p>Snapshots use Java serialization. A snapshot written by another
+ * version of Struts or of the application classes is rejected as well, since
+ * the version is part of the checksum or fails to deserialize. Reading a
+ * snapshot only resolves the classes of the configuration itself:
+ * implementations of <code>ModuleConfig</code>, subclasses of
+ * <code>BaseConfig</code>, such as <code>ActionMapping</code>, and of
+ * <code>PlugInConfig</code>, the <code>ActionConfigMatcher</code>, and the
+ * JDK value and collection types they use. Any other class in the stream, and any proxy class, makes the
+ * snapshot unreadable, so that a tampered snapshot cannot instantiate
+ * arbitrary serializable classes.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class ModuleConfigSnapshot {
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(ModuleConfigSnapshot.class);
+
+    /**
+     * The marker at the start of each snapshot file.
+     */
+    static final String MAGIC = "STRUTS-MODULE-CONFIG-SNAPSHOT/2";
+
+    /**
+     * The JDK classes which may be read from a snapshot.
+     */
+    private static final Set<Class<?>> JDK_CLASSES =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.<Class<?>>asList(
+            Object.class, String.class, Boolean.class, Byte.class,
+            Character.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, Number.class, Enum.class,
+            ArrayList.class,
+            LinkedList.class, HashMap.class, LinkedHashMap.class,
+            Hashtable.class, Properties.class, TreeMap.class,
+            HashSet.class, LinkedHashSet.class, TreeSet.class)));
+
+    /**
+     * The file holding the snapshot.
+     */
+    private final File file;
+
+    /**
+     * Construct a new snapshot stored in the specified file.
+     *
+     * @param file The file holding the snapshot
+     */
+    public ModuleConfigSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Construct a new snapshot of the module with the specified prefix,
+     * stored in the specified directory. The slashes of the prefix are
+     * replaced by <code>_</code>; <code>_</code> and <code>%</code> are
+     * escaped as <code>%5F</code> and <code>%25</code>, so that each prefix
+     * has its own file.
+     *
+     * @param directory The directory holding the snapshots
+     * @param prefix    The module prefix
+     */
+    public ModuleConfigSnapshot(File directory, String prefix) {
+        this(new File(directory, "struts-config" + encodePrefix(prefix)
+            + ".ser"));
+    }
+
+    /**
+     * Return the part of the file name identifying the module with the
+     * specified prefix.
+     */
+    static String encodePrefix(String prefix) {
+        return prefix.replace("%", "%25").replace("_", "%5F")
+            .replace('/', '_');
+    }
+
+    /**
+     * Return the file holding the snapshot.
+     *
+     * @return the file holding the snapshot
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * <p>Compute the checksum of the specified configuration files. The
+     * checksum covers the URL and the content of each file, in the given
+     * order, as well as the version of Struts.</p>
+     *
+     * @param urls The configuration files
+     * @return the checksum as a hex string
+     * @throws IOException if a file cannot be read
+     */
+    public static String checksum(List<URL> urls) throws IOException {
+        return checksum(urls, new String[0]);
+    }
+
+    /**
+     * <p>Compute the checksum of the specified configuration files and
+     * parsing parameters. The checksum covers the version of Struts, the
+     * given parameters, such as the rule sets and the config bean classes
+     * used to parse the files, and the URL and the content of each file, in
+     * the given order.</p>
+     *
+     * @param urls       The configuration files
+     * @param parameters The parameters which affect the parsed result
+     * @return the checksum as a hex string
+     * @throws IOException if a file cannot be read
+     */
+    public static String checksum(List<URL> urls, String... parameters)
+        throws IOException {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        String version =
+            ModuleConfigSnapshot.class.getPackage().getImplementationVersion();
+
+        digest.update(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+
+        for (String parameter : parameters) {
+            digest.update((byte) 1);
+            digest.update(String.valueOf(parameter)
+                .getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] buffer = new byte[8192];
+
+        for (URL url : urls) {
+            digest.update((byte) 0);
+            digest.update(url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+
+            try (InputStream in = url.openStream()) {
+                int n;
+
+                while ((n = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * <p>Return the description of a config bean class for the checksum:
+     * its name and serial version, so that a snapshot is not read by an
+     * incompatible version of the class.</p>
+     *
+     * @param type The config bean class
+     * @return the description of the class
+     */
+    public static String describeClass(Class<?> type) {
+        ObjectStreamClass desc = ObjectStreamClass.lookup(type);
+
+        return type.getName() + "#"
+            + ((desc == null) ? "-" : String.valueOf(desc.getSerialVersionUID()));
+    }
+
+    /**
+     * <p>Return <code>true</code> if instances of the specified class may be
+     * read from a snapshot.</p>
+     *
+     * @param type The class, or the component class of an array
+     * @return <code>true</code> if the class belongs to a configuration
+     */
+    static boolean isAllowed(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+
+        if (type.getEnclosingClass() == ActionConfigMatcher.class) {
+            type = ActionConfigMatcher.class;
+        }
+
+        return type.isPrimitive() || JDK_CLASSES.contains(type)
+            || ModuleConfig.class.isAssignableFrom(type)
+            || BaseConfig.class.isAssignableFrom(type)
+            || PlugInConfig.class.isAssignableFrom(type)
+            || ActionConfigMatcher.class.isAssignableFrom(type);
+    }
+
+    /**
+     * <p>Load the module configuration from the snapshot, if the snapshot
+     * exists and has been taken from configuration files with the
+     * specified checksum. Only the classes of a configuration are
+     * resolved while reading the snapshot.</p>
+     *
+     * @param checksum The checksum of the current configuration files
+     * @return the module configuration or <code>null</code> if no valid
+     *         snapshot exists
+     */
+    public ModuleConfig load(String checksum) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new SnapshotInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (!MAGIC.equals(in.readUTF()) || !checksum.equals(in.readUTF())) {
+                LOG.debug("Snapshot {} is out of date", file);
+                return null;
+            }
+
+            ModuleConfig config = (ModuleConfig) in.readObject();
+
+            LOG.debug("Loaded module config '{}' from snapshot {}",
+                config.getPrefix(), file);
+
+            return config;
+        } catch (Exception e) {
+            LOG.warn("Ignoring unreadable snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * <p>Store the specified module configuration in the snapshot. The
+     * snapshot file is replaced atomically where the file system supports
+     * it. Failures are logged and otherwise ignored.</p>
+     *
+     * @param checksum The checksum of the configuration files
+     * @param config   The parsed module configuration
+     */
+    public void store(String checksum, ModuleConfig config) {
+        File directory = file.getAbsoluteFile().getParentFile();
+
+        try {
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+
+            File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+            try {
+                try (ObjectOutputStream out = new ObjectOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(temp)))) {
+                    out.writeUTF(MAGIC);
+                    out.writeUTF(checksum);
+                    out.writeObject(config);
+                }
+
+                try {
+                    Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+
+            LOG.debug("Stored module config '{}' in snapshot {}",
+                config.getPrefix(), file);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to store snapshot {}", file, e);
+        }
+    }
+
+    /**
+     * An <code>ObjectInputStream</code> resolving classes through the
+     * context class loader, so that configuration classes of the web
+     * application are found. Classes which do not belong to a configuration
+     * are rejected before any instance is created; the classes are loaded
+     * without being initialized.
+     */
+    private static class SnapshotInputStream extends ObjectInputStream {
+
+        SnapshotInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+            throws IOException, ClassNotFoundException {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            Class<?> type = null;
+
+            if (loader != null) {
+                try {
+                    type = Class.forName(desc.getName(), false, loader);
+                } catch (ClassNotFoundException e) {
+                    // Fall back to the default resolution
+                }
+            }
+
+            if (type == null) {
+                type = super.resolveClass(desc);
+            }
+
+            if (!isAllowed(type)) {
+                throw new InvalidClassException(desc.getName(),
+                    "Not a configuration class");
+            }
+
+            return type;
+        }
+
+        protected Class<?> resolveProxyClass(String[] interfaces)
+            throws IOException {
+            throw new InvalidClassException("Proxy classes are not allowed");
+        }
+    }
+}
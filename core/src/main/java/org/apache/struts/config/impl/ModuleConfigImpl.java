@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.struts.Constants;
 import org.apache.struts.config.ActionConfig;
@@ -61,9 +62,16 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
     /**
      * The {@code Log} instance for this class.
      */
-    private transient final Logger log =
+    private static final Logger LOG =
         LoggerFactory.getLogger(ModuleConfigImpl.class);
 
+    /**
+     * <p>Marks an exception class without configuration in the cache of
+     * {@link #findException(Class)}.</p>
+     */
+    private static final ExceptionConfig NO_EXCEPTION_CONFIG =
+        new ExceptionConfig();
+
     // ----------------------------------------------------- Instance Variables
     // Instance Variables at end to make comparing Interface and implementation easier.
 
@@ -154,6 +162,13 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      */
     protected ActionConfigMatcher matcher = null;
 
+    /**
+     * <p>The results of {@link #findException(Class)} keyed by exception
+     * class, once this module is frozen. The cache is cleared when it holds
+     * {@link ActionConfig#MAX_EXCEPTION_TYPES} entries.</p>
+     */
+    private transient volatile ConcurrentHashMap<Class<?>, ExceptionConfig> exceptionCache;
+
     /**
      * <p>Constructor for ModuleConfigImpl.  Assumes default
      * configuration.</p>
@@ -293,13 +308,13 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
 
         String path = config.getPath();
         if (actionConfigs.containsKey(path)) {
-            log.warn("Overriding ActionConfig of path {}", path);
+            LOG.warn("Overriding ActionConfig of path {}", path);
         }
 
         String actionId = config.getActionId();
         if ((actionId != null) && !actionId.equals("")) {
             if (actionConfigIds.containsKey(actionId)) {
-                log.atWarn()
+                LOG.atWarn()
                     .setMessage("Overriding actionId[{}] for path[{}] with path[{}]")
                     .addArgument(actionId)
                     .addArgument(() -> actionConfigIds.get(actionId).getPath())
@@ -327,7 +342,7 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
         String key = config.getType();
 
         if (exceptions.containsKey(key)) {
-            log.warn("Overriding ExceptionConfig of type {}", key);
+            LOG.warn("Overriding ExceptionConfig of type {}", key);
         }
 
         exceptions.put(key, config);
@@ -347,7 +362,7 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
         String key = config.getName();
 
         if (formBeans.containsKey(key)) {
-            log.warn("Overriding ActionForm of name {}", key);
+            LOG.warn("Overriding ActionForm of name {}", key);
         }
 
         formBeans.put(key, config);
@@ -386,7 +401,7 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
         String key = config.getName();
 
         if (forwards.containsKey(key)) {
-            log.warn("Overriding global ActionForward of name {}", key);
+            LOG.warn("Overriding global ActionForward of name {}", key);
         }
 
         forwards.put(key, config);
@@ -406,7 +421,7 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
         String key = config.getKey();
 
         if (messageResources.containsKey(key)) {
-            log.warn("Overriding MessageResources bundle of key {}", key);
+            LOG.warn("Overriding MessageResources bundle of key {}", key);
         }
 
         messageResources.put(key, config);
@@ -491,10 +506,51 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
      * <code>ActionConfig</code>, although there are subtle differences, and
      * it certainly doesn't seem like it should be done with inheritance.</p>
      *
+     * <p>Once this module is frozen, the result is cached per exception
+     * class.</p>
+     *
      * @param type Exception class for which to find a handler
      * @since Struts 1.3.0
      */
     public ExceptionConfig findException(Class<?> type) {
+        ConcurrentHashMap<Class<?>, ExceptionConfig> cache = exceptionCache;
+
+        if (cache == null) {
+            // The configurations may still change
+            if (!configured) {
+                return searchException(type);
+            }
+
+            cache = new ConcurrentHashMap<>();
+            exceptionCache = cache;
+        }
+
+        ExceptionConfig config = cache.get(type);
+
+        if (config == null) {
+            config = searchException(type);
+
+            if (cache.size() >= ActionConfig.MAX_EXCEPTION_TYPES) {
+                cache.clear();
+            }
+
+            cache.putIfAbsent(type,
+                (config == null) ? NO_EXCEPTION_CONFIG : config);
+        } else if (config == NO_EXCEPTION_CONFIG) {
+            config = null;
+        }
+
+        return config;
+    }
+
+    /**
+     * <p>Search the configurations for the specified exception class and its
+     * superclasses.</p>
+     *
+     * @param type Exception class for which to find a handler
+     * @return the configuration or <code>null</code> if there is none
+     */
+    private ExceptionConfig searchException(Class<?> type) {
         // Check through the entire superclass hierarchy as needed
         ExceptionConfig config = null;
 
@@ -502,7 +558,7 @@ public class ModuleConfigImpl extends BaseConfig implements Serializable,
             // Check for a locally defined handler
             String name = type.getName();
 
-            log.debug("findException: look locally for {}", name);
+            LOG.debug("findException: look locally for {}", name);
             config = findExceptionConfig(name);
 
             if (config != null) {
@@ -23,7 +23,7 @@ package org.apache.struts.dispatcher;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.struts.action.Action;
 import org.apache.struts.chain.contexts.ActionContext;
@@ -74,12 +74,23 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
         LoggerFactory.getLogger(AbstractDispatcher.class);
 
     /**
-     * The dictionary of {@link Method} objects we have introspected for this
-     * class, keyed by method name. This collection is populated as different
-     * methods are called, so that introspection needs to occur only once per
-     * method name.
+     * The maximum number of method names cached per action class.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final int MAX_METHODS = 1000;
+
+    /**
+     * The dispatch tables of the action classes: the invokers of the
+     * {@link Method} objects we have introspected, keyed by method name. A
+     * table is populated as different methods are called, without locking,
+     * so that introspection needs to occur only once per method name. Names
+     * which can not be resolved are not cached, the {@link MethodResolver}
+     * is asked again each time; a table holds at most {@link #MAX_METHODS}
+     * names and is cleared when it is full.
      */
-    private transient final HashMap<String, Method> methods;
+    private transient volatile ConcurrentHashMap<Class<?>,
+        ConcurrentHashMap<String, MethodInvoker>> methods;
 
     private final MethodResolver methodResolver;
 
@@ -90,7 +101,7 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
      */
     public AbstractDispatcher(MethodResolver methodResolver) {
         this.methodResolver = methodResolver;
-        methods = new HashMap<>();
+        methods = new ConcurrentHashMap<>();
     }
 
     /**
@@ -172,9 +183,7 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
      * @see #getMethod(ActionContext, String)
      */
     final void flushMethodCache() {
-        synchronized (methods) {
-            methods.clear();
-        }
+        methods = new ConcurrentHashMap<>();
     }
 
     /**
@@ -203,28 +212,60 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
      * @see #flushMethodCache()
      */
     protected final Method getMethod(ActionContext context, String methodName) throws NoSuchMethodException {
-        synchronized (methods) {
-            // Key the method based on the class-method combination
-            StringBuilder keyBuf = new StringBuilder(100);
-            keyBuf.append(context.getAction().getClass().getName());
-            keyBuf.append(":");
-            keyBuf.append(methodName);
-            String key = keyBuf.toString();
-
-            Method method = methods.get(key);
-
-            if (method == null) {
-                method = resolveMethod(context, methodName);
-                methods.put(key, method);
+        // Key the method based on the class-method combination
+        ConcurrentHashMap<String, MethodInvoker> table = getMethods(context.getAction().getClass());
+        MethodInvoker invoker = table.get(methodName);
+
+        if (invoker == null) {
+            invoker = new MethodInvoker(resolveMethod(context, methodName));
+            putMethod(table, methodName, invoker);
+        }
+
+        return invoker.getMethod();
+    }
+
+    /**
+     * Returns the dispatch table of the specified action class, creating it
+     * if necessary.
+     *
+     * @param actionClass the action class
+     * @return the table of invokers keyed by method name
+     */
+    private ConcurrentHashMap<String, MethodInvoker> getMethods(Class<?> actionClass) {
+        ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, MethodInvoker>> methods = this.methods;
+        if (methods == null) { // deserialized
+            this.methods = methods = new ConcurrentHashMap<>();
+        }
+
+        ConcurrentHashMap<String, MethodInvoker> table = methods.get(actionClass);
+        if (table == null) {
+            table = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, MethodInvoker> previous = methods.putIfAbsent(actionClass, table);
+            if (previous != null) {
+                table = previous;
             }
+        }
 
-            return method;
+        return table;
+    }
+
+    /**
+     * Adds an invoker to a dispatch table, clearing the table first if it is
+     * full.
+     */
+    private static void putMethod(ConcurrentHashMap<String, MethodInvoker> table, String methodName,
+            MethodInvoker invoker) {
+        if (table.size() >= MAX_METHODS) {
+            table.clear();
         }
+        table.put(methodName, invoker);
     }
 
     /**
      * Convenience method to help dispatch the specified method. The method is
-     * invoked via reflection.
+     * invoked through the handle bound when it was introspected, or via
+     * reflection if it was not obtained from {@link #getMethod(ActionContext,
+     * String)}.
      *
      * @param target the target object
      * @param method the method of the target object
@@ -235,7 +276,8 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
      */
     protected final Object invoke(Object target, Method method, Object[] args, String path) throws Exception {
         try {
-            Object retval = method.invoke(target, args);
+            MethodInvoker invoker = findInvoker(target, method);
+            Object retval = (invoker != null) ? invoker.invoke(target, args) : method.invoke(target, args);
             if (method.getReturnType() == void.class) {
                 retval = void.class;
             }
@@ -264,6 +306,20 @@ public abstract class AbstractDispatcher implements Dispatcher, Serializable {
         }
     }
 
+    /**
+     * Returns the invoker of a method obtained from the dispatch table of the
+     * class of the specified target.
+     *
+     * @return the invoker or <code>null</code> if the method is not in the
+     *         table
+     */
+    private MethodInvoker findInvoker(Object target, Method method) {
+        ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, MethodInvoker>> methods = this.methods;
+        ConcurrentHashMap<String, MethodInvoker> table = (methods == null) ? null : methods.get(target.getClass());
+        MethodInvoker invoker = (table == null) ? null : table.get(method.getName());
+        return ((invoker != null) && (invoker.getMethod() == method)) ? invoker : null;
+    }
+
     /**
      * Determines whether the current form's cancel button was pressed. The
      * default behavior method will check if the
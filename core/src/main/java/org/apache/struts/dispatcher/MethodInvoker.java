@@ -0,0 +1,172 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.dispatcher;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * <p>Invokes a public instance method through a <code>MethodHandle</code>
+ * bound once, instead of <code>Method.invoke</code>. The handle takes the
+ * target and the arguments as an array and returns the result boxed, or
+ * <code>null</code> for a <code>void</code> method.</p>
+ *
+ * <p>{@link #invoke(Object, Object[])} has the contract of
+ * <code>Method.invoke</code>: exceptions thrown by the method are wrapped
+ * in an <code>InvocationTargetException</code>. If the method is not
+ * accessible through the public lookup, or if the arguments are not exactly
+ * of the parameter types, the invoker falls back to
+ * <code>Method.invoke</code>, which converts or rejects them as before.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class MethodInvoker {
+
+    /**
+     * The type of all bound handles.
+     */
+    private static final MethodType INVOKER_TYPE =
+        MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * The invoked method.
+     */
+    private final Method method;
+
+    /**
+     * The bound handle, <code>null</code> if the method must be invoked
+     * reflectively.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * The parameter types, primitive types replaced by their wrappers.
+     */
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Whether each parameter accepts <code>null</code>.
+     */
+    private final boolean[] nullable;
+
+    /**
+     * <p>Bind the specified method.</p>
+     *
+     * @param method The public instance method to invoke
+     */
+    public MethodInvoker(Method method) {
+        this.method = method;
+
+        MethodHandle handle = null;
+
+        if (!Modifier.isStatic(method.getModifiers())) {
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            } catch (IllegalAccessException e) {
+                handle = null;
+            }
+        }
+
+        this.handle = handle;
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        boolean[] nullable = new boolean[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            nullable[i] = !parameterTypes[i].isPrimitive();
+            if (!nullable[i]) {
+                parameterTypes[i] = MethodType.methodType(parameterTypes[i])
+                    .wrap().returnType();
+            }
+        }
+
+        this.parameterTypes = parameterTypes;
+        this.nullable = nullable;
+    }
+
+    /**
+     * <p>Return the invoked method.</p>
+     *
+     * @return the method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * <p>Invoke the method.</p>
+     *
+     * @param target The object the method is invoked on
+     * @param args   The arguments of the method
+     * @return the result of the method, <code>null</code> for a
+     *         <code>void</code> method
+     * @throws IllegalAccessException    if the method is not accessible
+     * @throws InvocationTargetException if the method throws an exception
+     */
+    public Object invoke(Object target, Object[] args)
+        throws IllegalAccessException, InvocationTargetException {
+        // Let reflection convert or report other arguments
+        if ((handle == null) || !accepts(target, args)) {
+            return method.invoke(target, args);
+        }
+
+        try {
+            return (Object) handle.invokeExact(target, args);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * <p>Return whether the handle can be invoked with the specified target
+     * and arguments without conversion.</p>
+     *
+     * @param target The object the method is invoked on
+     * @param args   The arguments of the method
+     * @return <code>true</code> if the arguments match the parameter types
+     */
+    private boolean accepts(Object target, Object[] args) {
+        if ((args == null) || (args.length != parameterTypes.length)
+            || !method.getDeclaringClass().isInstance(target)) {
+            return false;
+        }
+
+        for (int i = 0; i < args.length; i++) {
+            if ((args[i] == null) ? !nullable[i]
+                : !parameterTypes[i].isInstance(args[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public String toString() {
+        return method.toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Registers each {@link Metric} as an MXBean with the platform
+ * <code>MBeanServer</code>, under a name like
+ * <code>org.apache.struts:type=RequestMetrics,application="/app/action",kind=action,name="/logon"</code>.
+ * The MXBeans are unregistered when the exporter is stopped.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class JmxMetricsExporter implements MetricsExporter {
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(JmxMetricsExporter.class);
+
+    /**
+     * The domain of the registered names.
+     */
+    public static final String DOMAIN = "org.apache.struts";
+
+    /**
+     * The names registered by this exporter.
+     */
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The server the metrics are registered with.
+     */
+    private volatile MBeanServer server;
+
+    /**
+     * The name of the exported metrics.
+     */
+    private volatile String application;
+
+    public void start(RequestMetrics metrics) {
+        server = ManagementFactory.getPlatformMBeanServer();
+        application = metrics.getName();
+
+        for (Metric metric : metrics.getMetrics()) {
+            metricAdded(metric);
+        }
+    }
+
+    public void metricAdded(Metric metric) {
+        try {
+            ObjectName name = getObjectName(metric);
+
+            server.registerMBean(metric, name);
+            registered.add(name);
+        } catch (JMException e) {
+            LOG.warn("Unable to register metric {}", metric.getName(), e);
+        }
+    }
+
+    public void stop() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOG.debug("Unable to unregister {}", name, e);
+            }
+        }
+
+        registered.clear();
+    }
+
+    /**
+     * <p>Return the name a metric is registered under.</p>
+     *
+     * @param metric The metric
+     * @return the name of the MXBean
+     * @throws MalformedObjectNameException if the name is invalid
+     */
+    protected ObjectName getObjectName(Metric metric)
+        throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=RequestMetrics,application="
+            + ObjectName.quote(application) + ",kind=" + metric.getType()
+            + ",name=" + ObjectName.quote(metric.getName()));
+    }
+}
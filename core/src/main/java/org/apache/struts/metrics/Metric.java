@@ -0,0 +1,289 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>The latency, throughput and error counters of an action, a
+ * <code>RequestProcessor</code> phase or a chain command.</p>
+ *
+ * <p>All counters are lock-free: an execution updates a few
+ * <code>LongAdder</code>s, so that concurrent requests do not contend on a
+ * shared value. The counters are read without a common snapshot; values
+ * read while executions complete may be off by these executions.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class Metric implements MetricMXBean {
+
+    /**
+     * The type of the metrics of actions, named by module prefix and action
+     * path.
+     */
+    public static final String ACTION = "action";
+
+    /**
+     * The type of the metrics of <code>RequestProcessor</code> phases, named
+     * by processing method.
+     */
+    public static final String PHASE = "phase";
+
+    /**
+     * The type of the metrics of chain commands, named by command class.
+     */
+    public static final String COMMAND = "command";
+
+    /**
+     * The number of histogram buckets.
+     */
+    static final int BUCKETS = 36;
+
+    /**
+     * The type of this metric.
+     */
+    private final String type;
+
+    /**
+     * The name of this metric.
+     */
+    private final String name;
+
+    /**
+     * The completed executions.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The failed executions.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * The executions in progress.
+     */
+    private final LongAdder inFlight = new LongAdder();
+
+    /**
+     * The total duration in nanoseconds.
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * The longest duration in nanoseconds.
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The executions per duration bucket.
+     */
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    /**
+     * Construct a new metric.
+     *
+     * @param type The type of the metric
+     * @param name The name of the metric
+     */
+    Metric(String type, String name) {
+        this.type = type;
+        this.name = name;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Start an execution.</p>
+     *
+     * @return the start time to pass to {@link #stop(long, boolean)}
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * <p>Complete an execution started by {@link #start()}.</p>
+     *
+     * @param start  The start time of the execution, in the time base of
+     *               <code>System.nanoTime()</code>
+     * @param failed Whether the execution failed
+     */
+    public void stop(long start, boolean failed) {
+        inFlight.decrement();
+        record(System.nanoTime() - start, failed);
+    }
+
+    /**
+     * <p>Record a completed execution which was not started by
+     * {@link #start()}.</p>
+     *
+     * @param nanos  The duration of the execution in nanoseconds
+     * @param failed Whether the execution failed
+     */
+    public void record(long nanos, boolean failed) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[bucket(nanos)].increment();
+
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public double getTotalTimeMillis() {
+        return toMillis(totalNanos.sum());
+    }
+
+    public double getMeanTimeMillis() {
+        long n = count.sum();
+
+        return (n == 0) ? 0 : (toMillis(totalNanos.sum()) / n);
+    }
+
+    public double getMaxTimeMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    public double getMedianTimeMillis() {
+        return getPercentileMillis(0.5);
+    }
+
+    public double get95thPercentileMillis() {
+        return getPercentileMillis(0.95);
+    }
+
+    public double get99thPercentileMillis() {
+        return getPercentileMillis(0.99);
+    }
+
+    /**
+     * <p>Return an estimate of a percentile of the durations: the upper
+     * bound of the histogram bucket holding it, but no more than the
+     * longest duration.</p>
+     *
+     * @param fraction The percentile as a fraction between 0 and 1
+     * @return the percentile in milliseconds, <code>0</code> if there is
+     *         no execution
+     */
+    public double getPercentileMillis(double fraction) {
+        long[] counts = getHistogram();
+        long total = 0;
+
+        for (long n : counts) {
+            total += n;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        double max = getMaxTimeMillis();
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+
+        for (int i = 0; i < (BUCKETS - 1); i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min((1L << i) / 1000.0, max);
+            }
+        }
+
+        return max;
+    }
+
+    public long[] getHistogram() {
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram[i].sum();
+        }
+
+        return counts;
+    }
+
+    public void reset() {
+        count.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+
+        for (LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+    }
+
+    public String toString() {
+        return type + " " + name + ": count=" + getCount() + ", errors="
+            + getErrorCount() + ", inFlight=" + getInFlight() + ", mean="
+            + getMeanTimeMillis() + "ms, max=" + getMaxTimeMillis() + "ms";
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Return the histogram bucket of a duration.
+     */
+    private static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
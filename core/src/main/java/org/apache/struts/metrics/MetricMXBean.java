@@ -0,0 +1,125 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+/**
+ * <p>The management interface of a {@link Metric}. Durations are reported
+ * in milliseconds; percentiles are estimated from a histogram whose buckets
+ * double in width, starting at one microsecond.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public interface MetricMXBean {
+
+    /**
+     * <p>Return the type of the metric, one of {@link Metric#ACTION},
+     * {@link Metric#PHASE} or {@link Metric#COMMAND}.</p>
+     *
+     * @return the type
+     */
+    String getType();
+
+    /**
+     * <p>Return the name of the measured action, phase or command.</p>
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * <p>Return the number of completed executions.</p>
+     *
+     * @return the number of executions
+     */
+    long getCount();
+
+    /**
+     * <p>Return the number of executions which failed.</p>
+     *
+     * @return the number of failed executions
+     */
+    long getErrorCount();
+
+    /**
+     * <p>Return the number of executions in progress.</p>
+     *
+     * @return the number of executions in progress
+     */
+    long getInFlight();
+
+    /**
+     * <p>Return the total duration of the completed executions.</p>
+     *
+     * @return the total duration in milliseconds
+     */
+    double getTotalTimeMillis();
+
+    /**
+     * <p>Return the mean duration of the completed executions.</p>
+     *
+     * @return the mean duration in milliseconds, <code>0</code> if there
+     *         is none
+     */
+    double getMeanTimeMillis();
+
+    /**
+     * <p>Return the longest duration of the completed executions.</p>
+     *
+     * @return the longest duration in milliseconds
+     */
+    double getMaxTimeMillis();
+
+    /**
+     * <p>Return the estimated median duration.</p>
+     *
+     * @return the median duration in milliseconds
+     */
+    double getMedianTimeMillis();
+
+    /**
+     * <p>Return the estimated 95th percentile of the durations.</p>
+     *
+     * @return the 95th percentile in milliseconds
+     */
+    double get95thPercentileMillis();
+
+    /**
+     * <p>Return the estimated 99th percentile of the durations.</p>
+     *
+     * @return the 99th percentile in milliseconds
+     */
+    double get99thPercentileMillis();
+
+    /**
+     * <p>Return the number of executions per histogram bucket. Bucket
+     * <code>0</code> counts durations below one microsecond, bucket
+     * <code>i</code> durations below <code>2<sup>i</sup></code>
+     * microseconds; the last bucket counts all longer durations.</p>
+     *
+     * @return the histogram
+     */
+    long[] getHistogram();
+
+    /**
+     * <p>Reset the counters, except for the executions in progress.</p>
+     */
+    void reset();
+}
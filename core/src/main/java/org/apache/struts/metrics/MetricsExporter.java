@@ -0,0 +1,60 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+/**
+ * <p>A publisher of the {@link RequestMetrics} of an
+ * <code>ActionServlet</code>, such as {@link JmxMetricsExporter}.
+ * Exporters are configured with the <code>metricsExporters</code>
+ * init-param of the servlet and need a public no-argument constructor.</p>
+ *
+ * <p>Metrics are created on first use. An exporter is started before the
+ * first request is processed and is then told about each new metric; an
+ * exporter pushing the values to another system reads them from the
+ * metrics it was told about or from {@link RequestMetrics#getMetrics()}.
+ * {@link #metricAdded(Metric)} is called from request threads and must
+ * return quickly.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public interface MetricsExporter {
+
+    /**
+     * <p>Start exporting the specified metrics.</p>
+     *
+     * @param metrics The metrics of the servlet
+     * @throws Exception if the exporter cannot be started
+     */
+    void start(RequestMetrics metrics) throws Exception;
+
+    /**
+     * <p>Export a metric which has been created after the exporter was
+     * started.</p>
+     *
+     * @param metric The new metric
+     */
+    void metricAdded(Metric metric);
+
+    /**
+     * <p>Stop exporting and release any resources of this exporter.</p>
+     */
+    void stop();
+}
@@ -0,0 +1,151 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+import org.apache.struts.config.ActionConfig;
+
+/**
+ * <p>Times the phases of a single request processed by a
+ * <code>RequestProcessor</code>, and the request as a whole for its action.
+ * Each phase lasts until the next one starts or the timer is stopped.</p>
+ *
+ * <p>A timer is used by one thread only. {@link #NONE} records nothing and
+ * is used for requests which are not measured.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class PhaseTimer {
+
+    /**
+     * The timer of requests which are not measured.
+     */
+    public static final PhaseTimer NONE = new PhaseTimer(null);
+
+    /**
+     * The metrics updated by this timer, <code>null</code> for
+     * {@link #NONE}.
+     */
+    private final RequestMetrics metrics;
+
+    /**
+     * The start time of the request.
+     */
+    private final long start;
+
+    /**
+     * The metric of the current phase, if any.
+     */
+    private Metric phase;
+
+    /**
+     * The start time of the current phase.
+     */
+    private long phaseStart;
+
+    /**
+     * The metric of the action of the request, once it is known.
+     */
+    private Metric action;
+
+    /**
+     * Start timing a request.
+     *
+     * @param metrics The metrics to update
+     */
+    PhaseTimer(RequestMetrics metrics) {
+        this.metrics = metrics;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * <p>Complete the current phase, if any, and start the specified
+     * one.</p>
+     *
+     * @param name The name of the phase
+     */
+    public void phase(String name) {
+        if (metrics == null) {
+            return;
+        }
+
+        if (phase != null) {
+            phase.stop(phaseStart, false);
+        }
+
+        phase = metrics.getPhaseMetric(name);
+        phaseStart = phase.start();
+    }
+
+    /**
+     * <p>Attribute the request to an action. The duration of the request is
+     * recorded for the action from the start of the request. Only the
+     * first action of a request is recorded.</p>
+     *
+     * @param prefix The prefix of the module of the action
+     * @param path   The path of the action
+     */
+    public void action(String prefix, String path) {
+        if ((metrics == null) || (action != null)) {
+            return;
+        }
+
+        action = metrics.getActionMetric(prefix, path);
+        action.start();
+    }
+
+    /**
+     * <p>Attribute the request to an action, under the path of its wildcard
+     * mapping if it was matched by one.</p>
+     *
+     * @param prefix The prefix of the module of the action
+     * @param config The configuration of the action
+     * @see #action(String, String)
+     */
+    public void action(String prefix, ActionConfig config) {
+        if ((metrics == null) || (action != null)) {
+            return;
+        }
+
+        action = metrics.getActionMetric(prefix, config);
+        action.start();
+    }
+
+    /**
+     * <p>Complete the current phase and the request.</p>
+     *
+     * @param failed Whether the request failed
+     */
+    public void stop(boolean failed) {
+        if (metrics == null) {
+            return;
+        }
+
+        if (phase != null) {
+            phase.stop(phaseStart, failed);
+            phase = null;
+        }
+
+        if (action != null) {
+            action.stop(start, failed);
+            action = null;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.struts.config.ActionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>The request metrics of an <code>ActionServlet</code>: a {@link Metric}
+ * per action, per <code>RequestProcessor</code> phase and per command of a
+ * compiled processing chain, published by the configured
+ * {@link MetricsExporter}s.</p>
+ *
+ * <p>With a sample rate of <code>n</code>, one request out of
+ * <code>n</code> on average is measured, chosen at random; the counts are
+ * then those of the measured requests. The metrics are stored in the
+ * servlet context under <code>Globals.METRICS_KEY</code>.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class RequestMetrics {
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private static final Logger LOG =
+        LoggerFactory.getLogger(RequestMetrics.class);
+
+    /**
+     * The name of these metrics.
+     */
+    private final String name;
+
+    /**
+     * One out of this many requests is measured.
+     */
+    private final int sampleRate;
+
+    /**
+     * The metrics of the actions, keyed by module prefix and path; the path
+     * of the wildcard mapping for actions matched by a wildcard.
+     */
+    private final ConcurrentHashMap<String, Metric> actions =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of the phases, keyed by name.
+     */
+    private final ConcurrentHashMap<String, Metric> phases =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of the commands, keyed by name.
+     */
+    private final ConcurrentHashMap<String, Metric> commands =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The started exporters.
+     */
+    private final List<MetricsExporter> exporters =
+        new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct new request metrics.
+     *
+     * @param name       The name of the metrics, which identifies the
+     *                   servlet
+     * @param sampleRate One out of this many requests is measured; all
+     *                   requests if it is less than 2
+     */
+    public RequestMetrics(String name, int sampleRate) {
+        this.name = name;
+        this.sampleRate = Math.max(sampleRate, 1);
+    }
+
+    // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p>Return the name of these metrics.</p>
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * <p>Return the sample rate: one out of this many requests is
+     * measured.</p>
+     *
+     * @return the sample rate
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * <p>Decide whether the current request is measured.</p>
+     *
+     * @return <code>true</code> if the request is measured
+     */
+    public boolean sample() {
+        return (sampleRate == 1)
+            || (ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * <p>Start timing a request, if it is sampled.</p>
+     *
+     * @return the timer of the request, {@link PhaseTimer#NONE} if it is
+     *         not measured
+     */
+    public PhaseTimer startRequest() {
+        return sample() ? new PhaseTimer(this) : PhaseTimer.NONE;
+    }
+
+    /**
+     * <p>Return the metric of an action, creating it if needed.</p>
+     *
+     * @param prefix The prefix of the module of the action
+     * @param path   The path of the action
+     * @return the metric
+     */
+    public Metric getActionMetric(String prefix, String path) {
+        String key = ((prefix == null) || prefix.isEmpty()) ? path
+            : (prefix + path);
+
+        return getMetric(actions, Metric.ACTION, key);
+    }
+
+    /**
+     * <p>Return the metric of an action, creating it if needed. An action
+     * matched by a wildcard mapping is measured under the path of that
+     * mapping, so that there is one metric per configured action rather
+     * than one per requested path.</p>
+     *
+     * @param prefix The prefix of the module of the action
+     * @param config The configuration of the action
+     * @return the metric
+     */
+    public Metric getActionMetric(String prefix, ActionConfig config) {
+        String path = config.getWildcardPath();
+
+        return getActionMetric(prefix, (path == null) ? config.getPath()
+            : path);
+    }
+
+    /**
+     * <p>Return the metric of a <code>RequestProcessor</code> phase,
+     * creating it if needed.</p>
+     *
+     * @param name The name of the phase
+     * @return the metric
+     */
+    public Metric getPhaseMetric(String name) {
+        return getMetric(phases, Metric.PHASE, name);
+    }
+
+    /**
+     * <p>Return the metric of a chain command, creating it if needed.</p>
+     *
+     * @param name The name of the command
+     * @return the metric
+     */
+    public Metric getCommandMetric(String name) {
+        return getMetric(commands, Metric.COMMAND, name);
+    }
+
+    /**
+     * <p>Return all metrics created so far.</p>
+     *
+     * @return the metrics
+     */
+    public Collection<Metric> getMetrics() {
+        List<Metric> metrics = new ArrayList<>(actions.values());
+
+        metrics.addAll(phases.values());
+        metrics.addAll(commands.values());
+
+        return metrics;
+    }
+
+    /**
+     * <p>Start an exporter and publish new metrics through it.</p>
+     *
+     * @param exporter The exporter
+     * @throws Exception if the exporter cannot be started
+     */
+    public void addExporter(MetricsExporter exporter) throws Exception {
+        exporter.start(this);
+        exporters.add(exporter);
+    }
+
+    /**
+     * <p>Stop all exporters.</p>
+     */
+    public void stop() {
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.stop();
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to stop metrics exporter {}", exporter, e);
+            }
+        }
+
+        exporters.clear();
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Return a metric, creating and exporting it if it does not exist yet.
+     */
+    private Metric getMetric(ConcurrentHashMap<String, Metric> metrics,
+        String type, String name) {
+        Metric metric = metrics.get(name);
+
+        if (metric == null) {
+            Metric created = new Metric(type, name);
+
+            metric = metrics.putIfAbsent(name, created);
+
+            if (metric == null) {
+                metric = created;
+
+                for (MetricsExporter exporter : exporters) {
+                    try {
+                        exporter.metricAdded(created);
+                    } catch (RuntimeException e) {
+                        LOG.warn("Unable to export metric {}", created, e);
+                    }
+                }
+            }
+        }
+
+        return metric;
+    }
+}
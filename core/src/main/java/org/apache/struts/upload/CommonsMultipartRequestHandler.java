@@ -20,12 +20,17 @@
  */
 package org.apache.struts.upload;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
@@ -33,19 +38,25 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.fileupload2.core.DiskFileItem;
 import org.apache.commons.fileupload2.core.DiskFileItemFactory;
 import org.apache.commons.fileupload2.core.FileItem;
+import org.apache.commons.fileupload2.core.FileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
 import org.apache.commons.fileupload2.core.FileUploadByteCountLimitException;
 import org.apache.commons.fileupload2.core.FileUploadException;
 import org.apache.commons.fileupload2.core.FileUploadFileCountLimitException;
 import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.core.ParameterParser;
 import org.apache.commons.fileupload2.jakarta.JakartaServletFileUpload;
 import org.apache.struts.Globals;
 import org.apache.struts.action.ActionMapping;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.util.RequestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,6 +99,54 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
      */
     public static final int DEFAULT_SIZE_THRESHOLD = 256 * 1024;
 
+    /**
+     * The name of the property of the action mapping or the controller
+     * which enables the streaming mode, if it is {@code true}.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String STREAMING_PROPERTY = "uploadStreaming";
+
+    /**
+     * The name of the property of the action mapping or the controller
+     * which holds the class name of the {@link UploadSink} used in
+     * streaming mode.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String UPLOAD_SINK_PROPERTY = "uploadSink";
+
+    /**
+     * The name of the property of the action mapping or the controller
+     * which lets file parts without a sink, which exceed the size threshold
+     * in streaming mode, be written to temporary files, if it is
+     * {@code true}. Otherwise such parts are rejected.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String UPLOAD_SPILL_PROPERTY = "uploadSpill";
+
+    /**
+     * The size of the buffer through which parts are copied in streaming
+     * mode.
+     */
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The shared {@link UploadSink} instances, by class.
+     */
+    private static final ClassValue<UploadSink> UPLOAD_SINKS =
+        new ClassValue<UploadSink>() {
+            protected UploadSink computeValue(Class<?> type) {
+                try {
+                    return (UploadSink) type.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new IllegalArgumentException(
+                        "Cannot create upload sink " + type.getName(), e);
+                }
+            }
+        };
+
     // ----------------------------------------------------- Instance Variables
 
     /**
@@ -211,37 +270,19 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
         elementsFile = new HashMap<>();
         elementsAll = new HashMap<>();
 
+        // Read the parts as they arrive, without temporary files.
+        if (isStreaming(ac)) {
+            handleStreamingRequest(request, ac, upload);
+            return;
+        }
+
         // Parse the request into file items.
         List<DiskFileItem> items = null;
 
         try {
             items = upload.parseRequest(request);
         } catch (FileUploadSizeException e) {
-            // Special handling for uploads that are too big or too much file-uploads.
-            request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_LENGTH_EXCEEDED,
-                Boolean.TRUE);
-
-            if (e instanceof FileUploadByteCountLimitException) {
-                final FileUploadByteCountLimitException e2 = (FileUploadByteCountLimitException) e;
-                request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_BYTE_LENGTH_EXCEEDED,
-                        Boolean.TRUE);
-
-                log.warn("Byte-Count-Limit-Exception: FieldName: {}, FileName: {}, MaxSize: {}, "
-                        + "CurrentSize: {}", e2.getFieldName(), e2.getFieldName(),
-                        e2.getPermitted(), e2.getActualSize(), e2);
-            } else if (e instanceof FileUploadFileCountLimitException) {
-                final FileUploadFileCountLimitException e2 = (FileUploadFileCountLimitException) e;
-                request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_FILE_COUNT_EXCEEDED,
-                        Boolean.TRUE);
-
-                log.warn("File-Count-Limit-Exception: MaxSize: {}, CurrentSize: {}",
-                        e2.getPermitted(), e2.getActualSize(), e2);
-            } else {
-                log.warn("Byte-Count-Limit-Exception: MaxSize: {}, CurrentSize: {}",
-                        e.getPermitted(), e.getActualSize(), e);
-            }
-
-            clearInputStream(request);
+            sizeLimitExceeded(request, e);
             return;
         } catch (FileUploadException e) {
             log.error("Failed to parse multipart request", e);
@@ -263,6 +304,89 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
         }
     }
 
+    /**
+     * Reads the parts of the request in the order they arrive, without
+     * writing them to temporary files.
+     *
+     * <p>The content of a file part is copied, through a buffer of bounded
+     * size, to the channel opened by the {@link UploadSink} of the request,
+     * if any. Parts which are not accepted by a sink are kept in memory, up
+     * to the size threshold ({@code memFileSize}, 256K by default). A larger
+     * part exceeds the maximum file size, unless the
+     * {@value #UPLOAD_SPILL_PROPERTY} property is {@code true}: then it is
+     * written to a disk-backed file item in the repository directory, as in
+     * the default mode. The maximum request size, file size, string length and
+     * part count are enforced while the bytes arrive. Text parameters are
+     * only made visible to the request once all parts have been read.</p>
+     *
+     * <p>If a limit is exceeded or the request can not be read, the content
+     * already written to the sink or to disk is discarded.</p>
+     *
+     * @param request The multipart request to be processed.
+     * @param ac      The current module's configuration.
+     * @param upload  The configured file upload handler.
+     *
+     * @throws ServletException if an unrecoverable error occurs.
+     *
+     * @since Struts 1.5.0
+     */
+    protected void handleStreamingRequest(HttpServletRequest request,
+            ModuleConfig ac, JakartaServletFileUpload<?, ?> upload)
+            throws ServletException {
+        final long maxStringLen = getMaxStringLen(ac);
+        final long memFileSize = getSizeThreshold(ac);
+        final long fileCountMax = getFileCountMax(ac);
+        final UploadSink sink = getUploadSink(ac);
+        final FileItemFactory<?> itemFactory = upload.getFileItemFactory();
+        final DiskFileItemFactory diskFactory =
+            (isSpilling(ac) && (itemFactory instanceof DiskFileItemFactory))
+                ? (DiskFileItemFactory) itemFactory : null;
+        final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+
+        long count = 0;
+
+        try {
+            final FileItemInputIterator iterator = upload.getItemIterator(request);
+
+            while (iterator.hasNext()) {
+                final FileItemInput item = iterator.next();
+
+                // Same semantics as parseRequest: every part is counted.
+                if (fileCountMax != -1 && ++count > fileCountMax) {
+                    throw new FileUploadFileCountLimitException(
+                        "Maximum file count " + fileCountMax + " exceeded",
+                        fileCountMax, count);
+                }
+
+                if (item.isFormField()) {
+                    addStreamedTextParameter(request, maxStringLen, item, buffer);
+                } else {
+                    addStreamedFileParameter(request, sink, diskFactory,
+                        memFileSize, item, buffer);
+                }
+            }
+        } catch (FileUploadSizeException e) {
+            discardStreamedFiles(request, sink);
+            sizeLimitExceeded(request, e);
+            return;
+        } catch (IOException e) {
+            log.error("Failed to parse multipart request", e);
+            discardStreamedFiles(request, sink);
+            clearInputStream(request);
+            throw new ServletException(e);
+        }
+
+        if (request instanceof MultipartRequestWrapper) {
+            MultipartRequestWrapper wrapper = (MultipartRequestWrapper) request;
+
+            for (Map.Entry<String, String[]> entry : elementsText.entrySet()) {
+                for (String value : entry.getValue()) {
+                    wrapper.setParameter(entry.getKey(), value);
+                }
+            }
+        }
+    }
+
     /**
      * Returns a hash map containing the text (that is, non-file) request
      * parameters.
@@ -320,6 +444,42 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
 
     // -------------------------------------------------------- Support Methods
 
+    /**
+     * Records a violated size or file-count limit in the attributes of the
+     * request and finishes reading the aborted request.
+     *
+     * @param request The multipart request.
+     * @param e       The exception describing the violated limit.
+     */
+    private void sizeLimitExceeded(HttpServletRequest request,
+            FileUploadSizeException e) {
+        // Special handling for uploads that are too big or too much file-uploads.
+        request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_LENGTH_EXCEEDED,
+            Boolean.TRUE);
+
+        if (e instanceof FileUploadByteCountLimitException) {
+            final FileUploadByteCountLimitException e2 = (FileUploadByteCountLimitException) e;
+            request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_BYTE_LENGTH_EXCEEDED,
+                    Boolean.TRUE);
+
+            log.warn("Byte-Count-Limit-Exception: FieldName: {}, FileName: {}, MaxSize: {}, "
+                    + "CurrentSize: {}", e2.getFieldName(), e2.getFileName(),
+                    e2.getPermitted(), e2.getActualSize(), e2);
+        } else if (e instanceof FileUploadFileCountLimitException) {
+            final FileUploadFileCountLimitException e2 = (FileUploadFileCountLimitException) e;
+            request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_FILE_COUNT_EXCEEDED,
+                    Boolean.TRUE);
+
+            log.warn("File-Count-Limit-Exception: MaxSize: {}, CurrentSize: {}",
+                    e2.getPermitted(), e2.getActualSize(), e2);
+        } else {
+            log.warn("Byte-Count-Limit-Exception: MaxSize: {}, CurrentSize: {}",
+                    e.getPermitted(), e.getActualSize(), e);
+        }
+
+        clearInputStream(request);
+    }
+
     /**
      * Finishes reading the input stream from an aborted upload. Fix for
      * STR-2700 to prevent Window machines from hanging.
@@ -595,6 +755,344 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
         elementsAll.put(name, addElement(elementsFile, name, value));
     }
 
+    /**
+     * Returns the value of an upload property of the current action mapping
+     * or, if the mapping does not define it, of the controller.
+     *
+     * @param mc  The current module's configuration.
+     * @param key The name of the property.
+     *
+     * @return The value of the property, or {@code null}.
+     *
+     * @since Struts 1.5.0
+     */
+    protected String getUploadProperty(ModuleConfig mc, String key) {
+        String value = (mapping != null) ? mapping.getProperty(key) : null;
+
+        if (value == null) {
+            value = mc.getControllerConfig().getProperty(key);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns whether the request is read in streaming mode, which is the
+     * case if the {@value #STREAMING_PROPERTY} property of the action
+     * mapping or the controller is {@code true}.
+     *
+     * @param mc The current module's configuration.
+     *
+     * @return {@code true} if the request is read in streaming mode.
+     *
+     * @since Struts 1.5.0
+     */
+    protected boolean isStreaming(ModuleConfig mc) {
+        return Boolean.parseBoolean(getUploadProperty(mc, STREAMING_PROPERTY));
+    }
+
+    /**
+     * Returns whether file parts without a sink, which exceed the size
+     * threshold in streaming mode, are written to temporary files, which is
+     * the case if the {@value #UPLOAD_SPILL_PROPERTY} property of the action
+     * mapping or the controller is {@code true}.
+     *
+     * @param mc The current module's configuration.
+     *
+     * @return {@code true} if large parts are written to temporary files.
+     *
+     * @since Struts 1.5.0
+     */
+    protected boolean isSpilling(ModuleConfig mc) {
+        return Boolean.parseBoolean(getUploadProperty(mc, UPLOAD_SPILL_PROPERTY));
+    }
+
+    /**
+     * Returns the shared instance of the {@link UploadSink} named by the
+     * {@value #UPLOAD_SINK_PROPERTY} property of the action mapping or the
+     * controller.
+     *
+     * @param mc The current module's configuration.
+     *
+     * @return The upload sink, or {@code null} if none is configured.
+     *
+     * @throws ServletException if the sink can not be created.
+     *
+     * @since Struts 1.5.0
+     */
+    protected UploadSink getUploadSink(ModuleConfig mc) throws ServletException {
+        final String className = getUploadProperty(mc, UPLOAD_SINK_PROPERTY);
+
+        if (className == null || className.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return UPLOAD_SINKS.get(RequestUtils.applicationClass(className));
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            throw new ServletException("Cannot create upload sink " + className, e);
+        }
+    }
+
+    /**
+     * Reads a text part in streaming mode and adds it to the set of text
+     * parameters for this request and to the list of all parameters. At
+     * most {@code maxStringLen} bytes of the part are kept.
+     *
+     * @param request      The request in which the parameter was specified.
+     * @param maxStringLen The maximum allowable length of a string parameter.
+     * @param item         The part of the parameter to add.
+     * @param buffer       The copy buffer.
+     *
+     * @throws IOException if the part can not be read.
+     */
+    private void addStreamedTextParameter(HttpServletRequest request,
+            long maxStringLen, FileItemInput item, byte[] buffer)
+            throws IOException {
+        final String name = item.getFieldName();
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        long size = 0;
+
+        try (InputStream in = item.getInputStream()) {
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                if (size + n <= maxStringLen) {
+                    data.write(buffer, 0, n);
+                }
+
+                size += n;
+            }
+        }
+
+        final String value;
+
+        // CVE-2023-34396
+        if (size > maxStringLen) {
+            request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_LENGTH_EXCEEDED,
+                    Boolean.TRUE);
+            request.setAttribute(MultipartRequestHandler.ATTRIBUTE_MAX_STRING_LENGTH_EXCEEDED,
+                    Boolean.TRUE);
+
+            log.warn("Max-String-Length: FieldName: {}, MaxSize: {}, CurrentSize: {}",
+                    name, maxStringLen, size);
+
+            value = "";
+        } else {
+            value = new String(data.toByteArray(),
+                getTextCharset(request, item.getContentType()));
+        }
+
+        elementsAll.put(name, addElement(elementsText, name, value));
+    }
+
+    /**
+     * Returns the charset of a text part read in streaming mode: the charset
+     * of the part, else the character encoding of the request, else
+     * ISO-8859-1.
+     *
+     * @param request     The request in which the parameter was specified.
+     * @param contentType The content type of the part, or {@code null}.
+     *
+     * @return The charset to decode the part with.
+     */
+    private Charset getTextCharset(HttpServletRequest request, String contentType) {
+        String name = null;
+
+        if (contentType != null) {
+            ParameterParser parser = new ParameterParser();
+            parser.setLowerCaseNames(true);
+            name = parser.parse(contentType, ';').get("charset");
+        }
+
+        if (name == null) {
+            name = request.getCharacterEncoding();
+        }
+
+        if (name != null) {
+            try {
+                return Charset.forName(name);
+            } catch (IllegalArgumentException e) {
+                log.warn("Unknown charset '{}'", name, e);
+            }
+        }
+
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Reads a file part in streaming mode and adds it to the set of file
+     * parameters for this request and to the list of all parameters. The
+     * content is copied to the channel opened by the sink or, if there is
+     * none, kept in memory up to {@code memFileSize} bytes. A larger part is
+     * written to a disk-backed file item if a factory is given, and exceeds
+     * the maximum file size otherwise.
+     *
+     * @param request     The request in which the parameter was specified.
+     * @param sink        The upload sink, or {@code null}.
+     * @param diskFactory The factory of disk-backed file items, or
+     *                    {@code null}.
+     * @param memFileSize The maximum size of a part kept in memory.
+     * @param item        The part of the parameter to add.
+     * @param buffer      The copy buffer.
+     *
+     * @throws IOException if the part can not be read or written, or a
+     *                     size limit is exceeded.
+     */
+    private void addStreamedFileParameter(HttpServletRequest request,
+            UploadSink sink, DiskFileItemFactory diskFactory, long memFileSize,
+            FileItemInput item, byte[] buffer) throws IOException {
+        final String name = item.getFieldName();
+        final StreamedFormFile file = new StreamedFormFile(name,
+            baseFileName(item.getName()), item.getContentType());
+
+        final WritableByteChannel channel = (sink == null) ? null
+            : sink.open(request, name, file.getFileName(), file.getContentType());
+
+        try (InputStream in = item.getInputStream()) {
+            if (channel != null) {
+                try {
+                    final ByteBuffer bytes = ByteBuffer.wrap(buffer);
+                    int n;
+
+                    while ((n = in.read(buffer)) != -1) {
+                        bytes.clear();
+                        bytes.limit(n);
+
+                        while (bytes.hasRemaining()) {
+                            channel.write(bytes);
+                        }
+
+                        file.length += n;
+                    }
+
+                    channel.close();
+                } catch (IOException | RuntimeException e) {
+                    try {
+                        channel.close();
+                        sink.discard(request, name, file);
+                    } catch (IOException e2) {
+                        e.addSuppressed(e2);
+                    }
+
+                    throw e;
+                }
+
+                file.sink = sink;
+            } else {
+                final ByteArrayOutputStream data = new ByteArrayOutputStream();
+                int n;
+
+                while ((n = in.read(buffer)) != -1) {
+                    file.length += n;
+                    data.write(buffer, 0, n);
+
+                    if (file.length > memFileSize) {
+                        if (diskFactory == null) {
+                            throw new FileUploadByteCountLimitException(
+                                "The field " + name + " exceeds its maximum "
+                                + "in-memory size of " + memFileSize + " bytes.",
+                                file.length, memFileSize, item.getName(), name);
+                        }
+
+                        addFileParameter(spillStreamedFile(diskFactory, item,
+                            data, in, buffer));
+                        return;
+                    }
+                }
+
+                file.data = data.toByteArray();
+            }
+        }
+
+        elementsAll.put(name, addElement(elementsFile, name, (FormFile) file));
+    }
+
+    /**
+     * Writes a file part read in streaming mode, which exceeds the size
+     * threshold, to a disk-backed file item: first the bytes read so far,
+     * then the remaining content of the part.
+     *
+     * @param diskFactory The factory of disk-backed file items.
+     * @param item        The part being read.
+     * @param data        The bytes read so far.
+     * @param in          The remaining content of the part.
+     * @param buffer      The copy buffer.
+     *
+     * @return The file item holding the content of the part.
+     *
+     * @throws IOException if the part can not be read or written, or a
+     *                     size limit is exceeded.
+     */
+    private DiskFileItem spillStreamedFile(DiskFileItemFactory diskFactory,
+            FileItemInput item, ByteArrayOutputStream data, InputStream in,
+            byte[] buffer) throws IOException {
+        final DiskFileItem diskItem = diskFactory.fileItemBuilder()
+            .setFieldName(item.getFieldName())
+            .setContentType(item.getContentType())
+            .setFileName(item.getName())
+            .setFormField(false)
+            .setFileItemHeaders(item.getHeaders())
+            .get();
+
+        try (OutputStream out = diskItem.getOutputStream()) {
+            data.writeTo(out);
+
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                diskItem.delete();
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+
+            throw e;
+        }
+
+        return diskItem;
+    }
+
+    /**
+     * Discards the content of all file parts of this request which have
+     * been written to the sink or to disk, and forgets all parameters read
+     * so far.
+     *
+     * @param request The multipart request.
+     * @param sink    The upload sink, or {@code null}.
+     */
+    private void discardStreamedFiles(HttpServletRequest request, UploadSink sink) {
+        for (FormFile[] files : elementsFile.values()) {
+            for (FormFile formFile : files) {
+                try {
+                    if (formFile instanceof StreamedFormFile) {
+                        final StreamedFormFile file = (StreamedFormFile) formFile;
+
+                        if (file.sink != null) {
+                            sink.discard(request, file.fieldName, file);
+                        }
+                    } else {
+                        formFile.destroy();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.atWarn()
+                        .setMessage("Failed to discard FormFile {}")
+                        .addArgument(formFile.getFileName())
+                        .setCause(e)
+                        .log();
+                }
+            }
+        }
+
+        elementsText.clear();
+        elementsFile.clear();
+        elementsAll.clear();
+    }
+
     /**
      * Appends a new element to an array, which is in a map. If no array exists with the name,
      * a new array with the name will be created.
@@ -623,6 +1121,39 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
         return newArray;
     }
 
+    /**
+     * Returns the base file name from the supplied file path. On the
+     * surface, this would appear to be a trivial task. Apparently, however,
+     * some Linux JDKs do not implement {@code File.getName()} correctly for
+     * Windows paths, so we attempt to take care of that here.
+     *
+     * @param filePath The full path to the file.
+     *
+     * @return The base file name, from the end of the path.
+     */
+    private static String baseFileName(String filePath) {
+        // First, ask the JDK for the base file name.
+        String fileName = new File(filePath).getName();
+
+        // Now check for a Windows file name parsed incorrectly.
+        int colonIndex = fileName.indexOf(":");
+
+        if (colonIndex == -1) {
+            // Check for a Windows SMB file path.
+            colonIndex = fileName.indexOf("\\\\");
+        }
+
+        int backslashIndex = fileName.lastIndexOf("\\");
+
+        if ((colonIndex > -1) && (backslashIndex > -1)) {
+            // Consider this filename to be a full Windows path, and parse
+            // it accordingly to retrieve just the base file name.
+            fileName = fileName.substring(backslashIndex + 1);
+        }
+
+        return fileName;
+    }
+
     // ---------------------------------------------------------- Inner Classes
 
     /**
@@ -799,28 +1330,152 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
          * @return The base file name, from the end of the path.
          */
         protected String getBaseFileName(String filePath) {
-            // First, ask the JDK for the base file name.
-            String fileName = new File(filePath).getName();
+            return baseFileName(filePath);
+        }
+
+        /**
+         * Returns the (client-side) file name for this file.
+         *
+         * @return The client-size file name.
+         */
+        public String toString() {
+            return getFileName();
+        }
+    }
+
+    /**
+     * This class implements the Struts {@code FormFile} interface for a file
+     * part read in streaming mode. The content is either held in memory or
+     * has been written to an {@link UploadSink}, in which case it can not be
+     * read through this object. This implementation is <i>read-only</i>; any
+     * attempt to modify an instance of this class will result in an
+     * {@code UnsupportedOperationException}.
+     */
+    static class StreamedFormFile implements FormFile, Serializable {
+        private static final long serialVersionUID = 4510957207716394627L;
 
-            // Now check for a Windows file name parsed incorrectly.
-            int colonIndex = fileName.indexOf(":");
+        /**
+         * The name of the form field.
+         */
+        final String fieldName;
 
-            if (colonIndex == -1) {
-                // Check for a Windows SMB file path.
-                colonIndex = fileName.indexOf("\\\\");
-            }
+        /**
+         * The (client-side) base file name.
+         */
+        private final String fileName;
+
+        /**
+         * The content type, or {@code null}.
+         */
+        private final String contentType;
+
+        /**
+         * The number of bytes read.
+         */
+        long length;
 
-            int backslashIndex = fileName.lastIndexOf("\\");
+        /**
+         * The content, if it is held in memory.
+         */
+        byte[] data;
 
-            if ((colonIndex > -1) && (backslashIndex > -1)) {
-                // Consider this filename to be a full Windows path, and parse
-                // it accordingly to retrieve just the base file name.
-                fileName = fileName.substring(backslashIndex + 1);
+        /**
+         * The sink the content has been written to, if any.
+         */
+        transient UploadSink sink;
+
+        /**
+         * Constructs an instance of this class for an empty part.
+         *
+         * @param fieldName   The name of the form field.
+         * @param fileName    The client-side base file name.
+         * @param contentType The content type, or {@code null}.
+         */
+        StreamedFormFile(String fieldName, String fileName, String contentType) {
+            this.fieldName = fieldName;
+            this.fileName = fileName;
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public void setContentType(String contentType) {
+            throw new UnsupportedOperationException(
+                "The setContentType() method is not supported.");
+        }
+
+        @Deprecated
+        public int getFileSize() {
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Size is greater than 2 GB; use getFileLength()");
             }
+            return (int) length;
+        }
 
+        @Deprecated
+        public void setFileSize(int filesize) {
+            throw new UnsupportedOperationException(
+                "The setFileSize() method is not supported.");
+        }
+
+        public long getFileLength() {
+            return length;
+        }
+
+        public void setFileLength(long fileLength) {
+            throw new UnsupportedOperationException(
+                "The setFileLength() method is not supported.");
+        }
+
+        public String getFileName() {
             return fileName;
         }
 
+        public void setFileName(String fileName) {
+            throw new UnsupportedOperationException(
+                "The setFileName() method is not supported.");
+        }
+
+        /**
+         * Returns the data for this file as a byte array.
+         *
+         * @throws FileNotFoundException If the content has been written to
+         *                               an {@code UploadSink} or destroyed
+         */
+        public byte[] getFileData() throws FileNotFoundException {
+            if (data == null) {
+                throw new FileNotFoundException("The content of " + fileName
+                    + " is not held by this FormFile");
+            }
+
+            return data;
+        }
+
+        /**
+         * Get an InputStream that represents this file.
+         *
+         * @throws FileNotFoundException If the content has been written to
+         *                               an {@code UploadSink} or destroyed
+         */
+        public InputStream getInputStream() throws FileNotFoundException {
+            if (data == null) {
+                throw new FileNotFoundException("The content of " + fileName
+                    + " is not held by this FormFile");
+            }
+
+            return new ByteArrayInputStream(data);
+        }
+
+        /**
+         * Releases the content held in memory. The content written to an
+         * {@code UploadSink} is owned by the sink and is not affected.
+         */
+        public void destroy() {
+            data = null;
+        }
+
         /**
          * Returns the (client-side) file name for this file.
          *
@@ -830,4 +1485,4 @@ public class CommonsMultipartRequestHandler implements MultipartRequestHandler {
             return getFileName();
         }
     }
-}
\ No newline at end of file
+}
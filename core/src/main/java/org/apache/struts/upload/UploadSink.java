@@ -0,0 +1,72 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.upload;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * <p>Receives the content of uploaded files while a multipart request is
+ * read in streaming mode by the {@link CommonsMultipartRequestHandler}.</p>
+ *
+ * <p>For each file part, the handler asks the sink for a channel and copies
+ * the bytes of the part into it, through a buffer of bounded size, as they
+ * arrive. The sink owns the data written to the channel; the
+ * <code>FormFile</code> handed to the form only describes the part, its
+ * content can not be read again.</p>
+ *
+ * <p>Implementations must provide a no-argument constructor and must be
+ * thread-safe, since a single instance is shared by all requests.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public interface UploadSink {
+
+    /**
+     * Open the channel receiving the content of a file part.
+     *
+     * @param request     The multipart request
+     * @param fieldName   The name of the form field
+     * @param fileName    The client-side file name
+     * @param contentType The content type of the part, or <code>null</code>
+     * @return the channel receiving the content, or <code>null</code> to
+     *         keep the part in memory
+     * @throws IOException if the channel can not be opened
+     */
+    WritableByteChannel open(HttpServletRequest request, String fieldName,
+        String fileName, String contentType) throws IOException;
+
+    /**
+     * Discard the content of a file part which has been written to a channel
+     * of this sink. This is called for every part of a request which can
+     * not be completed, for example because a size limit is exceeded, after
+     * the channel has been closed.
+     *
+     * @param request   The multipart request
+     * @param fieldName The name of the form field
+     * @param file      The file part, with the length written so far
+     * @throws IOException if the content can not be discarded
+     */
+    void discard(HttpServletRequest request, String fieldName, FormFile file)
+        throws IOException;
+}
@@ -0,0 +1,279 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache. <p> Lookups never lock. If the cache grows
+ * beyond its maximum size, the least recently used quarter of the entries
+ * is evicted, so that a working set larger than the cache keeps its most
+ * used entries instead of being dropped as a whole. <p> Keys and values
+ * must not be <code>null</code>; callers which need to remember a missing
+ * value cache a sentinel of their own.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ * @since Struts 1.5.0
+ */
+public final class BoundedCache<K, V> implements Serializable {
+    private static final long serialVersionUID = -4127930851746296373L;
+
+    /**
+     * The default maximum number of cached values.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /**
+     * The minimum interval in nanoseconds between two updates of the last
+     * use of an entry, so that hot entries are not written on every hit.
+     */
+    private static final long TOUCH_INTERVAL = 1000000L;
+
+    /**
+     * The cached values and the time of their last use.
+     */
+    private final ConcurrentHashMap<K, Entry<V>> entries =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The lock held while evicting entries.
+     */
+    private final Object evictLock = new Object[0];
+
+    /**
+     * The maximum number of cached values. A value less than or equal to
+     * zero disables the cache.
+     */
+    private volatile int maxSize;
+
+    /**
+     * Construct a new cache with the default maximum size.
+     */
+    public BoundedCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Construct a new cache with the specified maximum size.
+     *
+     * @param maxSize The maximum number of cached values; a value less than
+     *                or equal to zero disables the cache
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the maximum number of cached values.
+     *
+     * @return the maximum number of cached values
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Set the maximum number of cached values. A value less than or equal
+     * to zero disables the cache.
+     *
+     * @param maxSize The maximum number of cached values
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Return the value cached for the specified key.
+     *
+     * @param key The key
+     * @return the value or <code>null</code> if none is cached
+     */
+    public V get(Object key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        entry.touch();
+        return entry.value;
+    }
+
+    /**
+     * Cache a value, replacing the value cached for the key.
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value));
+        evict();
+    }
+
+    /**
+     * Cache a value unless a value is already cached for the key.
+     *
+     * @param key   The key
+     * @param value The value
+     * @return the value already cached, or <code>null</code> if the
+     *         specified value was cached
+     */
+    public V putIfAbsent(K key, V value) {
+        Entry<V> previous = entries.putIfAbsent(key, new Entry<>(value));
+
+        if (previous != null) {
+            previous.touch();
+            return previous.value;
+        }
+
+        evict();
+        return null;
+    }
+
+    /**
+     * Return the value cached for the specified key, computing and caching
+     * it if there is none. The function is called without a lock, so it may
+     * be called more than once for a key; the first cached value wins.
+     *
+     * @param key      The key
+     * @param function The function computing the value, which may return
+     *                 <code>null</code> for a value which is not cached
+     * @return the cached or computed value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        V value = get(key);
+
+        if (value == null) {
+            value = function.apply(key);
+
+            if (value != null) {
+                V previous = putIfAbsent(key, value);
+
+                if (previous != null) {
+                    value = previous;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Remove the value cached for the specified key.
+     *
+     * @param key The key
+     */
+    public void remove(Object key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all cached values.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Return the number of cached values.
+     *
+     * @return the number of cached values
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    // ------------------------------------------------------ Private Methods
+
+    /**
+     * Evict the least recently used entries until the cache is at three
+     * quarters of its maximum size, if it has grown beyond its maximum
+     * size. A disabled cache is emptied.
+     */
+    private void evict() {
+        if (entries.size() <= Math.max(maxSize, 0)) {
+            return;
+        }
+
+        synchronized (evictLock) {
+            int max = Math.max(maxSize, 0);
+
+            if (entries.size() <= max) {
+                return;
+            }
+
+            List<Map.Entry<K, Entry<V>>> candidates =
+                new ArrayList<>(entries.entrySet());
+
+            candidates.sort(Comparator.comparingLong(
+                (Map.Entry<K, Entry<V>> entry) -> entry.getValue().used));
+
+            int excess = candidates.size() - (max - (max >> 2));
+
+            for (int i = 0; i < excess; i++) {
+                Map.Entry<K, Entry<V>> candidate = candidates.get(i);
+                entries.remove(candidate.getKey(), candidate.getValue());
+            }
+        }
+    }
+
+    /**
+     * A cached value and the time of its last use.
+     */
+    private static final class Entry<V> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The value.
+         */
+        private final V value;
+
+        /**
+         * The time of the last use, in the time base of
+         * <code>System.nanoTime()</code>.
+         */
+        private volatile long used;
+
+        Entry(V value) {
+            this.value = value;
+            this.used = System.nanoTime();
+        }
+
+        /**
+         * Record a use of this entry.
+         */
+        void touch() {
+            long now = System.nanoTime();
+
+            if ((now - used) > TOUCH_INTERVAL) {
+                used = now;
+            }
+        }
+    }
+}
@@ -80,10 +80,23 @@ public abstract class MessageResources implements Serializable {
      */
     protected MessageResourcesFactory factory = null;
 
+    /**
+     * The parsed MessageFormat templates, keyed by the key computed in
+     * <code>messageKey()</code>. The cached templates are never used for
+     * formatting, because <code>MessageFormat</code> is not thread-safe;
+     * {@link #getMessage(Locale, String, Object[])} formats with a copy.
+     */
+    private final BoundedCache<String, MessageFormat> formatCache =
+        new BoundedCache<>();
+
     /**
      * The set of previously created MessageFormat objects, keyed by the key
      * computed in <code>messageKey()</code>.
+     *
+     * @deprecated Since Struts 1.5.0 the templates are cached in a private
+     * bounded cache and this map is no longer used.
      */
+    @Deprecated
     protected HashMap<String, MessageFormat> formats = new HashMap<>();
 
     /**
@@ -185,6 +198,38 @@ public abstract class MessageResources implements Serializable {
      */
     public void setEscape(boolean escape) {
         this.escape = escape;
+        clearFormats();
+    }
+
+    /**
+     * Return the maximum number of cached <code>MessageFormat</code>
+     * templates.
+     *
+     * @return the maximum number of cached templates
+     *
+     * @since Struts 1.5.0
+     */
+    public int getFormatCacheSize() {
+        return formatCache.getMaxSize();
+    }
+
+    /**
+     * Set the maximum number of cached <code>MessageFormat</code>
+     * templates. A value less than or equal to zero disables the cache.
+     *
+     * @param formatCacheSize the maximum number of cached templates
+     *
+     * @since Struts 1.5.0
+     */
+    public void setFormatCacheSize(int formatCacheSize) {
+        formatCache.setMaxSize(formatCacheSize);
+    }
+
+    /**
+     * Drop the cached <code>MessageFormat</code> templates.
+     */
+    void clearFormats() {
+        formatCache.clear();
     }
 
     // --------------------------------------------------------- Public Methods
@@ -290,23 +335,21 @@ public abstract class MessageResources implements Serializable {
             locale = defaultLocale;
         }
 
-        MessageFormat format = null;
         String formatKey = messageKey(locale, key);
+        MessageFormat format = formatCache.get(formatKey);
 
-        synchronized (formats) {
-            format = formats.get(formatKey);
-
-            if (format == null) {
-                String formatString = getMessage(locale, key);
-
-                if (formatString == null) {
-                    return returnNull ? null : ("???" + formatKey + "???");
-                }
+        if (format != null) {
+            format = (MessageFormat) format.clone();
+        } else {
+            String formatString = getMessage(locale, key);
 
-                format = new MessageFormat(escape(formatString));
-                format.setLocale(locale);
-                formats.put(formatKey, format);
+            if (formatString == null) {
+                return returnNull ? null : ("???" + formatKey + "???");
             }
+
+            format = new MessageFormat(escape(formatString));
+            format.setLocale(locale);
+            formatCache.putIfAbsent(formatKey, (MessageFormat) format.clone());
         }
 
         return format.format(args);
@@ -0,0 +1,308 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.apache.struts.Globals;
+import org.apache.struts.action.RequestProcessor;
+import org.apache.struts.config.MessageResourcesConfig;
+import org.apache.struts.config.ModuleConfig;
+
+/**
+ * Precompiled routing information of all modules of a web application.
+ * <p> The table is built once, after all modules have been initialized,
+ * and stored in the <code>ServletContext</code> under
+ * {@link Globals#MODULE_ROUTES_KEY}. It resolves the module of a request
+ * path together with its <code>ModuleConfig</code>,
+ * <code>MessageResources</code> and <code>RequestProcessor</code> in a
+ * single lookup, which neither allocates nor touches the context
+ * attributes.
+ *
+ * @since Struts 1.5.0
+ */
+public class ModuleRouteTable {
+
+    /**
+     * The route of the default module.
+     */
+    private final Route defaultRoute;
+
+    /**
+     * The routes of all modules, keyed by their prefix.
+     */
+    private final HashMap<String, Route> routes = new HashMap<>();
+
+    /**
+     * The routes of all non-default modules, indexed by the length of their
+     * prefix.
+     */
+    private final Route[][] routesByLength;
+
+    /**
+     * Construct a new route table from the modules stored in the specified
+     * <code>ServletContext</code>.
+     *
+     * @param context The ServletContext for this web application
+     * @param prefixes The prefixes of all non-default modules
+     * @throws IllegalArgumentException if no default module is available
+     */
+    public ModuleRouteTable(ServletContext context, String[] prefixes) {
+        ModuleConfig config =
+            (ModuleConfig) context.getAttribute(Globals.MODULE_KEY);
+        if (config == null) {
+            throw new IllegalArgumentException("No default module config");
+        }
+
+        defaultRoute = new Route(config, context);
+        routes.put("", defaultRoute);
+
+        int maxLength = 0;
+        for (String prefix : prefixes) {
+            config = (ModuleConfig) context.getAttribute(Globals.MODULE_KEY
+                + prefix);
+            if (config != null) {
+                routes.put(prefix, new Route(config, context));
+                maxLength = Math.max(maxLength, prefix.length());
+            }
+        }
+
+        List<List<Route>> byLength = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            byLength.add(new ArrayList<>());
+        }
+        for (Route route : routes.values()) {
+            if (route != defaultRoute) {
+                byLength.get(route.prefix.length()).add(route);
+            }
+        }
+
+        routesByLength = new Route[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            routesByLength[i] = byLength.get(i).toArray(new Route[0]);
+        }
+    }
+
+    /**
+     * Return the route table stored in the specified
+     * <code>ServletContext</code>, if any.
+     *
+     * @param context The ServletContext for this web application
+     * @return the route table or <code>null</code> if none is available
+     */
+    public static ModuleRouteTable getInstance(ServletContext context) {
+        return (ModuleRouteTable) context.getAttribute(
+            Globals.MODULE_ROUTES_KEY);
+    }
+
+    /**
+     * Return the route of the module with the specified prefix.
+     *
+     * @param prefix The module prefix, <code>""</code> or <code>"/"</code>
+     *               for the default module
+     * @return the route or <code>null</code> if no such module exists
+     */
+    public Route getRoute(String prefix) {
+        if ((prefix == null) || "/".equals(prefix)) {
+            return defaultRoute;
+        }
+
+        return routes.get(prefix);
+    }
+
+    /**
+     * Return the route of the module to which the specified request
+     * belongs.
+     *
+     * @param request The servlet request we are processing
+     * @return the route, which is never <code>null</code>
+     */
+    public Route findRoute(HttpServletRequest request) {
+        String matchPath =
+            (String) request.getAttribute(RequestProcessor.INCLUDE_SERVLET_PATH);
+
+        if (matchPath == null) {
+            matchPath = request.getServletPath();
+        }
+
+        return findRoute(matchPath);
+    }
+
+    /**
+     * Return the route of the module to which the specified path belongs.
+     * The path is cut at each '/' from the right, and the longest part
+     * matching a module prefix wins.
+     *
+     * @param matchPath The path from which we want the module
+     * @return the route, which is never <code>null</code>
+     */
+    public Route findRoute(String matchPath) {
+        int lastSlash = matchPath.lastIndexOf('/');
+
+        while (lastSlash > 0) {
+            if (lastSlash < routesByLength.length) {
+                for (Route route : routesByLength[lastSlash]) {
+                    if (matchPath.startsWith(route.prefix)) {
+                        return route;
+                    }
+                }
+            }
+
+            lastSlash = matchPath.lastIndexOf('/', lastSlash - 1);
+        }
+
+        return defaultRoute;
+    }
+
+    /**
+     * The precompiled routing information of a single module.
+     */
+    public static final class Route {
+
+        /**
+         * The module prefix.
+         */
+        private final String prefix;
+
+        /**
+         * The module configuration.
+         */
+        private final ModuleConfig moduleConfig;
+
+        /**
+         * The keys of the message resources of this module.
+         */
+        private final String[] messageResourcesKeys;
+
+        /**
+         * The message resources of this module, with the same index as
+         * their keys; an element may be <code>null</code>.
+         */
+        private final MessageResources[] messageResources;
+
+        /**
+         * The default message resources of this module, stored under
+         * {@link Globals#MESSAGES_KEY}.
+         */
+        private final MessageResources defaultMessageResources;
+
+        /**
+         * The request processor of this module, once it is available.
+         */
+        private volatile RequestProcessor requestProcessor;
+
+        /**
+         * Construct a new route for the specified module.
+         *
+         * @param moduleConfig The module configuration
+         * @param context The ServletContext for this web application
+         */
+        Route(ModuleConfig moduleConfig, ServletContext context) {
+            this.prefix = moduleConfig.getPrefix();
+            this.moduleConfig = moduleConfig;
+
+            MessageResourcesConfig[] mrConfig =
+                moduleConfig.findMessageResourcesConfigs();
+            messageResourcesKeys = new String[mrConfig.length];
+            messageResources = new MessageResources[mrConfig.length];
+            for (int i = 0; i < mrConfig.length; i++) {
+                messageResourcesKeys[i] = mrConfig[i].getKey();
+                messageResources[i] = (MessageResources)
+                    context.getAttribute(messageResourcesKeys[i] + prefix);
+            }
+
+            defaultMessageResources = (MessageResources)
+                context.getAttribute(Globals.MESSAGES_KEY + prefix);
+            requestProcessor = (RequestProcessor)
+                context.getAttribute(Globals.REQUEST_PROCESSOR_KEY + prefix);
+        }
+
+        /**
+         * Return the module prefix.
+         *
+         * @return the module prefix, <code>""</code> for the default module
+         */
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * Return the module configuration.
+         *
+         * @return the module configuration
+         */
+        public ModuleConfig getModuleConfig() {
+            return moduleConfig;
+        }
+
+        /**
+         * Return the default message resources of this module.
+         *
+         * @return the default message resources or <code>null</code>
+         */
+        public MessageResources getMessageResources() {
+            return defaultMessageResources;
+        }
+
+        /**
+         * Return the request processor of this module.
+         *
+         * @return the request processor or <code>null</code> if it has not
+         *         been created yet
+         */
+        public RequestProcessor getRequestProcessor() {
+            return requestProcessor;
+        }
+
+        /**
+         * Set the request processor of this module.
+         *
+         * @param requestProcessor The request processor
+         */
+        public void setRequestProcessor(RequestProcessor requestProcessor) {
+            this.requestProcessor = requestProcessor;
+        }
+
+        /**
+         * Expose the module configuration and message resources of this
+         * module as request attributes.
+         *
+         * @param request The servlet request we are processing
+         */
+        public void select(HttpServletRequest request) {
+            request.setAttribute(Globals.MODULE_KEY, moduleConfig);
+
+            for (int i = 0; i < messageResourcesKeys.length; i++) {
+                if (messageResources[i] != null) {
+                    request.setAttribute(messageResourcesKeys[i],
+                        messageResources[i]);
+                } else {
+                    request.removeAttribute(messageResourcesKeys[i]);
+                }
+            }
+        }
+    }
+}
@@ -88,6 +88,14 @@ public class ModuleUtils {
      *         context.
      */
     public ModuleConfig getModuleConfig(String prefix, ServletContext context) {
+        ModuleRouteTable routes = ModuleRouteTable.getInstance(context);
+        if (routes != null) {
+            ModuleRouteTable.Route route = routes.getRoute(prefix);
+            if (route != null) {
+                return route.getModuleConfig();
+            }
+        }
+
         if ((prefix == null) || "/".equals(prefix)) {
             return (ModuleConfig) context.getAttribute(Globals.MODULE_KEY);
         } else {
@@ -170,6 +178,11 @@ public class ModuleUtils {
     public String getModuleName(String matchPath, ServletContext context) {
         log.debug("Get module name for path {}", matchPath);
 
+        ModuleRouteTable routes = ModuleRouteTable.getInstance(context);
+        if (routes != null) {
+            return routes.findRoute(matchPath).getPrefix();
+        }
+
         String prefix = ""; // Initialize prefix before we try lookup
         String[] prefixes = getModulePrefixes(context);
 
@@ -219,6 +232,13 @@ public class ModuleUtils {
      * @param context The ServletContext for this web application
      */
     public void selectModule(HttpServletRequest request, ServletContext context) {
+        // Use the precompiled routes if available
+        ModuleRouteTable routes = ModuleRouteTable.getInstance(context);
+        if (routes != null) {
+            routes.findRoute(request).select(request);
+            return;
+        }
+
         // Compute module name
         String prefix = getModuleName(request, context);
 
@@ -236,6 +256,16 @@ public class ModuleUtils {
      */
     public void selectModule(String prefix, HttpServletRequest request,
         ServletContext context) {
+        // Use the precompiled routes if available
+        ModuleRouteTable routes = ModuleRouteTable.getInstance(context);
+        if (routes != null) {
+            ModuleRouteTable.Route route = routes.getRoute(prefix);
+            if (route != null) {
+                route.select(request);
+                return;
+            }
+        }
+
         // Expose the resources for this module
         ModuleConfig config = getModuleConfig(prefix, context);
 
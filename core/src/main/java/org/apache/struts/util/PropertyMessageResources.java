@@ -22,9 +22,15 @@ package org.apache.struts.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +43,7 @@ import org.slf4j.LoggerFactory;
  * must be specified. <p> <strong>IMPLEMENTATION NOTE</strong> - This class
  * trades memory for speed by caching all messages located via generalizing
  * the Locale under the original locale as well. This results in specific
- * messages being stored in the message cache more than once, but improves
+ * messages being stored in the message snapshots more than once, but improves
  * response time on subsequent requests for the same locale + key
  * combination.
  *
@@ -110,6 +116,17 @@ import org.slf4j.LoggerFactory;
  *      &lt;/message-resources&gt;
  * </pre>
  *
+ * <h2>Message Snapshots</h2>
+ * The first request for a Locale resolves the complete search sequence
+ * of the current mode once and publishes the result as an immutable
+ * snapshot of all messages visible for that Locale. All further lookups
+ * for this Locale are plain map reads and never lock.
+ * <p>
+ * In <i>default mode</i>, a message which has been found for the default
+ * Locale is, as it has always been, also found in the default Locale step
+ * of other Locales, even if it comes from a more general file of the
+ * default Locale (e.g. <code>en</code> for <code>en_US</code>).
+ *
  * @version $Rev$ $Date$
  */
 public class PropertyMessageResources extends MessageResources {
@@ -139,11 +156,36 @@ public class PropertyMessageResources extends MessageResources {
     protected HashMap<String, String> locales = new HashMap<>();
 
     /**
-     * The cache of messages we have accumulated over time, keyed by the value
-     * calculated in <code>messageKey()</code>.
+     * The messages loaded from the property resources so far, keyed by the
+     * value calculated in <code>messageKey()</code>.
      */
     protected HashMap<String, String> messages = new HashMap<>();
 
+    /**
+     * The immutable message snapshots, keyed by the value calculated in
+     * <code>localeKey()</code> of the requested Locale. Each snapshot
+     * contains all messages visible for this Locale, already resolved
+     * through the search sequence of the current mode.
+     *
+     * @since Struts 1.5.0
+     */
+    private final ConcurrentHashMap<String, Map<String, String>> snapshots =
+        new ConcurrentHashMap<>();
+
+    /**
+     * In default mode, the messages of the default Locale step of other
+     * Locales: those of the default Locale key itself and of the default
+     * properties file. Created on first use.
+     */
+    private volatile Map<String, String> defaultStep;
+
+    /**
+     * In default mode, the message keys which have been found for the
+     * default Locale.
+     */
+    private final Set<String> defaultLocaleMessages =
+        ConcurrentHashMap.newKeySet();
+
     /**
      * Compatibility mode that PropertyMessageResources is operating in.
      */
@@ -201,6 +243,10 @@ public class PropertyMessageResources extends MessageResources {
             this.mode = MODE_DEFAULT;
             log.debug("Operating in Default mode [{}]", mode);
         }
+        snapshots.clear();
+        defaultStep = null;
+        defaultLocaleMessages.clear();
+        clearFormats();
     }
 
     /**
@@ -219,46 +265,19 @@ public class PropertyMessageResources extends MessageResources {
     public String getMessage(Locale locale, String key) {
         log.debug("getMessage({},{})", locale, key);
 
-        // Initialize variables we will require
-        String localeKey = localeKey(locale);
-        String originalKey = messageKey(localeKey, key);
-        String message = null;
-
-        // Search the specified Locale
-        message = findMessage(locale, key, originalKey);
-        if (message != null) {
-            return message;
-        }
-
-        // JSTL Compatibility - JSTL doesn't use the default locale
-        if (mode == MODE_JSTL) {
-
-           // do nothing (i.e. don't use default Locale)
-
-        // PropertyResourcesBundle - searches through the hierarchy
-        // for the default Locale (e.g. first en_US then en)
-        } else if (mode == MODE_RESOURCE_BUNDLE) {
-
-            if (!defaultLocale.equals(locale)) {
-                message = findMessage(defaultLocale, key, originalKey);
-            }
-
-        // Default (backwards) Compatibility - just searches the
-        // specified Locale (e.g. just en_US)
-        } else {
+        String message = getSnapshot(locale).get(key);
 
-            if (!defaultLocale.equals(locale)) {
-                localeKey = localeKey(defaultLocale);
-                message = findMessage(localeKey, key, originalKey);
+        if (mode == MODE_DEFAULT) {
+            if (defaultLocale.equals(locale)) {
+                if ((message != null)
+                    && !defaultLocaleMessages.contains(key)) {
+                    defaultLocaleMessages.add(key);
+                }
+            } else if (message == null) {
+                message = findDefaultStepMessage(key);
             }
-
-        }
-        if (message != null) {
-            return message;
         }
 
-        // Find the message in the default properties file
-        message = findMessage("", key, originalKey);
         if (message != null) {
             return message;
         }
@@ -345,82 +364,174 @@ public class PropertyMessageResources extends MessageResources {
         }
     }
 
-    // -------------------------------------------------------- Private Methods
-
     /**
-     * Returns a text message for the specified key, for the specified Locale.
-     * <p>
-     * A null string result will be returned by this method if no relevant
-     * message resource is found. This method searches through the locale
-     * <i>hierarchy</i> (i.e. variant --> languge --> country) for the message.
+     * Returns the locale keys to search for the specified Locale, ordered
+     * from the most specific to the most general one, according to the
+     * current compatibility mode.
      *
      * @param locale The requested message Locale, or <code>null</code> for
      *  the system default Locale
-     * @param key The message key to look up
-     * @param originalKey The original message key to cache any found message under
-     * @return text message for the specified key and locale
+     * @return the ordered locale keys to search
+     *
+     * @since Struts 1.5.0
      */
-    private String findMessage(Locale locale, String key, String originalKey) {
+    protected List<String> getSearchSequence(Locale locale) {
+        List<String> localeKeys = new ArrayList<>();
 
-        // Initialize variables we will require
-        String localeKey = localeKey(locale);
-//      String messageKey = null;
-        String message = null;
-        int underscore = 0;
+        // Search the specified Locale
+        addLocaleHierarchy(localeKeys, localeKey(locale));
 
-        // Loop from specific to general Locales looking for this message
-        while (true) {
-            message = findMessage(localeKey, key, originalKey);
-            if (message != null) {
-                break;
+        // JSTL Compatibility - JSTL doesn't use the default locale
+        if (mode == MODE_JSTL) {
+
+           // do nothing (i.e. don't use default Locale)
+
+        // PropertyResourcesBundle - searches through the hierarchy
+        // for the default Locale (e.g. first en_US then en)
+        } else if (mode == MODE_RESOURCE_BUNDLE) {
+
+            if (!defaultLocale.equals(locale)) {
+                addLocaleHierarchy(localeKeys, localeKey(defaultLocale));
             }
 
-            // Strip trailing modifiers to try a more general locale key
-            underscore = localeKey.lastIndexOf("_");
+        // Default (backwards) Compatibility - just searches the
+        // specified Locale (e.g. just en_US)
+        } else {
 
+            if (!defaultLocale.equals(locale)) {
+                addLocaleKey(localeKeys, localeKey(defaultLocale));
+            }
+
+        }
+
+        // Find the message in the default properties file
+        addLocaleKey(localeKeys, "");
+
+        return localeKeys;
+    }
+
+    // -------------------------------------------------------- Private Methods
+
+    /**
+     * Adds the locale key and all its more general locale keys
+     * (i.e. variant --> country --> language) to the search sequence.
+     *
+     * @param localeKeys The search sequence
+     * @param localeKey The most specific locale key to add
+     */
+    private void addLocaleHierarchy(List<String> localeKeys, String localeKey) {
+        while (true) {
+            addLocaleKey(localeKeys, localeKey);
+
+            // Strip trailing modifiers to try a more general locale key
+            int underscore = localeKey.lastIndexOf('_');
             if (underscore < 0) {
                 break;
             }
 
             localeKey = localeKey.substring(0, underscore);
         }
+    }
+
+    /**
+     * Adds the locale key to the search sequence, if it is not already
+     * part of it.
+     *
+     * @param localeKeys The search sequence
+     * @param localeKey The locale key to add
+     */
+    private void addLocaleKey(List<String> localeKeys, String localeKey) {
+        if (!localeKeys.contains(localeKey)) {
+            localeKeys.add(localeKey);
+        }
+    }
 
-        return message;
+    /**
+     * Returns the snapshot of the specified Locale, creating it if
+     * necessary. In default mode, the snapshot of a Locale other than the
+     * default Locale only holds the messages of its own locale keys.
+     *
+     * @param locale The requested message Locale, or <code>null</code> for
+     *  the system default Locale
+     * @return the immutable snapshot of the messages
+     */
+    private Map<String, String> getSnapshot(Locale locale) {
+        String localeKey = localeKey(locale);
+        Map<String, String> snapshot = snapshots.get(localeKey);
+
+        if (snapshot == null) {
+            snapshot = snapshots.computeIfAbsent(localeKey, k -> {
+                if ((mode == MODE_DEFAULT) && !defaultLocale.equals(locale)) {
+                    List<String> localeKeys = new ArrayList<>();
+                    addLocaleHierarchy(localeKeys, k);
+                    return createSnapshot(localeKeys);
+                }
 
+                return createSnapshot(getSearchSequence(locale));
+            });
+        }
+
+        return snapshot;
     }
 
     /**
-     * Returns a text message for the specified key, for the specified Locale.
-     * <p>
-     * A null string result will be returned by this method if no relevant
-     * message resource is found.
+     * In default mode, searches the default Locale step and the default
+     * properties file for a message not found in the locale keys of the
+     * requested Locale. A message found for the default Locale before is
+     * returned as the default Locale resolved it.
      *
-     * @param locale The requested key of the Locale
      * @param key The message key to look up
-     * @param originalKey The original message key to cache any found message under
-     * @return text message for the specified key and locale
+     * @return the message or <code>null</code> if there is none
      */
-    private String findMessage(String localeKey, String key, String originalKey) {
-
-        // Load this Locale's messages if we have not done so yet
-        loadLocale(localeKey);
+    private String findDefaultStepMessage(String key) {
+        if (defaultLocaleMessages.contains(key)) {
+            return getSnapshot(defaultLocale).get(key);
+        }
 
-        // Check if we have this key for the current locale key
-        String messageKey = messageKey(localeKey, key);
+        Map<String, String> step = defaultStep;
 
-        // Add if not found under the original key
-        boolean addIt = !messageKey.equals(originalKey);
+        if (step == null) {
+            List<String> localeKeys = new ArrayList<>();
+            addLocaleKey(localeKeys, localeKey(defaultLocale));
+            addLocaleKey(localeKeys, "");
+            step = createSnapshot(localeKeys);
+            defaultStep = step;
+        }
 
-        synchronized (messages) {
-            String message = messages.get(messageKey);
+        return step.get(key);
+    }
 
-            if (message != null) {
-                if (addIt) {
-                    messages.put(originalKey, message);
+    /**
+     * Creates the immutable snapshot of all messages of the specified
+     * locale keys. The locale keys are loaded if necessary and merged, so
+     * that a more specific locale key wins over a more general one.
+     *
+     * @param localeKeys The locale keys, from the most specific to the most
+     *  general one
+     * @return the immutable snapshot of the messages
+     */
+    private Map<String, String> createSnapshot(List<String> localeKeys) {
+        log.trace("createSnapshot() searching {}", localeKeys);
+
+        HashMap<String, String> snapshot = new HashMap<>();
+        for (int i = localeKeys.size() - 1; i >= 0; i--) {
+            String localeKey = localeKeys.get(i);
+
+            // Load this Locale's messages if we have not done so yet
+            loadLocale(localeKey);
+
+            String prefix = messageKey(localeKey, "");
+            synchronized (messages) {
+                for (Map.Entry<String, String> entry : messages.entrySet()) {
+                    String messageKey = entry.getKey();
+                    if (messageKey.startsWith(prefix)) {
+                        snapshot.put(messageKey.substring(prefix.length()),
+                            entry.getValue());
+                    }
                 }
-
             }
-            return (message);
         }
+
+        return Collections.unmodifiableMap(snapshot);
     }
-}
\ No newline at end of file
+}
@@ -20,17 +20,30 @@
  */
 package org.apache.struts.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Factory for <code>PropertyMessageResources</code> instances.  The
  * configuration paramter for such instances is the base Java package name of
  * the resources entries from which our keys and values will be loaded.
+ * <p> Besides <code>mode</code> (see {@link PropertyMessageResources}) the
+ * property <code>formatCacheSize</code> may be specified to limit the number
+ * of cached <code>MessageFormat</code> templates (default
+ * {@value BoundedCache#DEFAULT_MAX_SIZE}, <code>0</code> disables the
+ * cache).
  *
  * @version $Rev$ $Date$
  */
 public class PropertyMessageResourcesFactory extends MessageResourcesFactory {
     private static final long serialVersionUID = 5604114512308758549L;
 
+    /**
+     * The <code>Log</code> instance for this class.
+     */
+    private final static Logger LOG =
+        LoggerFactory.getLogger(PropertyMessageResourcesFactory.class);
+
     // --------------------------------------------------------- Public Methods
 
     /**
@@ -43,10 +56,22 @@ public class PropertyMessageResourcesFactory extends MessageResourcesFactory {
         PropertyMessageResources messageResources =
                new PropertyMessageResources(this, config, this.returnNull);
         String mode = null;
+        String formatCacheSize = null;
         if (getConfig() != null) {
             mode = getConfig().getProperty("mode");
+            formatCacheSize = getConfig().getProperty("formatCacheSize");
         }
         messageResources.setMode(mode);
+        if (formatCacheSize != null) {
+            try {
+                messageResources.setFormatCacheSize(
+                    Integer.parseInt(formatCacheSize.trim()));
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid formatCacheSize '{}' for '{}', using {}",
+                    formatCacheSize, config,
+                    messageResources.getFormatCacheSize());
+            }
+        }
         return messageResources;
     }
 }
@@ -32,7 +32,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Pattern;
 
-import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.struts.Globals;
 import org.apache.struts.action.ActionForm;
@@ -40,6 +39,7 @@ import org.apache.struts.action.ActionMapping;
 import org.apache.struts.action.ActionRedirect;
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.ActionServletWrapper;
+import org.apache.struts.action.FormPopulator;
 import org.apache.struts.config.ActionConfig;
 import org.apache.struts.config.FormBeanConfig;
 import org.apache.struts.config.ForwardConfig;
@@ -73,9 +73,8 @@ public class RequestUtils {
     /**
      * <p>Pattern matching 'class' access.</p>
      */
-    protected static final Pattern CLASS_ACCESS_PATTERN = Pattern
-            .compile("(.*\\.|^|.*|\\[('|\"))class(\\.|('|\")]|\\[).*",
-                    Pattern.CASE_INSENSITIVE);
+    protected static final Pattern CLASS_ACCESS_PATTERN =
+            FormPopulator.CLASS_ACCESS_PATTERN;
 
     // --------------------------------------------------------- Public Methods
 
@@ -452,6 +451,8 @@ public class RequestUtils {
             names = request.getParameterNames();
         }
 
+        FormPopulator populator = FormPopulator.getInstance(bean);
+
         while (names.hasMoreElements()) {
             String name = names.nextElement();
             String stripped = name;
@@ -484,7 +485,9 @@ public class RequestUtils {
 
             // 2014/05/13 - CVE-2014-0114 security problem patch.
             // Author: NTT DATA Corporation
-            if (CLASS_ACCESS_PATTERN.matcher(stripped).matches()) {
+            // The populator matches each name against CLASS_ACCESS_PATTERN
+            // only once
+            if (!populator.isAccepted(stripped)) {
                 // this log output is only for detection of invalid parameters and not an integral part of the bug fix
                 LOG.trace("ignore parameter: paramName={}", stripped);
                 continue;
@@ -499,7 +502,7 @@ public class RequestUtils {
 
         // Set the corresponding properties of our bean
         try {
-            BeanUtils.populate(bean, properties);
+            populator.populate(bean, properties);
         } catch (Exception e) {
             throw new ServletException("BeanUtils.populate", e);
         } finally {
@@ -20,11 +20,11 @@
  */
 package org.apache.struts.util;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,23 +43,6 @@ public class ResponseUtils {
     private static final Logger LOG =
         LoggerFactory.getLogger(ResponseUtils.class);
 
-    /**
-     * Pattern to find XML-Entity-Patterns.
-     *
-     * <p>Valid patterns are:</p>
-     *
-     * <ul>
-     * <li>&amp;[a-zA-Z][a-z-A-Z0-9]*; - &amp;amp;, &amp;quot;</li>
-     * <li>&amp;#[0-9]+; - &amp;#32;, &amp;#64;</li>
-     * <li>&amp;#x[a-fA-F0-9]+; - &amp;#x20, &amp;3f</li>
-     * </ul>
-     *
-     * <p>See also <a href="https://www.w3.org/TR/xml11/#sec-references">
-     * XML-Reference 1.1</a>.</p>
-     */
-    private static final Pattern XML_ENTITY_PATTERN =
-            Pattern.compile("&(?:[a-zA-Z][a-zA-Z\\d]*|#\\d+|#x[a-fA-F\\d]+);");
-
     /**
      * The message resources for this package.
      */
@@ -82,6 +65,18 @@ public class ResponseUtils {
      * interpreters, returning the string with these characters replaced by
      * the corresponding character entities.
      *
+     * <p>Character and entity references already present in the string are
+     * kept. Valid references are:</p>
+     *
+     * <ul>
+     * <li>&amp;[a-zA-Z][a-z-A-Z0-9]*; - &amp;amp;, &amp;quot;</li>
+     * <li>&amp;#[0-9]+; - &amp;#32;, &amp;#64;</li>
+     * <li>&amp;#x[a-fA-F0-9]+; - &amp;#x20, &amp;3f</li>
+     * </ul>
+     *
+     * <p>See also <a href="https://www.w3.org/TR/xml11/#sec-references">
+     * XML-Reference 1.1</a>.</p>
+     *
      * @param value The string to be filtered and returned
      *
      * @return String The filtered string
@@ -92,76 +87,259 @@ public class ResponseUtils {
         }
 
         final int length = value.length();
+        final int first = nextEscape(value, 0, length);
 
-        StringBuilder result = null;
-        String filtered;
-        Matcher entityMatcher = null;
+        if (first < 0) {
+            return value;
+        }
 
-        for (int i = 0; i < length; i++) {
-            filtered = null;
+        return filter(value, first, length, new StringBuilder(length + 50))
+            .toString();
+    }
 
-            switch (value.charAt(i)) {
-            case '<':
-                filtered = "&lt;";
+    /**
+     * Filter the specified string like {@link #filter(String)}, appending
+     * the result to the specified builder instead of returning it. A
+     * <code>null</code> value appends nothing.
+     *
+     * @param value The string to be filtered
+     * @param out   The builder to append the filtered string to
+     *
+     * @return the builder
+     *
+     * @since Struts 1.5.0
+     */
+    public static StringBuilder filter(String value, StringBuilder out) {
+        if (value == null) {
+            return out;
+        }
 
-                break;
+        final int length = value.length();
+        final int first = nextEscape(value, 0, length);
 
-            case '>':
-                filtered = "&gt;";
+        if (first < 0) {
+            return out.append(value);
+        }
 
-                break;
+        return filter(value, first, length, out);
+    }
 
-            case '&':
-                if (entityMatcher == null) {
-                    entityMatcher = XML_ENTITY_PATTERN.matcher(value);
-                }
-                entityMatcher.region(i, length);
-                if (entityMatcher.lookingAt()) {
-                    filtered = value.substring(entityMatcher.start(), entityMatcher.end());
-                    i += filtered.length() - 1;
-                    if (result == null) {
-                        continue;
-                    }
-                } else {
-                    filtered = "&amp;";
-                }
+    /**
+     * Filter the specified string like {@link #filter(String)}, writing the
+     * result to the specified writer without building the filtered string.
+     * Unchanged runs of characters are written as ranges of the value. A
+     * <code>null</code> value writes nothing.
+     *
+     * @param value The string to be filtered
+     * @param out   The writer, for example a <code>JspWriter</code>
+     *
+     * @throws IOException if the writer fails
+     *
+     * @since Struts 1.5.0
+     */
+    public static void filter(String value, Writer out) throws IOException {
+        if (value == null) {
+            return;
+        }
 
-                break;
+        final int length = value.length();
+        int start = 0;
+        int i;
 
-            case '"':
-                filtered = "&quot;";
+        while ((i = nextEscape(value, start, length)) >= 0) {
+            if (i > start) {
+                out.write(value, start, i - start);
+            }
 
-                break;
+            out.write(escape(value.charAt(i)));
+            start = i + 1;
+        }
 
+        if (start < length) {
+            out.write(value, start, length - start);
+        }
+    }
+
+    /**
+     * Filter the specified string like {@link #filter(String)}, appending
+     * the result to the specified target. Writers and string builders are
+     * handled by {@link #filter(String, Writer)} and
+     * {@link #filter(String, StringBuilder)}. A <code>null</code> value
+     * appends nothing.
+     *
+     * @param value The string to be filtered
+     * @param out   The target to append the filtered string to
+     *
+     * @throws IOException if the target fails
+     *
+     * @since Struts 1.5.0
+     */
+    public static void filter(String value, Appendable out)
+            throws IOException {
+        if (out instanceof Writer) {
+            filter(value, (Writer) out);
+            return;
+        }
+
+        if (out instanceof StringBuilder) {
+            filter(value, (StringBuilder) out);
+            return;
+        }
+
+        if (value == null) {
+            return;
+        }
+
+        final int length = value.length();
+        int start = 0;
+        int i;
+
+        while ((i = nextEscape(value, start, length)) >= 0) {
+            out.append(value, start, i).append(escape(value.charAt(i)));
+            start = i + 1;
+        }
+
+        out.append(value, start, length);
+    }
+
+    /**
+     * Append the filtered string to a builder, starting with the unchanged
+     * characters before the first character to replace.
+     */
+    private static StringBuilder filter(String value, int first, int length,
+            StringBuilder out) {
+        int start = 0;
+        int i = first;
+
+        while (i >= 0) {
+            out.append(value, start, i).append(escape(value.charAt(i)));
+            start = i + 1;
+            i = nextEscape(value, start, length);
+        }
+
+        return out.append(value, start, length);
+    }
+
+    /**
+     * Return the index of the next character to replace, skipping character
+     * and entity references, or -1 if there is none.
+     */
+    private static int nextEscape(String value, int from, int length) {
+        for (int i = from; i < length; i++) {
+            switch (value.charAt(i)) {
+            case '<':
+            case '>':
+            case '"':
             case '\'':
-                filtered = "&#39;";
+                return i;
+
+            case '&':
+                final int reference = referenceLength(value, i, length);
+
+                if (reference == 0) {
+                    return i;
+                }
+
+                i += reference - 1;
 
                 break;
 
-             default:
-                    break;
+            default:
+                break;
             }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Return the length of the character or entity reference starting with
+     * the <code>&amp;</code> at the specified index, or 0 if there is no valid
+     * reference.
+     */
+    private static int referenceLength(String value, int start, int length) {
+        int i = start + 1;
+
+        if (i >= length) {
+            return 0;
+        }
 
-            if (result == null) {
-                if (filtered != null) {
-                    result = new StringBuilder(length + 50);
+        char c = value.charAt(i);
 
-                    if (i > 0) {
-                        result.append(value.substring(0, i));
-                    }
+        if (isAsciiLetter(c)) {
+            // &name;
+            do {
+                i++;
+            } while ((i < length) && (isAsciiLetter(value.charAt(i))
+                || isAsciiDigit(value.charAt(i))));
+        } else if (c == '#') {
+            i++;
 
-                    result.append(filtered);
+            if ((i < length) && (value.charAt(i) == 'x')) {
+                // &#xhex;
+                i++;
+
+                final int digits = i;
+
+                while ((i < length) && isAsciiHexDigit(value.charAt(i))) {
+                    i++;
+                }
+
+                if (i == digits) {
+                    return 0;
                 }
             } else {
-                if (filtered == null) {
-                    result.append(value.charAt(i));
-                } else {
-                    result.append(filtered);
+                // &#decimal;
+                final int digits = i;
+
+                while ((i < length) && isAsciiDigit(value.charAt(i))) {
+                    i++;
+                }
+
+                if (i == digits) {
+                    return 0;
                 }
             }
+        } else {
+            return 0;
         }
 
-        return result == null ? value : result.toString();
+        return ((i < length) && (value.charAt(i) == ';')) ? i + 1 - start : 0;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'));
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    private static boolean isAsciiHexDigit(char c) {
+        return isAsciiDigit(c) || ((c >= 'a') && (c <= 'f'))
+            || ((c >= 'A') && (c <= 'F'));
+    }
+
+    /**
+     * Return the character entity replacing the specified character.
+     */
+    private static String escape(char c) {
+        switch (c) {
+        case '<':
+            return "&lt;";
+
+        case '>':
+            return "&gt;";
+
+        case '&':
+            return "&amp;";
+
+        case '"':
+            return "&quot;";
+
+        default:
+            return "&#39;";
+        }
     }
 
     /**
@@ -20,9 +20,11 @@
  */
 package org.apache.struts.util;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.apache.struts.Globals;
 
@@ -31,23 +33,65 @@ import jakarta.servlet.http.HttpSession;
 
 /**
  * TokenProcessor is responsible for handling all token related functionality.
- * The methods in this class are synchronized to protect token processing from
- * multiple threads.  Servlet containers are allowed to return a different
- * HttpSession object for two threads accessing the same session so it is not
- * possible to synchronize on the session.
+ * <p> The methods in this class do not share any lock. Tokens are random
+ * values drawn from a generator private to each thread. The tokens of a
+ * session are kept in a {@link TokenStore} saved in the session, which is
+ * created under a lock derived from the session identifier and which
+ * checks and consumes a token atomically, so that a token is accepted at
+ * most once even if the same form is submitted concurrently. The most
+ * recent token is also saved under {@link Globals#TRANSACTION_TOKEN_KEY}
+ * for the tags rendering it, until it is consumed. A token saved under
+ * that key by other means is still honoured.
+ * <p> By default a session has a single outstanding token, and saving a new
+ * token invalidates the previous one. With
+ * {@link #setMaxTokens(int)} several tokens may be outstanding per
+ * session, for example for forms opened in several browser tabs.
  *
  * @since Struts 1.1
  */
 public class TokenProcessor {
+    /**
+     * The session attribute under which the {@link TokenStore} of a session
+     * is saved.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String TOKEN_STORE_KEY =
+        Globals.TRANSACTION_TOKEN_KEY + ".STORE";
+
+    /**
+     * The number of random bytes of a token.
+     */
+    private static final int TOKEN_BYTES = 32;
+
     /**
      * The singleton instance of this class.
      */
     private static TokenProcessor instance = new TokenProcessor();
 
     /**
-     * The timestamp used most recently to generate a token value.
+     * The locks under which the {@link TokenStore} of a session is created,
+     * selected by the session identifier, since the session object itself
+     * may differ between the requests of a session.
+     */
+    private static final Object[] STORE_LOCKS = new Object[64];
+
+    static {
+        for (int i = 0; i < STORE_LOCKS.length; i++) {
+            STORE_LOCKS[i] = new Object();
+        }
+    }
+
+    /**
+     * The random generator of each thread.
+     */
+    private static final ThreadLocal<SecureRandom> RANDOM =
+        ThreadLocal.withInitial(TokenProcessor::createRandom);
+
+    /**
+     * The maximum number of outstanding tokens per session.
      */
-    private long previous;
+    private volatile int maxTokens = 1;
 
     /**
      * Protected constructor for TokenProcessor.  Use TokenProcessor.getInstance()
@@ -64,6 +108,34 @@ public class TokenProcessor {
         return instance;
     }
 
+    /**
+     * Return the maximum number of outstanding tokens per session.
+     *
+     * @return the maximum number of outstanding tokens
+     * @since Struts 1.5.0
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Set the maximum number of outstanding tokens per session. If a new
+     * token is saved while the maximum is reached, the oldest token is
+     * invalidated. The default is <code>1</code>.
+     *
+     * @param maxTokens The maximum number of outstanding tokens
+     * @throws IllegalArgumentException if <code>maxTokens</code> is less
+     *                                  than 1
+     * @since Struts 1.5.0
+     */
+    public void setMaxTokens(int maxTokens) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("maxTokens must be positive");
+        }
+
+        this.maxTokens = maxTokens;
+    }
+
     /**
      * <p>Return <code>true</code> if there is a transaction token stored in
      * the user's current session, and the value submitted as a request
@@ -85,7 +157,7 @@ public class TokenProcessor {
      *
      * @param request The servlet request we are processing
      */
-    public synchronized boolean isTokenValid(HttpServletRequest request) {
+    public boolean isTokenValid(HttpServletRequest request) {
         return this.isTokenValid(request, false);
     }
 
@@ -106,10 +178,16 @@ public class TokenProcessor {
      *
      * </ul>
      *
+     * <p>If <code>reset</code> is <code>true</code>, checking and consuming
+     * the token is atomic: of several concurrent requests submitting the
+     * same token, only one is valid. If a single token may be outstanding,
+     * which is the default, the token is reset even if it does not match,
+     * as it always has been.</p>
+     *
      * @param request The servlet request we are processing
      * @param reset   Should we reset the token after checking it?
      */
-    public synchronized boolean isTokenValid(HttpServletRequest request,
+    public boolean isTokenValid(HttpServletRequest request,
         boolean reset) {
         // Retrieve the current session for this request
         HttpSession session = request.getSession(false);
@@ -118,43 +196,66 @@ public class TokenProcessor {
             return false;
         }
 
-        // Retrieve the transaction token from this session, and
-        // reset it if requested
+        // Retrieve the transaction token from this session
         String saved =
             (String) session.getAttribute(Globals.TRANSACTION_TOKEN_KEY);
+        TokenStore store = (TokenStore) session.getAttribute(TOKEN_STORE_KEY);
 
-        if (saved == null) {
-            return false;
+        // Retrieve the transaction token included in this request
+        String token = request.getParameter(Globals.TOKEN_KEY);
+
+        if ((store == null) || !store.isIssued(saved)) {
+            // The token has not been saved by this processor
+            if (saved == null) {
+                if (store != null) {
+                    // The outstanding token has been removed by other
+                    // means, which invalidates all tokens
+                    store.clear();
+                }
+
+                return false;
+            }
+
+            if (reset) {
+                this.resetToken(request);
+            }
+
+            return (token != null) && saved.equals(token);
         }
 
-        if (reset) {
-            this.resetToken(request);
+        if (!reset) {
+            return store.contains(token);
         }
 
-        // Retrieve the transaction token included in this request
-        String token = request.getParameter(Globals.TOKEN_KEY);
+        boolean valid = store.consume(token);
 
-        if (token == null) {
-            return false;
+        if ((saved != null) && !store.contains(saved)) {
+            session.removeAttribute(Globals.TRANSACTION_TOKEN_KEY);
         }
 
-        return saved.equals(token);
+        return valid;
     }
 
     /**
      * Reset the saved transaction token in the user's session.  This
      * indicates that transactional token checking will not be needed on the
-     * next request that is submitted.
+     * next request that is submitted. All outstanding tokens are reset.
      *
      * @param request The servlet request we are processing
      */
-    public synchronized void resetToken(HttpServletRequest request) {
+    public void resetToken(HttpServletRequest request) {
         HttpSession session = request.getSession(false);
 
         if (session == null) {
             return;
         }
 
+        TokenStore store = (TokenStore) session.getAttribute(TOKEN_STORE_KEY);
+
+        if (store != null) {
+            store.clear();
+        }
+
         session.removeAttribute(Globals.TRANSACTION_TOKEN_KEY);
     }
 
@@ -164,53 +265,84 @@ public class TokenProcessor {
      *
      * @param request The servlet request we are processing
      */
-    public synchronized void saveToken(HttpServletRequest request) {
+    public void saveToken(HttpServletRequest request) {
         HttpSession session = request.getSession();
         String token = generateToken(request);
 
         if (token != null) {
+            getTokenStore(session).add(token, maxTokens);
             session.setAttribute(Globals.TRANSACTION_TOKEN_KEY, token);
         }
     }
 
+    /**
+     * Return the {@link TokenStore} of the specified session, creating it
+     * if necessary. Concurrent requests of a session obtain the same store.
+     *
+     * @param session The session of the request we are processing
+     * @return the token store of the session
+     */
+    private TokenStore getTokenStore(HttpSession session) {
+        TokenStore store = (TokenStore) session.getAttribute(TOKEN_STORE_KEY);
+
+        if (store != null) {
+            return store;
+        }
+
+        int index = (session.getId().hashCode() & 0x7fffffff)
+            % STORE_LOCKS.length;
+
+        synchronized (STORE_LOCKS[index]) {
+            store = (TokenStore) session.getAttribute(TOKEN_STORE_KEY);
+
+            if (store == null) {
+                store = new TokenStore();
+                session.setAttribute(TOKEN_STORE_KEY, store);
+            }
+        }
+
+        return store;
+    }
+
     /**
      * Generate a new transaction token, to be used for enforcing a single
      * request for a particular transaction.
      *
      * @param request The request we are processing
      */
-    public synchronized String generateToken(HttpServletRequest request) {
-        HttpSession session = request.getSession();
-
-        return generateToken(session.getId());
+    public String generateToken(HttpServletRequest request) {
+        return generateToken(request.getSession().getId());
     }
 
     /**
      * Generate a new transaction token, to be used for enforcing a single
-     * request for a particular transaction.
+     * request for a particular transaction. The token is drawn from a
+     * cryptographically strong random generator and does not depend on the
+     * identifier.
      *
      * @param id a unique Identifier for the session or other context in which
      *           this token is to be used.
      */
-    public synchronized String generateToken(String id) {
-        try {
-            long current = System.currentTimeMillis();
+    public String generateToken(String id) {
+        byte[] bytes = new byte[TOKEN_BYTES];
 
-            if (current == previous) {
-                current++;
-            }
-
-            previous = current;
-
-            byte[] now = String.valueOf(current).getBytes(StandardCharsets.US_ASCII);
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
+        RANDOM.get().nextBytes(bytes);
 
-            md.update(id.getBytes());
-            md.update(now);
+        return toHex(bytes);
+    }
 
-            return toHex(md.digest());
+    /**
+     * Create the random generator of the current thread. A
+     * <code>SHA1PRNG</code> instance is preferred, because it does not
+     * synchronize on a lock shared by all instances.
+     *
+     * @return the random generator
+     */
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance("SHA1PRNG");
         } catch (NoSuchAlgorithmException e) {
-            return null;
+            return new SecureRandom();
         }
     }
 
@@ -229,4 +361,102 @@ public class TokenProcessor {
 
         return sb.toString();
     }
+
+    /**
+     * The outstanding tokens of a session. All operations are atomic; they
+     * synchronize on the store, which is private to its session.
+     *
+     * @since Struts 1.5.0
+     */
+    public static class TokenStore implements Serializable {
+        private static final long serialVersionUID = 5339434452838931012L;
+
+        /**
+         * The outstanding tokens, the most recent first.
+         */
+        private final Deque<String> tokens = new ArrayDeque<>();
+
+        /**
+         * The most recently added token, even if it is no longer
+         * outstanding.
+         */
+        private String issued;
+
+        /**
+         * The maximum number of outstanding tokens given when the most
+         * recent token was added.
+         */
+        private int maxTokens = 1;
+
+        /**
+         * Add a token, invalidating the oldest tokens beyond the specified
+         * maximum.
+         *
+         * @param token     The new token
+         * @param maxTokens The maximum number of outstanding tokens
+         */
+        public synchronized void add(String token, int maxTokens) {
+            issued = token;
+            this.maxTokens = maxTokens;
+            tokens.addFirst(token);
+
+            while (tokens.size() > maxTokens) {
+                tokens.removeLast();
+            }
+        }
+
+        /**
+         * Return <code>true</code> if the specified token, as saved under
+         * {@link Globals#TRANSACTION_TOKEN_KEY}, belongs to this store. This
+         * is the case if it is the most recently added token, or if it is
+         * missing because that token has been consumed. If it is missing
+         * although that token is outstanding, it has been removed by other
+         * means. This method does not change the store.
+         *
+         * @param saved The saved token or <code>null</code>
+         * @return <code>true</code> if the token belongs to this store
+         */
+        public synchronized boolean isIssued(String saved) {
+            if (saved != null) {
+                return saved.equals(issued);
+            }
+
+            return (issued == null) || !tokens.contains(issued);
+        }
+
+        /**
+         * Return <code>true</code> if the specified token is outstanding.
+         *
+         * @param token The token to check
+         * @return <code>true</code> if the token is outstanding
+         */
+        public synchronized boolean contains(String token) {
+            return (token != null) && tokens.contains(token);
+        }
+
+        /**
+         * Check and consume the specified token. If the store is limited to
+         * a single token, that token is consumed even if it does not
+         * match.
+         *
+         * @param token The token to check
+         * @return <code>true</code> if the token was outstanding
+         */
+        public synchronized boolean consume(String token) {
+            boolean valid = (token != null) && tokens.remove(token);
+
+            if (!valid && (maxTokens == 1)) {
+                tokens.clear();
+            }
+
+            return valid;
+        }
+
+        /**
+         * Invalidate all tokens.
+         */
+        public synchronized void clear() {
+            tokens.clear();
+        }
+    }
 }
@@ -21,9 +21,15 @@
 package org.apache.struts.validator;
 
 import java.io.Serializable;
+import java.text.DateFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Locale;
 import java.util.StringTokenizer;
+import java.util.function.Function;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -278,11 +284,12 @@ public class FieldChecks implements Serializable {
         try {
             value = evaluateBean(bean, field);
 
-            String mask =
-                Resources.getVarValue("mask", field, validator, request, true);
+            String mask = FieldChecksCache.getVarValue("mask", field,
+                validator, request, true);
 
             if (value != null && value.length()>0
-                && !GenericValidator.matchRegexp(value, mask)) {
+                && ((mask == null) || mask.isEmpty()
+                || !FieldChecksCache.getPattern(mask).matcher(value).matches())) {
                 errors.add(field.getKey(),
                     Resources.getActionMessage(validator, request, va, field));
 
@@ -373,7 +380,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatByte(value, locale);
+        result = formatNumber(value, locale, true,
+            Byte.MIN_VALUE, Byte.MAX_VALUE, Number::byteValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -477,7 +485,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatShort(value, locale);
+        result = formatNumber(value, locale, true,
+            Short.MIN_VALUE, Short.MAX_VALUE, Number::shortValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -563,7 +572,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatInt(value, locale);
+        result = formatNumber(value, locale, true,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, Number::intValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -649,7 +659,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatLong(value, locale);
+        result = formatNumber(value, locale, true,
+            Long.MIN_VALUE, Long.MAX_VALUE, Number::longValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -735,7 +746,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatFloat(value, locale);
+        result = formatNumber(value, locale, false,
+            -Float.MAX_VALUE, Float.MAX_VALUE, Number::floatValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -821,7 +833,8 @@ public class FieldChecks implements Serializable {
 
         Locale locale = RequestUtils.getUserLocale(request, null);
 
-        result = GenericTypeValidator.formatDouble(value, locale);
+        result = formatNumber(value, locale, false,
+            -Double.MAX_VALUE, Double.MAX_VALUE, Number::doubleValue);
 
         if (result == null) {
             errors.add(field.getKey(),
@@ -869,13 +882,13 @@ public class FieldChecks implements Serializable {
 
         boolean isStrict = false;
         String datePattern =
-            Resources.getVarValue("datePattern", field, validator, request,
-                false);
+            FieldChecksCache.getVarValue("datePattern", field, validator,
+                request, false);
 
         if (GenericValidator.isBlankOrNull(datePattern)) {
             datePattern =
-                Resources.getVarValue("datePatternStrict", field, validator,
-                    request, false);
+                FieldChecksCache.getVarValue("datePatternStrict", field,
+                    validator, request, false);
 
             if (!GenericValidator.isBlankOrNull(datePattern)) {
                 isStrict = true;
@@ -890,10 +903,9 @@ public class FieldChecks implements Serializable {
 
         try {
             if (GenericValidator.isBlankOrNull(datePattern)) {
-                result = GenericTypeValidator.formatDate(value, locale);
+                result = formatDate(value, locale);
             } else {
-                result =
-                    GenericTypeValidator.formatDate(value, datePattern, isStrict);
+                result = formatDate(value, datePattern, isStrict);
             }
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
@@ -931,10 +943,10 @@ public class FieldChecks implements Serializable {
         try {
             value = evaluateBean(bean, field);
             if (!GenericValidator.isBlankOrNull(value)) {
-                String minVar =
-                    Resources.getVarValue("min", field, validator, request, true);
-                String maxVar =
-                    Resources.getVarValue("max", field, validator, request, true);
+                String minVar = FieldChecksCache.getVarValue("min", field,
+                    validator, request, true);
+                String maxVar = FieldChecksCache.getVarValue("max", field,
+                    validator, request, true);
                 long longValue = Long.parseLong(value);
                 long min = Long.parseLong(minVar);
                 long max = Long.parseLong(maxVar);
@@ -984,10 +996,10 @@ public class FieldChecks implements Serializable {
         try {
             value = evaluateBean(bean, field);
             if (!GenericValidator.isBlankOrNull(value)) {
-                String minVar =
-                    Resources.getVarValue("min", field, validator, request, true);
-                String maxVar =
-                    Resources.getVarValue("max", field, validator, request, true);
+                String minVar = FieldChecksCache.getVarValue("min", field,
+                    validator, request, true);
+                String maxVar = FieldChecksCache.getVarValue("max", field,
+                    validator, request, true);
                 int min = Integer.parseInt(minVar);
                 int max = Integer.parseInt(maxVar);
                 int intValue = Integer.parseInt(value);
@@ -1037,10 +1049,10 @@ public class FieldChecks implements Serializable {
         try {
             value = evaluateBean(bean, field);
             if (!GenericValidator.isBlankOrNull(value)) {
-                String minVar =
-                    Resources.getVarValue("min", field, validator, request, true);
-                String maxVar =
-                    Resources.getVarValue("max", field, validator, request, true);
+                String minVar = FieldChecksCache.getVarValue("min", field,
+                    validator, request, true);
+                String maxVar = FieldChecksCache.getVarValue("max", field,
+                    validator, request, true);
                 double doubleValue = Double.parseDouble(value);
                 double min = Double.parseDouble(minVar);
                 double max = Double.parseDouble(maxVar);
@@ -1090,10 +1102,10 @@ public class FieldChecks implements Serializable {
         try {
             value = evaluateBean(bean, field);
             if (!GenericValidator.isBlankOrNull(value)) {
-                String minVar =
-                    Resources.getVarValue("min", field, validator, request, true);
-                String maxVar =
-                    Resources.getVarValue("max", field, validator, request, true);
+                String minVar = FieldChecksCache.getVarValue("min", field,
+                    validator, request, true);
+                String maxVar = FieldChecksCache.getVarValue("max", field,
+                    validator, request, true);
                 float floatValue = Float.parseFloat(value);
                 float min = Float.parseFloat(minVar);
                 float max = Float.parseFloat(maxVar);
@@ -1224,13 +1236,13 @@ public class FieldChecks implements Serializable {
             value = evaluateBean(bean, field);
             if (value != null) {
                 String maxVar =
-                    Resources.getVarValue("maxlength", field, validator,
+                    FieldChecksCache.getVarValue("maxlength", field, validator,
                         request, true);
                 int max = Integer.parseInt(maxVar);
 
                 boolean isValid = false;
-                String endLth = Resources.getVarValue("lineEndLength", field,
-                    validator, request, false);
+                String endLth = FieldChecksCache.getVarValue("lineEndLength",
+                    field, validator, request, false);
                 if (GenericValidator.isBlankOrNull(endLth)) {
                     isValid = GenericValidator.maxLength(value, max);
                 } else {
@@ -1279,13 +1291,13 @@ public class FieldChecks implements Serializable {
             value = evaluateBean(bean, field);
             if (!GenericValidator.isBlankOrNull(value)) {
                 String minVar =
-                    Resources.getVarValue("minlength", field, validator,
+                    FieldChecksCache.getVarValue("minlength", field, validator,
                         request, true);
                 int min = Integer.parseInt(minVar);
 
                 boolean isValid = false;
-                String endLth = Resources.getVarValue("lineEndLength", field,
-                    validator, request, false);
+                String endLth = FieldChecksCache.getVarValue("lineEndLength",
+                    field, validator, request, false);
                 if (GenericValidator.isBlankOrNull(endLth)) {
                     isValid = GenericValidator.minLength(value, min);
                 } else {
@@ -1365,22 +1377,22 @@ public class FieldChecks implements Serializable {
 
         // Get the options and schemes Vars
         String allowallschemesVar =
-            Resources.getVarValue("allowallschemes", field, validator, request,
-                false);
+            FieldChecksCache.getVarValue("allowallschemes", field, validator,
+                request, false);
         boolean allowallschemes = "true".equalsIgnoreCase(allowallschemesVar);
         long options = allowallschemes ? UrlValidator.ALLOW_ALL_SCHEMES : 0;
 
         String allow2slashesVar =
-            Resources.getVarValue("allow2slashes", field, validator, request,
-                false);
+            FieldChecksCache.getVarValue("allow2slashes", field, validator,
+                request, false);
 
         if ("true".equalsIgnoreCase(allow2slashesVar)) {
             options += UrlValidator.ALLOW_2_SLASHES;
         }
 
         String nofragmentsVar =
-            Resources.getVarValue("nofragments", field, validator, request,
-                false);
+            FieldChecksCache.getVarValue("nofragments", field, validator,
+                request, false);
 
         if ("true".equalsIgnoreCase(nofragmentsVar)) {
             options += UrlValidator.NO_FRAGMENTS;
@@ -1388,7 +1400,7 @@ public class FieldChecks implements Serializable {
 
         String schemesVar =
             allowallschemes ? null
-                            : Resources.getVarValue("schemes", field,
+                            : FieldChecksCache.getVarValue("schemes", field,
                 validator, request, false);
 
         // No options or schemes - use GenericValidator as default
@@ -1419,7 +1431,8 @@ public class FieldChecks implements Serializable {
         }
 
         // Create UrlValidator and validate with options/schemes
-        UrlValidator urlValidator = new UrlValidator(schemes, options);
+        UrlValidator urlValidator =
+            FieldChecksCache.getUrlValidator(schemes, options);
 
         if (urlValidator.isValid(value)) {
             return true;
@@ -1431,6 +1444,95 @@ public class FieldChecks implements Serializable {
         }
     }
 
+    /**
+     * Parse a number in the format of the specified locale, like the
+     * <code>GenericTypeValidator.formatXxx(String, Locale)</code> methods,
+     * but with a cached number format.
+     *
+     * @param value       The value to parse
+     * @param locale      The locale, or <code>null</code> for the default
+     * @param integerOnly Whether only integers are accepted
+     * @param min         The minimum value
+     * @param max         The maximum value
+     * @param converter   Converts the parsed number into the result type
+     * @return the converted number or <code>null</code> if the value is
+     *         invalid
+     */
+    private static <T extends Number> T formatNumber(String value,
+        Locale locale, boolean integerOnly, double min, double max,
+        Function<Number, T> converter) {
+        NumberFormat formatter = FieldChecksCache.getNumberFormat(
+            (locale == null) ? Locale.getDefault() : locale, integerOnly);
+        ParsePosition pos = new ParsePosition(0);
+        Number num = formatter.parse(value, pos);
+
+        // If there was no error and we used the whole string
+        if ((pos.getErrorIndex() == -1) && (pos.getIndex() == value.length())
+            && (num.doubleValue() >= min) && (num.doubleValue() <= max)) {
+            return converter.apply(num);
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse a date in the short or default format of the specified locale,
+     * like <code>GenericTypeValidator.formatDate(String, Locale)</code>, but
+     * with cached date formats.
+     *
+     * @param value  The value to parse
+     * @param locale The locale, or <code>null</code> for the default
+     * @return the date or <code>null</code> if the value is invalid
+     */
+    private static Date formatDate(String value, Locale locale) {
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+
+        try {
+            try {
+                return FieldChecksCache.getDateFormat(DateFormat.SHORT, locale)
+                    .parse(value);
+            } catch (ParseException e) {
+                return FieldChecksCache.getDateFormat(DateFormat.DEFAULT,
+                    locale).parse(value);
+            }
+        } catch (ParseException e) {
+            LOG.debug("Date parse failed value=[{}], locale=[{}]", value,
+                locale, e);
+            return null;
+        }
+    }
+
+    /**
+     * Parse a date with the specified pattern, like
+     * <code>GenericTypeValidator.formatDate(String, String, boolean)</code>,
+     * but with a cached date format.
+     *
+     * @param value       The value to parse
+     * @param datePattern The date pattern
+     * @param strict      Whether the value must have the length of the
+     *                    pattern
+     * @return the date or <code>null</code> if the value is invalid
+     */
+    private static Date formatDate(String value, String datePattern,
+        boolean strict) {
+        try {
+            Date date = FieldChecksCache.getDateFormat(datePattern)
+                .parse(value);
+
+            if (strict && (datePattern.length() != value.length())) {
+                return null;
+            }
+
+            return date;
+        } catch (ParseException e) {
+            LOG.debug("Date parse failed value=[{}], pattern=[{}], "
+                + "strict=[{}]", value, datePattern, strict, e);
+            return null;
+        }
+    }
+
     /**
      * Process a validation failure.
      */
@@ -0,0 +1,329 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import java.text.DateFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Validator;
+import org.apache.commons.validator.Var;
+import org.apache.commons.validator.routines.UrlValidator;
+import org.apache.struts.util.BoundedCache;
+import org.apache.struts.util.MessageResources;
+import org.apache.struts.util.RequestUtils;
+
+/**
+ * <p>Caches the compiled form of the rule variables used by
+ * {@link FieldChecks}: the values of resource-backed variables per
+ * <code>MessageResources</code> and <code>Locale</code>, the compiled
+ * <code>Pattern</code> of each mask, the date and number formats per pattern
+ * and <code>Locale</code>, and the <code>UrlValidator</code> per set of
+ * options. A missing resource value is not cached, so that a missing
+ * required variable is reported on each call.</p>
+ *
+ * <p>All entries are keyed by the variable values they are compiled from,
+ * not by the <code>Field</code>, because the <code>Validator</code> passes
+ * a fresh copy of an indexed field to each call. Resource values are also
+ * keyed by the <code>MessageResources</code> instance they are read from,
+ * so each module only sees its own. Each cache is a {@link BoundedCache}
+ * of at most {@link #MAX_SIZE} entries. Nothing is derived from the
+ * <code>ValidatorResources</code>, so reloading them does not clear the
+ * caches.</p>
+ *
+ * <p>Formats are not thread-safe; the cache keeps a prototype of each
+ * format and hands out a private copy.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class FieldChecksCache {
+
+    /**
+     * The maximum number of entries of each cache.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * Resources key the <code>ServletContext</code> is stored under.
+     */
+    private static final String SERVLET_CONTEXT_PARAM =
+        "jakarta.servlet.ServletContext";
+
+    /**
+     * The values of resource-backed variables.
+     */
+    private static final BoundedCache<ResourceKey, String> values =
+        new BoundedCache<>(MAX_SIZE);
+
+    /**
+     * The compiled patterns, keyed by the regular expression.
+     */
+    private static final BoundedCache<String, Pattern> patterns =
+        new BoundedCache<>(MAX_SIZE);
+
+    /**
+     * The prototypes of the date and number formats.
+     */
+    private static final BoundedCache<Object, Object> formats =
+        new BoundedCache<>(MAX_SIZE);
+
+    /**
+     * The URL validators, keyed by their options and schemes.
+     */
+    private static final BoundedCache<String, UrlValidator> urlValidators =
+        new BoundedCache<>(MAX_SIZE);
+
+    private FieldChecksCache() {
+    }
+
+    /**
+     * <p>Return the value of the specified variable of a field, like
+     * {@link Resources#getVarValue(String, Field, Validator,
+     * HttpServletRequest, boolean)}, with the value of a resource-backed
+     * variable taken from the cache.</p>
+     *
+     * @param varName   The variable name
+     * @param field     The validator Field
+     * @param validator The Validator
+     * @param request   The servlet request
+     * @param required  Whether the variable is mandatory
+     * @return The variable's value
+     * @throws IllegalArgumentException if a required variable is missing
+     */
+    public static String getVarValue(String varName, Field field,
+        Validator validator, HttpServletRequest request, boolean required) {
+        Var var = field.getVar(varName);
+
+        if ((var == null) || !var.isResource()) {
+            return Resources.getVarValue(varName, field, validator, request,
+                required);
+        }
+
+        ServletContext application =
+            (ServletContext) validator.getParameterValue(SERVLET_CONTEXT_PARAM);
+        MessageResources messages =
+            Resources.getMessageResources(application, request, var.getBundle());
+        ResourceKey key = new ResourceKey(messages,
+            RequestUtils.getUserLocale(request, null), var.getValue());
+
+        String value = values.get(key);
+
+        if (value == null) {
+            value = Resources.getVarValue(var, application, request, required);
+
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * <p>Return the compiled form of the specified regular expression.</p>
+     *
+     * @param regexp The regular expression
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression is
+     *         invalid
+     */
+    public static Pattern getPattern(String regexp) {
+        return patterns.computeIfAbsent(regexp, Pattern::compile);
+    }
+
+    /**
+     * <p>Return a non-lenient <code>SimpleDateFormat</code> for the
+     * specified pattern.</p>
+     *
+     * @param datePattern The date pattern
+     * @return a private copy of the format
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateFormat getDateFormat(String datePattern) {
+        Object key = datePattern;
+        DateFormat format = (DateFormat) formats.get(key);
+
+        if (format == null) {
+            format = new SimpleDateFormat(datePattern);
+            format.setLenient(false);
+            formats.put(key, format);
+        }
+
+        return (DateFormat) format.clone();
+    }
+
+    /**
+     * <p>Return a non-lenient date format with the specified style for the
+     * specified <code>Locale</code>.</p>
+     *
+     * @param style  The style, as defined by <code>DateFormat</code>
+     * @param locale The locale
+     * @return a private copy of the format
+     */
+    public static DateFormat getDateFormat(int style, Locale locale) {
+        Object key = new FormatKey("date" + style, locale);
+        DateFormat format = (DateFormat) formats.get(key);
+
+        if (format == null) {
+            format = DateFormat.getDateInstance(style, locale);
+            format.setLenient(false);
+            formats.put(key, format);
+        }
+
+        return (DateFormat) format.clone();
+    }
+
+    /**
+     * <p>Return a number format for the specified <code>Locale</code>, as
+     * created by <code>NumberFormat.getNumberInstance</code> with integer
+     * parsing for integral numbers, or by
+     * <code>NumberFormat.getInstance</code> otherwise.</p>
+     *
+     * @param locale      The locale
+     * @param integerOnly Whether only integers are parsed
+     * @return a private copy of the format
+     */
+    public static NumberFormat getNumberFormat(Locale locale,
+        boolean integerOnly) {
+        Object key = new FormatKey(integerOnly ? "integer" : "number", locale);
+        NumberFormat format = (NumberFormat) formats.get(key);
+
+        if (format == null) {
+            if (integerOnly) {
+                format = NumberFormat.getNumberInstance(locale);
+                format.setParseIntegerOnly(true);
+            } else {
+                format = NumberFormat.getInstance(locale);
+            }
+
+            formats.put(key, format);
+        }
+
+        return (NumberFormat) format.clone();
+    }
+
+    /**
+     * <p>Return a <code>UrlValidator</code> for the specified schemes and
+     * options.</p>
+     *
+     * @param schemes The allowed schemes or <code>null</code> for the
+     *                default schemes
+     * @param options The options, as defined by <code>UrlValidator</code>
+     * @return the (thread-safe) validator
+     */
+    public static UrlValidator getUrlValidator(String[] schemes,
+        long options) {
+        StringBuilder sb = new StringBuilder().append(options);
+
+        if (schemes != null) {
+            for (String scheme : schemes) {
+                sb.append(',').append(scheme);
+            }
+        }
+
+        String key = sb.toString();
+        UrlValidator validator = urlValidators.get(key);
+
+        if (validator == null) {
+            validator = new UrlValidator(schemes, options);
+            urlValidators.put(key, validator);
+        }
+
+        return validator;
+    }
+
+    /**
+     * <p>Remove all entries from all caches.</p>
+     */
+    public static void clear() {
+        values.clear();
+        patterns.clear();
+        formats.clear();
+        urlValidators.clear();
+    }
+
+    /**
+     * The key of a resource-backed variable value. The
+     * <code>MessageResources</code> are compared by identity.
+     */
+    private static final class ResourceKey {
+        private final MessageResources messages;
+        private final Locale locale;
+        private final String key;
+
+        ResourceKey(MessageResources messages, Locale locale, String key) {
+            this.messages = messages;
+            this.locale = locale;
+            this.key = key;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ResourceKey)) {
+                return false;
+            }
+
+            ResourceKey other = (ResourceKey) obj;
+
+            return (messages == other.messages)
+                && Objects.equals(locale, other.locale)
+                && Objects.equals(key, other.key);
+        }
+
+        public int hashCode() {
+            return (System.identityHashCode(messages) * 31
+                + Objects.hashCode(locale)) * 31 + Objects.hashCode(key);
+        }
+    }
+
+    /**
+     * The key of a format for a <code>Locale</code>.
+     */
+    private static final class FormatKey {
+        private final String type;
+        private final Locale locale;
+
+        FormatKey(String type, Locale locale) {
+            this.type = type;
+            this.locale = locale;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FormatKey)) {
+                return false;
+            }
+
+            FormatKey other = (FormatKey) obj;
+
+            return type.equals(other.type) && locale.equals(other.locale);
+        }
+
+        public int hashCode() {
+            return type.hashCode() * 31 + locale.hashCode();
+        }
+    }
+}
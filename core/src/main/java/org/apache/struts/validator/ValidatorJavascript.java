@@ -0,0 +1,280 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.validator.ValidatorAction;
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.util.BoundedCache;
+
+/**
+ * <p>The client-side JavaScript of a set of <code>ValidatorResources</code>:
+ * the static rule library, which holds the JavaScript of every
+ * <code>ValidatorAction</code>, and a cache of rendered scripts.</p>
+ *
+ * <p>The rule library is built once per <code>ValidatorResources</code>
+ * and is available as text, as UTF-8 and gzip encoded bytes, and with a
+ * version derived from its content, so that it can be served as a single
+ * cacheable resource. The rendered scripts are kept in a
+ * {@link BoundedCache} of at most {@link #MAX_SIZE} entries.</p>
+ *
+ * <p>When a <code>ValidatorPlugIn</code> (re)loads its resources, the
+ * instance of its previous resources is dropped; the instances of other
+ * modules are kept.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class ValidatorJavascript {
+
+    /**
+     * The maximum number of rendered scripts cached per instance.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * The instances, keyed by their <code>ValidatorResources</code>.
+     */
+    private static final ConcurrentHashMap<ValidatorResources, ValidatorJavascript> instances =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The static rule library.
+     */
+    private final String staticJavascript;
+
+    /**
+     * The rule library encoded as UTF-8.
+     */
+    private final byte[] content;
+
+    /**
+     * The rule library encoded as UTF-8 and compressed with gzip.
+     */
+    private final byte[] gzippedContent;
+
+    /**
+     * The version of the rule library.
+     */
+    private final String version;
+
+    /**
+     * The rendered scripts.
+     */
+    private final BoundedCache<Object, Object> rendered =
+        new BoundedCache<>(MAX_SIZE);
+
+    /**
+     * Build the rule library of the specified resources.
+     *
+     * @param resources The validator resources
+     */
+    private ValidatorJavascript(ValidatorResources resources) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("\n\n");
+
+        for (ValidatorAction va : resources.getValidatorActions().values()) {
+            if (va != null) {
+                String javascript = va.getJavascript();
+
+                if ((javascript != null) && (javascript.length() > 0)) {
+                    sb.append(javascript).append('\n');
+                }
+            }
+        }
+
+        this.staticJavascript = sb.toString();
+        this.content = staticJavascript.getBytes(StandardCharsets.UTF_8);
+        this.gzippedContent = gzip(content);
+        this.version = digest(content);
+    }
+
+    /**
+     * <p>Return the instance for the specified resources, building the
+     * rule library if it does not exist yet.</p>
+     *
+     * @param resources The validator resources
+     * @return the client-side JavaScript of the resources
+     */
+    public static ValidatorJavascript getInstance(ValidatorResources resources) {
+        ValidatorJavascript instance = instances.get(resources);
+
+        if (instance == null) {
+            instance = new ValidatorJavascript(resources);
+
+            ValidatorJavascript previous =
+                instances.putIfAbsent(resources, instance);
+
+            if (previous != null) {
+                instance = previous;
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * <p>Drop all instances, with their rendered scripts.</p>
+     */
+    public static void clearCache() {
+        instances.clear();
+    }
+
+    /**
+     * <p>Drop the instance of the specified resources, with its rendered
+     * scripts.</p>
+     *
+     * @param resources The validator resources
+     */
+    public static void clearCache(ValidatorResources resources) {
+        instances.remove(resources);
+    }
+
+    /**
+     * <p>Return the static rule library: the JavaScript of every
+     * <code>ValidatorAction</code>, each followed by a new line, after two
+     * leading new lines.</p>
+     *
+     * @return the rule library
+     */
+    public String getStaticJavascript() {
+        return staticJavascript;
+    }
+
+    /**
+     * <p>Return the rule library encoded as UTF-8. The array is shared and
+     * must not be modified.</p>
+     *
+     * @return the encoded rule library
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * <p>Return the rule library encoded as UTF-8 and compressed with gzip.
+     * The array is shared and must not be modified.</p>
+     *
+     * @return the compressed rule library
+     */
+    public byte[] getGzippedContent() {
+        return gzippedContent;
+    }
+
+    /**
+     * <p>Return the version of the rule library, a hex string which changes
+     * whenever the content changes.</p>
+     *
+     * @return the version
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * <p>Return the entity tag of the rule library, which is the quoted
+     * version.</p>
+     *
+     * @return the entity tag
+     */
+    public String getETag() {
+        return '"' + version + '"';
+    }
+
+    /**
+     * <p>Return the entity tag of the compressed rule library, which differs
+     * from the entity tag of the uncompressed library, since the
+     * representations differ.</p>
+     *
+     * @return the entity tag
+     * @since Struts 1.5.0
+     */
+    public String getGzipETag() {
+        return "\"" + version + "-gzip\"";
+    }
+
+    /**
+     * <p>Return a rendered script.</p>
+     *
+     * @param key The key of the script, covering everything the rendering
+     *            depends on besides these resources
+     * @return the script or <code>null</code> if it is not cached
+     */
+    public Object getRendered(Object key) {
+        return rendered.get(key);
+    }
+
+    /**
+     * <p>Cache a rendered script.</p>
+     *
+     * @param key    The key of the script
+     * @param script The rendered script
+     */
+    public void putRendered(Object key, Object script) {
+        rendered.put(key, script);
+    }
+
+    /**
+     * Compress the specified bytes with gzip.
+     */
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3);
+
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Return the first 16 hex digits of the SHA-256 digest of the specified
+     * bytes.
+     */
+    private static String digest(byte[] bytes) {
+        byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 8; i++) {
+            sb.append(Character.forDigit((digest[i] >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(digest[i] & 0xf, 16));
+        }
+
+        return sb.toString();
+    }
+}
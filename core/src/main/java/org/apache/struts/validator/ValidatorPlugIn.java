@@ -208,6 +208,11 @@ public class ValidatorPlugIn implements PlugIn {
             return;
         }
 
+        // The client-side JavaScript of the previous resources is stale
+        if (resources != null) {
+            ValidatorJavascript.clearCache(resources);
+        }
+
         StringTokenizer st = new StringTokenizer(pathnames, RESOURCE_DELIM);
 
         List<URL> urlList = new ArrayList<>();
@@ -250,6 +255,10 @@ public class ValidatorPlugIn implements PlugIn {
      * Destroy <code>ValidatorResources</code>.
      */
     protected void destroyResources() {
+        if (resources != null) {
+            ValidatorJavascript.clearCache(resources);
+        }
+
         resources = null;
     }
 }
\ No newline at end of file
@@ -22,8 +22,6 @@ package org.apache.struts.validator.validwhen;
 
 import jakarta.servlet.http.HttpServletRequest;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.apache.commons.validator.Field;
 import org.apache.commons.validator.Validator;
 import org.apache.commons.validator.ValidatorAction;
@@ -31,8 +29,8 @@ import org.apache.commons.validator.util.ValidatorUtils;
 import org.apache.struts.action.ActionMessage;
 import org.apache.struts.action.ActionMessages;
 import org.apache.struts.util.MessageResources;
+import org.apache.struts.validator.FieldChecksCache;
 import org.apache.struts.validator.Resources;
-import org.apache.struts.validator.validwhen.ValidWhenParser.ExpressionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,8 +107,8 @@ public class ValidWhen {
         String test = null;
 
         try {
-            test =
-                Resources.getVarValue("test", field, validator, request, true);
+            test = FieldChecksCache.getVarValue("test", field, validator,
+                request, true);
         } catch (IllegalArgumentException ex) {
             LOG.atError().log(() -> sysmsgs.getMessage("validation.failed", "validwhen",
                 field.getProperty(), validator.getFormName(), ex.toString()));
@@ -122,44 +120,9 @@ public class ValidWhen {
             return false;
         }
 
-        // Create the Lexer
-        ValidWhenLexer lexer = null;
-
-        try {
-            lexer = new ValidWhenLexer(CharStreams.fromString(test));
-        } catch (Exception ex) {
-            LOG.error("ValidWhenLexer Error for field '{}'",
-                field.getKey(), ex);
-
-            String userErrorMsg = sysmsgs.getMessage("system.error");
-
-            errors.add(field.getKey(), new ActionMessage(userErrorMsg, false));
-
-            return false;
-        }
-
-        // Create the Parser
-        ValidWhenParser parser = null;
-
-        try {
-            parser = new ValidWhenParser(new CommonTokenStream(lexer));
-        } catch (Exception ex) {
-            LOG.error("ValidWhenParser Error for field '{}'",
-                field.getKey(), ex);
-
-            String userErrorMsg = sysmsgs.getMessage("system.error");
-
-            errors.add(field.getKey(), new ActionMessage(userErrorMsg, false));
-
-            return false;
-        }
-
-        ValidWhenEvaluator validWhenEvaluator = new ValidWhenEvaluator(form, value, index);
-
         try {
-            ExpressionContext expressionContext = parser.expression();
-            ValidWhenResult<?> result = validWhenEvaluator.visitExpression(expressionContext);
-            valid = result == null ? false : result.toBoolean();
+            valid = ValidWhenExpression.getInstance(test)
+                .evaluate(form, value, index);
         } catch (Exception ex) {
             LOG.error("ValidWhen Error for field '{}'",
                 field.getKey(), ex);
@@ -0,0 +1,352 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator.validwhen;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.apache.commons.validator.util.ValidatorUtils;
+import org.apache.struts.util.BoundedCache;
+
+/**
+ * A compiled validwhen expression.
+ *
+ * <p>The expression is parsed once into an immutable tree, which can be
+ * evaluated any number of times, by any number of threads. Literals are
+ * converted and the property paths of fields are built at compile time, so
+ * an evaluation only reads the referenced properties of the form and
+ * compares the values, with the same results as
+ * {@link ValidWhenEvaluator}.</p>
+ *
+ * <p>{@link #getInstance(String)} keeps the compiled expressions in a
+ * {@link BoundedCache} keyed by the expression text. A compiled expression
+ * only depends on its text, so the cache is shared by all modules and is
+ * not cleared when validator resources are reloaded.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public final class ValidWhenExpression {
+
+    /**
+     * The compiled expressions, keyed by their text.
+     */
+    private static final BoundedCache<String, ValidWhenExpression> CACHE =
+        new BoundedCache<>();
+
+    /**
+     * The text of this expression.
+     */
+    private final String text;
+
+    /**
+     * The root of the compiled tree.
+     */
+    private final Node root;
+
+    /**
+     * Construct a new compiled expression.
+     *
+     * @param text The text of the expression
+     * @param root The root of the compiled tree
+     */
+    private ValidWhenExpression(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Return the compiled expression for the specified text, compiling it
+     * if it is not cached yet.
+     *
+     * @param text The text of the expression
+     * @return the compiled expression
+     * @throws RuntimeException if the expression cannot be compiled
+     */
+    public static ValidWhenExpression getInstance(String text) {
+        return CACHE.computeIfAbsent(text, ValidWhenExpression::compile);
+    }
+
+    /**
+     * Compile the specified expression, bypassing the cache.
+     *
+     * @param text The text of the expression
+     * @return the compiled expression
+     * @throws RuntimeException if the expression cannot be compiled
+     */
+    public static ValidWhenExpression compile(String text) {
+        ValidWhenLexer lexer = new ValidWhenLexer(CharStreams.fromString(text));
+        ValidWhenParser parser =
+            new ValidWhenParser(new CommonTokenStream(lexer));
+
+        Node root = parser.expression().accept(new Compiler());
+
+        if (root == null) {
+            throw new IllegalArgumentException("Invalid validwhen expression '"
+                + text + "'");
+        }
+
+        return new ValidWhenExpression(text, root);
+    }
+
+    /**
+     * Remove all compiled expressions from the cache.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Return the text of this expression.
+     *
+     * @return the text of this expression
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Evaluate this expression.
+     *
+     * @param form  The form bean whose properties are referenced
+     * @param value The value of the field being validated (<code>*this*</code>)
+     * @param index The index of the field being validated, used by fields
+     *              with empty brackets, or <code>-1</code>
+     * @return <code>true</code> if the expression evaluates to true
+     */
+    public boolean evaluate(Object form, String value, int index) {
+        return toBoolean(root.evaluate(form, value, index));
+    }
+
+    /**
+     * Return the boolean value of the specified result.
+     */
+    private static boolean toBoolean(ValidWhenResult<?> result) {
+        return (result == null) ? false : result.toBoolean();
+    }
+
+    public String toString() {
+        return text;
+    }
+
+    // ---------------------------------------------------------- Tree nodes
+
+    /**
+     * A node of the compiled tree.
+     */
+    private interface Node {
+
+        /**
+         * Evaluate this node.
+         *
+         * @param form  The form bean
+         * @param value The value of the field being validated
+         * @param index The index of the field being validated
+         * @return the result of this node
+         */
+        ValidWhenResult<?> evaluate(Object form, String value, int index);
+    }
+
+    /**
+     * A literal, converted at compile time.
+     */
+    private static final class Constant implements Node {
+        private final ValidWhenResult<?> result;
+
+        Constant(ValidWhenResult<?> result) {
+            this.result = result;
+        }
+
+        public ValidWhenResult<?> evaluate(Object form, String value,
+            int index) {
+            return result;
+        }
+    }
+
+    /**
+     * The value of the field being validated.
+     */
+    private static final class This implements Node {
+        public ValidWhenResult<?> evaluate(Object form, String value,
+            int index) {
+            return new ValidWhenResultString(value);
+        }
+    }
+
+    /**
+     * A property of the form. If the property path depends on the index of
+     * the field being validated, it is split around the index.
+     */
+    private static final class Property implements Node {
+        private final String prefix;
+        private final String suffix;
+
+        Property(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        public ValidWhenResult<?> evaluate(Object form, String value,
+            int index) {
+            String property =
+                (suffix == null) ? prefix : (prefix + index + suffix);
+
+            return new ValidWhenResultString(
+                ValidatorUtils.getValueAsString(form, property));
+        }
+    }
+
+    /**
+     * A comparison of two values.
+     */
+    private static final class Comparison implements Node {
+        private final Node left;
+        private final ValidWhenComparison comparison;
+        private final Node right;
+
+        Comparison(Node left, ValidWhenComparison comparison, Node right) {
+            this.left = left;
+            this.comparison = comparison;
+            this.right = right;
+        }
+
+        public ValidWhenResult<?> evaluate(Object form, String value,
+            int index) {
+            ValidWhenResult<?> v1 = left.evaluate(form, value, index);
+            ValidWhenResult<?> v2 = right.evaluate(form, value, index);
+
+            return new ValidWhenResultBoolean((comparison != null)
+                && comparison.compare(v1, v2));
+        }
+    }
+
+    /**
+     * Two expressions joined by <code>and</code> or <code>or</code>. Both
+     * sides are always evaluated, as by <code>ValidWhenEvaluator</code>.
+     */
+    private static final class Join implements Node {
+        private final Node left;
+        private final boolean and;
+        private final Node right;
+
+        Join(Node left, boolean and, Node right) {
+            this.left = left;
+            this.and = and;
+            this.right = right;
+        }
+
+        public ValidWhenResult<?> evaluate(Object form, String value,
+            int index) {
+            boolean b1 = toBoolean(left.evaluate(form, value, index));
+            boolean b2 = toBoolean(right.evaluate(form, value, index));
+
+            return new ValidWhenResultBoolean(and ? (b1 && b2) : (b1 || b2));
+        }
+    }
+
+    /**
+     * Visitor converting a parse tree into a compiled tree.
+     */
+    private static final class Compiler extends ValidWhenBaseVisitor<Node> {
+
+        public Node visitDecimal(ValidWhenParser.DecimalContext ctx) {
+            return new Constant(new ValidWhenResultBigDecimal(ctx.getText()));
+        }
+
+        public Node visitInteger(ValidWhenParser.IntegerContext ctx) {
+            return new Constant(new ValidWhenResultInteger(ctx.getText()));
+        }
+
+        public Node visitString(ValidWhenParser.StringContext ctx) {
+            String s = ctx.getText();
+            return new Constant(
+                new ValidWhenResultString(s.substring(1, s.length() - 1)));
+        }
+
+        public Node visitField1(ValidWhenParser.Field1Context ctx) {
+            return new Property(ctx.id1.getText() + "[",
+                "]" + ctx.id2.getText());
+        }
+
+        public Node visitField2(ValidWhenParser.Field2Context ctx) {
+            return new Property(ctx.id1.getText() + "[" + ctx.idx.getText()
+                + "]" + ctx.id2.getText(), null);
+        }
+
+        public Node visitField3(ValidWhenParser.Field3Context ctx) {
+            return new Property(ctx.id1.getText() + "[" + ctx.idx.getText()
+                + "]", null);
+        }
+
+        public Node visitField4(ValidWhenParser.Field4Context ctx) {
+            return new Property(ctx.id1.getText() + "[", "]");
+        }
+
+        public Node visitField5(ValidWhenParser.Field5Context ctx) {
+            return new Property(ctx.id1.getText(), null);
+        }
+
+        public Node visitLiteralNull(ValidWhenParser.LiteralNullContext ctx) {
+            return new Constant(new ValidWhenResultString(null));
+        }
+
+        public Node visitLiteralThis(ValidWhenParser.LiteralThisContext ctx) {
+            return new This();
+        }
+
+        public Node visitJoinedExpression(
+            ValidWhenParser.JoinedExpressionContext ctx) {
+            return new Join(require(ctx.e1.accept(this)),
+                ctx.j.getType() == ValidWhenParser.ANDSIGN,
+                require(ctx.e2.accept(this)));
+        }
+
+        public Node visitComparisonExpression(
+            ValidWhenParser.ComparisonExpressionContext ctx) {
+            return new Comparison(require(ctx.v1.accept(this)),
+                ValidWhenComparison.getComp(ctx.c.start.getType()),
+                require(ctx.v2.accept(this)));
+        }
+
+        public Node visitExprComp(ValidWhenParser.ExprCompContext ctx) {
+            return ctx.comparisonExpression().accept(this);
+        }
+
+        public Node visitExprJoin(ValidWhenParser.ExprJoinContext ctx) {
+            return ctx.joinedExpression().accept(this);
+        }
+
+        public Node visitExpression(ValidWhenParser.ExpressionContext ctx) {
+            return ctx.expr().accept(this);
+        }
+
+        /**
+         * Return the specified operand, failing if it could not be
+         * compiled.
+         */
+        private static Node require(Node node) {
+            if (node == null) {
+                throw new IllegalArgumentException(
+                    "Incomplete validwhen expression");
+            }
+
+            return node;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockAction;
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ActionRegistry}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestActionRegistry {
+
+    private static final String MOCK_ACTION = MockAction.class.getName();
+
+    @Test
+    public void testGetActionCreatesOnce() throws Exception {
+        ActionRegistry registry = new ActionRegistry();
+        AtomicInteger created = new AtomicInteger();
+        ActionRegistry.ActionFactory factory = type -> {
+            created.incrementAndGet();
+            return new MockAction();
+        };
+
+        assertNull(registry.findAction("a"));
+        Action action = registry.getAction("a", factory);
+        assertSame(action, registry.getAction("a", factory));
+        assertSame(action, registry.findAction("a"));
+        assertNotSame(action, registry.getAction("b", factory));
+        assertEquals(2, created.get());
+        assertEquals(2, registry.getActions().size());
+    }
+
+    @Test
+    public void testFailedCreationIsRetried() throws Exception {
+        ActionRegistry registry = new ActionRegistry();
+
+        assertThrows(ClassNotFoundException.class, () -> registry.getAction(
+            "a", type -> { throw new ClassNotFoundException(type); }));
+        assertNull(registry.findAction("a"));
+        assertTrue(registry.getAction("a", type -> new MockAction())
+            instanceof MockAction);
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        ActionRegistry registry = new ActionRegistry();
+        AtomicInteger created = new AtomicInteger();
+        ActionRegistry.ActionFactory factory = type -> {
+            created.incrementAndGet();
+            Thread.sleep(20);
+            return new MockAction();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Action>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(
+                    () -> registry.getAction("a", factory)));
+            }
+
+            Action action = results.get(0).get();
+            for (Future<Action> result : results) {
+                assertSame(action, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testSlowCreationDoesNotBlockOtherTypes() throws Exception {
+        ActionRegistry registry = new ActionRegistry();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Action> slow = executor.submit(
+                () -> registry.getAction("slow", type -> {
+                    creating.countDown();
+                    release.await();
+                    return new MockAction();
+                }));
+
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            assertTrue(registry.getAction("fast", type -> new MockAction())
+                instanceof MockAction);
+            assertNull(registry.findAction("slow"));
+
+            release.countDown();
+            assertSame(slow.get(5, TimeUnit.SECONDS),
+                registry.findAction("slow"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPreload() {
+        ModuleConfig moduleConfig = new ModuleConfigImpl("");
+        moduleConfig.addActionConfig(createActionConfig("/a", MOCK_ACTION,
+            true));
+        moduleConfig.addActionConfig(createActionConfig("/b", "b.Prototype",
+            false));
+        moduleConfig.addActionConfig(createActionConfig("/c", null, true));
+        moduleConfig.addActionConfig(createActionConfig("/d", "d.Missing",
+            true));
+
+        ActionRegistry registry = new ActionRegistry();
+        registry.preload(moduleConfig, true, this::createAction);
+        assertEquals(1, registry.size());
+        assertTrue(registry.findAction(MOCK_ACTION) instanceof MockAction);
+
+        registry.preload(moduleConfig, false, this::createAction);
+        assertEquals(2, registry.size());
+        assertTrue(registry.findAction("b.Prototype") instanceof MockAction);
+        assertNull(registry.findAction("d.Missing"));
+    }
+
+    @Test
+    public void testLegacyMap() throws Exception {
+        ActionRegistry registry = new ActionRegistry();
+        HashMap<String, Action> legacy = new HashMap<>();
+        Action existing = new MockAction();
+        legacy.put("a", existing);
+
+        assertSame(existing, registry.getAction("a", legacy,
+            type -> new MockAction()));
+        assertSame(existing, registry.findAction("a"));
+
+        Action created = registry.getAction("b", legacy,
+            type -> new MockAction());
+        assertSame(created, legacy.get("b"));
+        assertEquals(2, legacy.size());
+
+        legacy.remove("b");
+        assertSame(created, registry.getAction("b", legacy,
+            type -> new MockAction()));
+    }
+
+    @Test
+    public void testRequestProcessorPreloadActions() throws Exception {
+        ModuleConfig moduleConfig = new ModuleConfigImpl("");
+        moduleConfig.addActionConfig(createActionConfig("/a", MOCK_ACTION,
+            false));
+        moduleConfig.getControllerConfig().setPreloadActions(true);
+
+        MockServletContext context = new MockServletContext();
+        MockActionServlet servlet = new MockActionServlet(context,
+            new MockServletConfig(context));
+
+        RequestProcessor processor = new RequestProcessor();
+        processor.init(servlet, moduleConfig);
+
+        Action action = processor.actions.get(MOCK_ACTION);
+        assertTrue(action instanceof MockAction);
+        assertSame(servlet, action.getServlet());
+
+        processor.destroy();
+        assertTrue(processor.actions.isEmpty());
+        assertNull(action.getServlet());
+    }
+
+    @Test
+    public void testRequestProcessorActionsMap() throws Exception {
+        ModuleConfig moduleConfig = new ModuleConfigImpl("");
+        moduleConfig.addActionConfig(createActionConfig("/a", MOCK_ACTION,
+            false));
+        moduleConfig.getControllerConfig().setPreloadActions(true);
+
+        MockServletContext context = new MockServletContext();
+        MockActionServlet servlet = new MockActionServlet(context,
+            new MockServletConfig(context));
+
+        RequestProcessor processor = new RequestProcessor();
+        processor.init(servlet, moduleConfig);
+
+        assertEquals(HashMap.class, processor.actions.getClass());
+        assertSame(processor.actions.get(MOCK_ACTION),
+            processor.getActionRegistry().findAction(MOCK_ACTION));
+    }
+
+    @Test
+    public void testRequestProcessorSubclassAction() throws Exception {
+        RequestProcessor processor = new RequestProcessor();
+        Action action = new MockAction();
+
+        synchronized (processor.actions) {
+            processor.actions.put(MOCK_ACTION, action);
+        }
+
+        ActionRegistry registry = processor.getActionRegistry();
+        assertSame(action, registry.getAction(MOCK_ACTION, processor.actions,
+            type -> new MockAction()));
+        assertSame(action, registry.findAction(MOCK_ACTION));
+    }
+
+    private Action createAction(String type) throws Exception {
+        if (type.endsWith("Missing")) {
+            throw new ClassNotFoundException(type);
+        }
+
+        return new MockAction();
+    }
+
+    private ActionConfig createActionConfig(String path, String type,
+        boolean singleton) {
+        ActionConfig config = new ActionMapping();
+        config.setPath(path);
+        config.setType(type);
+        config.setSingleton(singleton);
+        return config;
+    }
+}
@@ -21,26 +21,40 @@
 package org.apache.struts.action;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.File;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.UnavailableException;
 
+import org.apache.struts.Globals;
 import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.BaseConfig;
 import org.apache.struts.config.ExceptionConfig;
 import org.apache.struts.config.FormBeanConfig;
 import org.apache.struts.config.FormPropertyConfig;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.config.ModuleConfigFactory;
+import org.apache.struts.config.ModuleConfigPostProcessor;
+import org.apache.struts.config.ModuleConfigSnapshot;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.util.ModuleRouteTable;
 import org.apache.struts.util.MessageResources;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -178,6 +192,313 @@ public class TestActionServlet {
         assertNull(servlet.getInternal(), "internal was destroyed");
     }
 
+    // --------------------------------------------------- runModuleTasks() tests
+
+    /**
+     * Verify that module tasks run in parallel keep the order of their
+     * items and the context class loader of the caller.
+     *
+     * @throws ServletException if a task fails
+     */
+    @Test
+    public void testRunModuleTasksParallel() throws ServletException {
+        actionServlet.parallelInit = true;
+
+        final ClassLoader classLoader =
+            Thread.currentThread().getContextClassLoader();
+        List<String> results =
+            actionServlet.runModuleTasks(Arrays.asList("", "/a", "/b", "/c"),
+                prefix -> {
+                    assertSame(classLoader,
+                        Thread.currentThread().getContextClassLoader());
+                    return "module" + prefix;
+                });
+
+        assertEquals(Arrays.asList("module", "module/a", "module/b",
+            "module/c"), results);
+    }
+
+    /**
+     * Verify that the first failure of a module task is rethrown.
+     */
+    @Test
+    public void testRunModuleTasksFailure() {
+        actionServlet.parallelInit = true;
+
+        try {
+            actionServlet.runModuleTasks(Arrays.asList("/a", "/b", "/c"),
+                prefix -> {
+                    if (!"/a".equals(prefix)) {
+                        throw new ServletException(prefix);
+                    }
+                    return prefix;
+                });
+            fail("Failure was not rethrown");
+        } catch (ServletException e) {
+            assertEquals("/b", e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------- parallelInit tests
+
+    private static final String PARALLEL_CONFIG =
+        "/org/apache/struts/action/struts-config-parallel.xml";
+
+    /**
+     * Verify that the parallel initialization is not supported by
+     * subclasses overriding a hook it bypasses.
+     */
+    @Test
+    public void testParallelInitSupported() {
+        assertTrue(new ActionServlet().isParallelInitSupported());
+        assertTrue(new ActionServlet() {
+            private static final long serialVersionUID = 1L;
+
+            protected void initOther() throws ServletException {
+                super.initOther();
+            }
+        }.isParallelInitSupported());
+        assertFalse(new ActionServlet() {
+            private static final long serialVersionUID = 1L;
+
+            protected ModuleConfig initModuleConfig(String prefix,
+                String paths) throws ServletException {
+                return super.initModuleConfig(prefix, paths);
+            }
+        }.isParallelInitSupported());
+    }
+
+    /**
+     * Verify that the modules are initialized in parallel, and that the
+     * post-processors of different modules do not run concurrently.
+     *
+     * @throws ServletException if initialization cannot be performed
+     */
+    @Test
+    public void testParallelInit() throws ServletException {
+        RecordingPostProcessor.reset();
+
+        MockServletContext context = new MockServletContext();
+        MockServletConfig config = new MockServletConfig(context);
+        config.addInitParameter("config", PARALLEL_CONFIG);
+        config.addInitParameter("config/a", PARALLEL_CONFIG);
+        config.addInitParameter("config/b", PARALLEL_CONFIG);
+        config.addInitParameter("parallelInit", "true");
+
+        ActionServlet servlet = new WebXmlFreeServlet();
+        servlet.init(config);
+
+        for (String prefix : new String[] {"", "/a", "/b"}) {
+            ModuleConfig module =
+                (ModuleConfig) context.getAttribute(Globals.MODULE_KEY + prefix);
+            assertNotNull(module, "Module " + prefix);
+            assertTrue(module.getConfigured(), "Module frozen " + prefix);
+            assertNotNull(module.findActionConfig("/index"));
+        }
+        assertNotNull(ModuleRouteTable.getInstance(context));
+        assertEquals(3, RecordingPostProcessor.modules.get());
+        assertEquals(1, RecordingPostProcessor.maxActive.get(),
+            "Post-processors ran concurrently");
+
+        servlet.destroy();
+    }
+
+    /**
+     * Verify that a module configuration is stored in and loaded from a
+     * snapshot in the configured directory.
+     *
+     * @throws Exception if initialization cannot be performed
+     */
+    @Test
+    public void testConfigSnapshot() throws Exception {
+        File directory = Files.createTempDirectory("snapshot").toFile();
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                MockServletContext context = new MockServletContext();
+                MockServletConfig config = new MockServletConfig(context);
+                config.addInitParameter("config", PARALLEL_CONFIG);
+                config.addInitParameter("configSnapshot",
+                    directory.getPath());
+
+                ActionServlet servlet = new WebXmlFreeServlet();
+                servlet.init(config);
+
+                assertEquals(directory, servlet.configSnapshotDir);
+                assertTrue(new ModuleConfigSnapshot(directory, "").getFile()
+                    .isFile(), "Snapshot written");
+
+                ModuleConfig module =
+                    (ModuleConfig) context.getAttribute(Globals.MODULE_KEY);
+                assertNotNull(module, "Module " + i);
+                assertTrue(module.getConfigured(), "Module frozen " + i);
+                assertNotNull(module.findActionConfig("/index"));
+
+                servlet.destroy();
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Verify that snapshots are only taken if a directory is given.
+     *
+     * @throws ServletException if initialization cannot be performed
+     */
+    @Test
+    public void testConfigSnapshotRequiresDirectory() throws ServletException {
+        for (String value : new String[] {null, "", "true", "false"}) {
+            MockServletContext context = new MockServletContext();
+            MockServletConfig config = new MockServletConfig(context);
+            config.addInitParameter("config", PARALLEL_CONFIG);
+            if (value != null) {
+                config.addInitParameter("configSnapshot", value);
+            }
+
+            ActionServlet servlet = new WebXmlFreeServlet();
+            servlet.init(config);
+
+            assertNull(servlet.configSnapshotDir, "Snapshot dir for " + value);
+
+            servlet.destroy();
+        }
+    }
+
+    /**
+     * Verify that the snapshot parameters cover the parsing init-params.
+     *
+     * @throws ServletException if initialization cannot be performed
+     */
+    @Test
+    public void testSnapshotParameters() throws ServletException {
+        String[] parameters = null;
+
+        for (String validating : new String[] {"true", "false"}) {
+            MockServletContext context = new MockServletContext();
+            MockServletConfig config = new MockServletConfig(context);
+            config.addInitParameter("config", PARALLEL_CONFIG);
+            config.addInitParameter("validating", validating);
+
+            ActionServlet servlet = new WebXmlFreeServlet();
+            servlet.init(config);
+
+            String[] current = servlet.getSnapshotParameters("");
+            assertTrue(Arrays.asList(current).contains(
+                ModuleConfigSnapshot.describeClass(ActionMapping.class)),
+                Arrays.toString(current));
+            if (parameters != null) {
+                assertNotEquals(Arrays.asList(parameters),
+                    Arrays.asList(current));
+            }
+            parameters = current;
+
+            servlet.destroy();
+        }
+    }
+
+    /**
+     * Verify that the modules are initialized one after another if a
+     * subclass overrides initModuleConfig, which is still called.
+     *
+     * @throws ServletException if initialization cannot be performed
+     */
+    @Test
+    public void testParallelInitOverridden() throws ServletException {
+        MockServletContext context = new MockServletContext();
+        MockServletConfig config = new MockServletConfig(context);
+        config.addInitParameter("config", PARALLEL_CONFIG);
+        config.addInitParameter("config/a", PARALLEL_CONFIG);
+        config.addInitParameter("parallelInit", "true");
+
+        List<String> initialized = new ArrayList<>();
+        ActionServlet servlet = new WebXmlFreeServlet() {
+            private static final long serialVersionUID = 1L;
+
+            protected ModuleConfig initModuleConfig(String prefix,
+                String paths) throws ServletException {
+                initialized.add(prefix);
+                return super.initModuleConfig(prefix, paths);
+            }
+        };
+        servlet.init(config);
+
+        assertEquals(Arrays.asList("", "/a"), initialized);
+        assertFalse(servlet.parallelInit);
+        servlet.destroy();
+    }
+
+    /**
+     * An ActionServlet which does not need a web.xml.
+     */
+    static class WebXmlFreeServlet extends ActionServlet {
+        private static final long serialVersionUID = 1L;
+
+        protected void initServlet() {
+            // no servlet mapping
+        }
+    }
+
+    /**
+     * A post-processor recording the number of modules being
+     * post-processed at the same time.
+     */
+    public static class RecordingPostProcessor
+        implements PlugIn, ModuleConfigPostProcessor {
+
+        static final AtomicInteger active = new AtomicInteger();
+
+        static final AtomicInteger maxActive = new AtomicInteger();
+
+        static final AtomicInteger modules = new AtomicInteger();
+
+        static void reset() {
+            active.set(0);
+            maxActive.set(0);
+            modules.set(0);
+        }
+
+        public void init(ActionServlet servlet, ModuleConfig config) {
+            // nothing to initialize
+        }
+
+        public void destroy() {
+            // nothing to destroy
+        }
+
+        public void postProcessBeforeInitialization(BaseConfig config,
+            ModuleConfig moduleConfig) {
+            enter();
+        }
+
+        public void postProcessAfterInitialization(BaseConfig config,
+            ModuleConfig moduleConfig) {
+            leave();
+        }
+
+        public void postProcessAfterInitialization(ModuleConfig moduleConfig) {
+            enter();
+            modules.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            leave();
+        }
+
+        private void enter() {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        }
+
+        private void leave() {
+            active.decrementAndGet();
+        }
+    }
+
     /**
      * Test class loader resolution and splitting.
      *
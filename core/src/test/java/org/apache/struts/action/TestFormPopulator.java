@@ -0,0 +1,356 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConversionException;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.struts.config.FormBeanConfig;
+import org.apache.struts.config.FormPropertyConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FormPopulator}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestFormPopulator {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private ConvertUtilsBean convertUtils;
+
+    private TestForm form;
+
+    private FormPopulator populator;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        FormPopulator.clearCache();
+        convertUtils = BeanUtilsBean.getInstance().getConvertUtils();
+        form = new TestForm();
+        populator = FormPopulator.getInstance(form);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        convertUtils.deregister();
+        FormPopulator.clearCache();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A populator is built once per form class.
+     */
+    @Test
+    public void testGetInstance() {
+        assertSame(populator, FormPopulator.getInstance(new TestForm()));
+
+        FormPopulator.clearCache();
+        assertNotSame(populator, FormPopulator.getInstance(form));
+    }
+
+    /**
+     * Simple properties are converted from a string or the first element
+     * of a string array.
+     */
+    @Test
+    public void testSimpleProperties() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("intValue", "12");
+        properties.put("integerValue", new String[] {"34", "56"});
+        properties.put("stringValue", "text");
+        properties.put("unknown", "ignored");
+
+        populator.populate(form, properties);
+
+        assertEquals(12, form.getIntValue());
+        assertEquals(Integer.valueOf(34), form.getIntegerValue());
+        assertEquals("text", form.getStringValue());
+    }
+
+    /**
+     * Array properties are converted element by element.
+     */
+    @Test
+    public void testArrayProperties() throws Exception {
+        populator.setProperty(form, "intArray", new String[] {"1", "2"});
+        populator.setProperty(form, "stringArray", new String[] {"a", "b"});
+
+        assertArrayEquals(new int[] {1, 2}, form.getIntArray());
+        assertArrayEquals(new String[] {"a", "b"}, form.getStringArray());
+
+        populator.setProperty(form, "intArray", new String[0]);
+        assertEquals(0, form.getIntArray().length);
+    }
+
+    /**
+     * An empty string array converts like a missing value.
+     */
+    @Test
+    public void testEmptyArray() throws Exception {
+        form.setIntValue(5);
+        form.setIntegerValue(Integer.valueOf(7));
+        form.setStringValue("text");
+
+        populator.setProperty(form, "intValue", new String[0]);
+        populator.setProperty(form, "integerValue", new String[0]);
+        populator.setProperty(form, "stringValue", new String[0]);
+
+        assertEquals(convertUtils.convert((String) null, Integer.TYPE),
+            form.getIntValue());
+        assertEquals(convertUtils.convert((String) null, Integer.class),
+            form.getIntegerValue());
+        assertNull(form.getStringValue());
+    }
+
+    /**
+     * A value which cannot be converted gets the same result as with
+     * <code>BeanUtils</code>.
+     */
+    @Test
+    public void testConversionFailure() throws Exception {
+        TestForm expected = new TestForm();
+        expected.setIntValue(5);
+        BeanUtilsBean.getInstance().setProperty(expected, "intValue", "abc");
+
+        form.setIntValue(5);
+        populator.setProperty(form, "intValue", "abc");
+        assertEquals(expected.getIntValue(), form.getIntValue());
+
+        convertUtils.register(new Converter() {
+            public <T> T convert(Class<T> type, Object value) {
+                throw new ConversionException("Invalid " + value);
+            }
+        }, Integer.TYPE);
+        FormPopulator.clearCache();
+
+        assertThrows(ConversionException.class, () -> FormPopulator
+            .getInstance(form).setProperty(form, "intValue", "abc"));
+    }
+
+    /**
+     * Converters registered later are used once the cache is cleared.
+     */
+    @Test
+    public void testClearCache() throws Exception {
+        convertUtils.register(new Converter() {
+            public <T> T convert(Class<T> type, Object value) {
+                return type.cast("converted");
+            }
+        }, String.class);
+
+        populator.setProperty(form, "stringValue", "text");
+        assertEquals("text", form.getStringValue());
+
+        FormPopulator.clearCache();
+        FormPopulator.getInstance(form).setProperty(form, "stringValue",
+            "text");
+        assertEquals("converted", form.getStringValue());
+    }
+
+    /**
+     * Nested, indexed and mapped names are handed to
+     * <code>BeanUtilsBean</code>.
+     */
+    @Test
+    public void testDelegatedNames() throws Exception {
+        populator.setProperty(form, "nested.stringValue", "nested");
+        populator.setProperty(form, "stringArray[1]", "indexed");
+        populator.setProperty(form, "mapped(key)", "mapped");
+
+        assertEquals("nested", form.getNested().getStringValue());
+        assertEquals("indexed", form.getStringArray()[1]);
+        assertEquals("mapped", form.getMapped("key"));
+    }
+
+    /**
+     * Names accessing the class of the bean are rejected.
+     */
+    @Test
+    public void testClassAccess() throws Exception {
+        String[] names = {"class.classLoader", "Class.name",
+            "nested.class.classLoader", "stringArray['class']",
+            "stringArray[0].class.name"};
+
+        for (String name : names) {
+            assertFalse(populator.isAccepted(name), name);
+            populator.setProperty(form, name, "value");
+        }
+
+        assertTrue(populator.isAccepted("stringValue"));
+        assertTrue(populator.isAccepted("nested.stringValue"));
+        assertTrue(populator.isAccepted("unknown"));
+        assertNull(form.getStringArray()[0]);
+    }
+
+    /**
+     * Names beyond the cached ones are still handled.
+     */
+    @Test
+    public void testMaxNames() throws Exception {
+        for (int i = 0; i < FormPopulator.MAX_NAMES + 10; i++) {
+            populator.setProperty(form, "mapped(key" + i + ")", "v" + i);
+        }
+
+        assertEquals("v" + (FormPopulator.MAX_NAMES + 9),
+            form.getMapped("key" + (FormPopulator.MAX_NAMES + 9)));
+
+        populator.setProperty(form, "nested.stringValue", "nested");
+        assertEquals("nested", form.getNested().getStringValue());
+        assertFalse(populator.isAccepted("class.classLoader"));
+        assertTrue(populator.isAccepted("stringValue"));
+    }
+
+    /**
+     * Dynamic forms are populated through their dynamic properties.
+     */
+    @Test
+    public void testDynaActionForm() throws Exception {
+        FormBeanConfig beanConfig = new FormBeanConfig();
+        beanConfig.setName("dynaForm");
+        beanConfig.setType(DynaActionForm.class.getName());
+        beanConfig.addFormPropertyConfig(new FormPropertyConfig("intProperty",
+            "int", "0"));
+        beanConfig.addFormPropertyConfig(new FormPropertyConfig(
+            "stringArray", "java.lang.String[]", null));
+        beanConfig.addFormPropertyConfig(new FormPropertyConfig(
+            "mappedProperty", "java.util.Map", null));
+
+        DynaActionFormClass dynaClass = new DynaActionFormClass(beanConfig);
+        DynaActionForm dynaForm = (DynaActionForm) dynaClass.newInstance();
+        dynaForm.set("mappedProperty", new HashMap<String, Object>());
+
+        FormPopulator dynaPopulator = FormPopulator.getInstance(dynaForm);
+        assertSame(dynaPopulator,
+            FormPopulator.getInstance(dynaClass.newInstance()));
+
+        dynaPopulator.setProperty(dynaForm, "intProperty", "42");
+        dynaPopulator.setProperty(dynaForm, "stringArray",
+            new String[] {"a", "b"});
+        dynaPopulator.setProperty(dynaForm, "mappedProperty(key)", "value");
+        dynaPopulator.setProperty(dynaForm, "unknown", "ignored");
+
+        assertEquals(Integer.valueOf(42), dynaForm.get("intProperty"));
+        assertArrayEquals(new String[] {"a", "b"},
+            (String[]) dynaForm.get("stringArray"));
+        assertEquals("value", dynaForm.get("mappedProperty", "key"));
+        assertFalse(dynaPopulator.isAccepted("class.classLoader"));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    /**
+     * A form bean with simple, array, nested, indexed and mapped
+     * properties.
+     */
+    public static class TestForm extends ActionForm {
+        private static final long serialVersionUID = 1L;
+
+        private int intValue;
+
+        private Integer integerValue;
+
+        private String stringValue;
+
+        private int[] intArray;
+
+        private String[] stringArray = new String[2];
+
+        private final Map<String, Object> mapped = new HashMap<>();
+
+        private TestForm nested;
+
+        public int getIntValue() {
+            return intValue;
+        }
+
+        public void setIntValue(int intValue) {
+            this.intValue = intValue;
+        }
+
+        public Integer getIntegerValue() {
+            return integerValue;
+        }
+
+        public void setIntegerValue(Integer integerValue) {
+            this.integerValue = integerValue;
+        }
+
+        public String getStringValue() {
+            return stringValue;
+        }
+
+        public void setStringValue(String stringValue) {
+            this.stringValue = stringValue;
+        }
+
+        public int[] getIntArray() {
+            return intArray;
+        }
+
+        public void setIntArray(int[] intArray) {
+            this.intArray = intArray;
+        }
+
+        public String[] getStringArray() {
+            return stringArray;
+        }
+
+        public void setStringArray(String[] stringArray) {
+            this.stringArray = stringArray;
+        }
+
+        public Object getMapped(String key) {
+            return mapped.get(key);
+        }
+
+        public void setMapped(String key, Object value) {
+            mapped.put(key, value);
+        }
+
+        public TestForm getNested() {
+            if (nested == null) {
+                nested = new TestForm();
+            }
+
+            return nested;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.action;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.struts.config.ExceptionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RequestProcessor}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestRequestProcessor {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private ModuleConfig moduleConfig;
+
+    private MockActionServlet servlet;
+
+    private RequestProcessor processor;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        MockServletContext context = new MockServletContext();
+
+        moduleConfig = new ModuleConfigImpl("");
+        servlet = new MockActionServlet(context,
+            new MockServletConfig(context));
+        processor = new RequestProcessor();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * By default each exception gets a new handler instance.
+     */
+    @Test
+    public void testExceptionHandlerNotShared() throws Exception {
+        processor.init(servlet, moduleConfig);
+
+        ExceptionConfig config = createExceptionConfig(StatefulHandler.class);
+        ExceptionHandler handler = processor.getExceptionHandler(config);
+
+        assertTrue(handler instanceof StatefulHandler);
+        assertNotSame(handler, processor.getExceptionHandler(config));
+    }
+
+    /**
+     * Shared handlers are created once per handler class.
+     */
+    @Test
+    public void testExceptionHandlerShared() throws Exception {
+        moduleConfig.getControllerConfig().setShareExceptionHandlers(true);
+        processor.init(servlet, moduleConfig);
+
+        ExceptionConfig config = createExceptionConfig(StatefulHandler.class);
+        ExceptionHandler handler = processor.getExceptionHandler(config);
+
+        assertTrue(handler instanceof StatefulHandler);
+        assertSame(handler, processor.getExceptionHandler(config));
+        assertSame(handler, processor.getExceptionHandler(
+            createExceptionConfig(StatefulHandler.class)));
+
+        ExceptionHandler other = processor.getExceptionHandler(
+            createExceptionConfig(ExceptionHandler.class));
+        assertNotSame(handler, other);
+        assertSame(other, processor.getExceptionHandler(
+            createExceptionConfig(ExceptionHandler.class)));
+
+        processor.destroy();
+        processor.init(servlet, moduleConfig);
+        assertNotSame(handler, processor.getExceptionHandler(config));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private static ExceptionConfig createExceptionConfig(Class<?> handler) {
+        ExceptionConfig config = new ExceptionConfig();
+        config.setType("java.lang.IllegalStateException");
+        config.setHandler(handler.getName());
+        return config;
+    }
+
+    /**
+     * A handler keeping state, which must not be shared unless requested.
+     */
+    public static class StatefulHandler extends ExceptionHandler {
+        int handled;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.chain.Command;
+import org.apache.commons.chain.Context;
+import org.apache.commons.chain.Filter;
+import org.apache.commons.chain.generic.LookupCommand;
+import org.apache.commons.chain.impl.CatalogBase;
+import org.apache.commons.chain.impl.CatalogFactoryBase;
+import org.apache.commons.chain.impl.ChainBase;
+import org.apache.commons.chain.impl.ContextBase;
+import org.apache.struts.metrics.Metric;
+import org.apache.struts.metrics.RequestMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CompiledChain}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestCompiledChain {
+
+    private CatalogFactoryBase<Context> factory;
+
+    private CatalogBase<Context> catalog;
+
+    @BeforeEach
+    public void setUp() {
+        factory = new CatalogFactoryBase<>();
+        catalog = new CatalogBase<>();
+        factory.setCatalog(catalog);
+    }
+
+    @Test
+    public void testNoChain() {
+        Command<Context> command = new Step("a");
+        assertSame(command, CompiledChain.compile(command));
+    }
+
+    @Test
+    public void testInlinesLookupsAndChains() throws Exception {
+        catalog.addCommand("inner",
+            chain(new Step("a"), new Step("b")));
+        ChainBase<Context> chain =
+            chain(lookup("inner"), new Step("c"));
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        assertTrue(compiled instanceof CompiledChain);
+        assertEquals(3, ((CompiledChain<Context>) compiled).size());
+        assertEquals("[a, b, c]", execute(compiled, null).toString());
+        assertEquals(execute(chain, null), execute(compiled, null));
+    }
+
+    @Test
+    public void testKeepsChainWithFilter() throws Exception {
+        catalog.addCommand("inner",
+            chain(new Step("a"), new Guard("f")));
+        ChainBase<Context> chain =
+            chain(lookup("inner"), new Step("c"));
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        assertEquals(2, ((CompiledChain<Context>) compiled).size());
+        assertEquals("[a, f, post f, c]", execute(compiled, null).toString());
+        assertEquals(execute(chain, null), execute(compiled, null));
+    }
+
+    @Test
+    public void testStopsAtTrue() throws Exception {
+        ChainBase<Context> chain = chain(new Guard("f"),
+            new Step("a"), new Step("stop"), new Step("b"));
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        ContextBase context = new ContextBase();
+        assertTrue(compiled.execute(context));
+        assertEquals("[f, a, stop, post f]", trace(context).toString());
+        assertEquals(execute(chain, null), execute(compiled, null));
+    }
+
+    @Test
+    public void testExceptionHandledByFilter() throws Exception {
+        ChainBase<Context> chain = chain(new Guard("f"),
+            new Step("fail"), new Step("b"));
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        List<String> trace = execute(compiled, "handle");
+        assertEquals("[f, fail, post f]", trace.toString());
+        assertEquals(execute(chain, "handle"), trace);
+
+        ContextBase context = new ContextBase();
+        assertThrows(IllegalStateException.class,
+            () -> compiled.execute(context));
+        assertEquals("[f, fail, post f]", trace(context).toString());
+    }
+
+    @Test
+    public void testMissingLookups() throws Exception {
+        LookupCommand<Context> optional = lookup("missing");
+        optional.setOptional(true);
+        ChainBase<Context> chain = chain(new Step("a"),
+            optional);
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        assertEquals(1, ((CompiledChain<Context>) compiled).size());
+
+        chain = chain(new Step("a"), lookup("missing"));
+        compiled = CompiledChain.compile(chain);
+        assertEquals(2, ((CompiledChain<Context>) compiled).size());
+        Command<Context> failing = compiled;
+        assertThrows(IllegalArgumentException.class,
+            () -> failing.execute(new ContextBase()));
+    }
+
+    @Test
+    public void testCycle() {
+        ChainBase<Context> chain = chain(new Step("a"),
+            lookup("self"));
+        catalog.addCommand("self", chain);
+
+        Command<Context> compiled = CompiledChain.compile(chain);
+        assertEquals(2, ((CompiledChain<Context>) compiled).size());
+    }
+
+    @Test
+    public void testWithMetrics() throws Exception {
+        ChainBase<Context> chain = chain(new Step("a"),
+            new Step("fail"));
+        CompiledChain<Context> compiled =
+            (CompiledChain<Context>) CompiledChain.compile(chain);
+        RequestMetrics metrics = new RequestMetrics("test", 1);
+
+        CompiledChain<Context> measured = compiled.withMetrics(metrics);
+        assertThrows(IllegalStateException.class,
+            () -> measured.execute(new ContextBase()));
+
+        Metric metric = metrics.getCommandMetric(Step.class.getName());
+        assertEquals(2, metric.getCount());
+        assertEquals(1, metric.getErrorCount());
+        assertEquals(0, metric.getInFlight());
+    }
+
+    @Test
+    public void testNullContext() {
+        Command<Context> compiled = CompiledChain.compile(
+            chain(new Step("a")));
+        assertThrows(IllegalArgumentException.class,
+            () -> compiled.execute(null));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    @SafeVarargs
+    private static ChainBase<Context> chain(Command<Context>... commands) {
+        return new ChainBase<>(Arrays.asList(commands));
+    }
+
+    private LookupCommand<Context> lookup(String name) {
+        LookupCommand<Context> lookup = new LookupCommand<>(factory);
+        lookup.setName(name);
+        return lookup;
+    }
+
+    private List<String> execute(Command<Context> command, String handle)
+        throws Exception {
+        ContextBase context = new ContextBase();
+        context.put("handle", handle);
+        command.execute(context);
+        return trace(context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> trace(Context context) {
+        return (List<String>) context.computeIfAbsent("trace",
+            k -> new ArrayList<String>());
+    }
+
+    /**
+     * Records its execution; "stop" completes the processing and "fail"
+     * throws an exception.
+     */
+    static class Step implements Command<Context> {
+        private final String name;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        public boolean execute(Context context) {
+            trace(context).add(name);
+
+            if ("fail".equals(name)) {
+                throw new IllegalStateException(name);
+            }
+
+            return "stop".equals(name);
+        }
+    }
+
+    /**
+     * Records its execution and post-processing, and handles exceptions if
+     * the context contains "handle".
+     */
+    static class Guard extends Step implements Filter<Context> {
+        private final String name;
+
+        Guard(String name) {
+            super(name);
+            this.name = name;
+        }
+
+        public boolean postprocess(Context context, Exception exception) {
+            trace(context).add("post " + name);
+            return (exception != null) && (context.get("handle") != null);
+        }
+    }
+}
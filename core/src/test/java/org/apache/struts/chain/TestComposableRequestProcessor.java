@@ -0,0 +1,132 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.chain.Command;
+import org.apache.commons.chain.generic.LookupCommand;
+import org.apache.commons.chain.impl.CatalogBase;
+import org.apache.commons.chain.impl.CatalogFactoryBase;
+import org.apache.commons.chain.impl.ChainBase;
+import org.apache.struts.chain.contexts.ActionContext;
+import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.chain.contexts.TypedServletActionContext;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the compiled processing chain of
+ * {@link ComposableRequestProcessor}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestComposableRequestProcessor {
+
+    private MockActionServlet servlet;
+
+    private ModuleConfig moduleConfig;
+
+    private CatalogFactoryBase<ActionContext> catalogFactory;
+
+    private List<ActionContext> contexts;
+
+    @BeforeEach
+    public void setUp() {
+        MockServletContext servletContext = new MockServletContext();
+        servlet = new MockActionServlet(servletContext,
+            new MockServletConfig(servletContext));
+
+        contexts = new ArrayList<>();
+        Command<ActionContext> record = context -> {
+            contexts.add(context);
+            return false;
+        };
+
+        catalogFactory = new CatalogFactoryBase<>();
+        CatalogBase<ActionContext> catalog = new CatalogBase<>();
+        catalog.addCommand("record", record);
+
+        LookupCommand<ActionContext> lookup =
+            new LookupCommand<>(catalogFactory);
+        lookup.setCatalogName("test");
+        lookup.setName("record");
+        List<Command<ActionContext>> commands = Arrays.asList(lookup);
+        catalog.addCommand("process", new ChainBase<>(commands));
+        catalogFactory.addCatalog("test", catalog);
+
+        moduleConfig = new ModuleConfigImpl("");
+        moduleConfig.getControllerConfig().setCatalog("test");
+        moduleConfig.getControllerConfig().setCommand("process");
+    }
+
+    @Test
+    public void testCompiledChain() throws Exception {
+        moduleConfig.getControllerConfig().setProperty(
+            ComposableRequestProcessor.COMPILE_CHAIN, "true");
+
+        ComposableRequestProcessor processor = createProcessor();
+        assertTrue(processor.command instanceof CompiledChain);
+        assertEquals(1, ((CompiledChain<ActionContext>) processor.command).size());
+
+        processor.process(new MockHttpServletRequest(),
+            new MockHttpServletResponse());
+        assertEquals(1, contexts.size());
+        assertTrue(contexts.get(0) instanceof TypedServletActionContext);
+        assertSame(moduleConfig, contexts.get(0).getModuleConfig());
+        assertSame(servlet,
+            ((ServletActionContext) contexts.get(0)).getActionServlet());
+    }
+
+    @Test
+    public void testDefaultChain() throws Exception {
+        ComposableRequestProcessor processor = createProcessor();
+        assertTrue(processor.command instanceof ChainBase);
+
+        processor.process(new MockHttpServletRequest(),
+            new MockHttpServletResponse());
+        assertEquals(1, contexts.size());
+        assertFalse(contexts.get(0) instanceof TypedServletActionContext);
+        assertSame(moduleConfig, contexts.get(0).getModuleConfig());
+    }
+
+    private ComposableRequestProcessor createProcessor() throws Exception {
+        ComposableRequestProcessor processor =
+            new ComposableRequestProcessor();
+        processor.catalogFactory = catalogFactory;
+        processor.init(servlet, moduleConfig);
+        return processor;
+    }
+}
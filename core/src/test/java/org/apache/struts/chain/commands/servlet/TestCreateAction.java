@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain.commands.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.action.ActionRegistry;
+import org.apache.struts.chain.Constants;
+import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockAction;
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.ServletException;
+
+/**
+ * JUnitTest case for class: {@link CreateAction}
+ */
+public class TestCreateAction {
+    private static final String MOCK_ACTION = MockAction.class.getName();
+
+    MockServletContext servletContext = null;
+    MockActionServlet servlet = null;
+    ServletActionContext saContext = null;
+    ModuleConfig moduleConfig = null;
+    CreateAction command = null;
+
+    /* setUp method for test case */
+    @BeforeEach
+    protected void setUp() throws ServletException {
+        this.servletContext = new MockServletContext();
+        this.servlet = new MockActionServlet(servletContext,
+            new MockServletConfig(servletContext));
+        this.servlet.initInternal();
+
+        this.saContext = new ServletActionContext(servletContext,
+            new MockHttpServletRequest(), new MockHttpServletResponse());
+        this.saContext.setActionServlet(servlet);
+
+        this.moduleConfig = new ModuleConfigImpl("");
+        this.command = new CreateAction();
+    }
+
+    @Test
+    public void testSingletonIsCached() throws Exception {
+        ActionConfig config = addActionConfig("/a", true);
+
+        Action action = command.getAction(saContext, MOCK_ACTION, config);
+        assertSame(servlet, action.getServlet());
+        assertSame(action, command.getAction(saContext, MOCK_ACTION, config));
+        assertTrue(servletContext.getAttribute(Constants.ACTION_REGISTRY_KEY)
+            instanceof ActionRegistry);
+
+        Object stored = servletContext.getAttribute(Constants.ACTIONS_KEY);
+        assertSame(HashMap.class, stored.getClass());
+        assertSame(action, ((Map<?, ?>) stored).get(MOCK_ACTION));
+    }
+
+    @Test
+    public void testPrototypeIsNotCached() throws Exception {
+        ActionConfig config = addActionConfig("/a", false);
+
+        assertNotSame(command.getAction(saContext, MOCK_ACTION, config),
+            command.getAction(saContext, MOCK_ACTION, config));
+    }
+
+    @Test
+    public void testStoredMapIsUsed() throws Exception {
+        ActionConfig config = addActionConfig("/a", true);
+        Action action = new MockAction();
+        Map<String, Action> actions = new HashMap<>();
+        actions.put(MOCK_ACTION, action);
+        servletContext.setAttribute(Constants.ACTIONS_KEY, actions);
+
+        assertSame(action, command.getAction(saContext, MOCK_ACTION, config));
+
+        assertSame(actions, servletContext.getAttribute(Constants.ACTIONS_KEY));
+
+        Object stored =
+            servletContext.getAttribute(Constants.ACTION_REGISTRY_KEY);
+        assertSame(action, ((ActionRegistry) stored).findAction(MOCK_ACTION));
+    }
+
+    @Test
+    public void testPreloadActions() throws Exception {
+        ActionConfig config = addActionConfig("/a", true);
+        moduleConfig.getControllerConfig().setPreloadActions(true);
+
+        ActionRegistry actions =
+            command.getActionRegistry(saContext, moduleConfig);
+        Action action = actions.findAction(MOCK_ACTION);
+        assertTrue(action instanceof MockAction);
+        assertSame(servlet, action.getServlet());
+        assertSame(action, command.getAction(saContext, MOCK_ACTION, config));
+    }
+
+    private ActionConfig addActionConfig(String path, boolean singleton) {
+        ActionConfig config = new ActionMapping();
+        config.setPath(path);
+        config.setType(MOCK_ACTION);
+        config.setSingleton(singleton);
+        moduleConfig.addActionConfig(config);
+        return config;
+    }
+}
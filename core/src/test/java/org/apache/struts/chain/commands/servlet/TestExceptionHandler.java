@@ -0,0 +1,110 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain.commands.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.struts.config.ExceptionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ExceptionHandler}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestExceptionHandler {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private ModuleConfig moduleConfig;
+
+    private ExceptionHandler command;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        moduleConfig = new ModuleConfigImpl("");
+        command = new ExceptionHandler();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * By default each exception gets a new handler instance.
+     */
+    @Test
+    public void testHandlerNotShared() throws Exception {
+        ExceptionConfig config = createExceptionConfig(StatefulHandler.class);
+        org.apache.struts.action.ExceptionHandler handler =
+            command.getHandler(config, moduleConfig);
+
+        assertTrue(handler instanceof StatefulHandler);
+        assertNotSame(handler, command.getHandler(config, moduleConfig));
+    }
+
+    /**
+     * Shared handlers are created once per handler class.
+     */
+    @Test
+    public void testHandlerShared() throws Exception {
+        moduleConfig.getControllerConfig().setShareExceptionHandlers(true);
+
+        ExceptionConfig config = createExceptionConfig(StatefulHandler.class);
+        org.apache.struts.action.ExceptionHandler handler =
+            command.getHandler(config, moduleConfig);
+
+        assertTrue(handler instanceof StatefulHandler);
+        assertSame(handler, command.getHandler(config, moduleConfig));
+        assertSame(handler, command.getHandler(
+            createExceptionConfig(StatefulHandler.class), moduleConfig));
+
+        org.apache.struts.action.ExceptionHandler other = command.getHandler(
+            createExceptionConfig(org.apache.struts.action.ExceptionHandler.class),
+            moduleConfig);
+        assertNotSame(handler, other);
+        assertSame(other, command.getHandler(
+            createExceptionConfig(org.apache.struts.action.ExceptionHandler.class),
+            moduleConfig));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private static ExceptionConfig createExceptionConfig(Class<?> handler) {
+        ExceptionConfig config = new ExceptionConfig();
+        config.setType("java.lang.IllegalStateException");
+        config.setHandler(handler.getName());
+        return config;
+    }
+
+    /**
+     * A handler keeping state, which must not be shared unless requested.
+     */
+    public static class StatefulHandler
+        extends org.apache.struts.action.ExceptionHandler {
+        int handled;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.chain.contexts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.struts.Globals;
+import org.apache.struts.chain.Constants;
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TypedServletActionContext}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestTypedServletActionContext {
+
+    private MockHttpServletRequest request;
+
+    private TypedServletActionContext context;
+
+    private int baseSize;
+
+    @BeforeEach
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        context = new TypedServletActionContext(new MockServletContext(),
+            request, new MockHttpServletResponse());
+        baseSize = context.size();
+    }
+
+    @Test
+    public void testKnownKeysAreFields() {
+        ActionConfig config = new ActionConfig();
+
+        assertNull(context.put(Constants.ACTION_CONFIG_KEY, config));
+        assertSame(config, context.getActionConfig());
+        assertSame(config, context.get(Constants.ACTION_CONFIG_KEY));
+        assertTrue(context.containsKey(Constants.ACTION_CONFIG_KEY));
+        assertTrue(context.containsValue(config));
+        assertFalse(context.getBaseContext().containsKey(
+            Constants.ACTION_CONFIG_KEY), "Written to the wrapped map");
+
+        assertSame(config, context.put(Constants.ACTION_CONFIG_KEY, null));
+        assertFalse(context.containsKey(Constants.ACTION_CONFIG_KEY));
+
+        context.setLocale(Locale.FRANCE);
+        assertSame(Locale.FRANCE, context.getLocale());
+        assertSame(Locale.FRANCE, context.remove(Constants.LOCALE_KEY));
+        assertNull(context.getLocale());
+    }
+
+    @Test
+    public void testOtherKeys() {
+        assertNull(context.put("custom", "value"));
+        assertEquals("value", context.get("custom"));
+        assertEquals("value", context.getBaseContext().get("custom"));
+        assertEquals("value", context.remove("custom"));
+        assertNull(context.getBaseContext().get("custom"));
+    }
+
+    @Test
+    public void testMapView() {
+        ActionConfig config = new ActionConfig();
+        context.put(Constants.ACTION_CONFIG_KEY, config);
+        context.put(Constants.VALID_KEY, Boolean.TRUE);
+        context.put("custom", "value");
+
+        assertEquals(baseSize + 3, context.size());
+        assertEquals(baseSize + 3, context.entrySet().size());
+        assertTrue(context.keySet().contains(Constants.VALID_KEY));
+        assertTrue(context.values().contains(config));
+
+        Map<String, Object> copy = new HashMap<>(context);
+        assertEquals(baseSize + 3, copy.size());
+        assertSame(config, copy.get(Constants.ACTION_CONFIG_KEY));
+        assertEquals("value", copy.get("custom"));
+
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            if (Constants.VALID_KEY.equals(entry.getKey())) {
+                entry.setValue(Boolean.FALSE);
+            }
+        }
+        assertEquals(Boolean.FALSE, context.getFormValid());
+
+        Iterator<String> keys = context.keySet().iterator();
+        while (keys.hasNext()) {
+            if (Constants.ACTION_CONFIG_KEY.equals(keys.next())) {
+                keys.remove();
+            }
+        }
+        assertNull(context.getActionConfig());
+        assertEquals(baseSize + 2, context.size());
+
+        context.remove("custom");
+        assertNull(context.get("custom"));
+        assertEquals(baseSize + 1, context.size());
+
+        assertTrue(context.keySet().remove(Constants.VALID_KEY));
+        assertNull(context.getFormValid());
+        assertEquals(baseSize, context.size());
+    }
+
+    @Test
+    public void testClear() {
+        context.put(Constants.ACTION_CONFIG_KEY, new ActionConfig());
+        context.put("custom", "value");
+        context.clear();
+
+        assertNull(context.getActionConfig());
+        assertNull(context.get("custom"));
+    }
+
+    @Test
+    public void testModuleConfigFallback() {
+        ModuleConfig fromRequest = new ModuleConfigImpl("/request");
+        request.setAttribute(Globals.MODULE_KEY, fromRequest);
+        assertSame(fromRequest, context.getModuleConfig());
+
+        ModuleConfig selected = new ModuleConfigImpl("/selected");
+        context.setModuleConfig(selected);
+        assertSame(selected, context.getModuleConfig());
+    }
+}
@@ -28,7 +28,15 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.struts.config.impl.ModuleConfigImpl;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -383,6 +391,207 @@ public class TestActionConfig {
         assertTrue(config.toString().contains(test));
     }
 
+    /**
+     * A subclass of a configured exception resolves to its configuration,
+     * which is cached once the action and its module are frozen.
+     */
+    @Test
+    public void testFindExceptionSubclass() {
+        CountingModuleConfig module = new CountingModuleConfig();
+        CountingActionConfig action = createCountingAction(module);
+        ExceptionConfig ioConfig = createExceptionConfig(
+            "java.io.IOException");
+        action.addExceptionConfig(ioConfig);
+        module.freeze();
+
+        assertSame(ioConfig, action.findException(FileNotFoundException.class));
+        assertTrue(action.lookups > 0, "Searched");
+
+        action.lookups = 0;
+        module.lookups = 0;
+        assertSame(ioConfig, action.findException(FileNotFoundException.class));
+        assertEquals(0, action.lookups + module.lookups, "Cached");
+    }
+
+    /**
+     * A class without configuration is remembered as such.
+     */
+    @Test
+    public void testFindExceptionNotConfigured() {
+        CountingModuleConfig module = new CountingModuleConfig();
+        CountingActionConfig action = createCountingAction(module);
+        module.freeze();
+
+        assertNull(action.findException(IllegalStateException.class));
+
+        action.lookups = 0;
+        module.lookups = 0;
+        assertNull(action.findException(IllegalStateException.class));
+        assertEquals(0, action.lookups + module.lookups, "Cached");
+    }
+
+    /**
+     * Results are not cached while the configurations may change, and stay
+     * correct once they are frozen.
+     */
+    @Test
+    public void testFindExceptionFreeze() {
+        CountingModuleConfig module = new CountingModuleConfig();
+        CountingActionConfig action = createCountingAction(module);
+
+        assertNull(action.findException(IllegalStateException.class));
+
+        ExceptionConfig global = createExceptionConfig(
+            "java.lang.RuntimeException");
+        module.addExceptionConfig(global);
+        assertSame(global, action.findException(IllegalStateException.class));
+
+        ExceptionConfig local = createExceptionConfig(
+            "java.lang.IllegalStateException");
+        action.addExceptionConfig(local);
+        assertSame(local, action.findException(IllegalStateException.class));
+
+        action.freeze();
+        action.lookups = 0;
+        assertSame(local, action.findException(IllegalStateException.class));
+        assertTrue(action.lookups > 0, "Module not frozen yet");
+
+        module.freeze();
+        assertSame(local, action.findException(IllegalStateException.class));
+        assertSame(global,
+            action.findException(IllegalArgumentException.class));
+        assertThrows(IllegalStateException.class,
+            () -> action.addExceptionConfig(createExceptionConfig(
+                "java.lang.IllegalArgumentException")));
+        assertSame(global,
+            action.findException(IllegalArgumentException.class));
+    }
+
+    /**
+     * The cache is cleared when it holds MAX_EXCEPTION_TYPES classes.
+     */
+    @Test
+    public void testFindExceptionCacheFull() throws Exception {
+        CountingModuleConfig module = new CountingModuleConfig();
+        CountingActionConfig action = createCountingAction(module);
+        ExceptionConfig config = createExceptionConfig(
+            "java.lang.IllegalStateException");
+        action.addExceptionConfig(config);
+        module.freeze();
+
+        assertSame(config, action.findException(IllegalStateException.class));
+
+        for (Class<?> type
+            : createExceptionClasses(ActionConfig.MAX_EXCEPTION_TYPES)) {
+            assertSame(config, action.findException(type));
+        }
+
+        action.lookups = 0;
+        assertSame(config, action.findException(IllegalStateException.class));
+        assertTrue(action.lookups > 0, "Cache cleared");
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    /**
+     * Create an exception configuration for the specified type.
+     */
+    static ExceptionConfig createExceptionConfig(String type) {
+        ExceptionConfig config = new ExceptionConfig();
+        config.setType(type);
+        config.setKey("msg." + type);
+        return config;
+    }
+
+    /**
+     * Create the specified number of distinct subclasses of
+     * <code>IllegalStateException</code>, each defined by its own class
+     * loader.
+     */
+    static List<Class<?>> createExceptionClasses(int count)
+        throws IOException {
+        String name = CustomException.class.getName();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (InputStream in = CustomException.class.getResourceAsStream(
+                name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            byte[] buffer = new byte[4096];
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            classes.add(new DefiningClassLoader().define(name,
+                bytes.toByteArray()));
+        }
+
+        return classes;
+    }
+
+    private CountingActionConfig createCountingAction(ModuleConfig module) {
+        CountingActionConfig action = new CountingActionConfig();
+        action.setPath("/counting");
+        module.addActionConfig(action);
+        return action;
+    }
+
+    /**
+     * An exception class copied by {@link #createExceptionClasses(int)}.
+     */
+    public static class CustomException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Defines a single class.
+     */
+    private static class DefiningClassLoader extends ClassLoader {
+        DefiningClassLoader() {
+            super(TestActionConfig.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Counts the lookups of local exception configurations.
+     */
+    static class CountingActionConfig extends ActionConfig {
+        private static final long serialVersionUID = 1L;
+
+        int lookups;
+
+        public ExceptionConfig findExceptionConfig(String type) {
+            lookups++;
+            return super.findExceptionConfig(type);
+        }
+    }
+
+    /**
+     * Counts the lookups of global exception configurations.
+     */
+    static class CountingModuleConfig extends ModuleConfigImpl {
+        private static final long serialVersionUID = 1L;
+
+        int lookups;
+
+        CountingModuleConfig() {
+            super("");
+        }
+
+        public ExceptionConfig findExceptionConfig(String type) {
+            lookups++;
+            return super.findExceptionConfig(type);
+        }
+    }
+
     /**
      * Used to detect that ActionConfig is making the right calls.
      */
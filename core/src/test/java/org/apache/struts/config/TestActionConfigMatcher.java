@@ -26,6 +26,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.apache.struts.action.ActionForward;
 import org.apache.struts.action.ActionMapping;
 import org.apache.struts.mock.TestMockBase;
@@ -66,6 +71,34 @@ public class TestActionConfigMatcher extends TestMockBase {
         assertNull(matcher.match("/test"), "ActionConfig shouldn't be matched");
     }
 
+    @Test
+    public void testSerializedCache() throws Exception {
+        ActionMapping[] mapping = new ActionMapping[1];
+        mapping[0] = new ActionMapping();
+        mapping[0].setPath("/page-*");
+        mapping[0].setParameter("p{1}");
+
+        ActionConfigMatcher matcher = new ActionConfigMatcher(mapping);
+        assertNull(matcher.match("/test"), "ActionConfig shouldn't be matched");
+        assertNotNull(matcher.match("/page-1"), "ActionConfig should be matched");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(matcher);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            matcher = (ActionConfigMatcher) in.readObject();
+        }
+
+        assertNull(matcher.match("/test"), "ActionConfig shouldn't be matched");
+        assertNull(matcher.match("/test"), "Cached miss shouldn't be matched");
+        ActionConfig matched = matcher.match("/page-2");
+        assertNotNull(matched, "ActionConfig should be matched");
+        assertEquals("p2", matched.getParameter());
+        assertTrue(matched == matcher.match("/page-2"), "Match not cached");
+    }
+
     /**
      * Verifies that a match succeeds when the substituted value contains a
      * placeholder key.
@@ -193,6 +226,7 @@ public class TestActionConfigMatcher extends TestMockBase {
 
         assertEquals("name,Bar", m.getName(), "Name hasn't been replaced");
         assertEquals("/fooBar", m.getPath(), "Path hasn't been replaced");
+        assertEquals("/foo*", m.getWildcardPath(), "Wildcard path isn't correct");
         assertEquals("request", m.getScope(), "Scope isn't correct");
         assertFalse(m.getUnknown(), "Unknown isn't correct");
         assertTrue(m.getValidate(), "Validate isn't correct");
@@ -240,6 +274,45 @@ public class TestActionConfigMatcher extends TestMockBase {
         assertEquals("name,Bar-Bar", m.getName(), "Name hasn't been replaced correctly: " + m.getName());
     }
 
+    @Test
+    public void testLastMatchWins() {
+        ActionMapping[] mapping = new ActionMapping[3];
+
+        mapping[0] = new ActionMapping();
+        mapping[0].setPath("/*");
+        mapping[0].setParameter("any,{1}");
+        mapping[1] = new ActionMapping();
+        mapping[1].setPath("/foo*");
+        mapping[1].setParameter("foo,{1}");
+        mapping[2] = new ActionMapping();
+        mapping[2].setPath("/bar/**");
+        mapping[2].setParameter("bar,{1}");
+
+        ActionConfigMatcher matcher = new ActionConfigMatcher(mapping);
+
+        assertEquals("foo,Bar", matcher.match("/fooBar").getParameter(), "Last matching pattern should win");
+        assertEquals("any,baz", matcher.match("/baz").getParameter(), "Pattern without prefix should match");
+        assertEquals("bar,a/b", matcher.match("/bar/a/b").getParameter(), "Path pattern should match");
+        assertNull(matcher.match("/baz/a"), "ActionConfig shouldn't be matched");
+    }
+
+    @Test
+    public void testResolvedPathIsCached() {
+        ActionConfig[] configs = new ActionConfig[1];
+        configs[0] = buildActionConfig("/foo*");
+
+        ActionConfigMatcher matcher = new ActionConfigMatcher(configs);
+        ActionConfig m = matcher.match("/fooBar");
+
+        assertTrue(m == matcher.match("/fooBar"), "Resolved ActionConfig should be cached");
+        assertNull(matcher.match("/test"), "ActionConfig shouldn't be matched");
+        assertNull(matcher.match("/test"), "ActionConfig shouldn't be matched");
+
+        matcher = new ActionConfigMatcher(configs, 0);
+        m = matcher.match("/fooBar");
+        assertFalse(m == matcher.match("/fooBar"), "ActionConfig shouldn't be cached");
+    }
+
     private ActionConfig buildActionConfig(String path) {
         ActionMapping mapping = new ActionMapping();
 
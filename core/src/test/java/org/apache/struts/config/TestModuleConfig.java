@@ -22,9 +22,13 @@ package org.apache.struts.config;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.FileNotFoundException;
 import java.io.InputStream;
 
 import org.apache.commons.digester.Digester;
@@ -187,4 +191,89 @@ public class TestModuleConfig {
                 "Action config out of order:" + actions[x].getPath());
         }
     }
+
+    /**
+     * A subclass of a configured exception resolves to its configuration,
+     * which is cached once the module is frozen.
+     */
+    @Test
+    public void testFindExceptionSubclass() {
+        TestActionConfig.CountingModuleConfig module =
+            new TestActionConfig.CountingModuleConfig();
+        ExceptionConfig ioConfig =
+            TestActionConfig.createExceptionConfig("java.io.IOException");
+        module.addExceptionConfig(ioConfig);
+        module.freeze();
+
+        assertSame(ioConfig, module.findException(FileNotFoundException.class));
+
+        module.lookups = 0;
+        assertSame(ioConfig, module.findException(FileNotFoundException.class));
+        assertEquals(0, module.lookups, "Cached");
+    }
+
+    /**
+     * A class without configuration is remembered as such.
+     */
+    @Test
+    public void testFindExceptionNotConfigured() {
+        TestActionConfig.CountingModuleConfig module =
+            new TestActionConfig.CountingModuleConfig();
+        module.freeze();
+
+        assertNull(module.findException(IllegalStateException.class));
+
+        module.lookups = 0;
+        assertNull(module.findException(IllegalStateException.class));
+        assertEquals(0, module.lookups, "Cached");
+    }
+
+    /**
+     * Results are not cached while the module may change, and stay correct
+     * once it is frozen.
+     */
+    @Test
+    public void testFindExceptionFreeze() {
+        TestActionConfig.CountingModuleConfig module =
+            new TestActionConfig.CountingModuleConfig();
+
+        assertNull(module.findException(IllegalStateException.class));
+
+        ExceptionConfig config = TestActionConfig.createExceptionConfig(
+            "java.lang.RuntimeException");
+        module.addExceptionConfig(config);
+        assertSame(config, module.findException(IllegalStateException.class));
+
+        module.freeze();
+        assertSame(config, module.findException(IllegalStateException.class));
+        assertThrows(IllegalStateException.class,
+            () -> module.addExceptionConfig(TestActionConfig
+                .createExceptionConfig("java.lang.IllegalStateException")));
+        assertSame(config, module.findException(IllegalStateException.class));
+        assertNull(module.findException(Error.class));
+    }
+
+    /**
+     * The cache is cleared when it holds MAX_EXCEPTION_TYPES classes.
+     */
+    @Test
+    public void testFindExceptionCacheFull() throws Exception {
+        TestActionConfig.CountingModuleConfig module =
+            new TestActionConfig.CountingModuleConfig();
+        ExceptionConfig config = TestActionConfig.createExceptionConfig(
+            "java.lang.IllegalStateException");
+        module.addExceptionConfig(config);
+        module.freeze();
+
+        assertSame(config, module.findException(IllegalStateException.class));
+
+        for (Class<?> type : TestActionConfig.createExceptionClasses(
+                ActionConfig.MAX_EXCEPTION_TYPES)) {
+            assertSame(config, module.findException(type));
+        }
+
+        module.lookups = 0;
+        assertSame(config, module.findException(IllegalStateException.class));
+        assertTrue(module.lookups > 0, "Cache cleared");
+    }
 }
@@ -0,0 +1,293 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ModuleConfigSnapshot}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestModuleConfigSnapshot {
+
+    // ----------------------------------------------------- Instance Variables
+
+    /**
+     * The directory holding the snapshots.
+     */
+    private File directory;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+
+        directory.delete();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A stored configuration is loaded again with its mappings.
+     */
+    @Test
+    public void testRoundTrip() {
+        ModuleConfigSnapshot snapshot =
+            new ModuleConfigSnapshot(directory, "/admin");
+        ModuleConfig config = createConfig();
+
+        snapshot.store("abc", config);
+        assertTrue(snapshot.getFile().isFile(), "Snapshot written");
+
+        ModuleConfig loaded = snapshot.load("abc");
+
+        assertNotNull(loaded, "Snapshot loaded");
+        assertEquals("/admin", loaded.getPrefix());
+
+        ActionConfig action = loaded.findActionConfig("/edit");
+
+        assertNotNull(action, "Action loaded");
+        assertEquals(ActionMapping.class, action.getClass());
+        assertEquals("editForm", action.getName());
+        assertEquals("value", action.getProperty("key"));
+        assertEquals("/edit.jsp", action.findForwardConfig("success").getPath());
+        assertEquals("/home.jsp", loaded.findForwardConfig("home").getPath());
+        assertEquals("Item",
+            loaded.findActionConfig("/viewItem").getParameter(),
+            "Wildcard mapping matched");
+    }
+
+    /**
+     * Each module prefix has its own snapshot file.
+     */
+    @Test
+    public void testFileNames() {
+        assertEquals("struts-config.ser",
+            new ModuleConfigSnapshot(directory, "").getFile().getName());
+        assertEquals("struts-config_admin.ser",
+            new ModuleConfigSnapshot(directory, "/admin").getFile().getName());
+
+        String[] prefixes = {"/a/b", "/a_b", "/a%5Fb", "/a/_", "/a_/"};
+        Set<String> names = new HashSet<>();
+
+        for (String prefix : prefixes) {
+            names.add(new ModuleConfigSnapshot(directory, prefix).getFile()
+                .getName());
+        }
+
+        assertEquals(prefixes.length, names.size(), "Distinct files");
+    }
+
+    /**
+     * A snapshot of other configuration files is not loaded.
+     */
+    @Test
+    public void testChecksumMismatch() {
+        ModuleConfigSnapshot snapshot =
+            new ModuleConfigSnapshot(directory, "");
+
+        snapshot.store("abc", createConfig());
+        assertNull(snapshot.load("def"), "Out of date snapshot");
+    }
+
+    /**
+     * A missing snapshot is not loaded.
+     */
+    @Test
+    public void testMissing() {
+        assertNull(new ModuleConfigSnapshot(directory, "")
+            .load("abc"));
+    }
+
+    /**
+     * The checksum covers the parameters as well as the files.
+     */
+    @Test
+    public void testChecksumParameters() throws IOException {
+        URL url = getClass().getResource("struts-config.xml");
+        List<URL> urls = Collections.singletonList(url);
+
+        assertEquals(ModuleConfigSnapshot.checksum(urls),
+            ModuleConfigSnapshot.checksum(urls));
+        assertEquals(ModuleConfigSnapshot.checksum(urls, "validating=true"),
+            ModuleConfigSnapshot.checksum(urls, "validating=true"));
+        assertNotEquals(ModuleConfigSnapshot.checksum(urls),
+            ModuleConfigSnapshot.checksum(urls, "validating=true"));
+        assertNotEquals(ModuleConfigSnapshot.checksum(urls, "validating=true"),
+            ModuleConfigSnapshot.checksum(urls, "validating=false"));
+        assertNotEquals(ModuleConfigSnapshot.checksum(urls, "a", "bc"),
+            ModuleConfigSnapshot.checksum(urls, "ab", "c"));
+    }
+
+    /**
+     * The description of a class includes its serial version.
+     */
+    @Test
+    public void testDescribeClass() {
+        String description =
+            ModuleConfigSnapshot.describeClass(ActionConfig.class);
+
+        assertTrue(description.startsWith(ActionConfig.class.getName() + "#"),
+            description);
+        assertEquals("java.lang.Object#-",
+            ModuleConfigSnapshot.describeClass(Object.class));
+    }
+
+    /**
+     * Only configuration and collection classes are allowed.
+     */
+    @Test
+    public void testIsAllowed() {
+        assertTrue(ModuleConfigSnapshot.isAllowed(ModuleConfigImpl.class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(ActionMapping.class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(ActionForward.class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(ActionConfig[].class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(HashMap.class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(String.class));
+        assertTrue(ModuleConfigSnapshot.isAllowed(int[].class));
+        assertFalse(ModuleConfigSnapshot.isAllowed(Date.class));
+        assertFalse(ModuleConfigSnapshot.isAllowed(Payload.class));
+        assertFalse(ModuleConfigSnapshot.isAllowed(Payload[].class));
+    }
+
+    /**
+     * A snapshot holding other classes is rejected before they are
+     * instantiated.
+     */
+    @Test
+    public void testDisallowedClass() throws IOException {
+        ModuleConfigSnapshot snapshot =
+            new ModuleConfigSnapshot(directory, "");
+        File file = snapshot.getFile();
+
+        Payload.created = false;
+
+        try (ObjectOutputStream out =
+                new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeUTF(ModuleConfigSnapshot.MAGIC);
+            out.writeUTF("abc");
+            out.writeObject(new Payload());
+        }
+
+        Payload.created = false;
+        assertNull(snapshot.load("abc"), "Disallowed class loaded");
+        assertFalse(Payload.created, "Disallowed class instantiated");
+    }
+
+    /**
+     * A configuration holding other classes in a nested collection is
+     * rejected.
+     */
+    @Test
+    public void testDisallowedNestedClass() throws IOException {
+        ModuleConfigSnapshot snapshot =
+            new ModuleConfigSnapshot(directory, "");
+        HashMap<String, Object> nested = new HashMap<>();
+
+        nested.put("date", new Date());
+
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new FileOutputStream(snapshot.getFile()))) {
+            out.writeUTF(ModuleConfigSnapshot.MAGIC);
+            out.writeUTF("abc");
+            out.writeObject(nested);
+        }
+
+        assertNull(snapshot.load("abc"), "Disallowed class loaded");
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private ModuleConfig createConfig() {
+        ModuleConfig config = new ModuleConfigImpl("/admin");
+        ActionMapping mapping = new ActionMapping();
+
+        mapping.setPath("/edit");
+        mapping.setName("editForm");
+        mapping.setProperty("key", "value");
+        mapping.addForwardConfig(new ActionForward("success", "/edit.jsp",
+            false));
+        config.addActionConfig(mapping);
+
+        mapping = new ActionMapping();
+        mapping.setPath("/view*");
+        mapping.setParameter("{1}");
+        config.addActionConfig(mapping);
+        config.addForwardConfig(new ActionForward("home", "/home.jsp", false));
+        config.freeze();
+
+        return config;
+    }
+
+    /**
+     * A serializable class which does not belong to a configuration.
+     */
+    public static class Payload implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        static boolean created;
+
+        private void readObject(java.io.ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+            created = true;
+            in.defaultReadObject();
+        }
+    }
+}
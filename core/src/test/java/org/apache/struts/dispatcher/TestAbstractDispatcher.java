@@ -0,0 +1,246 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.dispatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.chain.contexts.ActionContext;
+import org.apache.struts.chain.contexts.ServletActionContext;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AbstractDispatcher}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestAbstractDispatcher {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private CountingResolver resolver;
+
+    private NamedDispatcher dispatcher;
+
+    private ActionContext context;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        resolver = new CountingResolver();
+        dispatcher = new NamedDispatcher(resolver);
+
+        ActionMapping mapping = new ActionMapping();
+
+        mapping.setPath("/dispatch");
+
+        context = new ServletActionContext(new MockServletContext(),
+            new MockHttpServletRequest(), new MockHttpServletResponse());
+        context.setAction(new DispatchedAction());
+        context.setActionConfig(mapping);
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A resolved method is cached.
+     */
+    @Test
+    public void testMethodCached() throws Exception {
+        Method method = dispatcher.getMethod(context, "hello");
+
+        assertSame(method, dispatcher.getMethod(context, "hello"));
+        assertEquals(1, resolver.calls.get());
+
+        dispatcher.flushMethodCache();
+
+        assertEquals(method, dispatcher.getMethod(context, "hello"));
+        assertEquals(2, resolver.calls.get());
+    }
+
+    /**
+     * A name which can not be resolved is not cached, and the exception of
+     * the resolver is thrown.
+     */
+    @Test
+    public void testMissNotCached() throws Exception {
+        NoSuchMethodException first = assertThrows(
+            NoSuchMethodException.class,
+            () -> dispatcher.getMethod(context, "missing"));
+        NoSuchMethodException second = assertThrows(
+            NoSuchMethodException.class,
+            () -> dispatcher.getMethod(context, "missing"));
+
+        assertEquals("resolver: missing", first.getMessage());
+        assertEquals("resolver: missing", second.getMessage());
+        assertEquals(2, resolver.calls.get());
+    }
+
+    /**
+     * A dispatch invokes the resolved method.
+     */
+    @Test
+    public void testDispatch() throws Exception {
+        dispatcher.name = "hello";
+
+        assertEquals("hello", dispatcher.dispatch(context));
+        assertEquals("hello", dispatcher.dispatch(context));
+        assertEquals(1, resolver.calls.get());
+    }
+
+    /**
+     * A dispatch to a <code>void</code> method returns
+     * <code>void.class</code>.
+     */
+    @Test
+    public void testDispatchVoid() throws Exception {
+        dispatcher.name = "nothing";
+
+        assertEquals(void.class, dispatcher.dispatch(context));
+    }
+
+    /**
+     * A dispatch to a missing method hides the method name.
+     */
+    @Test
+    public void testDispatchMissing() throws Exception {
+        dispatcher.name = "missing";
+
+        NoSuchMethodException e = assertThrows(NoSuchMethodException.class,
+            () -> dispatcher.dispatch(context));
+
+        assertEquals("resolver: missing", e.getCause().getMessage());
+    }
+
+    /**
+     * An exception thrown by the dispatched method is unwrapped.
+     */
+    @Test
+    public void testDispatchException() throws Exception {
+        dispatcher.name = "fail";
+
+        IOException e = assertThrows(IOException.class,
+            () -> dispatcher.dispatch(context));
+
+        assertEquals("failed", e.getMessage());
+    }
+
+    /**
+     * An error thrown by the dispatched method is wrapped in an exception.
+     */
+    @Test
+    public void testDispatchError() throws Exception {
+        dispatcher.name = "error";
+
+        Exception e = assertThrows(Exception.class,
+            () -> dispatcher.dispatch(context));
+
+        assertEquals(LinkageError.class, e.getCause().getClass());
+    }
+
+    /**
+     * A method which was not obtained from the cache is invoked by
+     * reflection.
+     */
+    @Test
+    public void testInvokeUncached() throws Exception {
+        Method method = DispatchedAction.class.getMethod("hello");
+
+        assertEquals("hello", dispatcher.invoke(context.getAction(), method,
+            new Object[0], "/dispatch"));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    /**
+     * Action with the dispatched methods.
+     */
+    public static class DispatchedAction extends Action {
+        private static final long serialVersionUID = 1L;
+
+        public String hello() {
+            return "hello";
+        }
+
+        public void nothing() {
+        }
+
+        public String fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        public String error() {
+            throw new LinkageError("error");
+        }
+    }
+
+    /**
+     * Resolver of methods without arguments, counting its calls.
+     */
+    static class CountingResolver implements MethodResolver {
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        public Object[] buildArguments(ActionContext context, Method method) {
+            return new Object[0];
+        }
+
+        public Method resolveMethod(ActionContext context, String methodName)
+            throws NoSuchMethodException {
+            calls.incrementAndGet();
+            try {
+                return context.getAction().getClass().getMethod(methodName);
+            } catch (NoSuchMethodException e) {
+                throw new NoSuchMethodException("resolver: " + methodName);
+            }
+        }
+    }
+
+    /**
+     * Dispatcher to a fixed method name.
+     */
+    static class NamedDispatcher extends AbstractDispatcher {
+        private static final long serialVersionUID = 1L;
+
+        String name;
+
+        NamedDispatcher(MethodResolver resolver) {
+            super(resolver);
+        }
+
+        String resolveMethodName(ActionContext context) {
+            return name;
+        }
+    }
+}
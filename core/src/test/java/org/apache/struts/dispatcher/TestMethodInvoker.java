@@ -0,0 +1,217 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.dispatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MethodInvoker}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestMethodInvoker {
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The arguments are passed to the method and its result is returned.
+     */
+    @Test
+    public void testInvoke() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "concat", String.class,
+            int.class);
+
+        assertEquals("a1", invoker.invoke(new Target(), new Object[] {"a", 1}));
+        assertEquals("b2", invoker.invoke(new Target(), new Object[] {"b", 2}));
+    }
+
+    /**
+     * A method of a superclass is invoked on a subclass.
+     */
+    @Test
+    public void testInvokeInherited() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "name");
+
+        assertEquals("sub", invoker.invoke(new SubTarget(), new Object[0]));
+    }
+
+    /**
+     * A <code>void</code> method returns <code>null</code>.
+     */
+    @Test
+    public void testVoid() throws Exception {
+        Target target = new Target();
+        MethodInvoker invoker = invoker(Target.class, "touch");
+
+        assertNull(invoker.invoke(target, new Object[0]));
+        assertEquals(1, target.touched);
+    }
+
+    /**
+     * An exception thrown by the method is wrapped like
+     * <code>Method.invoke</code> does.
+     */
+    @Test
+    public void testExceptionWrapped() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "fail", Throwable.class);
+
+        for (Throwable t : new Throwable[] {new IOException("checked"),
+            new IllegalStateException("unchecked"), new LinkageError("error")}) {
+            InvocationTargetException e =
+                assertThrows(InvocationTargetException.class,
+                    () -> invoker.invoke(new Target(), new Object[] {t}));
+
+            assertSame(t, e.getTargetException());
+        }
+    }
+
+    /**
+     * Invalid arguments are reported by reflection.
+     */
+    @Test
+    public void testInvalidArguments() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "concat", String.class,
+            int.class);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> invoker.invoke(new Target(), new Object[] {"a"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> invoker.invoke(new Target(), new Object[] {"a", "b"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> invoker.invoke(new Target(), new Object[] {"a", null}));
+        assertThrows(IllegalArgumentException.class,
+            () -> invoker.invoke("not a target", new Object[] {"a", 1}));
+        assertThrows(NullPointerException.class,
+            () -> invoker.invoke(null, new Object[] {"a", 1}));
+    }
+
+    /**
+     * Arguments are converted by reflection.
+     */
+    @Test
+    public void testConversion() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "concat", String.class,
+            int.class);
+
+        assertEquals("a1", invoker.invoke(new Target(),
+            new Object[] {"a", (short) 1}));
+        assertEquals("null1", invoker.invoke(new Target(),
+            new Object[] {null, 1}));
+    }
+
+    /**
+     * A method which can not be bound by the public lookup is invoked by
+     * reflection.
+     */
+    @Test
+    public void testReflectionFallback() throws Exception {
+        MethodInvoker invoker = invoker(HiddenTarget.class, "name");
+
+        assertEquals("hidden", invoker.invoke(new HiddenTarget(), new Object[0]));
+        assertEquals("hidden", invoker.invoke(new HiddenTarget(), null));
+
+        InvocationTargetException e =
+            assertThrows(InvocationTargetException.class,
+                () -> invoker(HiddenTarget.class, "fail").invoke(
+                    new HiddenTarget(), new Object[0]));
+
+        assertEquals("hidden", e.getTargetException().getMessage());
+    }
+
+    /**
+     * A static method is invoked by reflection.
+     */
+    @Test
+    public void testStatic() throws Exception {
+        MethodInvoker invoker = invoker(Target.class, "twice", int.class);
+
+        assertEquals(4, invoker.invoke(null, new Object[] {2}));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private static MethodInvoker invoker(Class<?> clazz, String name,
+        Class<?>... types) throws NoSuchMethodException {
+        Method method = clazz.getMethod(name, types);
+        MethodInvoker invoker = new MethodInvoker(method);
+
+        assertSame(method, invoker.getMethod());
+        return invoker;
+    }
+
+    /**
+     * Public target of the invocations.
+     */
+    public static class Target {
+        int touched;
+
+        public String concat(String s, int i) {
+            return s + i;
+        }
+
+        public String name() {
+            return "target";
+        }
+
+        public void touch() {
+            touched++;
+        }
+
+        public void fail(Throwable t) throws Throwable {
+            throw t;
+        }
+
+        public static int twice(int i) {
+            return 2 * i;
+        }
+    }
+
+    /**
+     * Subclass of the public target.
+     */
+    public static class SubTarget extends Target {
+        public String name() {
+            return "sub";
+        }
+    }
+
+    /**
+     * Target which is not accessible from other packages.
+     */
+    static class HiddenTarget {
+        public String name() {
+            return "hidden";
+        }
+
+        public void fail() {
+            throw new IllegalStateException("hidden");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.config.ActionConfig;
+import org.apache.struts.config.ActionConfigMatcher;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RequestMetrics} and {@link Metric}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestRequestMetrics {
+
+    @Test
+    public void testRecord() {
+        RequestMetrics metrics = new RequestMetrics("/test/action", 1);
+        Metric metric = metrics.getActionMetric("/admin", "/logon");
+
+        assertSame(metric, metrics.getActionMetric("/admin", "/logon"));
+        assertEquals("/admin/logon", metric.getName());
+        assertEquals(Metric.ACTION, metric.getType());
+
+        long start = metric.start();
+        assertEquals(1, metric.getInFlight());
+        metric.stop(start, true);
+        metric.record(3000000, false);
+
+        assertEquals(0, metric.getInFlight());
+        assertEquals(2, metric.getCount());
+        assertEquals(1, metric.getErrorCount());
+        assertTrue(metric.getMaxTimeMillis() >= 3);
+        assertEquals(metric.getMaxTimeMillis(),
+            metric.get99thPercentileMillis(), 0);
+
+        metric.reset();
+        assertEquals(0, metric.getCount());
+        assertEquals(0, metric.getMedianTimeMillis(), 0);
+    }
+
+    @Test
+    public void testPercentiles() {
+        Metric metric = new Metric(Metric.PHASE, "processPopulate");
+
+        for (int i = 0; i < 90; i++) {
+            metric.record(500, false);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            metric.record(10000000, false);
+        }
+
+        long[] histogram = metric.getHistogram();
+
+        assertEquals(90, histogram[0]);
+        assertEquals(0.001, metric.getMedianTimeMillis(), 0);
+        assertEquals(10, metric.get95thPercentileMillis(), 0);
+        assertEquals(10, metric.getMaxTimeMillis(), 0);
+        assertEquals(1.00045, metric.getMeanTimeMillis(), 0.000001);
+    }
+
+    @Test
+    public void testExporter() throws Exception {
+        final List<Metric> added = new ArrayList<>();
+        RequestMetrics metrics = new RequestMetrics("/test/action", 1);
+
+        metrics.getPhaseMetric("processPath");
+        metrics.addExporter(new MetricsExporter() {
+            public void start(RequestMetrics requestMetrics) {
+                added.addAll(requestMetrics.getMetrics());
+            }
+
+            public void metricAdded(Metric metric) {
+                added.add(metric);
+            }
+
+            public void stop() {
+                added.clear();
+            }
+        });
+
+        metrics.getCommandMetric("org.example.Command");
+        metrics.getCommandMetric("org.example.Command");
+
+        assertEquals(2, added.size());
+        assertEquals("processPath", added.get(0).getName());
+        assertEquals(Metric.COMMAND, added.get(1).getType());
+
+        metrics.stop();
+        assertEquals(0, added.size());
+    }
+
+    @Test
+    public void testSampling() {
+        RequestMetrics metrics = new RequestMetrics("/test/action", 1000000);
+        int sampled = 0;
+
+        for (int i = 0; i < 100; i++) {
+            if (metrics.startRequest() != PhaseTimer.NONE) {
+                sampled++;
+            }
+        }
+
+        assertTrue(sampled < 100);
+        assertTrue(new RequestMetrics("/test/action", 0).sample());
+    }
+
+    @Test
+    public void testPhaseTimer() {
+        RequestMetrics metrics = new RequestMetrics("/test/action", 1);
+        PhaseTimer timer = metrics.startRequest();
+
+        timer.phase("processPath");
+        timer.action("", "/logon");
+        timer.phase("processActionPerform");
+        assertEquals(1, metrics.getPhaseMetric("processActionPerform")
+            .getInFlight());
+        timer.stop(true);
+
+        assertEquals(1, metrics.getPhaseMetric("processPath").getCount());
+        assertEquals(0, metrics.getPhaseMetric("processPath").getErrorCount());
+        assertEquals(1, metrics.getPhaseMetric("processActionPerform")
+            .getErrorCount());
+        assertEquals(1, metrics.getActionMetric("", "/logon").getCount());
+        assertEquals(0, metrics.getActionMetric("", "/logon").getInFlight());
+
+        PhaseTimer.NONE.phase("processPath");
+        PhaseTimer.NONE.stop(false);
+        assertEquals(1, metrics.getPhaseMetric("processPath").getCount());
+    }
+
+    @Test
+    public void testWildcardAction() {
+        RequestMetrics metrics = new RequestMetrics("/test/action", 1);
+        ActionMapping mapping = new ActionMapping();
+
+        mapping.setPath("/edit*");
+        mapping.setParameter("{1}");
+
+        ActionConfigMatcher matcher =
+            new ActionConfigMatcher(new ActionConfig[] {mapping});
+        ActionConfig user = matcher.match("/editUser");
+        ActionConfig role = matcher.match("/editRole");
+        Metric metric = metrics.getActionMetric("/admin", user);
+
+        assertNotSame(user, role);
+        assertSame(metric, metrics.getActionMetric("/admin", role));
+        assertSame(metric, metrics.getActionMetric("/admin", mapping));
+        assertEquals("/admin/edit*", metric.getName());
+
+        PhaseTimer timer = metrics.startRequest();
+
+        timer.action("/admin", role);
+        timer.stop(false);
+
+        assertEquals(1, metric.getCount());
+        assertEquals(1, metrics.getMetrics().size());
+    }
+}
@@ -23,6 +23,9 @@ package org.apache.struts.mock;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -78,6 +81,11 @@ public class MockHttpServletRequest implements HttpServletRequest {
      */
     protected Locale locale = null;
 
+    /**
+     * <p> The request headers, keyed by lower case name. </p>
+     */
+    protected HashMap<String, String> headers = new HashMap<>();
+
     /**
      * <p> The set of arrays of parameter values, keyed by parameter name.
      * </p>
@@ -153,6 +161,10 @@ public class MockHttpServletRequest implements HttpServletRequest {
     }
 
     // --------------------------------------------------------- Public Methods
+    public void addHeader(String name, String value) {
+        headers.put(name.toLowerCase(Locale.ROOT), value);
+    }
+
     public void addParameter(String name, String value) {
         String[] values = parameters.get(name);
 
@@ -216,12 +228,23 @@ public class MockHttpServletRequest implements HttpServletRequest {
 
     @Override
     public long getDateHeader(String name) {
-        throw new UnsupportedOperationException();
+        String value = getHeader(name);
+
+        if (value == null) {
+            return -1;
+        }
+
+        try {
+            return ZonedDateTime.parse(value,
+                DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(value, e);
+        }
     }
 
     @Override
     public String getHeader(String name) {
-        return null;
+        return headers.get(name.toLowerCase(Locale.ROOT));
     }
 
     @Override
@@ -20,12 +20,20 @@
  */
 package org.apache.struts.mock;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 
 import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -48,7 +56,53 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class MockHttpServletResponse implements HttpServletResponse {
     // ----------------------------------------------------- Instance Variables
+
+    /**
+     * <p> The response headers, keyed by lower case name. </p>
+     */
+    protected LinkedHashMap<String, List<String>> headers =
+        new LinkedHashMap<>();
+
+    /**
+     * <p> The response status. </p>
+     */
+    protected int status = SC_OK;
+
+    /**
+     * <p> The content type of the response. </p>
+     */
+    protected String contentType = null;
+
+    /**
+     * <p> The content length of the response, or -1. </p>
+     */
+    protected long contentLength = -1;
+
+    /**
+     * <p> The content written to the response. </p>
+     */
+    protected ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    /**
+     * <p> Whether an error has been sent. </p>
+     */
+    protected boolean committed = false;
+
     // --------------------------------------------------------- Public Methods
+
+    /**
+     * <p> Return the content written to the response. </p>
+     */
+    public byte[] getContent() {
+        return content.toByteArray();
+    }
+
+    /**
+     * <p> Return the content length set for the response, or -1. </p>
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
     // -------------------------------------------- HttpServletResponse Methods
     @Override
     public void addCookie(Cookie cookie) {
@@ -57,7 +111,7 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public boolean containsHeader(String name) {
-        throw new UnsupportedOperationException();
+        return headers.containsKey(name.toLowerCase(Locale.ROOT));
     }
 
     @Override
@@ -84,12 +138,13 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void sendError(int sc, String msg) throws IOException {
-        throw new UnsupportedOperationException();
+        sendError(sc);
     }
 
     @Override
     public void sendError(int sc) throws IOException {
-        throw new UnsupportedOperationException();
+        status = sc;
+        committed = true;
     }
 
     @Override
@@ -99,37 +154,39 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void setDateHeader(String name, long date) {
-        throw new UnsupportedOperationException();
+        setHeader(name, formatDate(date));
     }
 
     @Override
     public void addDateHeader(String name, long date) {
-        throw new UnsupportedOperationException();
+        addHeader(name, formatDate(date));
     }
 
     @Override
     public void setHeader(String name, String value) {
-        throw new UnsupportedOperationException();
+        headers.remove(name.toLowerCase(Locale.ROOT));
+        addHeader(name, value);
     }
 
     @Override
     public void addHeader(String name, String value) {
-        throw new UnsupportedOperationException();
+        headers.computeIfAbsent(name.toLowerCase(Locale.ROOT),
+            k -> new ArrayList<>()).add(value);
     }
 
     @Override
     public void setIntHeader(String name, int value) {
-        throw new UnsupportedOperationException();
+        setHeader(name, String.valueOf(value));
     }
 
     @Override
     public void addIntHeader(String name, int value) {
-        throw new UnsupportedOperationException();
+        addHeader(name, String.valueOf(value));
     }
 
     @Override
     public void setStatus(int sc) {
-        throw new UnsupportedOperationException();
+        status = sc;
     }
 
     @Deprecated
@@ -139,22 +196,26 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public int getStatus() {
-        throw new UnsupportedOperationException();
+        return status;
     }
 
     @Override
     public String getHeader(String name) {
-        throw new UnsupportedOperationException();
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+
+        return (values == null) ? null : values.get(0);
     }
 
     @Override
     public Collection<String> getHeaders(String name) {
-        throw new UnsupportedOperationException();
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+
+        return (values == null) ? new ArrayList<>() : new ArrayList<>(values);
     }
 
     @Override
     public Collection<String> getHeaderNames() {
-        throw new UnsupportedOperationException();
+        return new ArrayList<>(headers.keySet());
     }
 
     // ------------------------------------------------ ServletResponse Methods
@@ -165,13 +226,32 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public String getContentType() {
-        throw new UnsupportedOperationException();
+        return contentType;
     }
 
     @Override
     public ServletOutputStream getOutputStream()
             throws IOException {
-        throw new UnsupportedOperationException();
+        return new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                content.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                content.write(b, off, len);
+            }
+        };
     }
 
     @Override
@@ -187,17 +267,17 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public void setContentLength(int len) {
-        throw new UnsupportedOperationException();
+        contentLength = len;
     }
 
     @Override
     public void setContentLengthLong(long len) {
-        throw new UnsupportedOperationException();
+        contentLength = len;
     }
 
     @Override
     public void setContentType(String type) {
-        throw new UnsupportedOperationException();
+        contentType = type;
     }
 
     @Override
@@ -222,7 +302,7 @@ public class MockHttpServletResponse implements HttpServletResponse {
 
     @Override
     public boolean isCommitted() {
-        throw new UnsupportedOperationException();
+        return committed;
     }
 
     @Override
@@ -239,4 +319,11 @@ public class MockHttpServletResponse implements HttpServletResponse {
     public Locale getLocale() {
         throw new UnsupportedOperationException();
     }
-}
\ No newline at end of file
+
+    // -------------------------------------------------------- Private Methods
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+            Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+}
@@ -25,6 +25,7 @@ import jakarta.servlet.http.HttpSession;
 
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>Mock <strong>HttpSession</strong> object for low-level unit tests of
@@ -45,6 +46,16 @@ import java.util.HashMap;
 public class MockHttpSession implements HttpSession {
     // ----------------------------------------------------- Instance Variables
 
+    /**
+     * <p> The number of sessions created, for the session identifiers. </p>
+     */
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    /**
+     * <p> The session identifier. </p>
+     */
+    protected String id = "session" + COUNT.incrementAndGet();
+
     /**
      * <p> The set of session attributes. </p>
      */
@@ -88,7 +99,7 @@ public class MockHttpSession implements HttpSession {
 
     @Override
     public String getId() {
-        throw new UnsupportedOperationException();
+        return id;
     }
 
     @Override
@@ -23,6 +23,7 @@ package org.apache.struts.upload;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -270,6 +271,137 @@ public class TestCommonsMultipartRequestHandler extends TestMockBase {
         mockForm.getMultipartRequestHandler().rollback();
     }
 
+    /**
+     * Test for an successful upload in streaming mode.
+     */
+    @Test
+    public void testStreamingUploadOfATextFileMultipartRequest() throws Exception {
+        final String content = ("-----1234\r\n" +
+                "Content-Disposition: form-data; name=\"files\"; filename=\"deleteme.txt\"\r\n" +
+                "Content-Type: text/html\r\n" +
+                "\r\n" +
+                "Unit test of CommonsMultipartRequestHandler" +
+                "\r\n" +
+                "-----1234\r\n" +
+                "Content-Disposition: form-data; name=\"normalFormField1\"\r\n" +
+                "\r\n" +
+                "it works" +
+                "\r\n" +
+                "-----1234--\r\n");
+
+        moduleConfig.getControllerConfig().setProperty(
+                CommonsMultipartRequestHandler.STREAMING_PROPERTY, "true");
+
+        final MockFormBean mockForm = processMultipart(content);
+
+        testAttributes(false, false, false, false);
+
+        final List<FormFile> files = mockForm.getFiles();
+        assertNotNull(files, "Files expected");
+        assertEquals(1, files.size(), "One file expected");
+        assertEquals("text/html", files.get(0).getContentType());
+        assertEquals("deleteme.txt", files.get(0).getFileName());
+        assertArrayEquals("Unit test of CommonsMultipartRequestHandler".getBytes(StandardCharsets.UTF_8),
+                files.get(0).getFileData());
+
+        final Map<String, String[]> texts = mockForm.getMultipartRequestHandler().getTextElements();
+        assertArrayEquals(new String[] {"it works"}, texts.get("normalFormField1"));
+
+        mockForm.getMultipartRequestHandler().rollback();
+    }
+
+    /**
+     * Test with maximum in-memory file size exceeded in streaming mode
+     * without a sink: the file is rejected.
+     */
+    @Test
+    public void testStreamingRejectBeyondMemFileSize() throws Exception {
+        final String content = ("-----1234\r\n" +
+                "Content-Disposition: form-data; name=\"files\"; filename=\"deleteme.txt\"\r\n" +
+                "Content-Type: text/html\r\n" +
+                "\r\n" +
+                "Unit test of CommonsMultipartRequestHandler" +
+                "\r\n" +
+                "-----1234--\r\n");
+
+        moduleConfig.getControllerConfig().setProperty(
+                CommonsMultipartRequestHandler.STREAMING_PROPERTY, "true");
+        moduleConfig.getControllerConfig().setMemFileSize("5");
+
+        final MockFormBean mockForm = processMultipart(content);
+
+        testAttributes(true, true, false, false);
+
+        assertNull(mockForm.getFiles(), "No files expected");
+
+        mockForm.getMultipartRequestHandler().rollback();
+    }
+
+    /**
+     * Test with maximum in-memory file size exceeded in streaming mode
+     * without a sink and with spilling enabled: the file is written to disk.
+     */
+    @Test
+    public void testStreamingFallbackBeyondMemFileSize() throws Exception {
+        final String content = ("-----1234\r\n" +
+                "Content-Disposition: form-data; name=\"files\"; filename=\"deleteme.txt\"\r\n" +
+                "Content-Type: text/html\r\n" +
+                "\r\n" +
+                "Unit test of CommonsMultipartRequestHandler" +
+                "\r\n" +
+                "-----1234--\r\n");
+
+        moduleConfig.getControllerConfig().setProperty(
+                CommonsMultipartRequestHandler.STREAMING_PROPERTY, "true");
+        moduleConfig.getControllerConfig().setProperty(
+                CommonsMultipartRequestHandler.UPLOAD_SPILL_PROPERTY, "true");
+        moduleConfig.getControllerConfig().setMemFileSize("5");
+
+        final MockFormBean mockForm = processMultipart(content);
+
+        testAttributes(false, false, false, false);
+
+        final List<FormFile> files = mockForm.getFiles();
+        assertNotNull(files, "Files expected");
+        assertEquals(1, files.size(), "One file expected");
+        assertInstanceOf(CommonsMultipartRequestHandler.CommonsFormFile.class, files.get(0));
+        assertEquals("text/html", files.get(0).getContentType());
+        assertEquals("deleteme.txt", files.get(0).getFileName());
+        assertEquals(43, files.get(0).getFileSize());
+        assertArrayEquals("Unit test of CommonsMultipartRequestHandler".getBytes(StandardCharsets.UTF_8),
+                files.get(0).getFileData());
+
+        mockForm.getMultipartRequestHandler().rollback();
+    }
+
+    /**
+     * Test with maximum file size exceeded in streaming mode.
+     */
+    @Test
+    public void testStreamingAcceptFileWithMaxFileSize() throws Exception {
+        final String content = ("-----1234\r\n" +
+                "Content-Disposition: form-data; name=\"files\"; filename=\"deleteme.txt\"\r\n" +
+                "Content-Type: text/html\r\n" +
+                "\r\n" +
+                "Unit test of CommonsMultipartRequestHandler" +
+                "\r\n" +
+                "-----1234--\r\n");
+
+        moduleConfig.getControllerConfig().setProperty(
+                CommonsMultipartRequestHandler.STREAMING_PROPERTY, "true");
+        moduleConfig.getControllerConfig().setMemFileSize("5");
+        moduleConfig.getControllerConfig().setMaxFileSize("20");
+
+        final MockFormBean mockForm = processMultipart(content);
+
+        testAttributes(true, true, false, false);
+
+        final List<FormFile> files = mockForm.getFiles();
+        assertNull(files, "No files expected");
+
+        mockForm.getMultipartRequestHandler().rollback();
+    }
+
     private MockFormBean processMultipart(String content) {
         final MockFormBean  mockForm = new MockFormBean();
 
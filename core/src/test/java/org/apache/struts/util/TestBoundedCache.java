@@ -0,0 +1,136 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BoundedCache}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestBoundedCache {
+
+    @Test
+    public void testPutIfAbsentKeepsFirst() {
+        BoundedCache<String, String> cache = new BoundedCache<>();
+
+        assertNull(cache.putIfAbsent("a", "first"));
+        assertEquals("first", cache.putIfAbsent("a", "second"));
+        assertEquals("first", cache.get("a"));
+
+        cache.put("a", "third");
+        assertEquals("third", cache.get("a"));
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        BoundedCache<String, String> cache = new BoundedCache<>();
+
+        assertEquals("A", cache.computeIfAbsent("a", String::toUpperCase));
+        assertSame(cache.get("a"), cache.computeIfAbsent("a", k -> "other"));
+        assertNull(cache.computeIfAbsent("b", k -> null));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBoundedSize() {
+        BoundedCache<String, String> cache = new BoundedCache<>(8);
+
+        for (int i = 0; i < 100; i++) {
+            cache.putIfAbsent("key" + i, "value" + i);
+            assertTrue(cache.size() <= 8, "Size " + cache.size());
+        }
+
+        assertNotNull(cache.get("key99"), "Latest entry evicted");
+    }
+
+    /**
+     * Overflowing the cache only evicts the least recently used quarter of
+     * the entries, the entries in use stay cached.
+     */
+    @Test
+    public void testOverflowKeepsRecentlyUsed() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<>(8);
+
+        for (int i = 0; i < 8; i++) {
+            cache.putIfAbsent("key" + i, "value" + i);
+            Thread.sleep(2);
+        }
+
+        // key0 and key1 become the most recently used entries
+        assertNotNull(cache.get("key0"));
+        assertNotNull(cache.get("key1"));
+        Thread.sleep(2);
+
+        cache.putIfAbsent("key8", "value8");
+        assertEquals(6, cache.size());
+        assertNotNull(cache.get("key0"), "Recently used entry evicted");
+        assertNotNull(cache.get("key1"), "Recently used entry evicted");
+        assertNotNull(cache.get("key8"), "New entry evicted");
+        assertNull(cache.get("key2"), "LRU entry kept");
+        assertNull(cache.get("key4"), "LRU entry kept");
+        assertNotNull(cache.get("key5"), "Recent entry evicted");
+
+        // A hot working set larger than the cache keeps being served
+        for (int round = 0; round < 3; round++) {
+            for (int i = 9; i < 20; i++) {
+                cache.putIfAbsent("key" + i, "value" + i);
+            }
+            assertNotNull(cache.get("key19"));
+            assertTrue(cache.size() <= 8, "Size " + cache.size());
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0);
+
+        cache.putIfAbsent("a", "a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+
+        cache.setMaxSize(10);
+        cache.putIfAbsent("a", "a");
+        assertEquals(1, cache.size());
+        cache.setMaxSize(0);
+        assertEquals(0, cache.size(), "Cache not cleared when disabled");
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        BoundedCache<String, String> cache = new BoundedCache<>();
+
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
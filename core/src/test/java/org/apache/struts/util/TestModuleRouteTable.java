@@ -0,0 +1,167 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.struts.Globals;
+import org.apache.struts.action.RequestProcessor;
+import org.apache.struts.config.MessageResourcesConfig;
+import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ModuleRouteTable}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestModuleRouteTable {
+
+    private MockServletContext context;
+
+    private ModuleRouteTable table;
+
+    private MessageResources resources;
+
+    @BeforeEach
+    public void setUp() {
+        context = new MockServletContext();
+        addModule("");
+        addModule("/a");
+        addModule("/a/b");
+        addModule("/ab");
+
+        ModuleConfig config = (ModuleConfig) context.getAttribute(
+            Globals.MODULE_KEY + "/a");
+        MessageResourcesConfig mrConfig = new MessageResourcesConfig();
+        mrConfig.setKey("bundle");
+        config.addMessageResourcesConfig(mrConfig);
+        resources = new PropertyMessageResourcesFactory().createResources(
+            "org.apache.struts.util.Foo");
+        context.setAttribute("bundle/a", resources);
+        context.setAttribute(Globals.MESSAGES_KEY + "/a", resources);
+
+        // "/missing" has no module config and is skipped
+        table = new ModuleRouteTable(context,
+            new String[] {"/a", "/a/b", "/ab", "/missing"});
+    }
+
+    private void addModule(String prefix) {
+        context.setAttribute(Globals.MODULE_KEY + prefix,
+            new ModuleConfigImpl(prefix));
+    }
+
+    @Test
+    public void testNoDefaultModule() {
+        MockServletContext empty = new MockServletContext();
+        assertThrows(IllegalArgumentException.class,
+            () -> new ModuleRouteTable(empty, new String[0]));
+    }
+
+    @Test
+    public void testGetRoute() {
+        assertEquals("", table.getRoute("").getPrefix());
+        assertEquals("", table.getRoute("/").getPrefix());
+        assertEquals("", table.getRoute(null).getPrefix());
+        assertEquals("/a/b", table.getRoute("/a/b").getPrefix());
+        assertNull(table.getRoute("/missing"));
+        assertNull(table.getRoute("/b"));
+    }
+
+    @Test
+    public void testDefaultModule() {
+        assertEquals("", table.findRoute("/index.do").getPrefix());
+        assertEquals("", table.findRoute("/index").getPrefix());
+        assertEquals("", table.findRoute("").getPrefix());
+        assertEquals("", table.findRoute("/b/index.do").getPrefix());
+        assertEquals("", table.findRoute("/missing/index.do").getPrefix());
+    }
+
+    @Test
+    public void testNestedPrefixes() {
+        assertEquals("/a", table.findRoute("/a/index.do").getPrefix());
+        assertEquals("/a/b", table.findRoute("/a/b/index.do").getPrefix());
+        assertEquals("/a/b", table.findRoute("/a/b/c/index.do").getPrefix());
+        assertEquals("/a", table.findRoute("/a/c/index.do").getPrefix());
+        assertEquals("/ab", table.findRoute("/ab/index.do").getPrefix());
+    }
+
+    @Test
+    public void testPartialSegment() {
+        assertEquals("/a", table.findRoute("/a/bc/index.do").getPrefix());
+        assertEquals("", table.findRoute("/abc/index.do").getPrefix());
+        assertEquals("/a", table.findRoute("/a/b").getPrefix());
+        assertEquals("", table.findRoute("/a").getPrefix());
+    }
+
+    @Test
+    public void testFindRouteFromRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest(
+            "/context", "/a/b/index.do", null, null);
+        assertEquals("/a/b", table.findRoute(request).getPrefix());
+
+        request.setAttribute(RequestProcessor.INCLUDE_SERVLET_PATH,
+            "/ab/included.do");
+        assertEquals("/ab", table.findRoute(request).getPrefix());
+    }
+
+    @Test
+    public void testSelect() {
+        ModuleRouteTable.Route route = table.findRoute("/a/index.do");
+        assertSame(resources, route.getMessageResources());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        route.select(request);
+        assertSame(route.getModuleConfig(),
+            request.getAttribute(Globals.MODULE_KEY));
+        assertSame(resources, request.getAttribute("bundle"));
+
+        table.findRoute("/index.do").select(request);
+        assertSame(table.getRoute("").getModuleConfig(),
+            request.getAttribute(Globals.MODULE_KEY));
+        assertSame(resources, request.getAttribute("bundle"),
+            "Default module has no bundle to replace it");
+    }
+
+    @Test
+    public void testRequestProcessor() {
+        ModuleRouteTable.Route route = table.getRoute("/ab");
+        assertNull(route.getRequestProcessor());
+
+        RequestProcessor processor = new RequestProcessor();
+        route.setRequestProcessor(processor);
+        assertSame(processor, table.findRoute("/ab/x.do").getRequestProcessor());
+    }
+
+    @Test
+    public void testGetInstance() {
+        assertNull(ModuleRouteTable.getInstance(context));
+        context.setAttribute(Globals.MODULE_ROUTES_KEY, table);
+        assertSame(table, ModuleRouteTable.getInstance(context));
+    }
+}
@@ -22,8 +22,15 @@ package org.apache.struts.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.struts.config.MessageResourcesConfig;
 import org.junit.jupiter.api.AfterEach;
@@ -93,6 +100,23 @@ public class TestPropertyMessageResources {
         commonTests(resources);
     }
 
+    /**
+     * Test that in default mode a message found for the default Locale is
+     * found in the default Locale step of other Locales afterwards
+     */
+    @Test
+    public void testDefaultModeDefaultLocaleMessages() {
+
+        Locale.setDefault(Locale.US);
+
+        MessageResources resources = createMessageResources(FOO_RESOURCES, true, null);
+
+        assertNull(                resources.getMessage(Locale.GERMAN, "key.en"), "key.en German before US");
+        assertEquals("en only",    resources.getMessage(Locale.US,     "key.en"), "key.en US");
+        assertEquals("en only",    resources.getMessage(Locale.GERMAN, "key.en"), "key.en German after US");
+        assertEquals("LANG de",    resources.getMessage(Locale.GERMAN, "key.lang"), "key.lang German");
+    }
+
     /**
      * Test JSTL compatible PropertyMessageResources behaviour
      */
@@ -164,6 +188,41 @@ public class TestPropertyMessageResources {
         commonTests(resources);
     }
 
+    /**
+     * Test concurrent lookups against the same message resources
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception {
+
+        Locale.setDefault(Locale.US);
+
+        MessageResources resources = createMessageResources(FOO_RESOURCES, true, null);
+        Locale[] locales = { Locale.ENGLISH, Locale.US, Locale.GERMAN, Locale.GERMANY };
+        String[] expected = { "ALL en", "ALL en_US", "ALL de", "ALL de_DE" };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int t = 0; t < 32; t++) {
+                final int offset = t;
+                tasks.add(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int idx = (offset + i) % locales.length;
+                        if (!expected[idx].equals(resources.getMessage(locales[idx], "key.all"))) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                    return Boolean.TRUE;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertEquals(Boolean.TRUE, result.get(), "Concurrent lookup");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Tests with common expected results
      */
@@ -196,6 +255,56 @@ public class TestPropertyMessageResources {
         assertNull(                  resources.getMessage(Locale.US,      "key.de_DE"),   "Missing de_DE only");
     }
 
+    /**
+     * The size of the MessageFormat cache may be configured.
+     */
+    @Test
+    public void testFormatCacheSizeProperty() {
+        MessageResources resources = createFormatResources("7");
+        assertEquals(7, resources.getFormatCacheSize());
+        assertEquals("en_US only", resources.getMessage(Locale.US,
+            "key.en_US", new Object[0]));
+
+        resources = createFormatResources("lots");
+        assertEquals(BoundedCache.DEFAULT_MAX_SIZE,
+            resources.getFormatCacheSize());
+    }
+
+    /**
+     * Cached templates are formatted with a copy, also when the cache is
+     * disabled, and the deprecated formats map is left alone.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testFormatCache() {
+        MessageResources resources = createFormatResources(null);
+        Object[] args = new Object[] {"a"};
+
+        assertEquals("en_US only", resources.getMessage(Locale.US,
+            "key.en_US", args));
+        assertEquals("en_US only", resources.getMessage(Locale.US,
+            "key.en_US", args));
+        assertTrue(resources.formats.isEmpty());
+
+        resources.setFormatCacheSize(0);
+        assertEquals("en_US only", resources.getMessage(Locale.US,
+            "key.en_US", args));
+    }
+
+    /**
+     * Create the PropertyMessageResources with a format cache size.
+     */
+    private MessageResources createFormatResources(String formatCacheSize) {
+        MessageResourcesConfig config = new MessageResourcesConfig();
+        if (formatCacheSize != null) {
+            config.setProperty("formatCacheSize", formatCacheSize);
+        }
+        PropertyMessageResourcesFactory factory =
+            new PropertyMessageResourcesFactory();
+        factory.setConfig(config);
+        return factory.createResources(FOO_RESOURCES);
+    }
+
     /**
      * Create the PropertyMessageResources.
      */
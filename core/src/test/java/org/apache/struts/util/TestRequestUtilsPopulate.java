@@ -201,6 +201,28 @@ public class TestRequestUtilsPopulate extends TestMockBase {
 
     }
 
+    /**
+     * Ensure that converted values are set and that class access is still
+     * ignored once the populator of the form class has been built.
+     */
+    @Test
+    public void testPopulateConvertsAndRepeats() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockFormBean mockForm = new MockFormBean();
+
+            HashSet<String> ignoreSet = runRequestParameter(mockForm,
+                "stringProperty", "class.xxx.case5");
+            request.addParameter("booleanProperty", "true");
+            RequestUtils.populate(mockForm, request);
+
+            assertEquals(1, ignoreSet.size(), "ignore num no match");
+            assertEquals(STRING_VALUE, mockForm.getStringProperty(), "ActionForm property not equal");
+            assertTrue(mockForm.getBooleanProperty(), "boolean property not converted");
+
+            setUp();
+        }
+    }
+
     private HashSet<String> runRequestParameter(MockFormBean mockForm, String... parameters) throws Exception {
 
        // Set up the mock HttpServletRequest
@@ -21,6 +21,10 @@
 package org.apache.struts.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.io.StringWriter;
 
 import org.apache.struts.mock.TestMockBase;
 import org.junit.jupiter.api.AfterEach;
@@ -63,4 +67,44 @@ public class TestResponseUtils extends TestMockBase {
         assertEquals("&amp;456&Uuml;4", ResponseUtils.filter("&amp;456&Uuml;4"));
         assertEquals("&amp;45&amp;6&Uuml;4&#39;", ResponseUtils.filter("&amp;45&6&Uuml;4'"));
    }
+
+    @Test
+    public void testFilterUnchanged() {
+        String value = "123&amp;456 &#x20;&#64;";
+
+        assertSame(value, ResponseUtils.filter(value));
+    }
+
+    @Test
+    public void testFilterAppend() throws IOException {
+        String[] values = {
+            "", "123", "123&456;", "123&#12a;456", "123&#x12ah;456",
+            "<a href=\"x\">'&'</a>", "&amp;45&6&Uuml;4'", "&", "&#", "&#x;"
+        };
+
+        for (String value : values) {
+            String expected = ResponseUtils.filter(value);
+
+            StringWriter writer = new StringWriter();
+            ResponseUtils.filter(value, writer);
+            assertEquals(expected, writer.toString(), value);
+
+            StringBuilder sb = new StringBuilder("x");
+            assertSame(sb, ResponseUtils.filter(value, sb));
+            assertEquals("x" + expected, sb.toString(), value);
+
+            StringBuffer buffer = new StringBuffer();
+            ResponseUtils.filter(value, (Appendable) buffer);
+            assertEquals(expected, buffer.toString(), value);
+        }
+    }
+
+    @Test
+    public void testFilterAppendNull() throws IOException {
+        StringWriter writer = new StringWriter();
+        ResponseUtils.filter(null, writer);
+        assertEquals("", writer.toString());
+
+        assertEquals("", ResponseUtils.filter(null, new StringBuilder()).toString());
+    }
 }
@@ -0,0 +1,388 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.apache.struts.Globals;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpSession;
+import org.apache.struts.util.TokenProcessor.TokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TokenProcessor}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestTokenProcessor {
+
+    /**
+     * The number of concurrent requests.
+     */
+    private static final int THREADS = 8;
+
+    // ----------------------------------------------------- Instance Variables
+
+    /**
+     * The processor under test.
+     */
+    private TokenProcessor processor;
+
+    /**
+     * The session shared by the requests.
+     */
+    private MockHttpSession session;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        processor = new TokenProcessor();
+        session = new SynchronizedSession();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A single token is valid until it is consumed.
+     */
+    @Test
+    public void testSingleToken() {
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String token = savedToken();
+
+        assertNotNull(token, "Token saved");
+        assertEquals(64, token.length(), "Token length");
+        assertTrue(processor.isTokenValid(request(token)), "Valid token");
+        assertTrue(processor.isTokenValid(request(token)), "Not consumed");
+        assertFalse(processor.isTokenValid(request("other")), "Other token");
+        assertFalse(processor.isTokenValid(request(null)), "No token");
+
+        assertTrue(processor.isTokenValid(request(token), true), "Consumed");
+        assertFalse(processor.isTokenValid(request(token), true), "Reused");
+        assertNull(savedToken(), "Saved token removed");
+    }
+
+    /**
+     * A single token is reset even if the submitted token does not match.
+     */
+    @Test
+    public void testSingleTokenResetOnMismatch() {
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String token = savedToken();
+
+        assertFalse(processor.isTokenValid(request("other"), true));
+        assertFalse(processor.isTokenValid(request(token), true),
+            "Token reset by a mismatch");
+        assertNull(savedToken(), "Saved token removed");
+    }
+
+    /**
+     * Saving a token invalidates the previous one by default.
+     */
+    @Test
+    public void testNewTokenInvalidatesPrevious() {
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String first = savedToken();
+
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String second = savedToken();
+
+        assertNotEquals(first, second);
+        assertFalse(processor.isTokenValid(request(first)), "First token");
+        assertTrue(processor.isTokenValid(request(second)), "Second token");
+    }
+
+    /**
+     * Several tokens are outstanding up to the maximum; each is valid once.
+     */
+    @Test
+    public void testMultipleTokens() {
+        processor.setMaxTokens(3);
+
+        List<String> tokens = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            processor.saveToken(new MockHttpServletRequest(session));
+            tokens.add(savedToken());
+        }
+
+        assertFalse(processor.isTokenValid(request(tokens.get(0)), true),
+            "Oldest token evicted");
+        assertFalse(processor.isTokenValid(request("other"), true),
+            "Mismatch with several tokens");
+
+        assertTrue(processor.isTokenValid(request(tokens.get(1)), true));
+        assertFalse(processor.isTokenValid(request(tokens.get(1)), true),
+            "Reused");
+        assertEquals(tokens.get(3), savedToken(), "Latest token still saved");
+
+        assertTrue(processor.isTokenValid(request(tokens.get(3)), true));
+        assertNull(savedToken(), "Latest token consumed");
+        assertFalse(processor.isTokenValid(request("other"), true),
+            "Mismatch with one of several tokens left");
+
+        assertTrue(processor.isTokenValid(request(tokens.get(2)), true),
+            "Older token still valid after the latest was consumed");
+    }
+
+    /**
+     * Resetting invalidates all outstanding tokens.
+     */
+    @Test
+    public void testResetToken() {
+        processor.setMaxTokens(2);
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String first = savedToken();
+
+        processor.saveToken(new MockHttpServletRequest(session));
+        processor.resetToken(new MockHttpServletRequest(session));
+
+        assertNull(savedToken());
+        assertFalse(processor.isTokenValid(request(first)));
+    }
+
+    /**
+     * Removing the saved token by other means invalidates all tokens.
+     */
+    @Test
+    public void testSavedTokenRemoved() {
+        processor.setMaxTokens(2);
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String first = savedToken();
+
+        processor.saveToken(new MockHttpServletRequest(session));
+        session.removeAttribute(Globals.TRANSACTION_TOKEN_KEY);
+
+        assertFalse(processor.isTokenValid(request(first)));
+
+        processor.saveToken(new MockHttpServletRequest(session));
+        assertFalse(processor.isTokenValid(request(first)), "Still invalid");
+        assertTrue(processor.isTokenValid(request(savedToken())));
+    }
+
+    /**
+     * A token saved by other means is honoured.
+     */
+    @Test
+    public void testForeignToken() {
+        session.setAttribute(Globals.TRANSACTION_TOKEN_KEY, "foreign");
+
+        assertTrue(processor.isTokenValid(request("foreign")));
+        assertTrue(processor.isTokenValid(request("foreign"), true));
+        assertNull(savedToken());
+        assertFalse(processor.isTokenValid(request("foreign")));
+    }
+
+    /**
+     * Without a session no token is valid.
+     */
+    @Test
+    public void testNoSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        request.addParameter(Globals.TOKEN_KEY, "token");
+        assertFalse(processor.isTokenValid(request, true));
+        processor.resetToken(request);
+    }
+
+    /**
+     * The maximum number of tokens must be positive.
+     */
+    @Test
+    public void testMaxTokens() {
+        assertEquals(1, processor.getMaxTokens());
+        assertThrows(IllegalArgumentException.class,
+            () -> processor.setMaxTokens(0));
+        processor.setMaxTokens(5);
+        assertEquals(5, processor.getMaxTokens());
+    }
+
+    /**
+     * Checking whether a token is issued does not change the store.
+     */
+    @Test
+    public void testIsIssued() {
+        TokenStore store = new TokenStore();
+
+        assertTrue(store.isIssued(null), "Empty store");
+        store.add("a", 2);
+        assertTrue(store.isIssued("a"));
+        assertFalse(store.isIssued("b"));
+        assertFalse(store.isIssued(null), "Outstanding token missing");
+        assertTrue(store.contains("a"), "Not cleared by isIssued");
+        assertTrue(store.consume("a"));
+        assertTrue(store.isIssued(null), "Consumed token missing");
+    }
+
+    /**
+     * Concurrent requests of a session save their tokens in one store, so
+     * that each token remains valid.
+     */
+    @Test
+    public void testConcurrentSave() throws Exception {
+        List<String> generated =
+            Collections.synchronizedList(new ArrayList<>());
+
+        processor = new TokenProcessor() {
+            public String generateToken(HttpServletRequest request) {
+                String token = super.generateToken(request);
+
+                generated.add(token);
+
+                return token;
+            }
+        };
+        processor.setMaxTokens(THREADS);
+
+        runConcurrently(() -> {
+            processor.saveToken(new MockHttpServletRequest(session));
+            return null;
+        });
+
+        assertEquals(THREADS, generated.size());
+
+        TokenStore store =
+            (TokenStore) session.getAttribute(TokenProcessor.TOKEN_STORE_KEY);
+
+        for (String token : generated) {
+            assertTrue(store.contains(token), "Token lost: " + token);
+        }
+
+        processor.saveToken(new MockHttpServletRequest(session));
+        assertSame(store, session.getAttribute(TokenProcessor.TOKEN_STORE_KEY),
+            "Store replaced");
+    }
+
+    /**
+     * Of several concurrent requests submitting the same token, only one is
+     * valid.
+     */
+    @Test
+    public void testConcurrentConsume() throws Exception {
+        processor.setMaxTokens(2);
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        String token = savedToken();
+
+        processor.saveToken(new MockHttpServletRequest(session));
+
+        List<String> results = runConcurrently(() ->
+            String.valueOf(processor.isTokenValid(request(token), true)));
+        int valid = 0;
+
+        for (String result : results) {
+            if (Boolean.parseBoolean(result)) {
+                valid++;
+            }
+        }
+
+        assertEquals(1, valid, "Token accepted once");
+        assertNotNull(savedToken(), "Other token still saved");
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private String savedToken() {
+        return (String) session.getAttribute(Globals.TRANSACTION_TOKEN_KEY);
+    }
+
+    private MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest(session);
+
+        if (token != null) {
+            request.addParameter(Globals.TOKEN_KEY, token);
+        }
+
+        return request;
+    }
+
+    private List<String> runConcurrently(Callable<String> task)
+        throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+
+            start.countDown();
+
+            List<String> results = new ArrayList<>();
+
+            for (Future<String> future : futures) {
+                results.add(future.get());
+            }
+
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A session whose attributes may be accessed concurrently.
+     */
+    private static class SynchronizedSession extends MockHttpSession {
+        public synchronized Object getAttribute(String name) {
+            return super.getAttribute(name);
+        }
+
+        public synchronized void setAttribute(String name, Object value) {
+            super.setAttribute(name, value);
+        }
+
+        public synchronized void removeAttribute(String name) {
+            super.removeAttribute(name);
+        }
+    }
+}
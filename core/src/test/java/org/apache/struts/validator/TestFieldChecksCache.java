@@ -0,0 +1,272 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.DateFormat;
+import java.text.NumberFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Validator;
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.commons.validator.Var;
+import org.apache.commons.validator.routines.UrlValidator;
+import org.apache.struts.Globals;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.util.MessageResources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FieldChecksCache}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestFieldChecksCache {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private CountingResources messages;
+
+    private MockHttpServletRequest request;
+
+    private Validator validator;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        FieldChecksCache.clear();
+
+        messages = new CountingResources();
+        messages.values.put("en:mask", "^[a-z]+$");
+        messages.values.put("de:mask", "^[a-z0-9]+$");
+
+        request = new MockHttpServletRequest();
+        request.setLocale(Locale.ENGLISH);
+        request.setAttribute(Globals.MESSAGES_KEY, messages);
+
+        validator = new Validator(new ValidatorResources());
+        validator.setParameter("jakarta.servlet.ServletContext",
+            new MockServletContext());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        FieldChecksCache.clear();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A resource-backed value is looked up once per locale.
+     */
+    @Test
+    public void testResourceValueCached() {
+        Field field = field("mask", "mask");
+
+        assertEquals("^[a-z]+$", value(field, "mask", true));
+        assertEquals("^[a-z]+$", value(field, "mask", true));
+        assertEquals(1, messages.lookups, "Lookups");
+
+        request.setLocale(Locale.GERMAN);
+        assertEquals("^[a-z0-9]+$", value(field, "mask", true));
+        assertEquals(2, messages.lookups, "Lookups per locale");
+    }
+
+    /**
+     * A missing required resource is reported on each call, even after the
+     * same variable was looked up as optional.
+     */
+    @Test
+    public void testMissingRequiredResource() {
+        Field field = field("mask", "missing");
+
+        assertNull(value(field, "mask", false));
+        assertNull(value(field, "mask", false));
+        assertThrows(IllegalArgumentException.class,
+            () -> value(field, "mask", true));
+        assertThrows(IllegalArgumentException.class,
+            () -> value(field, "mask", true));
+    }
+
+    /**
+     * A resource added later is found once it exists.
+     */
+    @Test
+    public void testMissingResourceNotCached() {
+        Field field = field("mask", "later");
+
+        assertNull(value(field, "mask", false));
+        messages.values.put("en:later", "value");
+        assertEquals("value", value(field, "mask", false));
+    }
+
+    /**
+     * Plain variables and missing variables are resolved as before.
+     */
+    @Test
+    public void testPlainVariable() {
+        Field field = new Field();
+        field.setProperty("name");
+        field.addVar("minlength", "3", null);
+
+        assertEquals("3", value(field, "minlength", true));
+        assertNull(value(field, "maxlength", false));
+        assertThrows(IllegalArgumentException.class,
+            () -> value(field, "maxlength", true));
+        assertEquals(0, messages.lookups, "Lookups");
+    }
+
+    /**
+     * Resource values are cached per <code>MessageResources</code>, so the
+     * modules of an application do not see each other's values.
+     */
+    @Test
+    public void testResourceValuePerResources() {
+        Field field = field("mask", "mask");
+
+        assertEquals("^[a-z]+$", value(field, "mask", true));
+
+        CountingResources other = new CountingResources();
+        other.values.put("en:mask", "^[0-9]+$");
+        request.setAttribute(Globals.MESSAGES_KEY, other);
+
+        assertEquals("^[0-9]+$", value(field, "mask", true));
+        assertEquals(1, other.lookups, "Lookups");
+    }
+
+    /**
+     * A full cache keeps its most recent entries.
+     */
+    @Test
+    public void testPatternOverflow() {
+        Pattern last = null;
+
+        for (int i = 0; i < FieldChecksCache.MAX_SIZE; i++) {
+            last = FieldChecksCache.getPattern("^p" + i + "$");
+        }
+
+        FieldChecksCache.getPattern("^overflow$");
+
+        assertSame(last, FieldChecksCache.getPattern("^p"
+            + (FieldChecksCache.MAX_SIZE - 1) + "$"));
+    }
+
+    /**
+     * Compiled patterns are shared.
+     */
+    @Test
+    public void testPattern() {
+        assertSame(FieldChecksCache.getPattern("^a+$"),
+            FieldChecksCache.getPattern("^a+$"));
+        assertTrue(FieldChecksCache.getPattern("^a+$").matcher("aa").matches());
+    }
+
+    /**
+     * Formats are handed out as private copies.
+     */
+    @Test
+    public void testFormats() {
+        DateFormat date = FieldChecksCache.getDateFormat("yyyy-MM-dd");
+
+        assertNotSame(date, FieldChecksCache.getDateFormat("yyyy-MM-dd"));
+        assertEquals(date, FieldChecksCache.getDateFormat("yyyy-MM-dd"));
+        assertFalse(date.isLenient());
+        assertFalse(FieldChecksCache.getDateFormat(DateFormat.SHORT,
+            Locale.US).isLenient());
+
+        NumberFormat integer =
+            FieldChecksCache.getNumberFormat(Locale.US, true);
+
+        assertTrue(integer.isParseIntegerOnly());
+        assertFalse(FieldChecksCache.getNumberFormat(Locale.US, false)
+            .isParseIntegerOnly());
+        assertNotSame(integer, FieldChecksCache.getNumberFormat(Locale.US,
+            true));
+    }
+
+    /**
+     * URL validators are shared per set of options and schemes.
+     */
+    @Test
+    public void testUrlValidator() {
+        String[] schemes = {"http", "https"};
+        UrlValidator validator = FieldChecksCache.getUrlValidator(schemes, 0);
+
+        assertSame(validator, FieldChecksCache.getUrlValidator(
+            new String[] {"http", "https"}, 0));
+        assertNotSame(validator, FieldChecksCache.getUrlValidator(schemes,
+            UrlValidator.ALLOW_2_SLASHES));
+        assertNotSame(validator, FieldChecksCache.getUrlValidator(null, 0));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private Field field(String name, String key) {
+        Field field = new Field();
+        Var var = new Var(name, key, null);
+
+        var.setResource(true);
+        field.setProperty("name");
+        field.addVar(var);
+
+        return field;
+    }
+
+    private String value(Field field, String name, boolean required) {
+        return FieldChecksCache.getVarValue(name, field, validator, request,
+            required);
+    }
+
+    /**
+     * Message resources counting their lookups.
+     */
+    private static class CountingResources extends MessageResources {
+        private static final long serialVersionUID = 1L;
+
+        final Map<String, String> values = new HashMap<>();
+
+        int lookups;
+
+        CountingResources() {
+            super(null, null, true);
+        }
+
+        public String getMessage(Locale locale, String key) {
+            lookups++;
+            return values.get(locale.getLanguage() + ":" + key);
+        }
+    }
+}
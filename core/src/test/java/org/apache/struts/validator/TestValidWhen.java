@@ -20,7 +20,11 @@
  */
 package org.apache.struts.validator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -28,6 +32,7 @@ import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.apache.commons.validator.util.ValidatorUtils;
 import org.apache.struts.validator.validwhen.ValidWhenEvaluator;
+import org.apache.struts.validator.validwhen.ValidWhenExpression;
 import org.apache.struts.validator.validwhen.ValidWhenLexer;
 import org.apache.struts.validator.validwhen.ValidWhenParser;
 import org.apache.struts.validator.validwhen.ValidWhenParser.ExpressionContext;
@@ -283,6 +288,23 @@ public class TestValidWhen {
         doParse("(stringArray[1] == 'one')", testBean, 1, "stringArray[1]", true);
     }
 
+    /**
+     * Test the cache of compiled expressions.
+     */
+    @Test
+    public void testExpressionCache() {
+        String test = "(intValue1 == 123)";
+        ValidWhenExpression expression = ValidWhenExpression.getInstance(test);
+
+        assertSame(expression, ValidWhenExpression.getInstance(test));
+
+        ValidWhenExpression.clearCache();
+        assertNotSame(expression, ValidWhenExpression.getInstance(test));
+
+        assertThrows(RuntimeException.class,
+            () -> ValidWhenExpression.getInstance("(intValue1 == "));
+    }
+
     /**
      * Parse the expression and check that the expected result (either true or
      * false) occurs - fail if an exception is thrown opr the wrong result
@@ -367,7 +389,12 @@ public class TestValidWhen {
 
         ExpressionContext expressionContext = parser.expression();
         ValidWhenResult<?> result = validWhenEvaluator.visitExpression(expressionContext);
+        boolean valid = result == null ? false : result.toBoolean();
+
+        // The compiled expression must agree with the evaluator
+        assertEquals(valid, ValidWhenExpression.getInstance(test)
+            .evaluate(bean, value, index), test + " compiled");
 
-        return result == null ? false : result.toBoolean();
+        return valid;
     }
 }
\ No newline at end of file
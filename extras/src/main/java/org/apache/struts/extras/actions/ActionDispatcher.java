@@ -139,9 +139,10 @@ public class ActionDispatcher implements Dispatcher {
 
     /**
      * The set of Method objects we have introspected for this class, keyed by
-     * method name.  This collection is populated as different methods are
-     * called, so that introspection needs to occur only once per method
-     * name.
+     * method name.  This collection is populated with all the methods of the
+     * dispatch table when the table is built, so that introspection needs to
+     * occur only once per class.  Methods added by subclasses are used for
+     * names which are not in the dispatch table.
      */
     protected HashMap<String, Method> methods = new HashMap<>();
 
@@ -155,6 +156,12 @@ public class ActionDispatcher implements Dispatcher {
             HttpServletResponse.class
         };
 
+    /**
+     * The dispatch table of this class, built from {@link #clazz} and
+     * {@link #types}.
+     */
+    private transient volatile DispatchTable table;
+
     // ----------------------------------------------------- Constructors
 
     /**
@@ -177,6 +184,7 @@ public class ActionDispatcher implements Dispatcher {
         this.flavor = flavor;
 
         clazz = actionInstance.getClass();
+        getDispatchTable();
     }
 
     // --------------------------------------------------------- Public Methods
@@ -365,7 +373,7 @@ public class ActionDispatcher implements Dispatcher {
         try {
             Object[] args = { mapping, form, request, response };
 
-            forward = (ActionForward) method.invoke(actionInstance, args);
+            forward = (ActionForward) getDispatchTable().invoke(method, actionInstance, args);
         } catch (ClassCastException e) {
             log.atError()
                 .setMessage(() -> messages.getMessage("dispatch.return", mapping.getPath(), name))
@@ -397,9 +405,9 @@ public class ActionDispatcher implements Dispatcher {
     }
 
     /**
-     * Introspect the current class to identify a method of the specified name
-     * that accepts the same parameter types as the <code>execute</code>
-     * method does.
+     * Look up, in the dispatch table of the current class, the method of
+     * the specified name that accepts the same parameter types as the
+     * <code>execute</code> method does.
      *
      * @param name Name of the method to be introspected
      * @return The method with the specified name.
@@ -407,18 +415,45 @@ public class ActionDispatcher implements Dispatcher {
      */
     protected Method getMethod(String name)
         throws NoSuchMethodException {
-        synchronized (methods) {
-            Method method = methods.get(name);
+        try {
+            return getDispatchTable().getMethod(name);
+        } catch (NoSuchMethodException e) {
+            synchronized (methods) {
+                Method method = methods.get(name);
 
-            if (method == null) {
-                method = clazz.getMethod(name, types);
-                methods.put(name, method);
+                if (method != null) {
+                    return method;
+                }
             }
 
-            return (method);
+            throw e;
         }
     }
 
+    /**
+     * Return the dispatch table of this class, building it on first use,
+     * again if {@link #types} has been changed, or after deserialization.
+     * The methods of a new table are added to {@link #methods}.
+     *
+     * @return the dispatch table
+     * @since Struts 1.5.0
+     */
+    private DispatchTable getDispatchTable() {
+        DispatchTable table = this.table;
+
+        if ((table == null) || !table.accepts(types)) {
+            table = new DispatchTable(clazz, types);
+
+            synchronized (methods) {
+                table.putMethods(methods);
+            }
+
+            this.table = table;
+        }
+
+        return table;
+    }
+
     /**
      * <p>Returns the parameter value as influenced by the selected {@link
      * #flavor} specified for this <code>ActionDispatcher</code>.</p>
@@ -109,9 +109,10 @@ public abstract class DispatchAction extends BaseAction {
 
     /**
      * The set of Method objects we have introspected for this class, keyed by
-     * method name.  This collection is populated as different methods are
-     * called, so that introspection needs to occur only once per method
-     * name.
+     * method name.  This collection is populated with all the methods of the
+     * dispatch table when the table is built, so that introspection needs to
+     * occur only once per class.  Methods added by subclasses are used for
+     * names which are not in the dispatch table.
      */
     protected HashMap<String, Method> methods = new HashMap<>();
 
@@ -125,6 +126,12 @@ public abstract class DispatchAction extends BaseAction {
             HttpServletResponse.class
         };
 
+    /**
+     * The dispatch table of this class, built from {@link #clazz} and
+     * {@link #types}.
+     */
+    private transient volatile DispatchTable table;
+
     // --------------------------------------------------------- Public Methods
 
     /**
@@ -270,7 +277,7 @@ public abstract class DispatchAction extends BaseAction {
         try {
             Object[] args = { mapping, form, request, response };
 
-            forward = (ActionForward) method.invoke(this, args);
+            forward = (ActionForward) getDispatchTable().invoke(method, this, args);
         } catch (ClassCastException e) {
             log.atError()
                 .setMessage(() -> messages.getMessage("dispatch.return", mapping.getPath(), name))
@@ -332,9 +339,9 @@ public abstract class DispatchAction extends BaseAction {
     }
 
     /**
-     * Introspect the current class to identify a method of the specified name
-     * that accepts the same parameter types as the <code>execute</code>
-     * method does.
+     * Look up, in the dispatch table of the current class, the method of
+     * the specified name that accepts the same parameter types as the
+     * <code>execute</code> method does.
      *
      * @param name Name of the method to be introspected
      * @return The method with the specified name.
@@ -342,18 +349,45 @@ public abstract class DispatchAction extends BaseAction {
      */
     protected Method getMethod(String name)
         throws NoSuchMethodException {
-        synchronized (methods) {
-            Method method = methods.get(name);
+        try {
+            return getDispatchTable().getMethod(name);
+        } catch (NoSuchMethodException e) {
+            synchronized (methods) {
+                Method method = methods.get(name);
 
-            if (method == null) {
-                method = clazz.getMethod(name, types);
-                methods.put(name, method);
+                if (method != null) {
+                    return method;
+                }
             }
 
-            return (method);
+            throw e;
         }
     }
 
+    /**
+     * Return the dispatch table of this class, building it on first use,
+     * again if {@link #types} has been changed, or after deserialization.
+     * The methods of a new table are added to {@link #methods}.
+     *
+     * @return the dispatch table
+     * @since Struts 1.5.0
+     */
+    private DispatchTable getDispatchTable() {
+        DispatchTable table = this.table;
+
+        if ((table == null) || !table.accepts(types)) {
+            table = new DispatchTable(clazz, types);
+
+            synchronized (methods) {
+                table.putMethods(methods);
+            }
+
+            this.table = table;
+        }
+
+        return table;
+    }
+
     /**
      * Returns the method name, given a parameter's value.
      *
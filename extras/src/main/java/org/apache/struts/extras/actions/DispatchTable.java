@@ -0,0 +1,155 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.apache.struts.dispatcher.MethodInvoker;
+
+/**
+ * <p>The immutable dispatch table of a dispatching action class: an invoker
+ * for each public method accepting the dispatch argument types, keyed by
+ * method name. The class is scanned once, when the table is created; looking
+ * up a method takes no lock, and an unknown name is answered by a single map
+ * lookup.</p>
+ *
+ * @since Struts 1.5.0
+ */
+final class DispatchTable {
+
+    /**
+     * The invokers, keyed by method name.
+     */
+    private final Map<String, MethodInvoker> invokers;
+
+    /**
+     * The scanned class.
+     */
+    private final Class<?> clazz;
+
+    /**
+     * The argument types of the dispatched methods.
+     */
+    private final Class<?>[] types;
+
+    /**
+     * Scan the public methods of the specified class.
+     *
+     * @param clazz The class to scan
+     * @param types The argument types of the dispatched methods
+     */
+    DispatchTable(Class<?> clazz, Class<?>[] types) {
+        this.clazz = clazz;
+        this.types = types.clone();
+
+        Map<String, MethodInvoker> invokers = new HashMap<>();
+
+        for (Method candidate : clazz.getMethods()) {
+            String name = candidate.getName();
+
+            if (invokers.containsKey(name)
+                || !Arrays.equals(candidate.getParameterTypes(), types)) {
+                continue;
+            }
+
+            try {
+                // Pick the same method as Class.getMethod among bridges
+                invokers.put(name,
+                    new MethodInvoker(clazz.getMethod(name, types)));
+            } catch (NoSuchMethodException e) {
+                // Not reachable, the method exists
+            }
+        }
+
+        this.invokers = invokers;
+    }
+
+    /**
+     * Returns whether the table was built for the specified argument types.
+     *
+     * @param types The argument types of the dispatched methods
+     * @return <code>true</code> if the table can be used for them
+     */
+    boolean accepts(Class<?>[] types) {
+        return Arrays.equals(this.types, types);
+    }
+
+    /**
+     * Return the method of the specified name.
+     *
+     * @param name The method name
+     * @return the method
+     * @throws NoSuchMethodException if there is no such method
+     */
+    Method getMethod(String name) throws NoSuchMethodException {
+        MethodInvoker invoker = invokers.get(name);
+
+        if (invoker == null) {
+            StringJoiner signature = new StringJoiner(", ", "(", ")");
+
+            for (Class<?> type : types) {
+                signature.add(type.getName());
+            }
+
+            throw new NoSuchMethodException(clazz.getName() + "." + name
+                + signature);
+        }
+
+        return invoker.getMethod();
+    }
+
+    /**
+     * Add the methods of this table to the specified map, keyed by name.
+     *
+     * @param methods The map to fill
+     */
+    void putMethods(Map<String, Method> methods) {
+        for (Map.Entry<String, MethodInvoker> entry : invokers.entrySet()) {
+            methods.put(entry.getKey(), entry.getValue().getMethod());
+        }
+    }
+
+    /**
+     * Invoke a method, through its invoker if the method is in the table.
+     *
+     * @param method The method
+     * @param target The object the method is invoked on
+     * @param args   The arguments of the method
+     * @return the result of the method
+     * @throws IllegalAccessException    if the method is not accessible
+     * @throws InvocationTargetException if the method throws an exception
+     */
+    Object invoke(Method method, Object target, Object[] args)
+        throws IllegalAccessException, InvocationTargetException {
+        MethodInvoker invoker = invokers.get(method.getName());
+
+        if ((invoker != null) && (invoker.getMethod() == method)) {
+            return invoker.invoke(target, args);
+        }
+
+        return method.invoke(target, args);
+    }
+}
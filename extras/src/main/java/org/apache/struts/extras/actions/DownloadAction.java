@@ -1,272 +1,795 @@
-/*
- * $Id: $
- *
- * Licensed to the Apache Software Foundation (ASF) under one
- * or more contributor license agreements.  See the NOTICE file
- * distributed with this work for additional information
- * regarding copyright ownership.  The ASF licenses this file
- * to you under the Apache License, Version 2.0 (the
- * "License"); you may not use this file except in compliance
- * with the License.  You may obtain a copy of the License at
- *
- *  http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing,
- * software distributed under the License is distributed on an
- * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
- * KIND, either express or implied.  See the License for the
- * specific language governing permissions and limitations
- * under the License.
- */
-package org.apache.struts.extras.actions;
-
-import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-
-import jakarta.servlet.ServletContext;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-
-import org.apache.struts.action.ActionForm;
-import org.apache.struts.action.ActionForward;
-import org.apache.struts.action.ActionMapping;
-
-/**
- * This is an abstract base class that minimizes the amount of special coding
- * that needs to be written to download a file. All that is required to use
- * this class is to extend it and implement the <code>getStreamInfo()</code>
- * method so that it returns the relevant information for the file (or other
- * stream) to be downloaded. Optionally, the <code>getBufferSize()</code>
- * method may be overridden to customize the size of the buffer used to
- * transfer the file.
- *
- * @since Struts 1.2.6
- */
-public abstract class DownloadAction extends BaseAction {
-    private static final long serialVersionUID = -4571392707311277980L;
-
-    /**
-     * If the <code>getBufferSize()</code> method is not overridden, this is
-     * the buffer size that will be used to transfer the data to the servlet
-     * output stream.
-     */
-    protected static final int DEFAULT_BUFFER_SIZE = 4096;
-
-    /**
-     * Returns the information on the file, or other stream, to be downloaded
-     * by this action. This method must be implemented by an extending class.
-     *
-     * @param mapping  The ActionMapping used to select this instance.
-     * @param form     The optional ActionForm bean for this request (if
-     *                 any).
-     * @param request  The HTTP request we are processing.
-     * @param response The HTTP response we are creating.
-     * @return The information for the file to be downloaded.
-     * @throws Exception if an exception occurs.
-     */
-    protected abstract StreamInfo getStreamInfo(ActionMapping mapping,
-        ActionForm form, HttpServletRequest request,
-        HttpServletResponse response)
-        throws Exception;
-
-    /**
-     * Returns the size of the buffer to be used in transferring the data to
-     * the servlet output stream. This method may be overridden by an
-     * extending class in order to customize the buffer size.
-     *
-     * @return The size of the transfer buffer, in bytes.
-     */
-    protected int getBufferSize() {
-        return DEFAULT_BUFFER_SIZE;
-    }
-
-    /**
-     * Process the specified HTTP request, and create the corresponding HTTP
-     * response (or forward to another web component that will create it).
-     * Return an <code>ActionForward</code> instance describing where and how
-     * control should be forwarded, or <code>null</code> if the response has
-     * already been completed.
-     *
-     * @param mapping  The ActionMapping used to select this instance.
-     * @param form     The optional ActionForm bean for this request (if
-     *                 any).
-     * @param request  The HTTP request we are processing.
-     * @param response The HTTP response we are creating.
-     * @return The forward to which control should be transferred, or
-     *         <code>null</code> if the response has been completed.
-     * @throws Exception if an exception occurs.
-     */
-    public ActionForward execute(ActionMapping mapping, ActionForm form,
-        HttpServletRequest request, HttpServletResponse response)
-        throws Exception {
-        StreamInfo info = getStreamInfo(mapping, form, request, response);
-        String contentType = info.getContentType();
-
-        try (InputStream in = info.getInputStream()) {
-            response.setContentType(contentType);
-            copy(in, response.getOutputStream());
-        }
-
-        // Tell Struts that we are done with the response.
-        return null;
-    }
-
-    /**
-     * Copy bytes from an <code>InputStream</code> to an
-     * <code>OutputStream</code>.
-     *
-     * @param input  The <code>InputStream</code> to read from.
-     * @param output The <code>OutputStream</code> to write to.
-     * @return the number of bytes copied
-     * @throws IOException In case of an I/O problem
-     */
-    public int copy(InputStream input, OutputStream output)
-        throws IOException {
-        byte[] buffer = new byte[getBufferSize()];
-        int count = 0;
-        int n = 0;
-
-        while (-1 != (n = input.read(buffer))) {
-            output.write(buffer, 0, n);
-            count += n;
-        }
-
-        return count;
-    }
-
-    /**
-     * The information on a file, or other stream, to be downloaded by the
-     * <code>DownloadAction</code>.
-     */
-    public static interface StreamInfo {
-        /**
-         * Returns the content type of the stream to be downloaded.
-         *
-         * @return The content type of the stream.
-         */
-        String getContentType();
-
-        /**
-         * Returns an input stream on the content to be downloaded. This
-         * stream will be closed by the <code>DownloadAction</code>.
-         *
-         * @return The input stream for the content to be downloaded.
-         * @throws IOException if an error occurs
-         */
-        InputStream getInputStream()
-            throws IOException;
-    }
-
-    /**
-     * A concrete implementation of the <code>StreamInfo</code> interface
-     * which simplifies the downloading of a file from the disk.
-     */
-    public static class FileStreamInfo implements StreamInfo {
-        /**
-         * The content type for this stream.
-         */
-        private String contentType;
-
-        /**
-         * The file to be downloaded.
-         */
-        private File file;
-
-        /**
-         * Constructs an instance of this class, based on the supplied
-         * parameters.
-         *
-         * @param contentType The content type of the file.
-         * @param file        The file to be downloaded.
-         */
-        public FileStreamInfo(String contentType, File file) {
-            this.contentType = contentType;
-            this.file = file;
-        }
-
-        /**
-         * Returns the content type of the stream to be downloaded.
-         *
-         * @return The content type of the stream.
-         */
-        public String getContentType() {
-            return this.contentType;
-        }
-
-        /**
-         * Returns an input stream on the file to be downloaded. This stream
-         * will be closed by the <code>DownloadAction</code>.
-         *
-         * @return The input stream for the file to be downloaded.
-         * @throws IOException if an error occurs
-         */
-        public InputStream getInputStream()
-            throws IOException {
-            FileInputStream fis = new FileInputStream(file);
-            BufferedInputStream bis = new BufferedInputStream(fis);
-
-            return bis;
-        }
-    }
-
-    /**
-     * A concrete implementation of the <code>StreamInfo</code> interface
-     * which simplifies the downloading of a web application resource.
-     */
-    public static class ResourceStreamInfo implements StreamInfo {
-        /**
-         * The content type for this stream.
-         */
-        private String contentType;
-
-        /**
-         * The servlet context for the resource to be downloaded.
-         */
-        private ServletContext context;
-
-        /**
-         * The path to the resource to be downloaded.
-         */
-        private String path;
-
-        /**
-         * Constructs an instance of this class, based on the supplied
-         * parameters.
-         *
-         * @param contentType The content type of the file.
-         * @param context     The servlet context for the resource.
-         * @param path        The path to the resource to be downloaded.
-         */
-        public ResourceStreamInfo(String contentType, ServletContext context,
-            String path) {
-            this.contentType = contentType;
-            this.context = context;
-            this.path = path;
-        }
-
-        /**
-         * Returns the content type of the stream to be downloaded.
-         *
-         * @return The content type of the stream.
-         */
-        public String getContentType() {
-            return this.contentType;
-        }
-
-        /**
-         * Returns an input stream on the resource to be downloaded. This
-         * stream will be closed by the <code>DownloadAction</code>.
-         *
-         * @return The input stream for the resource to be downloaded.
-         * @throws IOException if an error occurs
-         */
-        public InputStream getInputStream()
-            throws IOException {
-            return context.getResourceAsStream(path);
-        }
-    }
+/*
+ * $Id: $
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+
+/**
+ * This is an abstract base class that minimizes the amount of special coding
+ * that needs to be written to download a file. All that is required to use
+ * this class is to extend it and implement the <code>getStreamInfo()</code>
+ * method so that it returns the relevant information for the file (or other
+ * stream) to be downloaded. Optionally, the <code>getBufferSize()</code>
+ * method may be overridden to customize the size of the buffer used to
+ * transfer the file.
+ *
+ * <p>If the <code>StreamInfo</code> is a {@link ChannelStreamInfo}, as the
+ * {@link FileStreamInfo} is, the content is transferred from its
+ * <code>FileChannel</code> with <code>transferTo</code>, and the response
+ * carries the <code>Content-Length</code>, <code>ETag</code> and
+ * <code>Last-Modified</code> headers. Conditional requests
+ * (<code>If-None-Match</code>, <code>If-Modified-Since</code>) are answered
+ * with <code>304 Not Modified</code>, and single and multiple byte ranges
+ * (<code>Range</code>, <code>If-Range</code>) with
+ * <code>206 Partial Content</code>. A subclass which overrides
+ * <code>copy()</code> or <code>getBufferSize()</code> keeps the stream
+ * copy of earlier versions for all content.</p>
+ *
+ * @since Struts 1.2.6
+ */
+public abstract class DownloadAction extends BaseAction {
+    private static final long serialVersionUID = -4571392707311277980L;
+
+    /**
+     * If the <code>getBufferSize()</code> method is not overridden, this is
+     * the buffer size that will be used to transfer the data to the servlet
+     * output stream.
+     */
+    protected static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    /**
+     * The maximum number of ranges served in a single response. A
+     * <code>Range</code> header with more ranges is ignored, and the
+     * complete content is sent.
+     *
+     * @since Struts 1.5.0
+     */
+    protected static final int MAX_RANGES = 16;
+
+    /**
+     * Whether an action class overrides <code>copy()</code> or
+     * <code>getBufferSize()</code>.
+     */
+    private static final ClassValue<Boolean> CUSTOM_COPY =
+        new ClassValue<Boolean>() {
+            protected Boolean computeValue(Class<?> type) {
+                return isOverridden(type, "copy", InputStream.class,
+                    OutputStream.class) || isOverridden(type, "getBufferSize");
+            }
+        };
+
+    /**
+     * Returns the information on the file, or other stream, to be downloaded
+     * by this action. This method must be implemented by an extending class.
+     *
+     * @param mapping  The ActionMapping used to select this instance.
+     * @param form     The optional ActionForm bean for this request (if
+     *                 any).
+     * @param request  The HTTP request we are processing.
+     * @param response The HTTP response we are creating.
+     * @return The information for the file to be downloaded.
+     * @throws Exception if an exception occurs.
+     */
+    protected abstract StreamInfo getStreamInfo(ActionMapping mapping,
+        ActionForm form, HttpServletRequest request,
+        HttpServletResponse response)
+        throws Exception;
+
+    /**
+     * Returns the size of the buffer to be used in transferring the data to
+     * the servlet output stream. This method may be overridden by an
+     * extending class in order to customize the buffer size.
+     *
+     * @return The size of the transfer buffer, in bytes.
+     */
+    protected int getBufferSize() {
+        return DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Process the specified HTTP request, and create the corresponding HTTP
+     * response (or forward to another web component that will create it).
+     * Return an <code>ActionForward</code> instance describing where and how
+     * control should be forwarded, or <code>null</code> if the response has
+     * already been completed.
+     *
+     * @param mapping  The ActionMapping used to select this instance.
+     * @param form     The optional ActionForm bean for this request (if
+     *                 any).
+     * @param request  The HTTP request we are processing.
+     * @param response The HTTP response we are creating.
+     * @return The forward to which control should be transferred, or
+     *         <code>null</code> if the response has been completed.
+     * @throws Exception if an exception occurs.
+     */
+    public ActionForward execute(ActionMapping mapping, ActionForm form,
+        HttpServletRequest request, HttpServletResponse response)
+        throws Exception {
+        StreamInfo info = getStreamInfo(mapping, form, request, response);
+
+        if ((info instanceof ChannelStreamInfo)
+            && !CUSTOM_COPY.get(getClass())) {
+            send((ChannelStreamInfo) info, request, response);
+            return null;
+        }
+
+        String contentType = info.getContentType();
+
+        try (InputStream in = info.getInputStream()) {
+            response.setContentType(contentType);
+            copy(in, response.getOutputStream());
+        }
+
+        // Tell Struts that we are done with the response.
+        return null;
+    }
+
+    /**
+     * Copy bytes from an <code>InputStream</code> to an
+     * <code>OutputStream</code>.
+     *
+     * @param input  The <code>InputStream</code> to read from.
+     * @param output The <code>OutputStream</code> to write to.
+     * @return the number of bytes copied
+     * @throws IOException In case of an I/O problem
+     */
+    public int copy(InputStream input, OutputStream output)
+        throws IOException {
+        byte[] buffer = new byte[getBufferSize()];
+        int count = 0;
+        int n = 0;
+
+        while (-1 != (n = input.read(buffer))) {
+            output.write(buffer, 0, n);
+            count += n;
+        }
+
+        return count;
+    }
+
+    /**
+     * Send the content of a <code>ChannelStreamInfo</code>, honouring the
+     * conditional and range headers of the request.
+     *
+     * @param info     The information for the content to be downloaded.
+     * @param request  The HTTP request we are processing.
+     * @param response The HTTP response we are creating.
+     * @throws IOException if an error occurs
+     * @since Struts 1.5.0
+     */
+    protected void send(ChannelStreamInfo info, HttpServletRequest request,
+        HttpServletResponse response)
+        throws IOException {
+        String contentType = info.getContentType();
+        long length = info.getContentLength();
+        long lastModified = info.getLastModified();
+        String etag = info.getETag();
+
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+        }
+
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<long[]> ranges = null;
+
+        if (length >= 0) {
+            response.setHeader("Accept-Ranges", "bytes");
+
+            if (isRangeValid(request, etag, lastModified)) {
+                ranges = parseRanges(request.getHeader("Range"), length);
+            }
+        }
+
+        if ((ranges != null) && ranges.isEmpty()) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.sendError(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        boolean head = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        try (FileChannel channel = info.getChannel()) {
+            if (ranges == null) {
+                response.setContentType(contentType);
+
+                if (length >= 0) {
+                    response.setContentLengthLong(length);
+                }
+
+                if (!head) {
+                    WritableByteChannel out =
+                        Channels.newChannel(response.getOutputStream());
+
+                    if (length >= 0) {
+                        transfer(channel, 0, length, out);
+                    } else {
+                        transfer(channel, 0, Long.MAX_VALUE, out);
+                    }
+                }
+            } else if (ranges.size() == 1) {
+                long[] range = ranges.get(0);
+
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(contentType);
+                response.setHeader("Content-Range", "bytes " + range[0] + "-"
+                    + range[1] + "/" + length);
+                response.setContentLengthLong(range[1] - range[0] + 1);
+
+                if (!head) {
+                    transfer(channel, range[0], range[1] - range[0] + 1,
+                        Channels.newChannel(response.getOutputStream()));
+                }
+            } else {
+                sendMultipleRanges(channel, contentType, length, ranges, head,
+                    response);
+            }
+        }
+    }
+
+    /**
+     * Send a <code>multipart/byteranges</code> response.
+     */
+    private void sendMultipleRanges(FileChannel channel, String contentType,
+        long length, List<long[]> ranges, boolean head,
+        HttpServletResponse response)
+        throws IOException {
+        String boundary = "STRUTS_"
+            + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        List<byte[]> headers = new ArrayList<>(ranges.size());
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n")
+            .getBytes(StandardCharsets.ISO_8859_1);
+        long total = trailer.length;
+
+        for (long[] range : ranges) {
+            StringBuilder sb = new StringBuilder("\r\n--").append(boundary);
+
+            if (contentType != null) {
+                sb.append("\r\nContent-Type: ").append(contentType);
+            }
+
+            sb.append("\r\nContent-Range: bytes ").append(range[0]).append('-')
+                .append(range[1]).append('/').append(length).append("\r\n\r\n");
+
+            byte[] header = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+            headers.add(header);
+            total += header.length + range[1] - range[0] + 1;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+
+        if (head) {
+            return;
+        }
+
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+
+            write(ByteBuffer.wrap(headers.get(i)), out);
+            transfer(channel, range[0], range[1] - range[0] + 1, out);
+        }
+
+        write(ByteBuffer.wrap(trailer), out);
+    }
+
+    /**
+     * Transfer a region of a <code>FileChannel</code> to the output.
+     *
+     * @param channel  The channel to read from.
+     * @param position The position of the first byte.
+     * @param count    The number of bytes, or <code>Long.MAX_VALUE</code>
+     *                 to transfer up to the end of the channel.
+     * @param out      The channel to write to.
+     * @return the number of bytes transferred
+     * @throws IOException In case of an I/O problem
+     * @since Struts 1.5.0
+     */
+    protected long transfer(FileChannel channel, long position, long count,
+        WritableByteChannel out)
+        throws IOException {
+        long done = 0;
+
+        while (done < count) {
+            long n = channel.transferTo(position + done, count - done, out);
+
+            if (n <= 0) {
+                if (position + done >= channel.size()) {
+                    break;
+                }
+
+                throw new IOException("Unable to transfer the content");
+            }
+
+            done += n;
+        }
+
+        return done;
+    }
+
+    /**
+     * Write the remaining bytes of a buffer to the output.
+     */
+    private static void write(ByteBuffer buffer, WritableByteChannel out)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Returns whether the client's copy of the content is current, according
+     * to the <code>If-None-Match</code> header or, if there is none, the
+     * <code>If-Modified-Since</code> header of the request.
+     *
+     * @param request      The HTTP request we are processing.
+     * @param etag         The entity tag of the content, or
+     *                     <code>null</code>.
+     * @param lastModified The modification time of the content, or
+     *                     <code>-1</code>.
+     * @return <code>true</code> if a <code>304</code> response is to be
+     *         sent.
+     * @since Struts 1.5.0
+     */
+    protected boolean isNotModified(HttpServletRequest request, String etag,
+        long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, etag);
+        }
+
+        if (lastModified < 0) {
+            return false;
+        }
+
+        long ifModifiedSince;
+
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        return (ifModifiedSince >= 0)
+            && (lastModified / 1000 <= ifModifiedSince / 1000);
+    }
+
+    /**
+     * Returns whether the <code>Range</code> header of the request is to be
+     * honoured, according to its <code>If-Range</code> header.
+     *
+     * @param request      The HTTP request we are processing.
+     * @param etag         The entity tag of the content, or
+     *                     <code>null</code>.
+     * @param lastModified The modification time of the content, or
+     *                     <code>-1</code>.
+     * @return <code>false</code> if the complete content is to be sent.
+     * @since Struts 1.5.0
+     */
+    protected boolean isRangeValid(HttpServletRequest request, String etag,
+        long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+
+        if (ifRange == null) {
+            return true;
+        }
+
+        ifRange = ifRange.trim();
+
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison
+            return (etag != null) && !etag.startsWith("W/")
+                && ifRange.equals(etag);
+        }
+
+        try {
+            long date = request.getDateHeader("If-Range");
+
+            return (lastModified >= 0) && (date >= 0)
+                && (lastModified / 1000 == date / 1000);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a <code>Range</code> header into the byte ranges to be sent.
+     * Each range is an array of the first and the last position, both
+     * inclusive.
+     *
+     * @param header The value of the <code>Range</code> header, or
+     *               <code>null</code>.
+     * @param length The length of the content.
+     * @return the satisfiable ranges, an empty list if none of the ranges
+     *         is satisfiable, or <code>null</code> if the header is missing,
+     *         invalid or has more than {@link #MAX_RANGES} ranges
+     * @since Struts 1.5.0
+     */
+    protected List<long[]> parseRanges(String header, long length) {
+        if ((header == null) || !header.startsWith("bytes=")) {
+            return null;
+        }
+
+        String[] specs = header.substring(6).split(",");
+
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>(specs.length);
+
+        for (String spec : specs) {
+            spec = spec.trim();
+
+            int dash = spec.indexOf('-');
+
+            if (dash < 0) {
+                return null;
+            }
+
+            long start;
+            long end;
+
+            try {
+                if (dash == 0) {
+                    // Suffix range: the last n bytes
+                    long suffix = Long.parseLong(spec.substring(1));
+
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+
+                    if (dash == spec.length() - 1) {
+                        end = length - 1;
+                    } else {
+                        end = Long.parseLong(spec.substring(dash + 1));
+
+                        if (end < start) {
+                            return null;
+                        }
+
+                        end = Math.min(end, length - 1);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            if ((start < length) && (start <= end)) {
+                ranges.add(new long[] { start, end });
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Returns whether a subclass of this class declares the specified
+     * method.
+     */
+    private static boolean isOverridden(Class<?> type, String name,
+        Class<?>... parameterTypes) {
+        for (Class<?> c = type; c != DownloadAction.class;
+            c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Look further up
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether an <code>If-None-Match</code> header matches the
+     * specified entity tag, using the weak comparison.
+     *
+     * @param ifNoneMatch The header
+     * @param etag        The entity tag of the content, or
+     *                    <code>null</code>
+     * @return <code>true</code> if the client has the current version
+     */
+    static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (etag == null) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+
+            if ("*".equals(tag) || weakTag(tag).equals(weakTag(etag))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the opaque part of an entity tag, without the weakness
+     * indicator.
+     */
+    private static String weakTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * The information on a file, or other stream, to be downloaded by the
+     * <code>DownloadAction</code>.
+     */
+    public static interface StreamInfo {
+        /**
+         * Returns the content type of the stream to be downloaded.
+         *
+         * @return The content type of the stream.
+         */
+        String getContentType();
+
+        /**
+         * Returns an input stream on the content to be downloaded. This
+         * stream will be closed by the <code>DownloadAction</code>.
+         *
+         * @return The input stream for the content to be downloaded.
+         * @throws IOException if an error occurs
+         */
+        InputStream getInputStream()
+            throws IOException;
+    }
+
+    /**
+     * The information on content which can be read from a
+     * <code>FileChannel</code>. The <code>DownloadAction</code> transfers
+     * such content with <code>FileChannel.transferTo</code> and supports
+     * conditional and range requests for it.
+     *
+     * @since Struts 1.5.0
+     */
+    public static interface ChannelStreamInfo extends StreamInfo {
+        /**
+         * Returns a channel on the content to be downloaded. This channel
+         * will be closed by the <code>DownloadAction</code>.
+         *
+         * @return The channel for the content to be downloaded.
+         * @throws IOException if an error occurs
+         */
+        FileChannel getChannel()
+            throws IOException;
+
+        /**
+         * Returns the length of the content, in bytes.
+         *
+         * @return The length of the content, or <code>-1</code> if it is
+         *         unknown.
+         */
+        long getContentLength();
+
+        /**
+         * Returns the modification time of the content.
+         *
+         * @return The modification time, in milliseconds since the epoch,
+         *         or <code>-1</code> if it is unknown.
+         */
+        long getLastModified();
+
+        /**
+         * Returns the entity tag of the content, including the quotes.
+         *
+         * @return The entity tag, or <code>null</code> if there is none.
+         */
+        String getETag();
+    }
+
+    /**
+     * A concrete implementation of the <code>StreamInfo</code> interface
+     * which simplifies the downloading of a file from the disk. The entity
+     * tag is derived from the length and the modification time of the file.
+     */
+    public static class FileStreamInfo implements ChannelStreamInfo {
+        /**
+         * The content type for this stream.
+         */
+        private String contentType;
+
+        /**
+         * The file to be downloaded.
+         */
+        private File file;
+
+        /**
+         * Constructs an instance of this class, based on the supplied
+         * parameters.
+         *
+         * @param contentType The content type of the file.
+         * @param file        The file to be downloaded.
+         */
+        public FileStreamInfo(String contentType, File file) {
+            this.contentType = contentType;
+            this.file = file;
+        }
+
+        /**
+         * Returns the content type of the stream to be downloaded.
+         *
+         * @return The content type of the stream.
+         */
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        /**
+         * Returns an input stream on the file to be downloaded. This stream
+         * will be closed by the <code>DownloadAction</code>.
+         *
+         * @return The input stream for the file to be downloaded.
+         * @throws IOException if an error occurs
+         */
+        public InputStream getInputStream()
+            throws IOException {
+            FileInputStream fis = new FileInputStream(file);
+            BufferedInputStream bis = new BufferedInputStream(fis);
+
+            return bis;
+        }
+
+        /**
+         * Returns a channel on the file to be downloaded. This channel will
+         * be closed by the <code>DownloadAction</code>.
+         *
+         * @return The channel for the file to be downloaded.
+         * @throws IOException if an error occurs
+         * @since Struts 1.5.0
+         */
+        public FileChannel getChannel()
+            throws IOException {
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+
+        /**
+         * Returns the length of the file.
+         *
+         * @return The length of the file, in bytes.
+         * @since Struts 1.5.0
+         */
+        public long getContentLength() {
+            return file.length();
+        }
+
+        /**
+         * Returns the modification time of the file.
+         *
+         * @return The modification time, or <code>-1</code> if it is
+         *         unknown.
+         * @since Struts 1.5.0
+         */
+        public long getLastModified() {
+            long lastModified = file.lastModified();
+
+            return (lastModified == 0) ? -1 : lastModified;
+        }
+
+        /**
+         * Returns the entity tag of the file, derived from its length and
+         * modification time.
+         *
+         * @return The entity tag.
+         * @since Struts 1.5.0
+         */
+        public String getETag() {
+            return "\"" + Long.toHexString(file.length()) + "-"
+                + Long.toHexString(file.lastModified()) + "\"";
+        }
+    }
+
+    /**
+     * A concrete implementation of the <code>StreamInfo</code> interface
+     * which simplifies the downloading of a web application resource.
+     */
+    public static class ResourceStreamInfo implements StreamInfo {
+        /**
+         * The content type for this stream.
+         */
+        private String contentType;
+
+        /**
+         * The servlet context for the resource to be downloaded.
+         */
+        private ServletContext context;
+
+        /**
+         * The path to the resource to be downloaded.
+         */
+        private String path;
+
+        /**
+         * Constructs an instance of this class, based on the supplied
+         * parameters.
+         *
+         * @param contentType The content type of the file.
+         * @param context     The servlet context for the resource.
+         * @param path        The path to the resource to be downloaded.
+         */
+        public ResourceStreamInfo(String contentType, ServletContext context,
+            String path) {
+            this.contentType = contentType;
+            this.context = context;
+            this.path = path;
+        }
+
+        /**
+         * Returns the content type of the stream to be downloaded.
+         *
+         * @return The content type of the stream.
+         */
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        /**
+         * Returns an input stream on the resource to be downloaded. This
+         * stream will be closed by the <code>DownloadAction</code>.
+         *
+         * @return The input stream for the resource to be downloaded.
+         * @throws IOException if an error occurs
+         */
+        public InputStream getInputStream()
+            throws IOException {
+            return context.getResourceAsStream(path);
+        }
+    }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@
  */
 package org.apache.struts.extras.actions;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -116,14 +117,17 @@ public abstract class LookupDispatchAction extends DispatchAction {
         LoggerFactory.getLogger(LookupDispatchAction.class);
 
     /**
-     * Reverse lookup map from resource value to resource key.
+     * Reverse lookup map from resource value to resource key, per Locale.
+     * Neither this map nor the maps it contains are modified once assigned:
+     * a copy holding the map of a new Locale replaces it, so lookups take no
+     * lock.
      */
-    protected HashMap<Locale, Map<String, String>> localeMap = new HashMap<>();
+    protected volatile HashMap<Locale, Map<String, String>> localeMap = new HashMap<>();
 
     /**
      * Resource key to method name lookup.
      */
-    protected Map<String, String> keyMethodMap = null;
+    protected volatile Map<String, String> keyMethodMap = null;
 
     // ---------------------------------------------------------- Public Methods
 
@@ -158,8 +162,9 @@ public abstract class LookupDispatchAction extends DispatchAction {
      */
     private Map<String, String> initLookupMap(HttpServletRequest request, Locale userLocale) {
         Map<String, String> lookupMap = new HashMap<>();
+        Map<String, String> keyMethodMap = this.getKeyMethodMap();
 
-        this.keyMethodMap = this.getKeyMethodMap();
+        this.keyMethodMap = keyMethodMap;
 
         ModuleConfig moduleConfig =
             (ModuleConfig) request.getAttribute(Globals.MODULE_KEY);
@@ -173,7 +178,7 @@ public abstract class LookupDispatchAction extends DispatchAction {
                 this.getResources(request, mrc[i].getKey());
 
             // Look for key in MessageResources
-            for (String key : this.keyMethodMap.keySet()) {
+            for (String key : keyMethodMap.keySet()) {
                 String text = resources.getMessage(userLocale, key);
 
                 // Found key and haven't added to Map yet, so add the text
@@ -183,7 +188,7 @@ public abstract class LookupDispatchAction extends DispatchAction {
             }
         }
 
-        return lookupMap;
+        return Collections.unmodifiableMap(lookupMap);
     }
 
     /**
@@ -193,6 +198,30 @@ public abstract class LookupDispatchAction extends DispatchAction {
      */
     protected abstract Map<String, String> getKeyMethodMap();
 
+    /**
+     * Store the lookup map of a Locale, unless another thread stored one in
+     * the meantime.
+     *
+     * @param userLocale The Locale
+     * @param lookupMap  The lookup map built for the Locale
+     * @return The lookup map stored for the Locale
+     */
+    private synchronized Map<String, String> addLookupMap(Locale userLocale,
+        Map<String, String> lookupMap) {
+        Map<String, String> previous = this.localeMap.get(userLocale);
+
+        if (previous != null) {
+            return previous;
+        }
+
+        HashMap<Locale, Map<String, String>> copy = new HashMap<>(this.localeMap);
+
+        copy.put(userLocale, lookupMap);
+        this.localeMap = copy;
+
+        return lookupMap;
+    }
+
     /**
      * Lookup the method name corresponding to the client request's locale.
      *
@@ -209,15 +238,13 @@ public abstract class LookupDispatchAction extends DispatchAction {
         // Based on this request's Locale get the lookupMap
         Map<String, String> lookupMap = null;
 
-        synchronized (localeMap) {
-            Locale userLocale = this.getLocale(request);
+        Locale userLocale = this.getLocale(request);
 
-            lookupMap = this.localeMap.get(userLocale);
+        lookupMap = this.localeMap.get(userLocale);
 
-            if (lookupMap == null) {
-                lookupMap = this.initLookupMap(request, userLocale);
-                this.localeMap.put(userLocale, lookupMap);
-            }
+        if (lookupMap == null) {
+            lookupMap =
+                addLookupMap(userLocale, this.initLookupMap(request, userLocale));
         }
 
         // Find the key for the resource
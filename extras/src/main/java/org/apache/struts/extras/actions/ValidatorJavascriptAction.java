@@ -0,0 +1,188 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import java.io.OutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.validator.ValidatorJavascript;
+import org.apache.struts.validator.ValidatorPlugIn;
+
+/**
+ * <p>An <strong>Action</strong> that serves the static JavaScript rule
+ * library of the <code>ValidatorPlugIn</code> of its module as a single
+ * resource, so that pages do not need to inline it.</p>
+ *
+ * <p>The response carries an <code>ETag</code> derived from the content and
+ * is answered with <code>304 Not Modified</code> if the client already has
+ * the current version. Clients accepting gzip receive the precompressed
+ * library, with an entity tag of its own. If the request has a <code>v</code> parameter equal to the
+ * current version, the response may be cached for a year; otherwise it must
+ * be revalidated.</p>
+ *
+ * <p>To configure the use of this Action in your
+ * <code>struts-config.xml</code> file, create an entry like this:</p>
+ *
+ * <code>&lt;action path="/validatorRules"
+ * type="org.apache.struts.extras.actions.ValidatorJavascriptAction"/&gt;</code>
+ *
+ * <p>and render the validator tag with
+ * <code>staticJavascriptAction="/validatorRules"</code>, which loads the
+ * current version of the library from this action.</p>
+ *
+ * @since Struts 1.5.0
+ */
+public class ValidatorJavascriptAction extends BaseAction {
+    private static final long serialVersionUID = 6195617224468436310L;
+
+    /**
+     * The content type of the rule library.
+     */
+    protected static final String CONTENT_TYPE =
+        "text/javascript; charset=UTF-8";
+
+    /**
+     * The <code>Cache-Control</code> header of a versioned request.
+     */
+    protected static final String CACHE_VERSIONED =
+        "public, max-age=31536000";
+
+    /**
+     * The <code>Cache-Control</code> header of an unversioned request.
+     */
+    protected static final String CACHE_UNVERSIONED = "no-cache";
+
+    /**
+     * Send the rule library of the module of this action.
+     *
+     * @param mapping  The ActionMapping used to select this instance
+     * @param form     The optional ActionForm bean for this request (if any)
+     * @param request  The HTTP request we are processing
+     * @param response The HTTP response we are creating
+     * @return <code>null</code>, since the response has been completed
+     * @throws Exception if an error occurs
+     */
+    public ActionForward execute(ActionMapping mapping, ActionForm form,
+        HttpServletRequest request, HttpServletResponse response)
+        throws Exception {
+        ValidatorResources resources =
+            (ValidatorResources) getServlet().getServletContext().getAttribute(
+                ValidatorPlugIn.VALIDATOR_KEY
+                + mapping.getModuleConfig().getPrefix());
+
+        if (resources == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+
+        ValidatorJavascript javascript =
+            ValidatorJavascript.getInstance(resources);
+        boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = gzip ? javascript.getGzipETag() : javascript.getETag();
+
+        response.setHeader("ETag", etag);
+        response.setHeader("Vary", "Accept-Encoding");
+        response.setHeader("Cache-Control",
+            javascript.getVersion().equals(request.getParameter("v"))
+            ? CACHE_VERSIONED : CACHE_UNVERSIONED);
+
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+
+        byte[] content;
+
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            content = javascript.getGzippedContent();
+        } else {
+            content = javascript.getContent();
+        }
+
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(content.length);
+
+        if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+            OutputStream out = response.getOutputStream();
+
+            out.write(content);
+            out.flush();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns whether an <code>If-None-Match</code> header matches the
+     * specified entity tag.
+     *
+     * @param ifNoneMatch The header, or <code>null</code>
+     * @param etag        The entity tag of the content
+     * @return <code>true</code> if the client has the current version
+     */
+    protected boolean matches(String ifNoneMatch, String etag) {
+        return (ifNoneMatch != null)
+            && DownloadAction.matchesETag(ifNoneMatch, etag);
+    }
+
+    /**
+     * Returns whether an <code>Accept-Encoding</code> header accepts gzip.
+     *
+     * @param acceptEncoding The header, or <code>null</code>
+     * @return <code>true</code> if the content may be sent compressed
+     */
+    protected boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+}
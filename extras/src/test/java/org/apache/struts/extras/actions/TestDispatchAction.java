@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DispatchAction}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestDispatchAction {
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The methods of the dispatch table are added to the introspected
+     * methods.
+     */
+    @Test
+    public void testMethodsPopulated() throws Exception {
+        SampleDispatchAction action = new SampleDispatchAction();
+        Method method = action.getMethod("save");
+
+        assertEquals(SampleDispatchAction.class.getMethod("save",
+            TestDispatchTable.TYPES), method);
+        assertSame(method, action.methods.get("save"));
+    }
+
+    /**
+     * A method added by a subclass is used for an unknown name.
+     */
+    @Test
+    public void testMethodsAdded() throws Exception {
+        SampleDispatchAction action = new SampleDispatchAction();
+        Method method = action.getMethod("save");
+
+        assertThrows(NoSuchMethodException.class,
+            () -> action.getMethod("alias"));
+
+        action.methods.put("alias", method);
+
+        assertSame(method, action.getMethod("alias"));
+    }
+
+    /**
+     * The table is built again for other types.
+     */
+    @Test
+    public void testTypesChanged() throws Exception {
+        SampleDispatchAction action = new SampleDispatchAction();
+
+        action.getMethod("save");
+        action.types = new Class<?>[] {String.class};
+
+        assertEquals(SampleDispatchAction.class.getMethod("single",
+            String.class), action.getMethod("single"));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    /**
+     * Dispatch action with a dispatched method.
+     */
+    public static class SampleDispatchAction extends DispatchAction {
+        private static final long serialVersionUID = 1L;
+
+        public ActionForward save(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) {
+            return null;
+        }
+
+        public ActionForward single(String value) {
+            return null;
+        }
+    }
+}
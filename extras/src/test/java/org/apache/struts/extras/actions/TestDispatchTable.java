@@ -0,0 +1,238 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.Action;
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionForward;
+import org.apache.struts.action.ActionMapping;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DispatchTable}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestDispatchTable {
+
+    /**
+     * The argument types of the dispatched methods.
+     */
+    static final Class<?>[] TYPES = {
+        ActionMapping.class, ActionForm.class, HttpServletRequest.class,
+        HttpServletResponse.class
+    };
+
+    /**
+     * The arguments of the dispatched methods.
+     */
+    private static final Object[] ARGS = {
+        new ActionMapping(), null, null, null
+    };
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The public methods with the dispatch signature are found, like with
+     * <code>Class.getMethod</code>.
+     */
+    @Test
+    public void testGetMethod() throws Exception {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+
+        assertEquals(SampleAction.class.getMethod("save", TYPES),
+            table.getMethod("save"));
+        assertEquals(SampleAction.class.getMethod("load", TYPES),
+            table.getMethod("load"));
+        assertEquals(SampleAction.class.getMethod("execute", TYPES),
+            table.getMethod("execute"));
+        assertSame(table.getMethod("save"), table.getMethod("save"));
+    }
+
+    /**
+     * Methods without the dispatch signature, or which are not public, are
+     * not found.
+     */
+    @Test
+    public void testNoSuchMethod() {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+
+        NoSuchMethodException e = assertThrows(NoSuchMethodException.class,
+            () -> table.getMethod("other"));
+
+        assertEquals(SampleAction.class.getName() + ".other("
+            + ActionMapping.class.getName() + ", "
+            + ActionForm.class.getName() + ", "
+            + HttpServletRequest.class.getName() + ", "
+            + HttpServletResponse.class.getName() + ")", e.getMessage());
+        assertThrows(NoSuchMethodException.class,
+            () -> table.getMethod("hidden"));
+        assertThrows(NoSuchMethodException.class,
+            () -> table.getMethod("missing"));
+    }
+
+    /**
+     * An overridden method is found in the subclass.
+     */
+    @Test
+    public void testOverridden() throws Exception {
+        DispatchTable table = new DispatchTable(SubAction.class, TYPES);
+
+        assertEquals(SubAction.class, table.getMethod("save").getDeclaringClass());
+        assertEquals(SampleAction.class,
+            table.getMethod("load").getDeclaringClass());
+        assertEquals("sub", forward(table.invoke(table.getMethod("save"),
+            new SubAction(), ARGS)));
+    }
+
+    /**
+     * The table only accepts the types it was built for.
+     */
+    @Test
+    public void testAccepts() {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+        Class<?>[] types = TYPES.clone();
+
+        assertTrue(table.accepts(types));
+        types[1] = Object.class;
+        assertFalse(table.accepts(types));
+    }
+
+    /**
+     * The methods of the table are added to a map.
+     */
+    @Test
+    public void testPutMethods() throws Exception {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+        Map<String, Method> methods = new HashMap<>();
+
+        table.putMethods(methods);
+
+        assertSame(table.getMethod("save"), methods.get("save"));
+        assertSame(table.getMethod("load"), methods.get("load"));
+        assertFalse(methods.containsKey("other"));
+    }
+
+    /**
+     * The methods of the table are invoked through their invoker.
+     */
+    @Test
+    public void testInvoke() throws Exception {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+
+        assertEquals("save", forward(table.invoke(table.getMethod("save"),
+            new SampleAction(), ARGS)));
+    }
+
+    /**
+     * Other methods are invoked by reflection.
+     */
+    @Test
+    public void testInvokeByReflection() throws Exception {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+        Method method = SampleAction.class.getMethod("save", TYPES);
+
+        assertNotSame(table.getMethod("save"), method);
+        assertEquals("save",
+            forward(table.invoke(method, new SampleAction(), ARGS)));
+
+        Method other = SampleAction.class.getMethod("other", String.class);
+
+        assertEquals("other:x",
+            table.invoke(other, new SampleAction(), new Object[] {"x"}));
+    }
+
+    /**
+     * An exception thrown by a method is wrapped.
+     */
+    @Test
+    public void testInvokeException() throws Exception {
+        DispatchTable table = new DispatchTable(SampleAction.class, TYPES);
+
+        InvocationTargetException e =
+            assertThrows(InvocationTargetException.class,
+                () -> table.invoke(table.getMethod("load"),
+                    new SampleAction(), ARGS));
+
+        assertEquals(IOException.class, e.getTargetException().getClass());
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private static String forward(Object forward) {
+        return ((ActionForward) forward).getName();
+    }
+
+    /**
+     * Action with dispatched methods.
+     */
+    public static class SampleAction extends Action {
+        private static final long serialVersionUID = 1L;
+
+        public ActionForward save(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) {
+            return new ActionForward("save", "/save.jsp", false);
+        }
+
+        public ActionForward load(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+            throw new IOException("load");
+        }
+
+        public String other(String value) {
+            return "other:" + value;
+        }
+
+        protected ActionForward hidden(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) {
+            return null;
+        }
+    }
+
+    /**
+     * Subclass overriding a dispatched method.
+     */
+    public static class SubAction extends SampleAction {
+        private static final long serialVersionUID = 1L;
+
+        public ActionForward save(ActionMapping mapping, ActionForm form,
+            HttpServletRequest request, HttpServletResponse response) {
+            return new ActionForward("sub", "/sub.jsp", false);
+        }
+    }
+}
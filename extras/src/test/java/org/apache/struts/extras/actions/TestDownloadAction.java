@@ -0,0 +1,477 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.struts.action.ActionForm;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DownloadAction}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestDownloadAction {
+
+    /**
+     * The content of the downloaded file.
+     */
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    /**
+     * The modification time of the downloaded file.
+     */
+    private static final long LAST_MODIFIED = 1600000000000L;
+
+    // ----------------------------------------------------- Instance Variables
+
+    private File file;
+
+    private DownloadAction action;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = File.createTempFile("download", ".txt");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.US_ASCII));
+        assertTrue(file.setLastModified(LAST_MODIFIED));
+
+        action = new DownloadAction() {
+            private static final long serialVersionUID = 1L;
+
+            protected StreamInfo getStreamInfo(ActionMapping mapping,
+                ActionForm form, HttpServletRequest request,
+                HttpServletResponse response) {
+                return new FileStreamInfo("text/plain", file);
+            }
+        };
+
+        request = new MockHttpServletRequest();
+        request.setMethod("GET");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        file.delete();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The complete content is sent with its validators.
+     */
+    @Test
+    public void testFullContent() throws Exception {
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("text/plain", response.getContentType());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals(formatDate(LAST_MODIFIED),
+            response.getHeader("Last-Modified"));
+        assertEquals(CONTENT, body());
+    }
+
+    /**
+     * A HEAD request receives the headers only.
+     */
+    @Test
+    public void testHead() throws Exception {
+        request.setMethod("HEAD");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals("", body());
+    }
+
+    /**
+     * A HEAD request for a range receives the headers of the range only.
+     */
+    @Test
+    public void testHeadRange() throws Exception {
+        request.setMethod("HEAD");
+        request.addHeader("Range", "bytes=2-5");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT,
+            response.getStatus());
+        assertEquals("bytes 2-5/20", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLength());
+        assertEquals("", body());
+    }
+
+    /**
+     * A matching entity tag, strong or weak, is answered with 304.
+     */
+    @Test
+    public void testIfNoneMatch() throws Exception {
+        String etag = new DownloadAction.FileStreamInfo("text/plain", file)
+            .getETag();
+
+        for (String header : new String[] {etag, "W/" + etag,
+                "\"other\", " + etag, "*"}) {
+            request.addHeader("If-None-Match", header);
+            response = new MockHttpServletResponse();
+            execute();
+
+            assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                response.getStatus(), header);
+            assertEquals("", body());
+        }
+
+        request.addHeader("If-None-Match", "\"other\"");
+        response = new MockHttpServletResponse();
+        execute();
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    /**
+     * An unchanged modification time is answered with 304.
+     */
+    @Test
+    public void testIfModifiedSince() throws Exception {
+        request.addHeader("If-Modified-Since", formatDate(LAST_MODIFIED));
+        execute();
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+        request.addHeader("If-Modified-Since",
+            formatDate(LAST_MODIFIED - 60000));
+        response = new MockHttpServletResponse();
+        execute();
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    /**
+     * A single closed range is sent as partial content.
+     */
+    @Test
+    public void testRange() throws Exception {
+        assertRange("bytes=2-5", 2, 5);
+    }
+
+    /**
+     * A suffix range selects the last bytes.
+     */
+    @Test
+    public void testSuffixRange() throws Exception {
+        assertRange("bytes=-4", 16, 19);
+    }
+
+    /**
+     * A suffix range longer than the content selects the whole content.
+     */
+    @Test
+    public void testLongSuffixRange() throws Exception {
+        assertRange("bytes=-100", 0, 19);
+    }
+
+    /**
+     * An open-ended range extends to the end of the content.
+     */
+    @Test
+    public void testOpenEndedRange() throws Exception {
+        assertRange("bytes=15-", 15, 19);
+    }
+
+    /**
+     * A range beyond the end of the content is truncated.
+     */
+    @Test
+    public void testTruncatedRange() throws Exception {
+        assertRange("bytes=15-100", 15, 19);
+    }
+
+    /**
+     * An unsatisfiable range is answered with 416.
+     */
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        for (String header : new String[] {"bytes=20-30", "bytes=-0",
+                "bytes=100-"}) {
+            response = new MockHttpServletResponse();
+            request.addHeader("Range", header);
+            execute();
+
+            assertEquals(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                response.getStatus(), header);
+            assertEquals("bytes */20", response.getHeader("Content-Range"));
+            assertEquals("", body());
+        }
+    }
+
+    /**
+     * An invalid range header is ignored.
+     */
+    @Test
+    public void testInvalidRange() throws Exception {
+        for (String header : new String[] {"bytes=5-2", "bytes=a-b",
+                "items=1-2", "bytes=5"}) {
+            response = new MockHttpServletResponse();
+            request.addHeader("Range", header);
+            execute();
+
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus(),
+                header);
+            assertEquals(CONTENT, body());
+        }
+    }
+
+    /**
+     * Several ranges are sent as a multipart response.
+     */
+    @Test
+    public void testMultipleRanges() throws Exception {
+        request.addHeader("Range", "bytes=0-1, 18-, 30-40");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT,
+            response.getStatus());
+        assertTrue(response.getContentType().startsWith(
+            "multipart/byteranges; boundary="), response.getContentType());
+
+        String boundary = response.getContentType().substring(
+            response.getContentType().indexOf('=') + 1);
+        String expected = "\r\n--" + boundary
+            + "\r\nContent-Type: text/plain"
+            + "\r\nContent-Range: bytes 0-1/20\r\n\r\n01"
+            + "\r\n--" + boundary
+            + "\r\nContent-Type: text/plain"
+            + "\r\nContent-Range: bytes 18-19/20\r\n\r\nij"
+            + "\r\n--" + boundary + "--\r\n";
+
+        assertEquals(expected, body());
+        assertEquals(expected.length(), response.getContentLength());
+    }
+
+    /**
+     * A header with more than the maximum number of ranges is ignored.
+     */
+    @Test
+    public void testTooManyRanges() throws Exception {
+        StringBuilder sb = new StringBuilder("bytes=");
+
+        for (int i = 0; i <= DownloadAction.MAX_RANGES; i++) {
+            sb.append((i == 0) ? "" : ",").append(i).append('-').append(i);
+        }
+
+        request.addHeader("Range", sb.toString());
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, body());
+    }
+
+    /**
+     * A range is honoured if If-Range holds the current strong entity tag.
+     */
+    @Test
+    public void testIfRangeStrongETag() throws Exception {
+        String etag = new DownloadAction.FileStreamInfo("text/plain", file)
+            .getETag();
+
+        request.addHeader("If-Range", etag);
+        assertRange("bytes=2-5", 2, 5);
+    }
+
+    /**
+     * A range is ignored if If-Range holds a weak or another entity tag.
+     */
+    @Test
+    public void testIfRangeWeakETag() throws Exception {
+        String etag = new DownloadAction.FileStreamInfo("text/plain", file)
+            .getETag();
+
+        for (String header : new String[] {"W/" + etag, "\"other\""}) {
+            response = new MockHttpServletResponse();
+            request.addHeader("If-Range", header);
+            request.addHeader("Range", "bytes=2-5");
+            execute();
+
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus(),
+                header);
+            assertNull(response.getHeader("Content-Range"));
+            assertEquals(CONTENT, body());
+        }
+    }
+
+    /**
+     * A range is honoured if If-Range holds the modification time.
+     */
+    @Test
+    public void testIfRangeDate() throws Exception {
+        request.addHeader("If-Range", formatDate(LAST_MODIFIED));
+        assertRange("bytes=2-5", 2, 5);
+
+        response = new MockHttpServletResponse();
+        request.addHeader("If-Range", formatDate(LAST_MODIFIED - 60000));
+        execute();
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    }
+
+    /**
+     * Content which is not a channel is copied without range support.
+     */
+    @Test
+    public void testStreamInfo() throws Exception {
+        action = new DownloadAction() {
+            private static final long serialVersionUID = 1L;
+
+            protected StreamInfo getStreamInfo(ActionMapping mapping,
+                ActionForm form, HttpServletRequest request,
+                HttpServletResponse response) {
+                DownloadAction.FileStreamInfo info =
+                    new DownloadAction.FileStreamInfo("text/plain", file);
+
+                return new StreamInfo() {
+                    public String getContentType() {
+                        return info.getContentType();
+                    }
+
+                    public java.io.InputStream getInputStream()
+                        throws IOException {
+                        return info.getInputStream();
+                    }
+                };
+            }
+        };
+        request.addHeader("Range", "bytes=2-5");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Accept-Ranges"));
+        assertEquals(CONTENT, body());
+    }
+
+    /**
+     * A subclass overriding copy() keeps copying the stream.
+     */
+    @Test
+    public void testCustomCopy() throws Exception {
+        action = new DownloadAction() {
+            private static final long serialVersionUID = 1L;
+
+            protected StreamInfo getStreamInfo(ActionMapping mapping,
+                ActionForm form, HttpServletRequest request,
+                HttpServletResponse response) {
+                return new FileStreamInfo("text/plain", file);
+            }
+
+            public int copy(InputStream input, OutputStream output)
+                throws IOException {
+                output.write('>');
+                return super.copy(input, output) + 1;
+            }
+        };
+        request.addHeader("Range", "bytes=2-5");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+        assertEquals(">" + CONTENT, body());
+    }
+
+    /**
+     * A subclass overriding getBufferSize() keeps copying the stream.
+     */
+    @Test
+    public void testCustomBufferSize() throws Exception {
+        action = new DownloadAction() {
+            private static final long serialVersionUID = 1L;
+
+            protected StreamInfo getStreamInfo(ActionMapping mapping,
+                ActionForm form, HttpServletRequest request,
+                HttpServletResponse response) {
+                return new FileStreamInfo("text/plain", file);
+            }
+
+            protected int getBufferSize() {
+                return 3;
+            }
+        };
+        request.addHeader("Range", "bytes=2-5");
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Accept-Ranges"));
+        assertEquals(CONTENT, body());
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private void assertRange(String range, int first, int last)
+        throws Exception {
+        request.addHeader("Range", range);
+        execute();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT,
+            response.getStatus(), range);
+        assertEquals("bytes " + first + "-" + last + "/20",
+            response.getHeader("Content-Range"));
+        assertEquals(last - first + 1, response.getContentLength());
+        assertEquals(CONTENT.substring(first, last + 1), body());
+    }
+
+    private void execute() throws Exception {
+        assertNull(action.execute(null, null, request, response));
+    }
+
+    private String body() {
+        return new String(response.getContent(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+            Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+}
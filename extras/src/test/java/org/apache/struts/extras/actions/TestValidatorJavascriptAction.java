@@ -0,0 +1,324 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.extras.actions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.commons.validator.ValidatorAction;
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.action.ActionMapping;
+import org.apache.struts.config.impl.ModuleConfigImpl;
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockHttpServletRequest;
+import org.apache.struts.mock.MockHttpServletResponse;
+import org.apache.struts.mock.MockServletConfig;
+import org.apache.struts.mock.MockServletContext;
+import org.apache.struts.validator.ValidatorJavascript;
+import org.apache.struts.validator.ValidatorPlugIn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ValidatorJavascriptAction}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestValidatorJavascriptAction {
+
+    /**
+     * The static JavaScript of the rule.
+     */
+    private static final String LIBRARY =
+        "function validateRequired(form) { return true; }";
+
+    // ----------------------------------------------------- Instance Variables
+
+    private MockServletContext context;
+
+    private ValidatorJavascript javascript;
+
+    private ValidatorJavascriptAction action;
+
+    private ActionMapping mapping;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        ValidatorResources resources = new ValidatorResources();
+        ValidatorAction validatorAction = new ValidatorAction();
+
+        validatorAction.setName("required");
+        validatorAction.setClassname(
+            "org.apache.struts.validator.FieldChecks");
+        validatorAction.setMethod("validateRequired");
+        validatorAction.setJavascript(LIBRARY);
+        resources.addValidatorAction(validatorAction);
+        resources.process();
+
+        context = new MockServletContext();
+        context.setAttribute(ValidatorPlugIn.VALIDATOR_KEY, resources);
+        javascript = ValidatorJavascript.getInstance(resources);
+
+        action = new ValidatorJavascriptAction();
+        action.setServlet(new MockActionServlet(context,
+            new MockServletConfig(context)));
+
+        mapping = new ActionMapping();
+        mapping.setModuleConfig(new ModuleConfigImpl(""));
+
+        request = new MockHttpServletRequest();
+        request.setMethod("GET");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ValidatorJavascript.clearCache();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A module without validator resources has no rule library.
+     */
+    @Test
+    public void testNoResources() throws Exception {
+        context.removeAttribute(ValidatorPlugIn.VALIDATOR_KEY);
+
+        execute();
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+    }
+
+    /**
+     * The rule library is sent uncompressed.
+     */
+    @Test
+    public void testIdentity() throws Exception {
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(javascript.getETag(), response.getHeader("ETag"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(ValidatorJavascriptAction.CACHE_UNVERSIONED,
+            response.getHeader("Cache-Control"));
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(ValidatorJavascriptAction.CONTENT_TYPE,
+            response.getContentType());
+        assertArrayEquals(javascript.getContent(), response.getContent());
+        assertEquals(javascript.getContent().length,
+            response.getContentLength());
+        assertTrue(new String(response.getContent(), "UTF-8").contains(
+            LIBRARY));
+    }
+
+    /**
+     * A request for the current version may be cached.
+     */
+    @Test
+    public void testVersioned() throws Exception {
+        request.addParameter("v", javascript.getVersion());
+
+        execute();
+
+        assertEquals(ValidatorJavascriptAction.CACHE_VERSIONED,
+            response.getHeader("Cache-Control"));
+    }
+
+    /**
+     * A request for another version must be revalidated.
+     */
+    @Test
+    public void testOtherVersion() throws Exception {
+        request.addParameter("v", "outdated");
+
+        execute();
+
+        assertEquals(ValidatorJavascriptAction.CACHE_UNVERSIONED,
+            response.getHeader("Cache-Control"));
+    }
+
+    /**
+     * A matching entity tag is not modified.
+     */
+    @Test
+    public void testNotModified() throws Exception {
+        request.addHeader("If-None-Match", javascript.getETag());
+
+        execute();
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+            response.getStatus());
+        assertEquals(0, response.getContent().length);
+    }
+
+    /**
+     * The rule library is sent compressed with its own entity tag.
+     */
+    @Test
+    public void testGzip() throws Exception {
+        request.addHeader("Accept-Encoding", "deflate, gzip");
+
+        execute();
+
+        assertEquals(javascript.getGzipETag(), response.getHeader("ETag"));
+        assertNotEquals(javascript.getETag(), response.getHeader("ETag"));
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertArrayEquals(javascript.getContent(),
+            gunzip(response.getContent()));
+    }
+
+    /**
+     * The entity tag of the uncompressed library does not match a
+     * compressed response.
+     */
+    @Test
+    public void testGzipNotModifiedByIdentityETag() throws Exception {
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", javascript.getETag());
+
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+    }
+
+    /**
+     * The entity tag of the compressed library matches a compressed
+     * response.
+     */
+    @Test
+    public void testGzipNotModified() throws Exception {
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", javascript.getGzipETag());
+
+        execute();
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+            response.getStatus());
+    }
+
+    /**
+     * A HEAD request has no body.
+     */
+    @Test
+    public void testHead() throws Exception {
+        request.setMethod("HEAD");
+
+        execute();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(javascript.getContent().length,
+            response.getContentLength());
+        assertEquals(0, response.getContent().length);
+    }
+
+    /**
+     * The quality value of the gzip coding is honoured.
+     */
+    @Test
+    public void testAcceptsGzip() {
+        assertFalse(action.acceptsGzip(null));
+        assertFalse(action.acceptsGzip("deflate"));
+        assertTrue(action.acceptsGzip("gzip"));
+        assertTrue(action.acceptsGzip("br, GZIP;q=0.5"));
+        assertFalse(action.acceptsGzip("gzip;q=0"));
+        assertFalse(action.acceptsGzip("gzip; q = 0.0"));
+        assertFalse(action.acceptsGzip("gzip;q=x"));
+    }
+
+    /**
+     * Entity tags are matched like If-None-Match.
+     */
+    @Test
+    public void testMatches() {
+        String etag = javascript.getETag();
+
+        assertFalse(action.matches(null, etag));
+        assertFalse(action.matches("\"other\"", etag));
+        assertTrue(action.matches(etag, etag));
+        assertTrue(action.matches("\"other\", W/" + etag, etag));
+        assertTrue(action.matches("*", etag));
+    }
+
+    /**
+     * Dropping the JavaScript of one set of resources keeps the others.
+     */
+    @Test
+    public void testClearCachePerResources() {
+        ValidatorResources resources =
+            (ValidatorResources) context.getAttribute(
+                ValidatorPlugIn.VALIDATOR_KEY);
+        ValidatorResources other = new ValidatorResources();
+        ValidatorJavascript otherJavascript =
+            ValidatorJavascript.getInstance(other);
+
+        assertSame(javascript, ValidatorJavascript.getInstance(resources));
+
+        ValidatorJavascript.clearCache(other);
+
+        assertSame(javascript, ValidatorJavascript.getInstance(resources));
+        assertNotSame(otherJavascript, ValidatorJavascript.getInstance(other));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private void execute() throws Exception {
+        assertNull(action.execute(mapping, null, request, response));
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (InputStream in =
+                new GZIPInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[1024];
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -9,6 +9,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
@@ -17,6 +19,8 @@ import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +30,16 @@ import jakarta.servlet.ServletContext;
 /**
  * Represents a saved script.
  *
+ * <p>Each execution gets its own {@code ScriptContext}, so concurrent
+ * executions do not share their bindings. If the engine declares itself
+ * thread-safe through the {@code THREADING} parameter of its factory, all
+ * executions share one engine and one {@code CompiledScript}; otherwise each
+ * concurrent execution borrows an engine from a pool, with the script
+ * compiled once per engine.</p>
+ *
+ * <p>The file of the script is watched by the {@link ScriptWatcher} if
+ * possible, and checked for a new content on each request otherwise.</p>
+ *
  * <p>This class is thread-safe.</p>
  *
  * @author Stefan Graff
@@ -55,20 +69,30 @@ class Script {
     /** Indicator if the script-engine is compilable */
     public final boolean compilable;
 
+    /**
+     * Indicator if the script-engine may execute scripts concurrently.
+     *
+     * @since Struts 1.5.0
+     */
+    public final boolean threadSafe;
+
     /**  The time when the script was last modified. */
-    public FileTime lastModifiedTime;
+    private FileTime lastModifiedTime;
 
-    /**  The contents of the script file. */
-    public String content;
+    /** The current content of the script. */
+    private volatile Version version;
 
-    /**  The compiled script if it is possible from the script-engine. */
-    public CompiledScript compiledScript;
+    /** The engines available for executions of the current version. */
+    private volatile Queue<PooledEngine> pool = new ConcurrentLinkedQueue<>();
 
-    /** Saves the last io-exception. */
-    private IOException ioe;
+    /** Indicator if the file of the script is watched. */
+    private volatile boolean watched;
 
-    /** Saves the last script-exception. */
-    private ScriptException se;
+    /** Indicator if the watched file of the script has changed. */
+    private volatile boolean modified;
+
+    /** Saves the last io-exception. */
+    private volatile IOException ioe;
 
     /**
      * Creates a new instance of this class.
@@ -88,11 +112,10 @@ class Script {
         final int i = name.lastIndexOf('.');
         final String ext = i < 0 ? name : name.substring(i + 1);
         scriptEngine = scriptEngineManager.getEngineByExtension(ext);
-        if (scriptEngine == null) {
-            se = new ScriptException("No ScriptEngine found for file: " + name);
-        }
 
         compilable = scriptEngine instanceof Compilable;
+        threadSafe = scriptEngine != null
+                && scriptEngine.getFactory().getParameter("THREADING") != null;
 
         final String realPath = context.getRealPath(name);
         if (realPath == null) {
@@ -100,16 +123,22 @@ class Script {
         } else {
             path = Paths.get(realPath);
         }
-        
+
+        if (scriptEngine == null) {
+            version = new Version(null, null,
+                new ScriptException("No ScriptEngine found for file: " + name));
+            return;
+        }
+
+        watched = path != null && ScriptWatcher.register(path, this);
+
         try (InputStream inputStream = realPath == null
                 ? context.getResourceAsStream(name)
                 : null) {
 
             if (path == null && inputStream == null) {
-                se = new ScriptException("Could not find resource for file: " + name);
-            }
-
-            if (se != null) {
+                version = new Version(null, null,
+                    new ScriptException("Could not find resource for file: " + name));
                 return;
             }
 
@@ -127,41 +156,85 @@ class Script {
             }
         } catch (IOException e) {
             ioe = e;
+            if (version == null) {
+                version = new Version(null, null, null);
+            }
         }
     }
 
+    /**
+     * Returns {@code true} if the script file may have a new content. If
+     * the file is watched, this is only the case after a change of the file
+     * has been reported.
+     *
+     * @return {@code true} if {@link #checkNewContent()} should be called
+     *
+     * @since Struts 1.5.0
+     */
+    public boolean isModified() {
+        return path != null && (!watched || modified || ioe != null);
+    }
+
+    /**
+     * Marks the script file as changed. This is called by the
+     * {@link ScriptWatcher}.
+     *
+     * @param watched {@code false} if the file is no longer watched
+     *
+     * @since Struts 1.5.0
+     */
+    void setModified(final boolean watched) {
+        this.modified = true;
+        if (!watched) {
+            this.watched = false;
+        }
+    }
+
+    /**
+     * Releases this script. Its file is no longer watched, and the pooled
+     * engines are dropped.
+     *
+     * @since Struts 1.5.0
+     */
+    public void destroy() {
+        watched = false;
+        ScriptWatcher.unregister(this);
+        pool = new ConcurrentLinkedQueue<>();
+    }
+
     /**
      * Checks the script file if it has a new content. If so, the
-     * new content is loaded and compiled if possible.
+     * new content is loaded and compiled if possible. A change reported by
+     * the {@link ScriptWatcher} always reloads the content.
      *
      * <p>A possible {@code ScriptException} and/or
      * {@code IOException} will be saved.</p>
      *
      * @return {@code true} script file is updated
      */
-    public boolean checkNewContent() {
+    public synchronized boolean checkNewContent() {
+        final boolean reported = this.modified;
         this.ioe = null;
+        this.modified = false;
 
-        if (path == null) {
+        if (path == null || scriptEngine == null) {
             return false;
         }
 
         try {
             final FileTime lastModifiedTime = IOUtils.getLastModifiedTime(path);
-            if (this.lastModifiedTime != null &&
+            if (!reported && this.lastModifiedTime != null &&
                     this.lastModifiedTime.compareTo(lastModifiedTime) >= 0) {
 
                 return false;
             }
 
-            synchronized (this) {
-                log.debug("Loading updated script: {}", name);
+            log.debug("Loading updated script: {}", name);
 
-                this.lastModifiedTime = lastModifiedTime;
+            this.lastModifiedTime = lastModifiedTime;
 
-                try (Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-                    setContent(IOUtils.getStringFromReader(r));
-                }
+            try (Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                setContent(IOUtils.getStringFromReader(r));
             }
         } catch (IOException e) {
             ioe = e;
@@ -171,18 +244,31 @@ class Script {
     }
 
     /**
-     * Returns a set of names values representing the state of this script.
-     * The values are generally visible in this scripts using the associated
-     * keys as variable names.
+     * Creates the context of one execution of this script. The context has
+     * new engine-scoped bindings, holding only the name of the script, and
+     * shares the global bindings, reader and writers of the engine.
+     *
+     * @return a new script context
      *
-     * @return a scope of named values
+     * @since Struts 1.5.0
      */
-    public Bindings getBindings() {
-        final Bindings bindings = scriptEngine.getBindings(ScriptContext.ENGINE_SCOPE);
-        bindings.clear();
+    public ScriptContext createContext() {
+        final ScriptContext defaults = scriptEngine.getContext();
+        final ScriptContext context = new SimpleScriptContext();
+
+        final Bindings bindings = threadSafe
+                ? scriptEngine.createBindings()
+                : new SimpleBindings();
         bindings.put(ScriptEngine.FILENAME, name);
 
-        return bindings;
+        context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        context.setBindings(defaults.getBindings(ScriptContext.GLOBAL_SCOPE),
+            ScriptContext.GLOBAL_SCOPE);
+        context.setReader(defaults.getReader());
+        context.setWriter(defaults.getWriter());
+        context.setErrorWriter(defaults.getErrorWriter());
+
+        return context;
     }
 
     /**
@@ -197,30 +283,50 @@ class Script {
             throw ioe;
         }
 
-        if (se != null) {
-            throw se;
+        if (version.se != null) {
+            throw version.se;
         }
     }
 
     /**
-     * Executes the specified script. The default
-     * {@code ScriptContext} for this {@code Script} is used.
+     * Executes the current content of this script in the specified
+     * context.
+     *
+     * @param context The context created by {@link #createContext()}
      *
      * @return The value returned from the execution of the script.
      * @throws ScriptException if error occurs in script.
+     *
+     * @since Struts 1.5.0
      */
-    public Object eval() throws ScriptException {
-        if (compilable) {
-            if (compiledScript == null) {
-                throw se == null ? new ScriptException("Script could not compiled") : se;
-            }
-            return compiledScript.eval();
+    public Object eval(final ScriptContext context) throws ScriptException {
+        final Version version = this.version;
+
+        if (version.content == null || version.content.isEmpty()
+                || (compilable && version.compiledScript == null)) {
+            throw version.se == null
+                    ? new ScriptException("Script could not compiled")
+                    : version.se;
         }
 
-        if (content == null || content.isEmpty()) {
-            throw se == null ? new ScriptException("Script could not compiled") : se;
+        if (threadSafe) {
+            return version.eval(scriptEngine, version.compiledScript, context);
+        }
+
+        final Queue<PooledEngine> pool = this.pool;
+        PooledEngine engine = pool.poll();
+        if (engine == null) {
+            engine = new PooledEngine(version);
+        }
+
+        try {
+            return version.eval(engine.scriptEngine, engine.compiledScript,
+                context);
+        } finally {
+            if (engine.version == this.version) {
+                pool.offer(engine);
+            }
         }
-        return scriptEngine.eval(content);
     }
 
     /**
@@ -231,21 +337,92 @@ class Script {
      * @param content The {@code Content} to compile.
      */
     private void setContent(final String content) {
-        this.se = null;
-        this.compiledScript = null;
-
-        if (content == null || content.isEmpty()) {
-            this.content = "";
-        } else if (compilable) {
-            this.content = null;
+        CompiledScript compiledScript = null;
+        ScriptException se = null;
 
+        if (content != null && !content.isEmpty() && compilable) {
             try {
-                this.compiledScript = ((Compilable) scriptEngine).compile(content);
+                compiledScript = ((Compilable) scriptEngine).compile(content);
             } catch (ScriptException e) {
                 se = e;
             }
-        } else {
+        }
+
+        final Version version = new Version(content == null ? "" : content,
+            compiledScript, se);
+        final Queue<PooledEngine> pool = new ConcurrentLinkedQueue<>();
+        if (!threadSafe && se == null) {
+            pool.offer(new PooledEngine(version, scriptEngine, compiledScript));
+        }
+
+        this.pool = pool;
+        this.version = version;
+    }
+
+    /**
+     * One content of the script.
+     */
+    private static final class Version {
+
+        /** The content of the script file. */
+        final String content;
+
+        /** The content compiled by the script engine of the script. */
+        final CompiledScript compiledScript;
+
+        /** The exception compiling the content. */
+        final ScriptException se;
+
+        Version(final String content, final CompiledScript compiledScript,
+                final ScriptException se) {
             this.content = content;
+            this.compiledScript = compiledScript;
+            this.se = se;
+        }
+
+        /**
+         * Executes this content with an engine.
+         */
+        Object eval(final ScriptEngine scriptEngine,
+                final CompiledScript compiledScript,
+                final ScriptContext context) throws ScriptException {
+            return compiledScript != null
+                    ? compiledScript.eval(context)
+                    : scriptEngine.eval(content, context);
+        }
+    }
+
+    /**
+     * A script engine with one content of the script compiled, used by one
+     * execution at a time.
+     */
+    private final class PooledEngine {
+
+        /** The content compiled by this engine. */
+        final Version version;
+
+        /** The engine. */
+        final ScriptEngine scriptEngine;
+
+        /** The content compiled by this engine, if compilable. */
+        final CompiledScript compiledScript;
+
+        PooledEngine(final Version version, final ScriptEngine scriptEngine,
+                final CompiledScript compiledScript) {
+            this.version = version;
+            this.scriptEngine = scriptEngine;
+            this.compiledScript = compiledScript;
+        }
+
+        /**
+         * Creates a new engine and compiles the content.
+         */
+        PooledEngine(final Version version) throws ScriptException {
+            this.version = version;
+            this.scriptEngine = Script.this.scriptEngine.getFactory().getScriptEngine();
+            this.compiledScript = compilable
+                    ? ((Compilable) scriptEngine).compile(version.content)
+                    : null;
         }
     }
-}
\ No newline at end of file
+}
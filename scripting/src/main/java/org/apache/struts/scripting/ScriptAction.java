@@ -47,6 +47,7 @@ import org.apache.struts.action.ActionForm;
 import org.apache.struts.action.ActionForward;
 import org.apache.struts.action.ActionMapping;
 import org.apache.struts.action.ActionMessages;
+import org.apache.struts.action.ActionServlet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,6 +96,11 @@ import jakarta.servlet.http.HttpSession;
  *       - A property to be used by the filter.</li>
  * </ul>
  *
+ * <p>Each request is executed with its own bindings, so scripts may be
+ * executed concurrently. Engines which are not thread-safe, according to the
+ * {@code THREADING} parameter of their factory, are pooled, one instance per
+ * concurrent execution. Script files are reloaded when they change.</p>
+ *
  * <p>To use other scripting engines, add them to the classpath.</p>
  *
  * <p>To register more extensions to a scripting engine, create a file called
@@ -272,7 +278,8 @@ public class ScriptAction extends Action {
 
         Script script = loadScript(scriptName, application);
 
-        Bindings bindings = script.getBindings();
+        final ScriptContext scriptContext = script.createContext();
+        Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
         bindings.putAll(params);
 
         bindings.put("request", request);
@@ -292,12 +299,11 @@ public class ScriptAction extends Action {
                 getResources(request));
         bindings.put("struts", struts);
 
-        final ScriptContext scriptContext = script.scriptEngine.getContext();
         for (ScriptContextFilter filter : filters) {
             filter.apply(scriptContext);
         }
 
-        script.eval();
+        script.eval(scriptContext);
 
         ActionForward af = struts.getForward();
         return af;
@@ -383,9 +389,28 @@ public class ScriptAction extends Action {
     }
 
 
+    /**
+     * Set the servlet instance to which we are attached (if
+     * {@code servlet} is non-null), or release the loaded scripts and
+     * stop watching their files (if {@code servlet} is null).
+     *
+     * @param servlet The new controller servlet, if any
+     */
+    public void setServlet(ActionServlet servlet) {
+        super.setServlet(servlet);
+
+        if (servlet == null) {
+            for (Script script : scripts.values()) {
+                script.destroy();
+            }
+            scripts.clear();
+        }
+    }
+
     /**
      *  Loads the script from cache if possible. Reloads if the script has been
-     *  recently modified.
+     *  recently modified. Files are watched for modifications if the file
+     *  system supports it, and checked on each call otherwise.
      *
      * @param  name    The name of the script
      * @param  context The servlet context
@@ -398,14 +423,13 @@ public class ScriptAction extends Action {
     protected Script loadScript(final String name, final ServletContext context)
             throws IOException, ScriptException {
 
-        final Script script = scripts.compute(name, (key, oldValue) -> {
-            if (oldValue == null) {
-                return new Script(SCRIPT_ENGINE_MANAGER, context, key);
-            }
-
-            oldValue.checkNewContent();
-            return oldValue;
-        });
+        Script script = scripts.get(name);
+        if (script == null) {
+            script = scripts.computeIfAbsent(name,
+                key -> new Script(SCRIPT_ENGINE_MANAGER, context, key));
+        } else if (script.isModified()) {
+            script.checkNewContent();
+        }
 
         try {
             script.checkExceptions();
@@ -0,0 +1,313 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the directories of script files with a {@code WatchService} and
+ * marks a {@link Script} as modified when its file changes, so that scripts
+ * do not need to check their file on every request.
+ *
+ * <p>The events are processed by a single daemon thread, which is started
+ * when the first file is registered. When the last script is unregistered,
+ * which {@link ScriptAction} does when it is released by the servlet, the
+ * watch service is closed and the thread stops. Scripts are only weakly
+ * referenced. If the file system does not support watching, no file can be
+ * registered and the scripts check their file themselves.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @since Struts 1.5.0
+ */
+final class ScriptWatcher implements Runnable {
+
+    /**
+     * The {@code Log} instance for this class.
+     */
+    private final static Logger LOG =
+        LoggerFactory.getLogger(ScriptWatcher.class);
+
+    /**
+     * The running instance, {@code null} if no script is registered.
+     * Guarded by the class.
+     */
+    private static ScriptWatcher instance;
+
+    /**
+     * Indicator if watching is unavailable. Guarded by the class.
+     */
+    private static boolean unavailable;
+
+    /** The watch service. */
+    private final WatchService watchService;
+
+    /** The watched directories by their key. */
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+    /** The scripts by their absolute file path. */
+    private final Map<Path, Set<Script>> scripts = new ConcurrentHashMap<>();
+
+    /** The thread processing the events. */
+    private final Thread thread;
+
+    private ScriptWatcher(final WatchService watchService) {
+        this.watchService = watchService;
+        this.thread = new Thread(this, "struts-scripting-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Registers the file of a script. The script is marked as modified
+     * whenever the file is created, modified or deleted. The watcher is
+     * started if no script is registered yet.
+     *
+     * @param path   The file of the script
+     * @param script The script
+     *
+     * @return {@code true} if the file is watched, {@code false} if the
+     *     script must check the file itself
+     */
+    static synchronized boolean register(final Path path, final Script script) {
+        if (instance == null) {
+            if (unavailable) {
+                return false;
+            }
+
+            try {
+                instance = new ScriptWatcher(
+                    FileSystems.getDefault().newWatchService());
+            } catch (IOException | UnsupportedOperationException e) {
+                LOG.info("Script files can not be watched, checking on each request", e);
+                unavailable = true;
+                return false;
+            }
+
+            instance.thread.start();
+        }
+
+        return instance.watch(path, script);
+    }
+
+    /**
+     * Unregisters a script. The watcher is stopped if no script is
+     * registered anymore.
+     *
+     * @param script The script
+     */
+    static synchronized void unregister(final Script script) {
+        if (instance != null && instance.remove(script)) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Returns the thread processing the events.
+     *
+     * @return the thread or {@code null} if no script is registered
+     */
+    static synchronized Thread getThread() {
+        return instance == null ? null : instance.thread;
+    }
+
+    /**
+     * Registers the file of a script.
+     *
+     * @param path   The file of the script
+     * @param script The script
+     *
+     * @return {@code true} if the file is watched
+     */
+    private boolean watch(final Path path, final Script script) {
+        final Path file = path.toAbsolutePath().normalize();
+        final Path dir = file.getParent();
+        if (dir == null) {
+            return false;
+        }
+
+        try {
+            final WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            directories.put(key, dir);
+        } catch (IOException | UnsupportedOperationException
+                | ClosedWatchServiceException e) {
+            LOG.debug("Unable to watch directory: {}", dir, e);
+            return false;
+        }
+
+        scripts.computeIfAbsent(file, k -> Collections.synchronizedSet(
+                Collections.newSetFromMap(new WeakHashMap<Script, Boolean>())))
+            .add(script);
+
+        return true;
+    }
+
+    /**
+     * Removes a script, and the files and directories without scripts.
+     *
+     * @param script The script
+     *
+     * @return {@code true} if no script is left
+     */
+    private boolean remove(final Script script) {
+        final Set<Path> used = new HashSet<>();
+        for (Iterator<Map.Entry<Path, Set<Script>>> it =
+                scripts.entrySet().iterator(); it.hasNext();) {
+
+            final Map.Entry<Path, Set<Script>> entry = it.next();
+            final Set<Script> fileScripts = entry.getValue();
+            fileScripts.remove(script);
+            if (fileScripts.isEmpty()) {
+                it.remove();
+            } else {
+                used.add(entry.getKey().getParent());
+            }
+        }
+
+        for (Iterator<Map.Entry<WatchKey, Path>> it =
+                directories.entrySet().iterator(); it.hasNext();) {
+
+            final Map.Entry<WatchKey, Path> entry = it.next();
+            if (!used.contains(entry.getValue())) {
+                entry.getKey().cancel();
+                it.remove();
+            }
+        }
+
+        return scripts.isEmpty();
+    }
+
+    /**
+     * Closes the watch service, which stops the thread.
+     */
+    private void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOG.debug("Unable to close the script watcher", e);
+        }
+    }
+
+    /**
+     * Processes the events until the watch service is closed.
+     */
+    public void run() {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                LOG.debug("Script watcher stopped");
+                return;
+            }
+
+            final Path dir = directories.get(key);
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        modified(dir, false);
+                    } else {
+                        modified(dir.resolve((Path) event.context()));
+                    }
+                }
+            }
+
+            if (!key.reset()) {
+                directories.remove(key);
+                if (dir != null) {
+                    modified(dir, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the scripts of a file as modified.
+     *
+     * @param file The file
+     */
+    private void modified(final Path file) {
+        final Set<Script> fileScripts = scripts.get(file);
+        if (fileScripts != null) {
+            LOG.debug("Script file changed: {}", file);
+            for (Script script : copy(fileScripts)) {
+                script.setModified(true);
+            }
+        }
+    }
+
+    /**
+     * Marks the scripts of all files of a directory as modified. If the
+     * directory is no longer watched, the scripts are unregistered and must
+     * check their file themselves from now on.
+     *
+     * @param dir     The directory
+     * @param invalid {@code true} if the directory is no longer watched
+     */
+    private void modified(final Path dir, final boolean invalid) {
+        for (Map.Entry<Path, Set<Script>> entry : scripts.entrySet()) {
+            if (dir.equals(entry.getKey().getParent())) {
+                LOG.debug("Script file may have changed: {}", entry.getKey());
+                if (invalid) {
+                    scripts.remove(entry.getKey());
+                }
+                for (Script script : copy(entry.getValue())) {
+                    script.setModified(!invalid);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the scripts of a file, which are still referenced.
+     *
+     * @param fileScripts The scripts of a file
+     *
+     * @return the copy
+     */
+    private static List<Script> copy(final Set<Script> fileScripts) {
+        synchronized (fileScripts) {
+            return new ArrayList<>(fileScripts);
+        }
+    }
+}
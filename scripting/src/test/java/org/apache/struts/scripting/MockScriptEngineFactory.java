@@ -0,0 +1,232 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+/**
+ * <p>Script engine factory for unit tests. The engines store the trimmed
+ * script in the engine-scoped binding {@code result}, wait for the
+ * {@code CyclicBarrier} of the binding {@code barrier} if present, and
+ * record a violation if they are used by two executions at once.</p>
+ *
+ * @version $Rev$ $Date$
+ */
+public class MockScriptEngineFactory implements ScriptEngineFactory {
+
+    /** The number of engines created. */
+    static final AtomicInteger ENGINES = new AtomicInteger();
+
+    /** The number of scripts compiled. */
+    static final AtomicInteger COMPILES = new AtomicInteger();
+
+    /** The number of engines used by two executions at once. */
+    static final AtomicInteger VIOLATIONS = new AtomicInteger();
+
+    /**
+     * Resets the counters.
+     */
+    static void reset() {
+        ENGINES.set(0);
+        COMPILES.set(0);
+        VIOLATIONS.set(0);
+    }
+
+    public String getEngineName() {
+        return "mock";
+    }
+
+    public String getEngineVersion() {
+        return "1.0";
+    }
+
+    public List<String> getExtensions() {
+        return Arrays.asList("mock");
+    }
+
+    public List<String> getMimeTypes() {
+        return Arrays.asList("text/x-mock");
+    }
+
+    public List<String> getNames() {
+        return Arrays.asList("mock");
+    }
+
+    public String getLanguageName() {
+        return "mock";
+    }
+
+    public String getLanguageVersion() {
+        return "1.0";
+    }
+
+    public Object getParameter(String key) {
+        return null;
+    }
+
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return obj + "." + m;
+    }
+
+    public String getOutputStatement(String toDisplay) {
+        return toDisplay;
+    }
+
+    public String getProgram(String... statements) {
+        return String.join("\n", statements);
+    }
+
+    public ScriptEngine getScriptEngine() {
+        ENGINES.incrementAndGet();
+        return new MockScriptEngine(this);
+    }
+
+    /**
+     * <p>Factory of engines declaring themselves thread-safe.</p>
+     */
+    public static class ThreadSafe extends MockScriptEngineFactory {
+        public String getEngineName() {
+            return "safe";
+        }
+
+        public List<String> getExtensions() {
+            return Arrays.asList("safe");
+        }
+
+        public List<String> getNames() {
+            return Arrays.asList("safe");
+        }
+
+        public Object getParameter(String key) {
+            return "THREADING".equals(key) ? "MULTITHREADED" : null;
+        }
+    }
+
+    /**
+     * <p>The engine.</p>
+     */
+    static class MockScriptEngine extends AbstractScriptEngine
+            implements Compilable {
+
+        private final ScriptEngineFactory factory;
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+
+        MockScriptEngine(ScriptEngineFactory factory) {
+            this.factory = factory;
+        }
+
+        public Object eval(String script, ScriptContext context)
+                throws ScriptException {
+            if (script.trim().equals("fail")) {
+                throw new ScriptException("failed");
+            }
+
+            boolean shared = factory.getParameter("THREADING") != null;
+            if (!shared && !busy.compareAndSet(false, true)) {
+                VIOLATIONS.incrementAndGet();
+            }
+
+            try {
+                CyclicBarrier barrier =
+                    (CyclicBarrier) context.getAttribute("barrier");
+                if (barrier != null) {
+                    barrier.await(10, TimeUnit.SECONDS);
+                }
+
+                String result = script.trim();
+                context.setAttribute("result", result,
+                    ScriptContext.ENGINE_SCOPE);
+                return result;
+            } catch (Exception e) {
+                throw new ScriptException(e);
+            } finally {
+                if (!shared) {
+                    busy.set(false);
+                }
+            }
+        }
+
+        public Object eval(Reader reader, ScriptContext context)
+                throws ScriptException {
+            StringWriter writer = new StringWriter();
+            try {
+                char[] buffer = new char[256];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    writer.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new ScriptException(e);
+            }
+            return eval(writer.toString(), context);
+        }
+
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        public ScriptEngineFactory getFactory() {
+            return factory;
+        }
+
+        public CompiledScript compile(final String script)
+                throws ScriptException {
+            if (script.trim().equals("fail")) {
+                throw new ScriptException("failed");
+            }
+
+            COMPILES.incrementAndGet();
+            return new CompiledScript() {
+                public Object eval(ScriptContext context)
+                        throws ScriptException {
+                    return MockScriptEngine.this.eval(script, context);
+                }
+
+                public ScriptEngine getEngine() {
+                    return MockScriptEngine.this;
+                }
+            };
+        }
+
+        public CompiledScript compile(Reader script) throws ScriptException {
+            throw new ScriptException("Not supported");
+        }
+    }
+}
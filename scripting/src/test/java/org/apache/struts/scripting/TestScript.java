@@ -0,0 +1,309 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.apache.struts.mock.MockServletContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Script}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestScript {
+
+    /**
+     * The number of concurrent executions.
+     */
+    private static final int THREADS = 4;
+
+    // ----------------------------------------------------- Instance Variables
+
+    private Path dir;
+
+    private ScriptEngineManager manager;
+
+    private FileContext context;
+
+    private final List<Script> scripts = new ArrayList<>();
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("scripts");
+        manager = new ScriptEngineManager();
+        context = new FileContext(dir);
+        MockScriptEngineFactory.reset();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Script script : scripts) {
+            script.destroy();
+        }
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * Each execution has its own bindings.
+     */
+    @Test
+    public void testEval() throws Exception {
+        Script script = createScript("/hello.mock", "hello");
+
+        script.checkExceptions();
+
+        ScriptContext first = script.createContext();
+        ScriptContext second = script.createContext();
+
+        assertEquals("hello", script.eval(first));
+        assertEquals("hello", first.getAttribute("result"));
+        assertEquals("/hello.mock", first.getAttribute("javax.script.filename"));
+        assertNull(second.getAttribute("result"));
+        assertNotSame(first.getBindings(ScriptContext.ENGINE_SCOPE),
+            second.getBindings(ScriptContext.ENGINE_SCOPE));
+    }
+
+    /**
+     * A compilation error is reported on each execution.
+     */
+    @Test
+    public void testCompileError() throws Exception {
+        Script script = createScript("/fail.mock", "fail");
+
+        assertThrows(ScriptException.class, script::checkExceptions);
+        assertThrows(ScriptException.class,
+            () -> script.eval(script.createContext()));
+    }
+
+    /**
+     * A missing engine is reported.
+     */
+    @Test
+    public void testNoEngine() throws Exception {
+        Script script = createScript("/hello.unknown", "hello");
+
+        assertThrows(ScriptException.class, script::checkExceptions);
+    }
+
+    /**
+     * Concurrent executions of an engine which isn't thread-safe use pooled
+     * engines, which are reused afterwards.
+     */
+    @Test
+    public void testPooledEngines() throws Exception {
+        Script script = createScript("/pooled.mock", "pooled");
+
+        assertFalse(script.threadSafe);
+        runConcurrently(script);
+
+        int engines = MockScriptEngineFactory.ENGINES.get();
+
+        assertEquals(0, MockScriptEngineFactory.VIOLATIONS.get());
+        assertTrue(engines >= THREADS, "engines: " + engines);
+
+        // The pooled engines are reused
+        runConcurrently(script);
+        for (int i = 0; i < THREADS; i++) {
+            assertEquals("pooled", script.eval(script.createContext()));
+        }
+
+        assertEquals(engines, MockScriptEngineFactory.ENGINES.get());
+        assertEquals(0, MockScriptEngineFactory.VIOLATIONS.get());
+    }
+
+    /**
+     * A thread-safe engine is shared by all executions and compiles the
+     * script once.
+     */
+    @Test
+    public void testThreadSafeEngine() throws Exception {
+        Script script = createScript("/shared.safe", "shared");
+
+        assertTrue(script.threadSafe);
+        int engines = MockScriptEngineFactory.ENGINES.get();
+
+        runConcurrently(script);
+
+        assertEquals(engines, MockScriptEngineFactory.ENGINES.get());
+        assertEquals(1, MockScriptEngineFactory.COMPILES.get());
+    }
+
+    /**
+     * A changed file is reported by the watcher and reloaded, and the engines
+     * compiled for the previous content are dropped.
+     */
+    @Test
+    public void testReload() throws Exception {
+        Script script = createScript("/reload.mock", "one");
+
+        runConcurrently(script);
+        assertEquals("one", script.eval(script.createContext()));
+
+        write("/reload.mock", "two");
+        awaitModified(script);
+
+        assertTrue(script.checkNewContent());
+        assertFalse(script.isModified());
+
+        int engines = MockScriptEngineFactory.ENGINES.get();
+
+        for (int i = 0; i < THREADS; i++) {
+            assertEquals("two", script.eval(script.createContext()));
+        }
+        assertEquals(engines, MockScriptEngineFactory.ENGINES.get());
+    }
+
+    /**
+     * The watcher stops when the last script is destroyed.
+     */
+    @Test
+    public void testDestroy() throws Exception {
+        Script first = createScript("/first.mock", "first");
+        Script second = createScript("/second.mock", "second");
+
+        Thread thread = ScriptWatcher.getThread();
+
+        assertNotNull(thread);
+        assertTrue(thread.isAlive());
+        assertFalse(first.isModified());
+
+        first.destroy();
+        assertEquals(thread, ScriptWatcher.getThread());
+
+        second.destroy();
+        assertNull(ScriptWatcher.getThread());
+
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+
+        // A destroyed script checks its file itself
+        assertTrue(first.isModified());
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private Script createScript(String name, String content)
+        throws IOException {
+        write(name, content);
+
+        Script script = new Script(manager, context, name);
+
+        scripts.add(script);
+        return script;
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(dir.resolve(name.substring(1)),
+            content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Waits until the script is reported as modified.
+     */
+    private static void awaitModified(Script script)
+        throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+
+        while (!script.isModified()) {
+            assertTrue(System.currentTimeMillis() < end, "not modified");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Executes the script concurrently, the executions waiting for each
+     * other.
+     */
+    private static void runConcurrently(Script script) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    ScriptContext scriptContext = script.createContext();
+
+                    scriptContext.setAttribute("barrier", barrier,
+                        ScriptContext.ENGINE_SCOPE);
+                    return script.eval(scriptContext);
+                }));
+            }
+
+            for (Future<Object> result : results) {
+                assertNotNull(result.get(20, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Servlet context whose resources are files of a directory.
+     */
+    static class FileContext extends MockServletContext {
+        private final Path dir;
+
+        FileContext(Path dir) {
+            this.dir = dir;
+        }
+
+        public String getRealPath(String path) {
+            return dir.resolve(path.substring(1)).toString();
+        }
+    }
+}
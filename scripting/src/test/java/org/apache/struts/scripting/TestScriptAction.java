@@ -0,0 +1,137 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.scripting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.MockServletConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ScriptAction}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestScriptAction {
+
+    // ----------------------------------------------------- Instance Variables
+
+    private Path dir;
+
+    private TestScript.FileContext context;
+
+    private ScriptAction action;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("scripts");
+        context = new TestScript.FileContext(dir);
+        action = new ScriptAction();
+        action.setServlet(new MockActionServlet(context,
+            new MockServletConfig(context)));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        action.setServlet(null);
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A loaded script is reused, and reloaded when its file changes.
+     */
+    @Test
+    public void testLoadScript() throws Exception {
+        write("/action.mock", "one");
+
+        Script script = action.loadScript("/action.mock", context);
+
+        assertSame(script, action.loadScript("/action.mock", context));
+        assertEquals("one", script.eval(script.createContext()));
+
+        write("/action.mock", "two");
+
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (!"two".equals(action.loadScript("/action.mock", context)
+                .eval(script.createContext()))) {
+            assertTrue(System.currentTimeMillis() < end, "not reloaded");
+            Thread.sleep(20);
+        }
+
+        assertSame(script, action.loadScript("/action.mock", context));
+    }
+
+    /**
+     * Releasing the action releases its scripts and stops the watcher.
+     */
+    @Test
+    public void testReleaseScripts() throws Exception {
+        write("/action.mock", "one");
+
+        Script script = action.loadScript("/action.mock", context);
+        Thread thread = ScriptWatcher.getThread();
+
+        assertNotNull(thread);
+
+        action.setServlet(null);
+
+        assertNull(ScriptWatcher.getThread());
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+
+        action.setServlet(new MockActionServlet(context,
+            new MockServletConfig(context)));
+
+        assertNotSame(script, action.loadScript("/action.mock", context));
+        assertNotNull(ScriptWatcher.getThread());
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private void write(String name, String content) throws IOException {
+        Files.write(dir.resolve(name.substring(1)),
+            content.getBytes(StandardCharsets.UTF_8));
+    }
+}
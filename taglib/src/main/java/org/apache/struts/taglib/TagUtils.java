@@ -28,7 +28,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -46,6 +48,7 @@ import org.apache.struts.action.ActionServlet;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.taglib.html.Constants;
+import org.apache.struts.util.BoundedCache;
 import org.apache.struts.util.MessageResources;
 import org.apache.struts.util.ModuleUtils;
 import org.apache.struts.util.RequestUtils;
@@ -117,6 +120,21 @@ public class TagUtils {
         MessageResources.getMessageResources(
             "org.apache.struts.taglib.LocalStrings");
 
+    /**
+     * The maximum number of URL templates cached per web application.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final int MAX_URL_TEMPLATES = 1000;
+
+    /**
+     * The name of the application scope attribute holding the cache of URL
+     * templates, the context-relative URLs resolved for forwards, pages and
+     * actions of frozen modules.
+     */
+    private static final String URL_TEMPLATES_KEY =
+        "org.apache.struts.taglib.TagUtils.URL_TEMPLATES";
+
     /**
      * Maps lowercase JSP scope names to their PageContext integer constant
      * values.
@@ -404,50 +422,62 @@ public class TagUtils {
         HttpServletRequest request =
             (HttpServletRequest) pageContext.getRequest();
 
-        if (forward != null) {
-            ForwardConfig forwardConfig =
-                moduleConfig.findForwardConfig(forward);
+        if (href != null) {
+            url.append(href);
+        } else {
+            // The query string of an action is appended to its resolved URL
+            String query = null;
+            char kind;
+            String name;
+
+            if (forward != null) {
+                kind = 'F';
+                name = forward;
+            } else if (action != null) {
+                kind = 'A';
+                name = action;
+
+                int question = action.indexOf('?');
+
+                if (question >= 0) {
+                    name = action.substring(0, question);
+                    query = action.substring(question);
+                }
+            } else /* if (page != null) */ {
+                kind = 'P';
+                name = page;
+            }
 
-            if (forwardConfig == null) {
-                throw new MalformedURLException(messages.getMessage(
-                        "computeURL.forward", forward));
+            BoundedCache<URLTemplateKey, String> templates =
+                getURLTemplates(pageContext, moduleConfig);
+            URLTemplateKey key = null;
+            String template = null;
+
+            if (templates != null) {
+                key = new URLTemplateKey(moduleConfig, kind, name,
+                        request.getContextPath());
+                template = templates.get(key);
             }
 
-            // **** removed - see bug 37817 ****
-            //  if (forwardConfig.getRedirect()) {
-            //      redirect = true;
-            //  }
+            if (template == null) {
+                template = computeURLTemplate(pageContext, moduleConfig,
+                        kind, name, module);
 
-            if (forwardConfig.getPath().startsWith("/")) {
-                url.append(request.getContextPath());
-                url.append(RequestUtils.forwardURL(request, forwardConfig,
-                        moduleConfig));
-            } else {
-                url.append(forwardConfig.getPath());
+                if (templates != null) {
+                    templates.put(key, template);
+                }
             }
-        } else if (href != null) {
-            url.append(href);
-        } else if (action != null) {
-            ActionServlet servlet = (ActionServlet) pageContext.getServletContext().getAttribute(Globals.ACTION_SERVLET_KEY);
-            String actionIdPath = RequestUtils.actionIdURL(action, moduleConfig, servlet);
-            if (actionIdPath != null) {
-                action = actionIdPath;
-                url.append(request.getContextPath());
-                url.append(actionIdPath);
-            } else {
-                url.append(instance.getActionMappingURL(action, module,
-                        pageContext, false));
+
+            url.append(template);
+
+            if (query != null) {
+                url.append(query);
             }
-        } else /* if (page != null) */
-         {
-            url.append(request.getContextPath());
-            url.append(this.pageURL(request, page, moduleConfig));
         }
 
         // Add anchor if requested (replacing any existing anchor)
         if (anchor != null) {
-            String temp = url.toString();
-            int hash = temp.indexOf('#');
+            int hash = url.indexOf("#");
 
             if (hash >= 0) {
                 url.setLength(hash);
@@ -460,13 +490,11 @@ public class TagUtils {
         // Add dynamic parameters if requested
         if ((params != null) && (params.size() > 0)) {
             // Save any existing anchor
-            String temp = url.toString();
-            int hash = temp.indexOf('#');
+            int hash = url.indexOf("#");
 
             if (hash >= 0) {
-                anchor = temp.substring(hash + 1);
+                anchor = url.substring(hash + 1);
                 url.setLength(hash);
-                temp = url.toString();
             } else {
                 anchor = null;
             }
@@ -483,7 +511,7 @@ public class TagUtils {
             }
 
             // Add the required request parameters
-            boolean question = temp.indexOf('?') >= 0;
+            boolean question = url.indexOf("?") >= 0;
 
             for (Map.Entry<String, ?> entry : params.entrySet()) {
                 String key = entry.getKey();
@@ -563,6 +591,90 @@ public class TagUtils {
         return (url.toString());
     }
 
+    /**
+     * Return the context-relative URL of a forward, a page or an action
+     * without query string, before anchors and parameters are added. The
+     * result is cached per module while the module is frozen.
+     *
+     * @param pageContext  PageContext for the tag making this call
+     * @param moduleConfig The module of the forward, page or action
+     * @param kind         'F' for a forward, 'P' for a page or 'A' for an
+     *                     action
+     * @param name         The forward name, page or action
+     * @param module       The module prefix specified by the tag, if any
+     * @return the context-relative URL
+     * @throws MalformedURLException if the forward does not exist
+     * @since Struts 1.5.0
+     */
+    protected String computeURLTemplate(PageContext pageContext,
+        ModuleConfig moduleConfig, char kind, String name, String module)
+        throws MalformedURLException {
+        HttpServletRequest request =
+            (HttpServletRequest) pageContext.getRequest();
+
+        if (kind == 'F') {
+            ForwardConfig forwardConfig =
+                moduleConfig.findForwardConfig(name);
+
+            if (forwardConfig == null) {
+                throw new MalformedURLException(messages.getMessage(
+                        "computeURL.forward", name));
+            }
+
+            // **** removed - see bug 37817 ****
+            //  if (forwardConfig.getRedirect()) {
+            //      redirect = true;
+            //  }
+
+            if (forwardConfig.getPath().startsWith("/")) {
+                return request.getContextPath()
+                    + RequestUtils.forwardURL(request, forwardConfig,
+                        moduleConfig);
+            }
+
+            return forwardConfig.getPath();
+        } else if (kind == 'A') {
+            ActionServlet servlet = (ActionServlet) pageContext.getServletContext().getAttribute(Globals.ACTION_SERVLET_KEY);
+            String actionIdPath = RequestUtils.actionIdURL(name, moduleConfig, servlet);
+
+            if (actionIdPath != null) {
+                return request.getContextPath() + actionIdPath;
+            }
+
+            return instance.getActionMappingURL(name, module, pageContext,
+                false);
+        }
+
+        return request.getContextPath()
+            + this.pageURL(request, name, moduleConfig);
+    }
+
+    /**
+     * Return the cache of URL templates of the web application, or
+     * <code>null</code> if the templates of the specified module must not be
+     * cached because the module is not frozen.
+     */
+    private BoundedCache<URLTemplateKey, String> getURLTemplates(
+        PageContext pageContext, ModuleConfig moduleConfig) {
+        if ((moduleConfig == null) || !moduleConfig.getConfigured()) {
+            return null;
+        }
+
+        ServletContext servletContext = pageContext.getServletContext();
+
+        @SuppressWarnings("unchecked")
+        BoundedCache<URLTemplateKey, String> templates =
+            (BoundedCache<URLTemplateKey, String>) servletContext.getAttribute(
+                URL_TEMPLATES_KEY);
+
+        if (templates == null) {
+            templates = new BoundedCache<>(MAX_URL_TEMPLATES);
+            servletContext.setAttribute(URL_TEMPLATES_KEY, templates);
+        }
+
+        return templates;
+    }
+
     /**
      * URLencodes a string assuming the character encoding is UTF-8.
      *
@@ -598,6 +710,20 @@ public class TagUtils {
         return ResponseUtils.filter(value);
     }
 
+    /**
+     * Filter the specified string for characters that are sensitive to HTML
+     * interpreters, appending the filtered string to the specified buffer.
+     * A <code>null</code> value appends nothing.
+     *
+     * @param value The string to be filtered
+     * @param sb    The buffer to append the filtered string to
+     * @return the buffer
+     * @since Struts 1.5.0
+     */
+    public StringBuilder filter(String value, StringBuilder sb) {
+        return ResponseUtils.filter(value, sb);
+    }
+
     /**
      * Return the form action converted into an action mapping path.  The
      * value of the <code>action</code> property is manipulated as follows in
@@ -652,6 +778,47 @@ public class TagUtils {
         HttpServletRequest request =
             (HttpServletRequest) pageContext.getRequest();
 
+        String contextPath = request.getContextPath();
+        ModuleConfig moduleConfig = getModuleConfig(module, pageContext);
+        BoundedCache<URLTemplateKey, String> templates =
+            getURLTemplates(pageContext, moduleConfig);
+
+        if (templates == null) {
+            return computeActionMappingURL(action, moduleConfig, pageContext,
+                contextRelative);
+        }
+
+        // The query string is appended to the resolved URL
+        String query = null;
+        int question = action.indexOf('?');
+
+        if (question >= 0) {
+            query = action.substring(question);
+            action = action.substring(0, question);
+        }
+
+        URLTemplateKey key = new URLTemplateKey(moduleConfig,
+                contextRelative ? 'C' : 'M', action, contextPath);
+        String template = templates.get(key);
+
+        if (template == null) {
+            template = computeActionMappingURL(action, moduleConfig,
+                pageContext, contextRelative);
+            templates.put(key, template);
+        }
+
+        return (query == null) ? template : (template + query);
+    }
+
+    /**
+     * Return the action converted into a server-relative URL.
+     */
+    private String computeActionMappingURL(String action,
+        ModuleConfig moduleConfig, PageContext pageContext,
+        boolean contextRelative) {
+        HttpServletRequest request =
+            (HttpServletRequest) pageContext.getRequest();
+
         String contextPath = request.getContextPath();
         StringBuilder value = new StringBuilder();
 
@@ -662,8 +829,6 @@ public class TagUtils {
             value.append(contextPath);
         }
 
-        ModuleConfig moduleConfig = getModuleConfig(module, pageContext);
-
         if ((moduleConfig != null) && (!contextRelative)) {
             value.append(moduleConfig.getPrefix());
         }
@@ -1191,6 +1356,35 @@ public class TagUtils {
         }
     }
 
+    /**
+     * Write the specified text as the response to the writer associated with
+     * this page, filtering it for characters that are sensitive to HTML
+     * interpreters if requested. The filtered text is streamed to the writer
+     * without being built as a string.
+     *
+     * @param pageContext The PageContext object for this page
+     * @param text        The text to be written
+     * @param filter      Whether the text should be filtered
+     * @throws JspException if an input/output error occurs (already saved)
+     * @since Struts 1.5.0
+     */
+    public void write(PageContext pageContext, String text, boolean filter)
+        throws JspException {
+        if (!filter || (text == null)) {
+            write(pageContext, text);
+            return;
+        }
+
+        JspWriter writer = pageContext.getOut();
+
+        try {
+            ResponseUtils.filter(text, writer);
+        } catch (IOException e) {
+            saveException(pageContext, e);
+            throw new JspException(messages.getMessage("write.io", e.toString()), e);
+        }
+    }
+
     /**
      * Write the specified text as the response to the writer associated with
      * the body content for the tag within which we are currently nested.
@@ -1214,4 +1408,46 @@ public class TagUtils {
             throw new JspException(messages.getMessage("write.io", e.toString()), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The key of a cached URL template.
+     */
+    private static final class URLTemplateKey {
+        private final ModuleConfig moduleConfig;
+        private final char kind;
+        private final String name;
+        private final String contextPath;
+        private final int hash;
+
+        URLTemplateKey(ModuleConfig moduleConfig, char kind, String name,
+            String contextPath) {
+            this.moduleConfig = moduleConfig;
+            this.kind = kind;
+            this.name = name;
+            this.contextPath = contextPath;
+            this.hash = 31 * (31 * (31 * System.identityHashCode(moduleConfig)
+                + kind) + name.hashCode()) + Objects.hashCode(contextPath);
+        }
+
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof URLTemplateKey)) {
+                return false;
+            }
+
+            URLTemplateKey other = (URLTemplateKey) obj;
+
+            return (moduleConfig == other.moduleConfig)
+                && (kind == other.kind)
+                && name.equals(other.name)
+                && Objects.equals(contextPath, other.contextPath);
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
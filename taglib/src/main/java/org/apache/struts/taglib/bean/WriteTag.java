@@ -243,12 +243,7 @@ public class WriteTag extends TagSupport {
         String output = formatValue(value);
 
         // Print this property value to our output writer, suitably filtered
-        if (filter) {
-            TagUtils.getInstance().write(pageContext,
-                TagUtils.getInstance().filter(output));
-        } else {
-            TagUtils.getInstance().write(pageContext, output);
-        }
+        TagUtils.getInstance().write(pageContext, output, filter);
 
         // Continue processing this page
         return (SKIP_BODY);
@@ -910,7 +910,7 @@ public abstract class BaseHandlerTag extends BodyTagSupport {
     protected void prepareIndex(StringBuilder handlers, String name)
         throws JspException {
         if (name != null) {
-            handlers.append(TagUtils.getInstance().filter(name));
+            TagUtils.getInstance().filter(name, handlers);
         }
 
         handlers.append("[");
@@ -1155,7 +1155,7 @@ public abstract class BaseHandlerTag extends BodyTagSupport {
             handlers.append(" ");
             handlers.append(TagUtils.getInstance().filter(name));
             handlers.append("=\"");
-            handlers.append(TagUtils.getInstance().filter(value.toString()));
+            TagUtils.getInstance().filter(value.toString(), handlers);
             handlers.append("\"");
         }
     }
@@ -179,20 +179,20 @@ public class BaseTag extends TagSupport {
                     .getContextPath());
 
             contextBase.append("/");
-            tag.append(TagUtils.getInstance().filter(
-                    RequestUtils.createServerUriStringBuilder(scheme,
-                    serverName, port, contextBase.toString()).toString()));
+            TagUtils.getInstance().filter(
+                RequestUtils.createServerUriStringBuilder(scheme,
+                    serverName, port, contextBase.toString()).toString(), tag);
         } else {
-            tag.append(TagUtils.getInstance().filter(
+            TagUtils.getInstance().filter(
                 RequestUtils.createServerUriStringBuilder(scheme,
-                    serverName, port, uri).toString()));
+                    serverName, port, uri).toString(), tag);
         }
 
         tag.append("\"");
 
         if (this.target != null) {
             tag.append(" target=\"");
-            tag.append(TagUtils.getInstance().filter(this.target));
+            TagUtils.getInstance().filter(this.target, tag);
             tag.append("\"");
         }
 
@@ -610,10 +610,10 @@ public class FormTag extends TagSupport {
             (HttpServletResponse) this.pageContext.getResponse();
 
         results.append(" action=\"");
-        results.append(TagUtils.getInstance().filter(
+        TagUtils.getInstance().filter(
             response.encodeURL(
                 TagUtils.getInstance().getActionMappingURL(calcAction,
-                    this.pageContext))));
+                    this.pageContext)), results);
 
         results.append("\"");
     }
@@ -644,7 +644,7 @@ public class FormTag extends TagSupport {
                 results.append("<div><input type=\"hidden\" name=\"");
                 results.append(Constants.TOKEN_KEY);
                 results.append("\" value=\"");
-                results.append(TagUtils.getInstance().filter(token));
+                TagUtils.getInstance().filter(token, results);
 
                 if (this.isXhtml()) {
                     results.append("\" />");
@@ -668,7 +668,7 @@ public class FormTag extends TagSupport {
             results.append(" ");
             results.append(TagUtils.getInstance().filter(attribute));
             results.append("=\"");
-            results.append(TagUtils.getInstance().filter(value));
+            TagUtils.getInstance().filter(value, results);
             results.append("\"");
         }
     }
@@ -31,6 +31,7 @@ import org.apache.struts.config.ModuleConfig;
 import org.apache.struts.taglib.TagUtils;
 import org.apache.struts.util.MessageResources;
 import org.apache.struts.validator.Resources;
+import org.apache.struts.validator.ValidatorJavascript;
 import org.apache.struts.validator.ValidatorPlugIn;
 
 import jakarta.servlet.ServletContext;
@@ -43,6 +44,7 @@ import jakarta.servlet.jsp.tagext.BodyTagSupport;
 import java.io.IOException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -56,12 +58,44 @@ import java.util.StringTokenizer;
  * the validation rules loaded by the <code>ValidatorPlugIn</code> defined in
  * the struts-config.xml file.
  *
+ * <p>The rendered script is cached per <code>ValidatorResources</code>,
+ * keyed by the form name, locale, message resources, page and the other
+ * attributes of the tag. The static rule library can also be served as a
+ * single resource by
+ * <code>org.apache.struts.extras.actions.ValidatorJavascriptAction</code>:
+ * if the <code>staticJavascriptAction</code> attribute names that action,
+ * the tag renders a script element loading the current version of the
+ * library instead of inlining it. A subclass overriding
+ * {@link #getJavascriptStaticMethods} still inlines its library, since the
+ * action cannot serve it.</p>
+ *
  * @version $Rev$ $Date$
  * @since Struts 1.1
  */
 public class JavascriptValidatorTag extends BodyTagSupport {
     private static final long serialVersionUID = 1844396649370462479L;
 
+    /**
+     * Whether a tag class overrides {@link #getJavascriptStaticMethods}.
+     */
+    private static final ClassValue<Boolean> overridesStaticMethods =
+        new ClassValue<Boolean>() {
+            protected Boolean computeValue(Class<?> type) {
+                for (Class<?> c = type; c != JavascriptValidatorTag.class;
+                    c = c.getSuperclass()) {
+                    try {
+                        c.getDeclaredMethod("getJavascriptStaticMethods",
+                            ValidatorResources.class);
+                        return Boolean.TRUE;
+                    } catch (NoSuchMethodException e) {
+                        // Check the superclass
+                    }
+                }
+
+                return Boolean.FALSE;
+            }
+        };
+
     /**
      * A Comparator to use when sorting ValidatorAction objects.
      */
@@ -163,6 +197,13 @@ public class JavascriptValidatorTag extends BodyTagSupport {
      */
     protected String dynamicJavascript = "true";
 
+    /**
+     * The path of the action serving the static JavaScript, such as a
+     * <code>ValidatorJavascriptAction</code>, or <code>null</code> to
+     * inline it.
+     */
+    protected String staticJavascriptAction = null;
+
     /**
      * The src attribute for html script element (used to include an external
      * script resource). The src attribute is only recognized when the
@@ -181,6 +222,26 @@ public class JavascriptValidatorTag extends BodyTagSupport {
      */
     protected String cdata = "true";
 
+    /**
+     * Gets the path of the action serving the static JavaScript.
+     *
+     * @since Struts 1.5.0
+     */
+    public String getStaticJavascriptAction() {
+        return staticJavascriptAction;
+    }
+
+    /**
+     * Sets the path of the action serving the static JavaScript. If it is
+     * set, a script element loading the static JavaScript from this action
+     * is rendered instead of the static JavaScript itself.
+     *
+     * @since Struts 1.5.0
+     */
+    public void setStaticJavascriptAction(String staticJavascriptAction) {
+        this.staticJavascriptAction = staticJavascriptAction;
+    }
+
     /**
      * Gets the key (form name) that will be used to retrieve a set of
      * validation rules to be performed on the bean passed in for validation.
@@ -376,6 +437,24 @@ public class JavascriptValidatorTag extends BodyTagSupport {
         Locale locale =
             TagUtils.getInstance().getUserLocale(this.pageContext, null);
 
+        ValidatorJavascript javascript =
+            ValidatorJavascript.getInstance(resources);
+        MessageResources messages = "true".equalsIgnoreCase(dynamicJavascript)
+            ? TagUtils.getInstance().retrieveMessageResources(pageContext,
+                bundle, true)
+            : null;
+        Object key =
+            isCacheable() ? getCacheKey(config, locale, messages) : null;
+
+        if (key != null) {
+            String[] cached = (String[]) javascript.getRendered(key);
+
+            if (cached != null) {
+                jsFormName = cached[1];
+                return cached[0];
+            }
+        }
+
         Form form = null;
         if ("true".equalsIgnoreCase(dynamicJavascript)) {
             form = resources.getForm(locale, formName);
@@ -388,11 +467,20 @@ public class JavascriptValidatorTag extends BodyTagSupport {
             }
         }
 
+        boolean staticLinked = "true".equalsIgnoreCase(staticJavascript)
+            && isStaticJavascriptLinked();
+        boolean staticInline = "true".equalsIgnoreCase(staticJavascript)
+            && !staticLinked;
+
+        if (staticLinked) {
+            results.append(renderStaticJavascriptElement(javascript));
+        }
+
         if (form != null) {
             if ("true".equalsIgnoreCase(dynamicJavascript)) {
                 results.append(this.createDynamicJavascript(config, resources,
-                        locale, form));
-            } else if ("true".equalsIgnoreCase(staticJavascript)) {
+                        locale, form, messages));
+            } else if (staticInline) {
                 results.append(this.renderStartElement());
 
                 if ("true".equalsIgnoreCase(htmlComment)) {
@@ -401,17 +489,101 @@ public class JavascriptValidatorTag extends BodyTagSupport {
             }
         }
 
-        if ("true".equalsIgnoreCase(staticJavascript)) {
+        if (staticInline) {
             results.append(getJavascriptStaticMethods(resources));
         }
 
         if ((form != null)
-            && ("true".equalsIgnoreCase(dynamicJavascript)
-            || "true".equalsIgnoreCase(staticJavascript))) {
+            && ("true".equalsIgnoreCase(dynamicJavascript) || staticInline)) {
             results.append(getJavascriptEnd());
         }
 
-        return results.toString();
+        String script = results.toString();
+
+        if (key != null) {
+            javascript.putRendered(key, new String[] { script, jsFormName });
+        }
+
+        return script;
+    }
+
+    /**
+     * Returns whether the rendered script may be cached. The script of this
+     * tag only depends on the validator resources and on the values which
+     * make up the key returned by {@link #getCacheKey}; subclasses which
+     * render anything else should override this method.
+     *
+     * @return <code>true</code> if the rendered script may be cached
+     * @since Struts 1.5.0
+     */
+    protected boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * Returns the key of the rendered script in the cache of the validator
+     * resources. The message resources are compared by identity, so that
+     * resources placed in the page or request scope are not mixed up with
+     * those of the module.
+     *
+     * @param config   The configuration of the current module
+     * @param locale   The locale of the user
+     * @param messages The message resources of the dynamic JavaScript, or
+     *                 <code>null</code> if it is not rendered
+     * @return the key of the rendered script
+     * @since Struts 1.5.0
+     */
+    protected Object getCacheKey(ModuleConfig config, Locale locale,
+        MessageResources messages) {
+        return Arrays.asList(getClass(), config.getPrefix(), locale, bundle,
+            messages, formName, Integer.valueOf(page), methodName,
+            Boolean.valueOf(scriptLanguage), staticJavascript,
+            staticJavascriptAction, dynamicJavascript, src, htmlComment,
+            cdata, Boolean.valueOf(isXhtml()),
+            Boolean.valueOf(stopOnError(config)));
+    }
+
+    /**
+     * Returns whether the static JavaScript is loaded from the action named
+     * by <code>staticJavascriptAction</code> rather than inlined. This is
+     * not the case if the attribute is not set or if this tag overrides
+     * {@link #getJavascriptStaticMethods}.
+     *
+     * @return <code>true</code> if a script element loading the static
+     *         JavaScript is rendered
+     * @since Struts 1.5.0
+     */
+    protected boolean isStaticJavascriptLinked() {
+        return (staticJavascriptAction != null)
+            && (staticJavascriptAction.length() > 0)
+            && !overridesStaticMethods.get(getClass()).booleanValue();
+    }
+
+    /**
+     * Returns the script element loading the static JavaScript from the
+     * action named by <code>staticJavascriptAction</code>. The URL carries
+     * the version of the library, so that it may be cached.
+     *
+     * @param javascript The JavaScript of the validator resources
+     * @return the script element
+     * @since Struts 1.5.0
+     */
+    protected String renderStaticJavascriptElement(
+        ValidatorJavascript javascript) {
+        String url = TagUtils.getInstance().getActionMappingURL(
+            staticJavascriptAction, pageContext);
+        StringBuilder sb =
+            new StringBuilder("<script type=\"text/javascript\"");
+
+        if (!this.isXhtml() && this.scriptLanguage) {
+            sb.append(" language=\"Javascript1.1\"");
+        }
+
+        sb.append(" src=\"").append(TagUtils.getInstance().filter(url))
+            .append((url.indexOf('?') < 0) ? "?" : "&amp;").append("v=")
+            .append(javascript.getVersion()).append("\"></script>\n");
+
+        return sb.toString();
     }
 
     /**
@@ -421,16 +593,14 @@ public class JavascriptValidatorTag extends BodyTagSupport {
      * @param resources
      * @param locale
      * @param form
+     * @param messages
      */
     private String createDynamicJavascript(ModuleConfig config,
-        ValidatorResources resources, Locale locale, Form form)
+        ValidatorResources resources, Locale locale, Form form,
+        MessageResources messages)
         throws JspException {
         StringBuilder results = new StringBuilder();
 
-        MessageResources messages =
-            TagUtils.getInstance().retrieveMessageResources(pageContext,
-                bundle, true);
-
         HttpServletRequest request =
             (HttpServletRequest) pageContext.getRequest();
         ServletContext application = pageContext.getServletContext();
@@ -716,6 +886,7 @@ public class JavascriptValidatorTag extends BodyTagSupport {
         page = 0;
         methodName = null;
         staticJavascript = "true";
+        staticJavascriptAction = null;
         dynamicJavascript = "true";
         htmlComment = "true";
         cdata = "true";
@@ -775,22 +946,7 @@ public class JavascriptValidatorTag extends BodyTagSupport {
     }
 
     protected String getJavascriptStaticMethods(ValidatorResources resources) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("\n\n");
-
-        for (ValidatorAction va : resources.getValidatorActions().values()) {
-
-            if (va != null) {
-                String javascript = va.getJavascript();
-
-                if ((javascript != null) && (javascript.length() > 0)) {
-                    sb.append(javascript + "\n");
-                }
-            }
-        }
-
-        return sb.toString();
+        return ValidatorJavascript.getInstance(resources).getStaticJavascript();
     }
 
     /**
@@ -352,31 +352,31 @@ public class OptionTag extends BodyTagSupport {
 
         if (style != null) {
             results.append(" style=\"");
-            results.append(TagUtils.getInstance().filter(style));
+            TagUtils.getInstance().filter(style, results);
             results.append("\"");
         }
 
         if (styleId != null) {
             results.append(" id=\"");
-            results.append(TagUtils.getInstance().filter(styleId));
+            TagUtils.getInstance().filter(styleId, results);
             results.append("\"");
         }
 
         if (styleClass != null) {
             results.append(" class=\"");
-            results.append(TagUtils.getInstance().filter(styleClass));
+            TagUtils.getInstance().filter(styleClass, results);
             results.append("\"");
         }
 
         if (dir != null) {
             results.append(" dir=\"");
-            results.append(TagUtils.getInstance().filter(dir));
+            TagUtils.getInstance().filter(dir, results);
             results.append("\"");
         }
 
         if (lang != null) {
             results.append(" lang=\"");
-            results.append(TagUtils.getInstance().filter(lang));
+            TagUtils.getInstance().filter(lang, results);
             results.append("\"");
         }
 
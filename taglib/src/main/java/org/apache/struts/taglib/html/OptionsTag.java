@@ -334,13 +334,13 @@ public class OptionsTag extends TagSupport {
 
         if (style != null) {
             sb.append(" style=\"");
-            sb.append(TagUtils.getInstance().filter(style));
+            TagUtils.getInstance().filter(style, sb);
             sb.append("\"");
         }
 
         if (styleClass != null) {
             sb.append(" class=\"");
-            sb.append(TagUtils.getInstance().filter(styleClass));
+            TagUtils.getInstance().filter(styleClass, sb);
             sb.append("\"");
         }
 
@@ -118,12 +118,7 @@ public class NestedWriteNestingTag extends BodyTagSupport {
             pageContext.setAttribute(id, nesting);
         } else {
             /* write output, filtering if required */
-            if (this.filter) {
-                TagUtils.getInstance().write(pageContext,
-                    TagUtils.getInstance().filter(nesting));
-            } else {
-                TagUtils.getInstance().write(pageContext, nesting);
-            }
+            TagUtils.getInstance().write(pageContext, nesting, this.filter);
         }
 
         /* continue with page processing */
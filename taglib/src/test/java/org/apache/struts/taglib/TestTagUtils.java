@@ -1230,6 +1230,34 @@ public class TestTagUtils extends TagTestBase {
             "url value");
     }
 
+    // -------------------------------------------------- computeURL() templates
+    // URL templates of a frozen module
+    @Test
+    public void testComputeURLTemplates() throws MalformedURLException {
+        ActionConfig actionConfig = new ActionConfig();
+
+        actionConfig.setPath("/baz");
+
+        moduleConfig.addActionConfig(actionConfig);
+        moduleConfig.freeze();
+
+        request.setPathElements("/myapp", "/action.do", null, null);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("/myapp/bar.jsp", tagutils.computeURL(pageContext,
+                    "foo", null, null, null, null, null, null, false),
+                "forward url");
+            assertEquals("/myapp/bar#top", tagutils.computeURL(pageContext,
+                    null, null, "/bar", null, null, null, "top", false),
+                "page url");
+            assertEquals("/myapp/baz?id=" + i, tagutils.computeURL(pageContext,
+                    null, null, null, "baz?id=" + i, null, null, null, false),
+                "action url");
+            assertEquals("/myapp/baz?id=" + i, tagutils.getActionMappingURL(
+                    "baz?id=" + i, pageContext), "action mapping url");
+        }
+    }
+
     // -------------------------------------------------------------- pageURL()
     // Default module (default pagePattern)
     @Test
@@ -0,0 +1,273 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.taglib.html;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Locale;
+
+import jakarta.servlet.jsp.PageContext;
+
+import org.apache.commons.validator.Field;
+import org.apache.commons.validator.Form;
+import org.apache.commons.validator.FormSet;
+import org.apache.commons.validator.ValidatorAction;
+import org.apache.commons.validator.ValidatorResources;
+import org.apache.struts.Globals;
+import org.apache.struts.taglib.TagTestBase;
+import org.apache.struts.util.MessageResources;
+import org.apache.struts.validator.ValidatorJavascript;
+import org.apache.struts.validator.ValidatorPlugIn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JavascriptValidatorTag}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestJavascriptValidatorTag extends TagTestBase {
+
+    /**
+     * The static JavaScript of the rule.
+     */
+    private static final String LIBRARY =
+        "function validateRequired(form) { return true; }";
+
+    // ----------------------------------------------------- Instance Variables
+
+    private ValidatorResources resources;
+
+    private JavascriptValidatorTag tag;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUp() {
+        super.setUp();
+
+        resources = createResources();
+        servletContext.setAttribute(ValidatorPlugIn.VALIDATOR_KEY, resources);
+        servletContext.setAttribute(Globals.SERVLET_KEY, "*.do");
+        request.setPathElements("/myapp", "/edit.do", null, null);
+        request.setLocale(Locale.ENGLISH);
+        pageContext.setAttribute(Globals.MESSAGES_KEY, new FixedResources(
+            "Name is required"), PageContext.REQUEST_SCOPE);
+
+        tag = new JavascriptValidatorTag();
+        tag.setPageContext(pageContext);
+        tag.setFormName("testForm");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ValidatorJavascript.clearCache();
+        super.tearDown();
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The static JavaScript is inlined by default.
+     */
+    @Test
+    public void testInlineStaticJavascript() throws Exception {
+        String script = tag.renderJavascript();
+
+        assertTrue(script.contains("function validateTestForm(form)"),
+            script);
+        assertTrue(script.contains("Name is required"), script);
+        assertTrue(script.contains(LIBRARY), script);
+        assertFalse(script.contains("src="), script);
+    }
+
+    /**
+     * A script element loads the static JavaScript from the action.
+     */
+    @Test
+    public void testLinkedStaticJavascript() throws Exception {
+        tag.setStaticJavascriptAction("/validatorRules");
+
+        String script = tag.renderJavascript();
+        String version =
+            ValidatorJavascript.getInstance(resources).getVersion();
+
+        assertTrue(script.startsWith("<script type=\"text/javascript\" "
+            + "language=\"Javascript1.1\" "
+            + "src=\"/myapp/validatorRules.do?v=" + version
+            + "\"></script>\n"), script);
+        assertTrue(script.contains("function validateTestForm(form)"),
+            script);
+        assertFalse(script.contains(LIBRARY), script);
+    }
+
+    /**
+     * Only the script element is rendered without the dynamic JavaScript.
+     */
+    @Test
+    public void testLinkedStaticJavascriptOnly() throws Exception {
+        tag.setStaticJavascriptAction("/validatorRules");
+        tag.setDynamicJavascript("false");
+
+        String script = tag.renderJavascript();
+
+        assertTrue(script.startsWith("<script "), script);
+        assertTrue(script.endsWith("></script>\n"), script);
+        assertFalse(script.contains(LIBRARY), script);
+    }
+
+    /**
+     * Nothing is loaded if the static JavaScript is disabled.
+     */
+    @Test
+    public void testLinkedStaticJavascriptDisabled() throws Exception {
+        tag.setStaticJavascriptAction("/validatorRules");
+        tag.setStaticJavascript("false");
+
+        String script = tag.renderJavascript();
+
+        assertFalse(script.contains("validatorRules"), script);
+        assertFalse(script.contains(LIBRARY), script);
+    }
+
+    /**
+     * A tag overriding the static JavaScript still inlines it.
+     */
+    @Test
+    public void testOverriddenStaticJavascript() throws Exception {
+        tag = new JavascriptValidatorTag() {
+            private static final long serialVersionUID = 1L;
+
+            protected String getJavascriptStaticMethods(
+                ValidatorResources resources) {
+                return "function custom() {}";
+            }
+        };
+        tag.setPageContext(pageContext);
+        tag.setFormName("testForm");
+        tag.setStaticJavascriptAction("/validatorRules");
+
+        String script = tag.renderJavascript();
+
+        assertTrue(script.contains("function custom() {}"), script);
+        assertFalse(script.contains("validatorRules"), script);
+    }
+
+    /**
+     * The cached script is reused for the same message resources.
+     */
+    @Test
+    public void testCached() throws Exception {
+        String script = tag.renderJavascript();
+
+        tag.release();
+        tag.setPageContext(pageContext);
+        tag.setFormName("testForm");
+
+        assertEquals(script, tag.renderJavascript());
+        assertEquals("testForm", tag.jsFormName);
+    }
+
+    /**
+     * The cached script is not reused for other message resources in the
+     * request scope.
+     */
+    @Test
+    public void testRequestScopeMessageResources() throws Exception {
+        assertTrue(tag.renderJavascript().contains("Name is required"));
+
+        pageContext.setAttribute(Globals.MESSAGES_KEY, new FixedResources(
+            "Name fehlt"), PageContext.REQUEST_SCOPE);
+
+        String script = tag.renderJavascript();
+
+        assertTrue(script.contains("Name fehlt"), script);
+        assertFalse(script.contains("Name is required"), script);
+    }
+
+    /**
+     * The cached script is not reused for another static JavaScript action.
+     */
+    @Test
+    public void testCacheKeyAction() throws Exception {
+        String inline = tag.renderJavascript();
+
+        tag.setStaticJavascriptAction("/validatorRules");
+
+        String linked = tag.renderJavascript();
+
+        assertTrue(inline.contains(LIBRARY));
+        assertFalse(linked.contains(LIBRARY));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private ValidatorResources createResources() {
+        ValidatorResources resources = new ValidatorResources();
+        ValidatorAction action = new ValidatorAction();
+
+        action.setName("required");
+        action.setClassname("org.apache.struts.validator.FieldChecks");
+        action.setMethod("validateRequired");
+        action.setMsg("errors.required");
+        action.setJavascript(LIBRARY);
+        resources.addValidatorAction(action);
+
+        Field field = new Field();
+
+        field.setProperty("name");
+        field.setDepends("required");
+
+        Form form = new Form();
+
+        form.setName("testForm");
+        form.addField(field);
+
+        FormSet formSet = new FormSet();
+
+        formSet.addForm(form);
+        resources.addFormSet(formSet);
+        resources.process();
+
+        return resources;
+    }
+
+    /**
+     * Message resources returning the same message for every key.
+     */
+    private static class FixedResources extends MessageResources {
+        private static final long serialVersionUID = 1L;
+
+        private final String message;
+
+        FixedResources(String message) {
+            super(null, null, true);
+            this.message = message;
+        }
+
+        public String getMessage(Locale locale, String key) {
+            return message;
+        }
+    }
+}
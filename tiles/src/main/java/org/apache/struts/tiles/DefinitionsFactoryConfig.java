@@ -62,6 +62,14 @@ public class DefinitionsFactoryConfig implements Serializable {
      */
     protected boolean moduleAware = true;
 
+    /**
+     * Specifies whether the factory uses the Locale of the request instead
+     * of the one stored in session.
+     * Default value is false.
+     * @since Struts 1.5.0
+     */
+    protected boolean requestLocale = false;
+
     /**
      * The name associated to this factory.
      * <br>
@@ -98,6 +106,13 @@ public class DefinitionsFactoryConfig implements Serializable {
     public static final String DEFINITIONS_CONFIG_PARAMETER_NAME =
         "definitions-config";
 
+    /**
+     * Alternate name for request locale properties in configuration file.
+     * @since Struts 1.5.0
+     */
+    public static final String REQUEST_LOCALE_PARAMETER_NAME =
+        "definitions-request-locale";
+
     /**
      * Alternate name for definition debug details properties in configuration file.
      * @deprecated This will be removed in a release after Struts 1.2.
@@ -177,6 +192,25 @@ public class DefinitionsFactoryConfig implements Serializable {
         parserValidate = aParserValidate;
     }
 
+    /**
+     * Determines if the factory uses the Locale of the request.
+     * @return <code>true<code> if the Locale of the request is used.
+     * @since Struts 1.5.0
+     */
+    public boolean getRequestLocale() {
+        return requestLocale;
+    }
+
+    /**
+     * Set whether the factory uses the Locale of the request instead of the
+     * one stored in session.
+     * @param aRequestLocale <code>true</code> to use the Locale of the request
+     * @since Struts 1.5.0
+     */
+    public void setRequestLocale(boolean aRequestLocale) {
+        requestLocale = aRequestLocale;
+    }
+
     /**
      * Get the definition config files.
      * @return Defition config files.
@@ -287,6 +321,9 @@ public class DefinitionsFactoryConfig implements Serializable {
             } else if (PARSER_VALIDATE_PARAMETER_NAME.equals(entry.getKey())) {
                 toAdd.put("parserValidate", entry.getValue());
 
+            } else if (REQUEST_LOCALE_PARAMETER_NAME.equals(entry.getKey())) {
+                toAdd.put("requestLocale", entry.getValue());
+
             } else if (TILES_DETAILS_PARAMETER_NAME.equals(entry.getKey())) {
                 toAdd.put("debugLevel", entry.getValue());
             }
@@ -218,6 +218,10 @@ public class ComponentDefinitionsFactoryWrapper implements DefinitionsFactory {
             DefinitionsFactoryConfig.PARSER_VALIDATE_PARAMETER_NAME,
             (config.getParserValidate() ? Boolean.TRUE.toString() : Boolean.FALSE.toString()));
 
+        map.put(
+            DefinitionsFactoryConfig.REQUEST_LOCALE_PARAMETER_NAME,
+            (config.getRequestLocale() ? Boolean.TRUE.toString() : Boolean.FALSE.toString()));
+
         if (!"org.apache.struts.tiles.xmlDefinition.I18nFactorySet"
             .equals(config.getFactoryClassname())) {
 
@@ -43,8 +43,12 @@ public abstract class FactorySet implements org.apache.struts.tiles.ComponentDef
 {
     private static final long serialVersionUID = -3005016733922480701L;
 
-    /** Loaded factories */
-  protected HashMap<Object, Object> factories = null;
+    /**
+     * Loaded factories.
+     * The map is never modified once assigned: a copy holding the new factory
+     * replaces it, so that it can be read without synchronization.
+     */
+  protected volatile HashMap<Object, Object> factories = null;
 
   /**
    * Extract key that will be used to get the sub factory.
@@ -66,6 +70,8 @@ public abstract class FactorySet implements org.apache.struts.tiles.ComponentDef
    * If key is <code>null</code>, return defaultFactory.
    * Search in loaded factories. If not found, create factory and store return value in
    * loaded factories.
+   * Factories for different keys are created concurrently; if two threads create
+   * a factory for the same key, the first one stored is returned to both.
    * @param key Key of requested definition.
    * @param request Current servlet request.
    * @param servletContext Current servlet context.
@@ -80,22 +86,32 @@ public abstract class FactorySet implements org.apache.struts.tiles.ComponentDef
   Object factory = factories.get( key );
   if( factory == null )
     {
-      // synchronize creation to avoid double creation by separate threads.
-      // Also, check if factory hasn't been created while waiting for synchronized
-      // section.
-    synchronized(factories)
-      {
-      factory = factories.get( key );
-      if( factory == null )
-        {
-        factory = createFactory( key, request, servletContext);
-        factories.put( key, factory );
-        } // end if
-      } // end synchronized
+    factory = createFactory( key, request, servletContext);
+    if( factory != null )
+      factory = addFactory( key, factory );
     } // end if
   return (DefinitionsFactory)factory;
   }
 
+  /**
+   * Store a created factory, unless another thread stored one for the same
+   * key in the meantime.
+   * @param key Key of the factory.
+   * @param factory Created factory.
+   * @return The factory stored for the key.
+   */
+  private synchronized Object addFactory(Object key, Object factory)
+  {
+  Object previous = factories.get( key );
+  if( previous != null )
+    return previous;
+
+  HashMap<Object, Object> copy = new HashMap<>( factories );
+  copy.put( key, factory );
+  factories = copy;
+  return factory;
+  }
+
   /**
    * Get a definition by its name.
    *
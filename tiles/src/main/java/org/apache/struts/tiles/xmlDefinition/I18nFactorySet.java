@@ -29,11 +29,11 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletRequest;
@@ -58,6 +58,14 @@ import org.xml.sax.SAXException;
  *
  * A definition factory file is loaded using main filename extended with locale code
  * (ex : <code>templateDefinitions_fr.xml</code>). If no file is found under this name, use default file.
+ *
+ * Each file is parsed once. The factory of a Locale is built from copies of
+ * the parsed definitions, so that no definition is shared with another factory.
+ * Factories of different Locales are created concurrently.
+ *
+ * If the property <code>definitions-request-locale</code> is <code>true</code>,
+ * the Locale of the request is used instead of the one found in session context,
+ * so that no session is accessed to retrieve a definition.
  */
 public class I18nFactorySet extends FactorySet {
     private static final long serialVersionUID = 3883838354881166525L;
@@ -86,6 +94,13 @@ public class I18nFactorySet extends FactorySet {
     public static final String PARSER_VALIDATE_PARAMETER_NAME =
         "definitions-parser-validate";
 
+    /**
+     * Config file parameter name.
+     * @since Struts 1.5.0
+     */
+    public static final String REQUEST_LOCALE_PARAMETER_NAME =
+        "definitions-request-locale";
+
     /**
      * Possible definition filenames.
      */
@@ -100,6 +115,11 @@ public class I18nFactorySet extends FactorySet {
      */
     public static final String FILENAME_EXTENSION = ".xml";
 
+    /**
+     * Marker for a postfix without definition files.
+     */
+    private static final XmlDefinitionsSet NO_FILES = new XmlDefinitionsSet();
+
     /**
      * Default factory.
      */
@@ -124,6 +144,14 @@ public class I18nFactorySet extends FactorySet {
      */
     protected int parserDetailLevel = 0;
 
+    /**
+     * Do we use the Locale of the request instead of the one stored in
+     * session. Default is <code>false</code>.
+     * Can be set from servlet config file.
+     * @since Struts 1.5.0
+     */
+    protected boolean isRequestLocale = false;
+
     /**
      * Names of files containing instances descriptions.
      */
@@ -132,7 +160,13 @@ public class I18nFactorySet extends FactorySet {
     /**
      * Collection of already loaded definitions set, referenced by their suffix.
      */
-    private HashMap<String, DefinitionsFactory> loaded = null;
+    private ConcurrentHashMap<String, DefinitionsFactory> loaded = null;
+
+    /**
+     * Parsed definitions, with unresolved inheritance, referenced by their
+     * suffix. These sets are never modified, only copied.
+     */
+    private transient ConcurrentHashMap<String, XmlDefinitionsSet> parsed = null;
 
     /**
      * Parameterless Constructor.
@@ -174,6 +208,11 @@ public class I18nFactorySet extends FactorySet {
             isValidatingParser = Boolean.valueOf(value).booleanValue();
         }
 
+        value = (String) properties.get(REQUEST_LOCALE_PARAMETER_NAME);
+        if (value != null) {
+            isRequestLocale = Boolean.valueOf(value).booleanValue();
+        }
+
         value = (String) properties.get(PARSER_DETAILS_PARAMETER_NAME);
         if (value != null) {
             try {
@@ -253,7 +292,8 @@ public class I18nFactorySet extends FactorySet {
             }
         }
 
-        loaded = new HashMap<>();
+        loaded = new ConcurrentHashMap<>();
+        parsed = new ConcurrentHashMap<>();
         defaultFactory = createDefaultFactory(servletContext);
         log.debug("default factory: {}", defaultFactory);
     }
@@ -278,11 +318,12 @@ public class I18nFactorySet extends FactorySet {
     protected DefinitionsFactory createDefaultFactory(ServletContext servletContext)
         throws DefinitionsFactoryException, FileNotFoundException {
 
-        XmlDefinitionsSet rootXmlConfig = parseXmlFiles(servletContext, "", null);
+        XmlDefinitionsSet rootXmlConfig = getParsedDefinitions(servletContext, "");
         if (rootXmlConfig == null) {
             throw new FileNotFoundException();
         }
 
+        rootXmlConfig = new XmlDefinitionsSet(rootXmlConfig);
         rootXmlConfig.resolveInheritances();
 
         log.debug(rootXmlConfig.toString());
@@ -305,6 +346,10 @@ public class I18nFactorySet extends FactorySet {
         ServletRequest request,
         ServletContext servletContext) {
 
+        if (isRequestLocale) {
+            return request.getLocale();
+        }
+
         Locale locale = null;
         try {
             HttpSession session = ((HttpServletRequest) request).getSession(false);
@@ -360,7 +405,7 @@ public class I18nFactorySet extends FactorySet {
             }
 
             // Try to load it. If success, stop search
-            lastXmlFile = parseXmlFiles(servletContext, curPostfix, null);
+            lastXmlFile = getParsedDefinitions(servletContext, curPostfix);
             if (lastXmlFile != null) {
                 break;
             }
@@ -372,19 +417,30 @@ public class I18nFactorySet extends FactorySet {
             return getDefaultFactory();
         }
 
-        // We found something. Need to load base and intermediate files
+        // We found something. Need to copy base and intermediate files.
+        // Intermediate definitions replace base ones, last ones overload them.
         String lastPostfix = curPostfix;
-        XmlDefinitionsSet rootXmlConfig = parseXmlFiles(servletContext, "", null);
+        XmlDefinitionsSet rootXmlConfig =
+            new XmlDefinitionsSet(getParsedDefinitions(servletContext, ""));
         for (int j = 0; j < i; j++) {
             curPostfix = possiblePostfixes.get(j);
-            parseXmlFiles(servletContext, curPostfix, rootXmlConfig);
+            XmlDefinitionsSet xmlFile =
+                getParsedDefinitions(servletContext, curPostfix);
+            if (xmlFile != null) {
+                for (XmlDefinition definition : xmlFile.getDefinitions().values()) {
+                    rootXmlConfig.putDefinition(new XmlDefinition(definition));
+                }
+            }
         }
 
-        rootXmlConfig.extend(lastXmlFile);
+        rootXmlConfig.extend(new XmlDefinitionsSet(lastXmlFile));
         rootXmlConfig.resolveInheritances();
 
         factory = new DefinitionsFactory(rootXmlConfig);
-        loaded.put(lastPostfix, factory);
+        DefinitionsFactory previous = loaded.putIfAbsent(lastPostfix, factory);
+        if (previous != null) {
+            return previous;
+        }
 
         log.debug("factory loaded : {}", factory);
 
@@ -392,6 +448,40 @@ public class I18nFactorySet extends FactorySet {
         return factory;
     }
 
+    /**
+     * Get the definitions parsed from the files associated to a postfix.
+     * Files are parsed on first request only.
+     * The returned set must not be modified.
+     * @param servletContext Current servlet context. Used to open file.
+     * @param postfix Postfix to add to each description file.
+     * @return The definitions, or <code>null</code> if there is no file.
+     * @throws DefinitionsFactoryException On errors parsing file.
+     */
+    private XmlDefinitionsSet getParsedDefinitions(
+        ServletContext servletContext,
+        String postfix)
+        throws DefinitionsFactoryException {
+
+        if (parsed == null) { // deserialized
+            parsed = new ConcurrentHashMap<>();
+        }
+
+        XmlDefinitionsSet xmlDefinitions = parsed.get(postfix);
+        if (xmlDefinitions == null) {
+            xmlDefinitions = parseXmlFiles(servletContext, postfix, null);
+            if (xmlDefinitions == null) {
+                xmlDefinitions = NO_FILES;
+            }
+
+            XmlDefinitionsSet previous = parsed.putIfAbsent(postfix, xmlDefinitions);
+            if (previous != null) {
+                xmlDefinitions = previous;
+            }
+        }
+
+        return (xmlDefinitions == NO_FILES) ? null : xmlDefinitions;
+    }
+
     /**
      * Calculate the suffixes based on the locale.
      * @param locale the locale
@@ -21,6 +21,10 @@
 
 package org.apache.struts.tiles.xmlDefinition;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.struts.tiles.ComponentDefinition;
 import org.apache.struts.tiles.NoSuchDefinitionException;
 import org.slf4j.Logger;
@@ -60,6 +64,25 @@ public class XmlDefinition extends ComponentDefinition
      //System.out.println( "create definition" );
    }
 
+     /**
+      * Copy constructor.
+      * Create an unresolved copy of the specified definition, which can be
+      * overloaded and resolved without modifying the original. Lists of
+      * attributes are copied, other attribute values are shared.
+      * @param definition Definition to copy.
+      * @since Struts 1.5.0
+      */
+   public XmlDefinition( XmlDefinition definition )
+   {
+   super( (ComponentDefinition)definition );
+   inherit = definition.getExtends();
+   for( Map.Entry<String, Object> entry : getAttributes().entrySet() )
+     {
+     if( entry.getValue() instanceof List )
+       entry.setValue( new ArrayList<Object>( (List<?>)entry.getValue() ) );
+     }
+   }
+
   /**
    * Add an attribute to this component.
    *
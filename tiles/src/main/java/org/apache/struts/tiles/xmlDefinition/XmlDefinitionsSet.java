@@ -40,6 +40,22 @@ public class XmlDefinitionsSet
   public XmlDefinitionsSet()
    {
    definitions = new HashMap<>();
+   }
+
+     /**
+      * Copy constructor.
+      * Create a set holding a copy of each definition of the specified set,
+      * so that the copy can be extended and resolved without modifying it.
+      * @param set Definitions set to copy.
+      * @since Struts 1.5.0
+      */
+  public XmlDefinitionsSet(XmlDefinitionsSet set)
+   {
+   definitions = new HashMap<>(set.definitions.size() * 4 / 3 + 1);
+   for( XmlDefinition definition : set.definitions.values() )
+     {
+     putDefinition( new XmlDefinition( definition ) );
+     }
    }
 
   /**
@@ -0,0 +1,236 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.struts.tiles.xmlDefinition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.ServletContext;
+
+import org.apache.struts.mock.TestMockBase;
+import org.apache.struts.tiles.ComponentDefinition;
+import org.apache.struts.tiles.DefinitionsFactoryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link I18nFactorySet}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestI18nFactorySet extends TestMockBase {
+
+    /**
+     * The definitions file, the suffix files are
+     * <code>I18nFactorySet-C_fr.xml</code> and
+     * <code>I18nFactorySet-C_fr_CA.xml</code>.
+     */
+    private static final String DEFINITIONS =
+        "/org/apache/struts/tiles/config/I18nFactorySet-C.xml";
+
+    // ----------------------------------------------------- Instance Variables
+
+    private CountingFactorySet factorySet;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    @BeforeEach
+    public void setUpFactorySet() throws DefinitionsFactoryException {
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put(I18nFactorySet.DEFINITIONS_CONFIG_PARAMETER_NAME,
+            DEFINITIONS);
+        properties.put(I18nFactorySet.REQUEST_LOCALE_PARAMETER_NAME, "true");
+
+        factorySet = new CountingFactorySet();
+        factorySet.initFactory(context, properties);
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * The default definitions are used without suffix file.
+     */
+    @Test
+    public void testDefault() throws Exception {
+        ComponentDefinition page = getDefinition(Locale.GERMAN, "C-page");
+
+        assertEquals("/layout/classicLayout.jsp", page.getPath());
+        assertEquals("Default title", page.getAttribute("title"));
+        assertEquals("/common/footer.jsp", page.getAttribute("footer"));
+        assertEquals("/page/body.jsp", page.getAttribute("body"));
+        assertSame(factorySet.getDefaultFactory(),
+            factorySet.getFactory(Locale.GERMAN, request, context));
+    }
+
+    /**
+     * A suffix file overloads a definition of the default file.
+     */
+    @Test
+    public void testSuffixOverride() throws Exception {
+        ComponentDefinition layout = getDefinition(Locale.FRENCH, "C-layout");
+
+        assertEquals("/layout/frenchLayout.jsp", layout.getPath());
+        assertEquals("Titre", layout.getAttribute("title"));
+        assertEquals("/common/footer.jsp", layout.getAttribute("footer"));
+        assertEquals("Default title",
+            getDefinition(Locale.ROOT, "C-layout").getAttribute("title"));
+    }
+
+    /**
+     * A definition of the default file inherits from a definition overloaded
+     * by a suffix file, and a definition of a suffix file inherits from a
+     * definition of the default file.
+     */
+    @Test
+    public void testInheritanceAcrossFiles() throws Exception {
+        ComponentDefinition page = getDefinition(Locale.FRENCH, "C-page");
+
+        assertEquals("/layout/frenchLayout.jsp", page.getPath());
+        assertEquals("Titre", page.getAttribute("title"));
+        assertEquals("/page/body.jsp", page.getAttribute("body"));
+
+        ComponentDefinition fr = getDefinition(Locale.FRENCH, "C-fr");
+
+        assertEquals("/layout/frenchLayout.jsp", fr.getPath());
+        assertEquals("Titre", fr.getAttribute("title"));
+        assertEquals("/common/footer.jsp", fr.getAttribute("footer"));
+        assertEquals("/fr/body.jsp", fr.getAttribute("body"));
+    }
+
+    /**
+     * The definitions of an intermediate suffix file replace the default
+     * ones, the definitions of the last file overload them.
+     */
+    @Test
+    public void testIntermediateSuffix() throws Exception {
+        Locale locale = Locale.CANADA_FRENCH;
+        ComponentDefinition layout = getDefinition(locale, "C-layout");
+
+        assertEquals("/layout/frenchLayout.jsp", layout.getPath());
+        assertNull(layout.getAttribute("footer"));
+
+        ComponentDefinition page = getDefinition(locale, "C-page");
+
+        assertEquals("/layout/frenchLayout.jsp", page.getPath());
+        assertEquals("Titre", page.getAttribute("title"));
+        assertEquals("/ca/body.jsp", page.getAttribute("body"));
+
+        ComponentDefinition fr = getDefinition(locale, "C-fr");
+
+        assertEquals("/fr/body.jsp", fr.getAttribute("body"));
+        assertEquals("/layout/frenchLayout.jsp", fr.getPath());
+    }
+
+    /**
+     * Changing a definition of a factory doesn't change the others.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDefinitionsNotShared() throws Exception {
+        ComponentDefinition other = getDefinition(Locale.ROOT, "C-other");
+        ComponentDefinition french = getDefinition(Locale.FRENCH, "C-other");
+        ComponentDefinition canadian =
+            getDefinition(Locale.CANADA_FRENCH, "C-other");
+
+        assertNotSame(other, french);
+        assertNotSame(french, canadian);
+
+        french.putAttribute("title", "Changed");
+        french.setPath("/changed.jsp");
+        ((List<Object>) french.getAttribute("items")).add("changed");
+
+        assertEquals("Default title", other.getAttribute("title"));
+        assertEquals("/layout/classicLayout.jsp", other.getPath());
+        assertEquals(1, ((List<?>) other.getAttribute("items")).size());
+        assertEquals("Titre", canadian.getAttribute("title"));
+
+        // Definitions not changed by a suffix file are not shared either
+        ComponentDefinition single = getDefinition(Locale.ROOT, "C-single");
+        ComponentDefinition frenchSingle =
+            getDefinition(Locale.FRENCH, "C-single");
+
+        assertNotSame(single, frenchSingle);
+        frenchSingle.putAttribute("title", "Changed");
+        assertEquals("Single", single.getAttribute("title"));
+    }
+
+    /**
+     * Each file is parsed once, and each factory is created once.
+     */
+    @Test
+    public void testParsedOnce() throws Exception {
+        DefinitionsFactory french =
+            factorySet.getFactory(Locale.FRENCH, request, context);
+
+        factorySet.getFactory(Locale.CANADA_FRENCH, request, context);
+
+        assertSame(french,
+            factorySet.getFactory(Locale.FRENCH, request, context));
+        assertSame(french,
+            factorySet.getFactory(new Locale("fr", "BE"), request, context));
+        assertSame(french, factorySet.factories.get(Locale.FRENCH));
+        for (Map.Entry<String, AtomicInteger> entry
+            : factorySet.parsed.entrySet()) {
+            assertEquals(1, entry.getValue().get(), entry.getKey());
+        }
+        assertEquals(1, factorySet.parsed.get("_fr_CA").get());
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    private ComponentDefinition getDefinition(Locale locale, String name)
+        throws Exception {
+        request.setLocale(locale);
+
+        return factorySet.getDefinition(name, request, context);
+    }
+
+    /**
+     * Counts how many times the files of each suffix are parsed.
+     */
+    private static class CountingFactorySet extends I18nFactorySet {
+        private static final long serialVersionUID = 1L;
+
+        final Map<String, AtomicInteger> parsed = new ConcurrentHashMap<>();
+
+        protected XmlDefinitionsSet parseXmlFiles(
+            ServletContext servletContext,
+            String postfix,
+            XmlDefinitionsSet xmlDefinitions)
+            throws DefinitionsFactoryException {
+            parsed.computeIfAbsent(postfix, k -> new AtomicInteger())
+                .incrementAndGet();
+
+            return super.parseXmlFiles(servletContext, postfix,
+                xmlDefinitions);
+        }
+    }
+}
@@ -22,14 +22,22 @@
 package org.apache.struts.tiles2;
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Locale;
+import java.util.Map;
 
 import org.apache.struts.action.ActionServlet;
 import org.apache.struts.action.RequestProcessor;
 import org.apache.struts.config.ForwardConfig;
 import org.apache.struts.config.ModuleConfig;
+import org.apache.struts.util.BoundedCache;
+import org.apache.tiles.Definition;
 import org.apache.tiles.TilesContainer;
+import org.apache.tiles.TilesContainerWrapper;
 import org.apache.tiles.TilesException;
 import org.apache.tiles.access.TilesAccess;
+import org.apache.tiles.definition.DefinitionsFactoryException;
+import org.apache.tiles.locale.LocaleResolver;
 import org.apache.tiles.request.ApplicationContext;
 import org.apache.tiles.request.Request;
 import org.apache.tiles.request.jakarta.servlet.ServletRequest;
@@ -58,6 +66,15 @@ import jakarta.servlet.http.HttpServletResponse;
  * <li>{@link #internalModuleRelativeInclude(String, HttpServletRequest , HttpServletResponse)}</li>
  * </ul>
  * </p>
+ * <p>
+ * The paths which are not definition names are remembered per Tiles
+ * container and per locale resolved by the container, so that forwarding to
+ * them costs a single lookup. The cache is dropped when the container is
+ * replaced and is only used with a {@link TilesPluginContainer}, whose
+ * locale resolver is known, which does not check its definitions files for
+ * changes ({@value #CHECK_REFRESH_PARAMETER}). A definition name is resolved
+ * once per request and rendered.
+ * </p>
  * @since Struts 1.1
  */
 public class TilesRequestProcessor extends RequestProcessor {
@@ -69,11 +86,33 @@ public class TilesRequestProcessor extends RequestProcessor {
     private transient final Logger log =
         LoggerFactory.getLogger(TilesRequestProcessor.class);
 
+    /**
+     * The init parameter enabling the Tiles check for changed definitions
+     * files.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final String CHECK_REFRESH_PARAMETER =
+        "org.apache.tiles.definition.dao.LocaleUrlDefinitionDAO.CHECK_REFRESH";
+
+    /**
+     * The maximum number of paths remembered as not being definition names.
+     *
+     * @since Struts 1.5.0
+     */
+    public static final int MAX_NON_DEFINITIONS = 1000;
+
     /**
      * The used servlet context.
      */
     protected ServletContext servletContext;
 
+    /**
+     * The paths which are not definition names of the current container,
+     * <code>null</code> until the first lookup.
+     */
+    private transient volatile NonDefinitions nonDefinitions;
+
     /**
      * Initialize this request processor instance.
      *
@@ -85,6 +124,15 @@ public class TilesRequestProcessor extends RequestProcessor {
         throws ServletException {
 
         super.init(servlet, moduleConfig);
+        nonDefinitions = null;
+    }
+
+    /**
+     * Clean up in preparation for a shutdown of this application.
+     */
+    public void destroy() {
+        nonDefinitions = null;
+        super.destroy();
     }
 
     /**
@@ -112,30 +160,155 @@ public class TilesRequestProcessor extends RequestProcessor {
 
         ApplicationContext applicationContext = ServletUtil
                 .getApplicationContext(getServletContext());
-        Request request = new ServletRequest(applicationContext,
-                req, res);
         TilesContainer container = TilesAccess.getContainer(applicationContext);
         if (container == null) {
             log.debug("Tiles container not found, so pass to next command.");
             return false;
         }
 
-        boolean retValue = false;
+        Request request = new ServletRequest(applicationContext,
+                req, res);
+        NonDefinitions cache = getNonDefinitions(container);
+        Locale locale = cache.resolveLocale(request);
 
-        if (container.isValidDefinition(definitionName, request)) {
-            retValue = true;
-            try {
-                container.render(definitionName, request);
-            } catch (TilesException e) {
-                throw new ServletException("Cannot render definition '"
-                        + definitionName + "'");
-            }
-        } else {
+        // Known not to be a definition of the current container
+        if (cache.contains(locale, definitionName)) {
+            log.debug("Cannot find definition '{}'", definitionName);
+            return false;
+        }
+
+        Definition definition;
+
+        try {
+            definition = container.getDefinition(definitionName, request);
+        } catch (DefinitionsFactoryException e) {
+            log.debug("Error when looking up definition '{}'", definitionName,
+                e);
+            definition = null;
+        }
+
+        if (definition == null) {
             // ignore not found
             log.debug("Cannot find definition '{}'", definitionName);
+            cache.add(locale, definitionName);
+            return false;
+        }
+
+        try {
+            container.render(definition, request);
+        } catch (TilesException e) {
+            throw new ServletException("Cannot render definition '"
+                    + definitionName + "'", e);
         }
 
-        return retValue;
+        return true;
+    }
+
+    /**
+     * Return the paths which are not definition names of the specified
+     * container, replacing those of a previous container.
+     *
+     * @param container The Tiles container.
+     * @return The paths which are not definition names.
+     */
+    private NonDefinitions getNonDefinitions(TilesContainer container) {
+        NonDefinitions cache = nonDefinitions;
+
+        if ((cache == null) || (cache.container != container)) {
+            cache = new NonDefinitions(container);
+            nonDefinitions = cache;
+        }
+
+        return cache;
+    }
+
+    /**
+     * The paths which are not definition names of a Tiles container, per
+     * locale.
+     */
+    private static final class NonDefinitions {
+
+        /**
+         * The container.
+         */
+        private final TilesContainer container;
+
+        /**
+         * The locale resolver of the container, <code>null</code> if paths
+         * may not be remembered.
+         */
+        private final LocaleResolver resolver;
+
+        /**
+         * The paths which are not definition names, keyed by locale and
+         * path.
+         */
+        private final BoundedCache<Map.Entry<Locale, String>, Boolean> names =
+            new BoundedCache<>(MAX_NON_DEFINITIONS);
+
+        NonDefinitions(TilesContainer container) {
+            ApplicationContext context = container.getApplicationContext();
+            LocaleResolver resolver = null;
+
+            if ((context != null) && !Boolean.parseBoolean(
+                context.getInitParams().get(CHECK_REFRESH_PARAMETER))) {
+
+                TilesContainer wrapped = container;
+                while (wrapped instanceof TilesContainerWrapper) {
+                    wrapped = ((TilesContainerWrapper) wrapped)
+                        .getWrappedContainer();
+                }
+
+                if (wrapped instanceof TilesPluginContainer) {
+                    resolver = ((TilesPluginContainer) wrapped)
+                        .getLocaleResolverIntern();
+                }
+            }
+
+            this.container = container;
+            this.resolver = resolver;
+        }
+
+        /**
+         * Resolve the locale under which the paths of a request are
+         * remembered.
+         *
+         * @param request The Tiles request.
+         * @return The locale, or <code>null</code> if paths are not
+         * remembered.
+         */
+        Locale resolveLocale(Request request) {
+            return (resolver == null) ? null : resolver.resolveLocale(request);
+        }
+
+        /**
+         * Return whether a path is known not to be a definition name.
+         *
+         * @param locale The locale resolved for the request.
+         * @param path The path.
+         * @return <code>true</code> if the path is not a definition name.
+         */
+        boolean contains(Locale locale, String path) {
+            if ((locale == null) || (path == null)) {
+                return false;
+            }
+
+            return names.get(new SimpleImmutableEntry<>(locale, path)) != null;
+        }
+
+        /**
+         * Remember that a path is not a definition name.
+         *
+         * @param locale The locale resolved for the request.
+         * @param path The path which is not a definition name.
+         */
+        void add(Locale locale, String path) {
+            if ((locale == null) || (path == null)) {
+                return;
+            }
+
+            names.put(new SimpleImmutableEntry<>(locale, path), Boolean.TRUE);
+        }
     }
 
     /**
@@ -0,0 +1,241 @@
+/*
+ * $Id$
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.struts.tiles2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.struts.mock.MockActionServlet;
+import org.apache.struts.mock.TestMockBase;
+import org.apache.tiles.Definition;
+import org.apache.tiles.access.TilesAccess;
+import org.apache.tiles.request.ApplicationAccess;
+import org.apache.tiles.request.ApplicationContext;
+import org.apache.tiles.request.Request;
+import org.apache.tiles.request.jakarta.servlet.ServletApplicationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.ServletException;
+
+/**
+ * Unit tests for {@link TilesRequestProcessor}.
+ *
+ * @version $Rev$ $Date$
+ */
+public class TestTilesRequestProcessor extends TestMockBase {
+
+    // ----------------------------------------------------- Instance Variables
+
+    /**
+     * The Tiles application context.
+     */
+    private ApplicationContext applicationContext;
+
+    /**
+     * The request processor to test.
+     */
+    private TilesRequestProcessor processor;
+
+    // ----------------------------------------------------- Setup and Teardown
+
+    /**
+     * Set up the processor and its Tiles application context.
+     *
+     * @throws ServletException If the processor cannot be initialized.
+     */
+    @BeforeEach
+    public void setUpProcessor() throws ServletException {
+        MockActionServlet servlet = new MockActionServlet(context, config);
+
+        applicationContext = new ServletApplicationContext(context);
+        ApplicationAccess.register(applicationContext);
+
+        processor = new TilesRequestProcessor();
+        processor.init(servlet, moduleConfig);
+    }
+
+    // ------------------------------------------------------- Individual Tests
+
+    /**
+     * A definition name is rendered.
+     */
+    @Test
+    public void testDefinition() throws Exception {
+        CountingContainer container = createContainer();
+        container.put(Locale.ENGLISH, "main");
+
+        assertTrue(processor.processTilesDefinition("main", request, response));
+        assertEquals(1, container.lookups);
+        assertEquals(1, container.rendered.size());
+    }
+
+    /**
+     * Without a container, nothing is processed.
+     */
+    @Test
+    public void testNoContainer() throws Exception {
+        assertFalse(processor.processTilesDefinition("main", request,
+            response));
+    }
+
+    /**
+     * A path which is not a definition name is looked up once.
+     */
+    @Test
+    public void testNonDefinitionRemembered() throws Exception {
+        CountingContainer container = createContainer();
+
+        assertFalse(processor.processTilesDefinition("/page.jsp", request,
+            response));
+        assertFalse(processor.processTilesDefinition("/page.jsp", request,
+            response));
+        assertEquals(1, container.lookups);
+        assertTrue(container.rendered.isEmpty());
+    }
+
+    /**
+     * A name which is not a definition in one locale is still looked up for
+     * other locales.
+     */
+    @Test
+    public void testNonDefinitionPerLocale() throws Exception {
+        CountingContainer container = createContainer();
+        container.put(Locale.FRENCH, "main");
+
+        assertFalse(processor.processTilesDefinition("main", request,
+            response));
+
+        container.locale = Locale.FRENCH;
+        assertTrue(processor.processTilesDefinition("main", request, response));
+
+        container.locale = Locale.ENGLISH;
+        assertFalse(processor.processTilesDefinition("main", request,
+            response));
+        assertEquals(2, container.lookups);
+        assertEquals(1, container.rendered.size());
+    }
+
+    /**
+     * Nothing is remembered if the container checks its definitions for
+     * changes.
+     */
+    @Test
+    public void testCheckRefresh() throws Exception {
+        context.addInitParameter(TilesRequestProcessor.CHECK_REFRESH_PARAMETER,
+            "true");
+        CountingContainer container = createContainer();
+
+        assertFalse(processor.processTilesDefinition("/page.jsp", request,
+            response));
+        assertFalse(processor.processTilesDefinition("/page.jsp", request,
+            response));
+        assertEquals(2, container.lookups);
+    }
+
+    /**
+     * The remembered paths are dropped with the container.
+     */
+    @Test
+    public void testContainerReplaced() throws Exception {
+        createContainer();
+        assertFalse(processor.processTilesDefinition("main", request,
+            response));
+
+        CountingContainer container = createContainer();
+        container.put(Locale.ENGLISH, "main");
+
+        assertTrue(processor.processTilesDefinition("main", request, response));
+    }
+
+    // ------------------------------------------------------- Helper Methods
+
+    /**
+     * Create and register a container.
+     *
+     * @return The container.
+     */
+    private CountingContainer createContainer() {
+        CountingContainer container = new CountingContainer();
+
+        container.setApplicationContext(applicationContext);
+        container.setLocaleResolver(request -> container.locale);
+        TilesAccess.setContainer(applicationContext, container);
+        return container;
+    }
+
+    /**
+     * Container with definitions per locale, counting the lookups.
+     */
+    private static class CountingContainer extends TilesPluginContainer {
+
+        /**
+         * The locale of the requests.
+         */
+        Locale locale = Locale.ENGLISH;
+
+        /**
+         * The definitions, per locale.
+         */
+        final Map<Locale, Map<String, Definition>> definitions =
+            new HashMap<>();
+
+        /**
+         * The rendered definitions.
+         */
+        final List<Definition> rendered = new ArrayList<>();
+
+        /**
+         * The number of lookups.
+         */
+        int lookups;
+
+        void put(Locale locale, String name) {
+            Definition definition = new Definition();
+            definition.setName(name);
+            definitions.computeIfAbsent(locale, key -> new HashMap<>())
+                .put(name, definition);
+        }
+
+        @Override
+        public Definition getDefinition(String definitionName,
+                Request request) {
+            lookups++;
+            Map<String, Definition> names =
+                definitions.get(getLocaleResolverIntern().resolveLocale(
+                    request));
+            return (names == null) ? null : names.get(definitionName);
+        }
+
+        @Override
+        public void render(Definition definition, Request request) {
+            rendered.add(definition);
+        }
+    }
+}